@@ -0,0 +1,66 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+/**
+ * Pauses all the WebViews of the plugin while the activity showing them is paused, and resumes
+ * them with it.
+ *
+ * <p>The activity callbacks are registered on the application and filtered to the observed
+ * activity, so that this works with the v1 and v2 embeddings alike.
+ */
+final class ActivityLifecycleObserver implements Application.ActivityLifecycleCallbacks {
+  private final Activity activity;
+  private final WebViewMemoryManager memoryManager;
+
+  ActivityLifecycleObserver(Activity activity, WebViewMemoryManager memoryManager) {
+    this.activity = activity;
+    this.memoryManager = memoryManager;
+    activity.getApplication().registerActivityLifecycleCallbacks(this);
+  }
+
+  /**
+   * Stops observing the activity, e.g when it's destroyed for a configuration change.
+   *
+   * <p>The WebViews stay paused if the activity is paused, until another activity is observed and
+   * resumed.
+   */
+  void dispose() {
+    activity.getApplication().unregisterActivityLifecycleCallbacks(this);
+  }
+
+  @Override
+  public void onActivityResumed(Activity activity) {
+    if (activity == this.activity) {
+      memoryManager.setAppPaused(false);
+    }
+  }
+
+  @Override
+  public void onActivityPaused(Activity activity) {
+    if (activity == this.activity) {
+      memoryManager.setAppPaused(true);
+    }
+  }
+
+  @Override
+  public void onActivityCreated(Activity activity, Bundle savedInstanceState) {}
+
+  @Override
+  public void onActivityStarted(Activity activity) {}
+
+  @Override
+  public void onActivityStopped(Activity activity) {}
+
+  @Override
+  public void onActivitySaveInstanceState(Activity activity, Bundle outState) {}
+
+  @Override
+  public void onActivityDestroyed(Activity activity) {}
+}
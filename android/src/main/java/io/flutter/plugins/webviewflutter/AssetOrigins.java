@@ -0,0 +1,362 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.net.Uri;
+import android.os.Build;
+import android.webkit.MimeTypeMap;
+import android.webkit.WebResourceResponse;
+import io.flutter.view.FlutterMain;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Serves the requests to virtual origins, e.g {@code https://appassets.local}, from a directory of
+ * the Flutter assets or from a zip archive, shared by all the WebViews of the plugin.
+ *
+ * <p>Resources are served without reading them into the heap: uncompressed assets and stored
+ * archive entries are memory-mapped, and only compressed ones are streamed through an inflater. The
+ * memory-mapped resources also support single range requests so that media can be seeked.
+ *
+ * <p>Requests to a registered origin never reach the network, paths that don't match a resource
+ * are answered with a 404 response. A path ending with a slash is served its index.html.
+ *
+ * <p>{@link #intercept} is called on the WebView's network threads, the other methods are called
+ * on the platform thread.
+ */
+final class AssetOrigins {
+  private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+  static {
+    MIME_TYPES.put("html", "text/html");
+    MIME_TYPES.put("htm", "text/html");
+    MIME_TYPES.put("js", "text/javascript");
+    MIME_TYPES.put("mjs", "text/javascript");
+    MIME_TYPES.put("css", "text/css");
+    MIME_TYPES.put("json", "application/json");
+    MIME_TYPES.put("map", "application/json");
+    MIME_TYPES.put("txt", "text/plain");
+    MIME_TYPES.put("xml", "text/xml");
+    MIME_TYPES.put("svg", "image/svg+xml");
+    MIME_TYPES.put("png", "image/png");
+    MIME_TYPES.put("jpg", "image/jpeg");
+    MIME_TYPES.put("jpeg", "image/jpeg");
+    MIME_TYPES.put("gif", "image/gif");
+    MIME_TYPES.put("webp", "image/webp");
+    MIME_TYPES.put("ico", "image/x-icon");
+    MIME_TYPES.put("wasm", "application/wasm");
+    MIME_TYPES.put("woff", "font/woff");
+    MIME_TYPES.put("woff2", "font/woff2");
+    MIME_TYPES.put("ttf", "font/ttf");
+    MIME_TYPES.put("otf", "font/otf");
+    MIME_TYPES.put("mp4", "video/mp4");
+    MIME_TYPES.put("webm", "video/webm");
+    MIME_TYPES.put("mp3", "audio/mpeg");
+    MIME_TYPES.put("ogg", "audio/ogg");
+    MIME_TYPES.put("wav", "audio/wav");
+  }
+
+  private final AssetManager assetManager;
+  // Replaced on every change so that the network threads can look up origins without locking.
+  private volatile Map<String, Source> origins = Collections.emptyMap();
+
+  AssetOrigins(Context applicationContext) {
+    assetManager = applicationContext.getAssets();
+  }
+
+  /** Serves the requests to {@code origin} from the Flutter assets under {@code assetDirectory}. */
+  void registerAssetDirectory(String origin, String assetDirectory) {
+    put(origin, new AssetDirectorySource(assetManager, assetDirectory));
+  }
+
+  /** Serves the requests to {@code origin} from the zip archive at {@code archivePath}. */
+  void registerArchive(String origin, String archivePath) throws IOException {
+    put(origin, new ArchiveSource(MappedZipArchive.open(new File(archivePath))));
+  }
+
+  void unregister(String origin) {
+    Map<String, Source> newOrigins = new HashMap<>(origins);
+    newOrigins.remove(normalizeOrigin(Uri.parse(origin)));
+    origins = newOrigins;
+  }
+
+  /** Returns the response for a request, or null if the request isn't to a registered origin. */
+  WebResourceResponse intercept(String url, String method, Map<String, String> headers) {
+    Map<String, Source> origins = this.origins;
+    if (origins.isEmpty() || !"GET".equalsIgnoreCase(method)) {
+      return null;
+    }
+    Uri uri = Uri.parse(url);
+    Source source = origins.get(normalizeOrigin(uri));
+    if (source == null) {
+      return null;
+    }
+    String path = uri.getPath();
+    if (path == null || path.isEmpty() || path.endsWith("/")) {
+      path = (path == null ? "" : path) + "index.html";
+    }
+    path = path.startsWith("/") ? path.substring(1) : path;
+    Body body = null;
+    if (!("/" + path + "/").contains("/../")) {
+      try {
+        body = source.open(path);
+      } catch (IOException e) {
+        body = null;
+      }
+    }
+    if (body == null) {
+      return notFound();
+    }
+    return respond(mimeType(path), body, headers);
+  }
+
+  private void put(String origin, Source source) {
+    String normalizedOrigin = normalizeOrigin(Uri.parse(origin));
+    if (normalizedOrigin == null) {
+      throw new IllegalArgumentException("Not an origin: " + origin);
+    }
+    Map<String, Source> newOrigins = new HashMap<>(origins);
+    newOrigins.put(normalizedOrigin, source);
+    origins = newOrigins;
+  }
+
+  private static WebResourceResponse respond(
+      String mimeType, Body body, Map<String, String> requestHeaders) {
+    String encoding = isText(mimeType) ? "UTF-8" : null;
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+      return new WebResourceResponse(mimeType, encoding, body.stream());
+    }
+    return respondWithHeaders(mimeType, encoding, body, header(requestHeaders, "Range"));
+  }
+
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  private static WebResourceResponse respondWithHeaders(
+      String mimeType, String encoding, Body body, String range) {
+    Map<String, String> headers = new HashMap<>();
+    headers.put("Accept-Ranges", body.data == null ? "none" : "bytes");
+    if (range == null || body.data == null) {
+      if (body.length >= 0) {
+        headers.put("Content-Length", String.valueOf(body.length));
+      }
+      return new WebResourceResponse(mimeType, encoding, 200, "OK", headers, body.stream());
+    }
+
+    long length = body.length;
+    long[] bounds = parseRange(range, length);
+    if (bounds == null) {
+      headers.put("Content-Range", "bytes */" + length);
+      return new WebResourceResponse(
+          mimeType,
+          encoding,
+          416,
+          "Range Not Satisfiable",
+          headers,
+          new ByteArrayInputStream(new byte[0]));
+    }
+    ByteBuffer slice = body.data.duplicate();
+    slice.position((int) bounds[0]);
+    slice.limit((int) bounds[1] + 1);
+    headers.put("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + length);
+    headers.put("Content-Length", String.valueOf(bounds[1] - bounds[0] + 1));
+    return new WebResourceResponse(
+        mimeType,
+        encoding,
+        206,
+        "Partial Content",
+        headers,
+        new MappedZipArchive.ByteBufferInputStream(slice.slice()));
+  }
+
+  private static WebResourceResponse notFound() {
+    InputStream empty = new ByteArrayInputStream(new byte[0]);
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+      return new WebResourceResponse("text/plain", "UTF-8", empty);
+    }
+    return notFoundWithStatus(empty);
+  }
+
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  private static WebResourceResponse notFoundWithStatus(InputStream empty) {
+    return new WebResourceResponse(
+        "text/plain", "UTF-8", 404, "Not Found", new HashMap<String, String>(), empty);
+  }
+
+  // Returns the first and last byte of a single `bytes=first-last`, `bytes=first-` or
+  // `bytes=-suffixLength` range, or null if the range can't be satisfied.
+  private static long[] parseRange(String range, long length) {
+    if (!range.startsWith("bytes=") || range.indexOf(',') >= 0 || length <= 0) {
+      return null;
+    }
+    String spec = range.substring("bytes=".length()).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0) {
+      return null;
+    }
+    try {
+      String first = spec.substring(0, dash).trim();
+      String last = spec.substring(dash + 1).trim();
+      long start;
+      long end;
+      if (first.isEmpty()) {
+        long suffixLength = Long.parseLong(last);
+        if (suffixLength <= 0) {
+          return null;
+        }
+        start = Math.max(0, length - suffixLength);
+        end = length - 1;
+      } else {
+        start = Long.parseLong(first);
+        end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+      }
+      return start <= end && start < length ? new long[] {start, end} : null;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String header(Map<String, String> headers, String name) {
+    if (headers == null) {
+      return null;
+    }
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      if (name.equalsIgnoreCase(header.getKey())) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static String mimeType(String path) {
+    int dot = path.lastIndexOf('.');
+    String extension = dot < 0 ? "" : path.substring(dot + 1).toLowerCase(Locale.US);
+    String mimeType = MIME_TYPES.get(extension);
+    if (mimeType == null) {
+      mimeType = MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension);
+    }
+    return mimeType == null ? "application/octet-stream" : mimeType;
+  }
+
+  private static boolean isText(String mimeType) {
+    return mimeType.startsWith("text/")
+        || mimeType.equals("application/json")
+        || mimeType.equals("image/svg+xml");
+  }
+
+  private static String normalizeOrigin(Uri uri) {
+    String scheme = uri.getScheme();
+    String host = uri.getHost();
+    if (scheme == null || host == null) {
+      return null;
+    }
+    return scheme.toLowerCase(Locale.US)
+        + "://"
+        + host.toLowerCase(Locale.US)
+        + ":"
+        + uri.getPort();
+  }
+
+  // The contents of a resource, either memory-mapped or streamed.
+  private static final class Body {
+    // Null if the resource can only be streamed.
+    final ByteBuffer data;
+    final InputStream stream;
+    // -1 if unknown.
+    final long length;
+
+    Body(ByteBuffer data) {
+      this.data = data;
+      this.stream = null;
+      this.length = data.remaining();
+    }
+
+    Body(InputStream stream, long length) {
+      this.data = null;
+      this.stream = stream;
+      this.length = length;
+    }
+
+    InputStream stream() {
+      return data == null ? stream : new MappedZipArchive.ByteBufferInputStream(data.duplicate());
+    }
+  }
+
+  private interface Source {
+    // Returns null if there is no resource at path.
+    Body open(String path) throws IOException;
+  }
+
+  private static final class AssetDirectorySource implements Source {
+    private final AssetManager assetManager;
+    private final String assetDirectory;
+
+    AssetDirectorySource(AssetManager assetManager, String assetDirectory) {
+      this.assetManager = assetManager;
+      this.assetDirectory = assetDirectory.endsWith("/") ? assetDirectory : assetDirectory + "/";
+    }
+
+    @Override
+    public Body open(String path) throws IOException {
+      String key = FlutterMain.getLookupKeyForAsset(assetDirectory + path);
+      AssetFileDescriptor fileDescriptor;
+      try {
+        fileDescriptor = assetManager.openFd(key);
+      } catch (FileNotFoundException e) {
+        // The asset is missing or compressed in the APK, compressed assets can only be streamed.
+        try {
+          return new Body(assetManager.open(key), -1);
+        } catch (FileNotFoundException missing) {
+          return null;
+        }
+      }
+      // Closing the stream closes the file descriptor, the mapping stays valid.
+      FileInputStream in = fileDescriptor.createInputStream();
+      try {
+        return new Body(
+            in.getChannel()
+                .map(
+                    FileChannel.MapMode.READ_ONLY,
+                    fileDescriptor.getStartOffset(),
+                    fileDescriptor.getLength()));
+      } finally {
+        in.close();
+      }
+    }
+  }
+
+  private static final class ArchiveSource implements Source {
+    private final MappedZipArchive archive;
+
+    ArchiveSource(MappedZipArchive archive) {
+      this.archive = archive;
+    }
+
+    @Override
+    public Body open(String path) throws IOException {
+      MappedZipArchive.Entry entry = archive.getEntry(path);
+      if (entry == null) {
+        return null;
+      }
+      ByteBuffer data = archive.getStoredData(entry);
+      if (data != null) {
+        return new Body(data);
+      }
+      return new Body(archive.getInputStream(entry), entry.size);
+    }
+  }
+}
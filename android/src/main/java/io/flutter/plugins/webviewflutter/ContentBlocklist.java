@@ -0,0 +1,253 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.webkit.WebResourceResponse;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The hosts whose requests are blocked in all the WebViews of the plugin.
+ *
+ * <p>A blocked host also blocks its subdomains. The hosts are kept in a single char array sorted by
+ * the 64 bit hash of each host, a lookup hashes each domain suffix of the requested host without
+ * allocating, binary searches the hashes, and compares the chars of the hosts with a matching hash
+ * so that hash collisions never block a request.
+ *
+ * <p>{@link #isBlocked} is called on the WebViews' network threads, {@link #set} replaces the
+ * whole list at once on the platform thread.
+ */
+final class ContentBlocklist {
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private volatile Index index = Index.EMPTY;
+
+  /**
+   * Replaces the blocked hosts.
+   *
+   * <p>Each entry is a host name, and may also be written as a hosts file line ({@code 0.0.0.0
+   * example.com}), an ad block host rule ({@code ||example.com^}) or a wildcard ({@code
+   * *.example.com}). Empty entries and entries starting with {@code #} or {@code !} are ignored.
+   *
+   * @return the number of distinct blocked hosts
+   */
+  int set(List<String> entries) {
+    List<String> hosts = new ArrayList<>();
+    if (entries != null) {
+      for (String entry : entries) {
+        String host = parseEntry(entry);
+        if (host != null) {
+          hosts.add(host);
+        }
+      }
+    }
+    Index index = Index.build(hosts);
+    this.index = index;
+    return index.size();
+  }
+
+  /** Returns whether the host of {@code url} or one of its parent domains is blocked. */
+  boolean isBlocked(String url) {
+    Index index = this.index;
+    if (index.size() == 0) {
+      return false;
+    }
+    int schemeEnd = url.indexOf("://");
+    if (schemeEnd < 0) {
+      return false;
+    }
+    int hostStart = schemeEnd + 3;
+    int hostEnd = hostStart;
+    while (hostEnd < url.length()) {
+      char c = url.charAt(hostEnd);
+      if (c == '/' || c == '?' || c == '#') {
+        break;
+      }
+      if (c == '@') {
+        // Skip the user info.
+        hostStart = hostEnd + 1;
+      }
+      hostEnd++;
+    }
+    int portStart = url.lastIndexOf(':', hostEnd - 1);
+    if (portStart >= hostStart && url.charAt(hostStart) != '[') {
+      hostEnd = portStart;
+    }
+    if (hostEnd > hostStart && url.charAt(hostEnd - 1) == '.') {
+      hostEnd--;
+    }
+    for (int start = hostStart; start < hostEnd; start++) {
+      if ((start == hostStart || url.charAt(start - 1) == '.')
+          && index.contains(url, start, hostEnd)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the response served instead of a blocked resource. */
+  static WebResourceResponse blockedResponse() {
+    return new WebResourceResponse("text/plain", "utf-8", new ByteArrayInputStream(new byte[0]));
+  }
+
+  // Returns the lower case host of an entry, or null if it should be ignored.
+  private static String parseEntry(String entry) {
+    if (entry == null) {
+      return null;
+    }
+    String host = entry.trim();
+    if (host.isEmpty() || host.startsWith("#") || host.startsWith("!")) {
+      return null;
+    }
+    int lastSpace = Math.max(host.lastIndexOf(' '), host.lastIndexOf('\t'));
+    if (lastSpace >= 0) {
+      host = host.substring(lastSpace + 1);
+    }
+    if (host.startsWith("||")) {
+      host = host.substring(2);
+    }
+    if (host.endsWith("^")) {
+      host = host.substring(0, host.length() - 1);
+    }
+    if (host.startsWith("*.")) {
+      host = host.substring(2);
+    }
+    if (host.endsWith(".")) {
+      host = host.substring(0, host.length() - 1);
+    }
+    return host.isEmpty() ? null : host.toLowerCase(Locale.US);
+  }
+
+  // FNV-1a of the lower case chars of s in [start, end).
+  private static long hash(String s, int start, int end) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = start; i < end; i++) {
+      hash ^= toLowerCase(s.charAt(i));
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  private static char toLowerCase(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  private static final class Index {
+    static final Index EMPTY = new Index(new long[0], new int[] {0}, new char[0]);
+
+    // The hash of each host, sorted.
+    private final long[] hashes;
+    // The host with hashes[i] is chars[offsets[i], offsets[i + 1]).
+    private final int[] offsets;
+    private final char[] chars;
+
+    private Index(long[] hashes, int[] offsets, char[] chars) {
+      this.hashes = hashes;
+      this.offsets = offsets;
+      this.chars = chars;
+    }
+
+    static Index build(List<String> hosts) {
+      int count = hosts.size();
+      long[] sortKeys = new long[count];
+      final long[] hostHashes = new long[count];
+      Integer[] order = new Integer[count];
+      for (int i = 0; i < count; i++) {
+        String host = hosts.get(i);
+        hostHashes[i] = hash(host, 0, host.length());
+        order[i] = i;
+      }
+      Arrays.sort(
+          order,
+          new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+              long aHash = hostHashes[a];
+              long bHash = hostHashes[b];
+              return aHash < bHash ? -1 : (aHash == bHash ? 0 : 1);
+            }
+          });
+
+      List<String> sortedHosts = new ArrayList<>(count);
+      int length = 0;
+      int distinct = 0;
+      for (int i = 0; i < count; i++) {
+        int hostIndex = order[i];
+        String host = hosts.get(hostIndex);
+        if (isDuplicate(sortedHosts, sortKeys, distinct, hostHashes[hostIndex], host)) {
+          continue;
+        }
+        sortKeys[distinct++] = hostHashes[hostIndex];
+        sortedHosts.add(host);
+        length += host.length();
+      }
+
+      long[] hashes = Arrays.copyOf(sortKeys, distinct);
+      int[] offsets = new int[distinct + 1];
+      char[] chars = new char[length];
+      int offset = 0;
+      for (int i = 0; i < distinct; i++) {
+        String host = sortedHosts.get(i);
+        offsets[i] = offset;
+        host.getChars(0, host.length(), chars, offset);
+        offset += host.length();
+      }
+      offsets[distinct] = offset;
+      return new Index(hashes, offsets, chars);
+    }
+
+    // Whether host was already added, the hosts with the same hash are the last ones added.
+    private static boolean isDuplicate(
+        List<String> sortedHosts, long[] sortKeys, int count, long hash, String host) {
+      for (int i = count - 1; i >= 0 && sortKeys[i] == hash; i--) {
+        if (sortedHosts.get(i).equals(host)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    int size() {
+      return hashes.length;
+    }
+
+    // Whether the lower case chars of s in [start, end) are one of the hosts.
+    boolean contains(String s, int start, int end) {
+      long hash = hash(s, start, end);
+      int i = Arrays.binarySearch(hashes, hash);
+      if (i < 0) {
+        return false;
+      }
+      while (i > 0 && hashes[i - 1] == hash) {
+        i--;
+      }
+      for (; i < hashes.length && hashes[i] == hash; i++) {
+        if (regionMatches(i, s, start, end)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean regionMatches(int i, String s, int start, int end) {
+      int offset = offsets[i];
+      int length = offsets[i + 1] - offset;
+      if (length != end - start) {
+        return false;
+      }
+      for (int j = 0; j < length; j++) {
+        if (chars[offset + j] != toLowerCase(s.charAt(start + j))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -8,6 +8,9 @@ import android.os.Build;
 import android.util.Log;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Works around an Android WebView bug by filtering some DisplayListener invocations.
@@ -34,20 +37,93 @@ import java.util.ArrayList;
  * reflection to fetch all registered listeners before and after initializing a webview. In the
  * first initialization of a webview within the process the difference between the lists is the
  * webview's display listener.
+ *
+ * <p>As the WebView only registers its listener once per process, the reflected fields are resolved
+ * once and cached, and once the webview's listener was wrapped {@link #onPreWebViewInitialization}
+ * and {@link #onPostWebViewInitialization} are no-ops. All methods must be called on the platform
+ * thread.
  */
 @TargetApi(Build.VERSION_CODES.KITKAT)
 class DisplayListenerProxy {
   private static final String TAG = "DisplayListenerProxy";
 
+  // The reflected fields haven't been resolved yet.
+  private static final int STATE_UNRESOLVED = 0;
+  // The reflected fields are resolved and the WebView's listener wasn't registered yet.
+  private static final int STATE_RESOLVED = 1;
+  // Either the webview's listener was wrapped or it can't be fetched. There is nothing left to do
+  // for the rest of the process' lifetime.
+  private static final int STATE_DONE = 2;
+
+  private static int state = STATE_UNRESOLVED;
+  private static Field displayManagerGlobalField;
+  private static Field displayListenersField;
+  private static Field listenerField;
+
+  private static int proxiedInitializations;
+  private static int skippedInitializations;
+  private static long proxyNanos;
+
   private ArrayList<DisplayListener> listenersBeforeWebView;
+  private boolean skipped;
+  private long preInitializationNanos;
 
   /** Should be called prior to the webview's initialization. */
   void onPreWebViewInitialization(DisplayManager displayManager) {
-    listenersBeforeWebView = yoinkDisplayListeners(displayManager);
+    if (state == STATE_DONE) {
+      skipped = true;
+      skippedInitializations++;
+      return;
+    }
+    boolean traced = WebViewTrace.beginSection("DisplayListenerProxy.onPreWebViewInitialization");
+    try {
+      long start = System.nanoTime();
+      listenersBeforeWebView = yoinkDisplayListeners(displayManager);
+      preInitializationNanos = System.nanoTime() - start;
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
   }
 
   /** Should be called after the webview's initialization. */
   void onPostWebViewInitialization(final DisplayManager displayManager) {
+    if (skipped) {
+      return;
+    }
+    boolean traced = WebViewTrace.beginSection("DisplayListenerProxy.onPostWebViewInitialization");
+    try {
+      long start = System.nanoTime();
+      // The state is already done here if the listeners couldn't be fetched before the webview's
+      // initialization.
+      if (state != STATE_DONE && wrapWebViewListeners(displayManager)) {
+        // Later webviews won't register new listeners.
+        state = STATE_DONE;
+      }
+      proxiedInitializations++;
+      proxyNanos += preInitializationNanos + System.nanoTime() - start;
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
+  }
+
+  /**
+   * Returns how many webview initializations were proxied and skipped, the time spent proxying,
+   * and an estimate of the time saved by skipping.
+   */
+  static Map<String, Object> getMetrics() {
+    long averageProxyNanos = proxiedInitializations == 0 ? 0 : proxyNanos / proxiedInitializations;
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("displayListenerProxyCount", proxiedInitializations);
+    metrics.put("displayListenerProxySkipped", skippedInitializations);
+    metrics.put("displayListenerProxyMicros", TimeUnit.NANOSECONDS.toMicros(proxyNanos));
+    metrics.put(
+        "displayListenerProxySavedMicros",
+        TimeUnit.NANOSECONDS.toMicros(averageProxyNanos * skippedInitializations));
+    return metrics;
+  }
+
+  /** Returns whether the webview's listeners were found and wrapped. */
+  private boolean wrapWebViewListeners(final DisplayManager displayManager) {
     final ArrayList<DisplayListener> webViewListeners = yoinkDisplayListeners(displayManager);
     // We recorded the list of listeners prior to initializing webview, any new listeners we see
     // after initializing the webview are listeners added by the webview.
@@ -64,7 +140,7 @@ class DisplayListenerProxy {
       // This means that webview resizes in add2app Flutter apps with a non Flutter WebView
       // running on a system with a webview prior to 58.0.3029.125 may crash (the Android's
       // behavior seems to be racy so it doesn't always happen).
-      return;
+      return false;
     }
 
     for (DisplayListener webViewListener : webViewListeners) {
@@ -103,6 +179,7 @@ class DisplayListenerProxy {
           },
           null);
     }
+    return true;
   }
 
   @SuppressWarnings({"unchecked", "PrivateApi"})
@@ -111,19 +188,24 @@ class DisplayListenerProxy {
       // We cannot use reflection on Android P, but it shouldn't matter as it shipped
       // with WebView 66.0.3359.158 and the WebView version the bug this code is working around was
       // fixed in 61.0.3116.0.
+      state = STATE_DONE;
       return new ArrayList<>();
     }
     try {
-      Field displayManagerGlobalField = DisplayManager.class.getDeclaredField("mGlobal");
-      displayManagerGlobalField.setAccessible(true);
+      if (state == STATE_UNRESOLVED) {
+        displayManagerGlobalField = DisplayManager.class.getDeclaredField("mGlobal");
+        displayManagerGlobalField.setAccessible(true);
+      }
       Object displayManagerGlobal = displayManagerGlobalField.get(displayManager);
-      Field displayListenersField =
-          displayManagerGlobal.getClass().getDeclaredField("mDisplayListeners");
-      displayListenersField.setAccessible(true);
+      if (state == STATE_UNRESOLVED) {
+        displayListenersField =
+            displayManagerGlobal.getClass().getDeclaredField("mDisplayListeners");
+        displayListenersField.setAccessible(true);
+        state = STATE_RESOLVED;
+      }
       ArrayList<Object> delegates =
           (ArrayList<Object>) displayListenersField.get(displayManagerGlobal);
 
-      Field listenerField = null;
       ArrayList<DisplayManager.DisplayListener> listeners = new ArrayList<>();
       for (Object delegate : delegates) {
         if (listenerField == null) {
@@ -137,6 +219,7 @@ class DisplayListenerProxy {
       return listeners;
     } catch (NoSuchFieldException | IllegalAccessException e) {
       Log.w(TAG, "Could not extract WebView's display listeners. " + e);
+      state = STATE_DONE;
       return new ArrayList<>();
     }
   }
@@ -4,8 +4,12 @@
 
 package io.flutter.plugins.webviewflutter;
 
+import android.annotation.TargetApi;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Build.VERSION_CODES;
+import android.os.Handler;
+import android.os.Looper;
 import android.webkit.CookieManager;
 import android.webkit.ValueCallback;
 import io.flutter.plugin.common.BinaryMessenger;
@@ -13,9 +17,31 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 class FlutterCookieManager implements MethodCallHandler {
+  private static final String EXPIRED = "Expires=Thu, 01 Jan 1970 00:00:00 GMT";
+
   private final MethodChannel methodChannel;
+  // The cookie operations of the plugin, e.g the bulk operations and the cookie removals of
+  // WebViewDataRemover, run one at a time in order off the platform thread, so that a removal can't
+  // overtake a previous update. Created lazily, its thread stops when idle.
+  private static ThreadPoolExecutor executor;
+
+  private final Handler platformThreadHandler = new Handler(Looper.getMainLooper());
 
   FlutterCookieManager(BinaryMessenger messenger) {
     methodChannel = new MethodChannel(messenger, "plugins.flutter.io/cookie_manager");
@@ -23,11 +49,24 @@ class FlutterCookieManager implements MethodCallHandler {
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public void onMethodCall(MethodCall methodCall, Result result) {
     switch (methodCall.method) {
       case "clearCookies":
         clearCookies(result);
         break;
+      case "setCookies":
+        setCookies((List<Map<String, Object>>) methodCall.arguments, result);
+        break;
+      case "getCookies":
+        getCookies((String) methodCall.arguments, result);
+        break;
+      case "removeCookies":
+        removeCookies((Map<String, Object>) methodCall.arguments, result);
+        break;
+      case "flush":
+        flush(result);
+        break;
       default:
         result.notImplemented();
     }
@@ -37,20 +76,255 @@ class FlutterCookieManager implements MethodCallHandler {
     methodChannel.setMethodCallHandler(null);
   }
 
-  private static void clearCookies(final Result result) {
-    CookieManager cookieManager = CookieManager.getInstance();
-    final boolean hasCookies = cookieManager.hasCookies();
-    if (Build.VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
-      cookieManager.removeAllCookies(
-          new ValueCallback<Boolean>() {
-            @Override
-            public void onReceiveValue(Boolean value) {
-              result.success(hasCookies);
-            }
-          });
-    } else {
+  /**
+   * Returns the executor that runs the cookie operations in order.
+   *
+   * <p>Must be called on the platform thread.
+   */
+  static Executor executor() {
+    if (executor == null) {
+      executor =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              30,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                  Thread thread = new Thread(runnable, "WebViewCookies");
+                  thread.setDaemon(true);
+                  return thread;
+                }
+              });
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  private void clearCookies(Result result) {
+    final CookieManager cookieManager = CookieManager.getInstance();
+    execute(
+        result,
+        new Operation() {
+          @Override
+          public Object run() {
+            boolean hasCookies = cookieManager.hasCookies();
+            removeAllCookies(cookieManager);
+            return hasCookies;
+          }
+        });
+  }
+
+  /**
+   * Removes all the cookies and waits for the removal to be done.
+   *
+   * <p>This blocks on the cookie store and should not be called on the platform thread.
+   */
+  static void removeAllCookies(final CookieManager cookieManager) {
+    if (Build.VERSION.SDK_INT < VERSION_CODES.LOLLIPOP) {
       cookieManager.removeAllCookie();
-      result.success(hasCookies);
+      return;
     }
+    // The removal's callback is called on the looper of the calling thread, which this thread
+    // doesn't have, so the removal is started on the platform thread.
+    final CountDownLatch removed = new CountDownLatch(1);
+    new Handler(Looper.getMainLooper())
+        .post(
+            new Runnable() {
+              @Override
+              public void run() {
+                removeAllCookies(cookieManager, removed);
+              }
+            });
+    try {
+      removed.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @TargetApi(VERSION_CODES.LOLLIPOP)
+  private static void removeAllCookies(CookieManager cookieManager, final CountDownLatch removed) {
+    cookieManager.removeAllCookies(
+        new ValueCallback<Boolean>() {
+          @Override
+          public void onReceiveValue(Boolean value) {
+            removed.countDown();
+          }
+        });
+  }
+
+  private void setCookies(final List<Map<String, Object>> cookies, Result result) {
+    // The instance is created on the platform thread, the WebView provider may not be loaded yet.
+    final CookieManager cookieManager = CookieManager.getInstance();
+    execute(
+        result,
+        new Operation() {
+          @Override
+          public Object run() {
+            for (Map<String, Object> cookie : cookies) {
+              cookieManager.setCookie((String) cookie.get("url"), toSetCookieHeader(cookie));
+            }
+            return null;
+          }
+        });
+  }
+
+  private void getCookies(final String url, Result result) {
+    final CookieManager cookieManager = CookieManager.getInstance();
+    execute(
+        result,
+        new Operation() {
+          @Override
+          public Object run() {
+            return parseCookieHeader(cookieManager.getCookie(url));
+          }
+        });
+  }
+
+  // Cookies can only be removed by overwriting them with expired cookies, so this expires every
+  // cookie sent to the URL, both as a host only cookie and as a cookie of the URL's domain.
+  private void removeCookies(Map<String, Object> arguments, Result result) {
+    String domain = (String) arguments.get("domain");
+    if (domain != null && domain.startsWith(".")) {
+      // A cookie domain may start with a dot, which a URL's host can't.
+      domain = domain.substring(1);
+    }
+    final String host = domain;
+    final String url = host != null ? "https://" + host + "/" : (String) arguments.get("url");
+    final CookieManager cookieManager = CookieManager.getInstance();
+    execute(
+        result,
+        new Operation() {
+          @Override
+          public Object run() {
+            return expireCookies(
+                cookieManager, url, host != null ? host : Uri.parse(url).getHost());
+          }
+        });
+  }
+
+  /**
+   * Expires the cookies sent to {@code url} as host only cookies and as cookies of {@code host},
+   * with the path /.
+   *
+   * <p>This blocks on the cookie store and should not be called on the platform thread.
+   *
+   * @return the number of cookies that were sent to the URL
+   */
+  static int expireCookies(CookieManager cookieManager, String url, String host) {
+    List<Map<String, Object>> cookies = parseCookieHeader(cookieManager.getCookie(url));
+    for (Map<String, Object> cookie : cookies) {
+      String expired = cookie.get("name") + "=; Path=/; " + EXPIRED;
+      cookieManager.setCookie(url, expired);
+      if (host != null) {
+        cookieManager.setCookie(url, expired + "; Domain=" + host);
+      }
+    }
+    return cookies.size();
+  }
+
+  private void flush(Result result) {
+    if (Build.VERSION.SDK_INT < VERSION_CODES.LOLLIPOP) {
+      // Before Lollipop cookies are synced to disk periodically by CookieSyncManager.
+      result.success(null);
+      return;
+    }
+    final CookieManager cookieManager = CookieManager.getInstance();
+    execute(
+        result,
+        new Operation() {
+          @Override
+          public Object run() {
+            flush(cookieManager);
+            return null;
+          }
+        });
+  }
+
+  @TargetApi(VERSION_CODES.LOLLIPOP)
+  private static void flush(CookieManager cookieManager) {
+    cookieManager.flush();
+  }
+
+  private void execute(final Result result, final Operation operation) {
+    executor().execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            final Object value;
+            try {
+              value = operation.run();
+            } catch (final RuntimeException e) {
+              platformThreadHandler.post(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      result.error("cookies_failed", e.toString(), null);
+                    }
+                  });
+              return;
+            }
+            platformThreadHandler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    result.success(value);
+                  }
+                });
+          }
+        });
+  }
+
+  private static String toSetCookieHeader(Map<String, Object> cookie) {
+    StringBuilder header = new StringBuilder();
+    header.append(cookie.get("name")).append('=').append(cookie.get("value"));
+    String domain = (String) cookie.get("domain");
+    if (domain != null) {
+      header.append("; Domain=").append(domain);
+    }
+    String path = (String) cookie.get("path");
+    if (path != null) {
+      header.append("; Path=").append(path);
+    }
+    Number expires = (Number) cookie.get("expiresMillis");
+    if (expires != null) {
+      SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+      format.setTimeZone(TimeZone.getTimeZone("GMT"));
+      header.append("; Expires=").append(format.format(new Date(expires.longValue())));
+    }
+    if (Boolean.TRUE.equals(cookie.get("secure"))) {
+      header.append("; Secure");
+    }
+    if (Boolean.TRUE.equals(cookie.get("httpOnly"))) {
+      header.append("; HttpOnly");
+    }
+    return header.toString();
+  }
+
+  // Parses the "name=value; name=value" header returned by CookieManager.getCookie.
+  private static List<Map<String, Object>> parseCookieHeader(String header) {
+    List<Map<String, Object>> cookies = new ArrayList<>();
+    if (header == null) {
+      return cookies;
+    }
+    for (String pair : header.split(";")) {
+      String trimmed = pair.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      int separator = trimmed.indexOf('=');
+      Map<String, Object> cookie = new HashMap<>();
+      cookie.put("name", separator < 0 ? trimmed : trimmed.substring(0, separator));
+      cookie.put("value", separator < 0 ? "" : trimmed.substring(separator + 1));
+      cookies.add(cookie);
+    }
+    return cookies;
+  }
+
+  private interface Operation {
+    Object run();
   }
 }
@@ -8,9 +8,11 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.hardware.display.DisplayManager;
 import android.os.Build;
+import android.os.Bundle;
 import android.os.Handler;
 import android.view.View;
-import android.webkit.WebStorage;
+import android.webkit.WebChromeClient;
+import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
@@ -18,41 +20,184 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.platform.PlatformView;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class FlutterWebView implements PlatformView, MethodCallHandler {
+  /** The WebView is shown, or in the background but not trimmed yet. */
+  static final int MEMORY_STATE_ACTIVE = 0;
+  /** The WebView is paused with {@link WebView#onPause}. */
+  static final int MEMORY_STATE_PAUSED = 1;
+  /** The WebView is paused and its renderer may be killed by the system when it is not visible. */
+  static final int MEMORY_STATE_RENDERER_WAIVED = 2;
+  /** The WebView's state is saved and its page is unloaded until it is active again. */
+  static final int MEMORY_STATE_HIBERNATED = 3;
+
   private static final String JS_CHANNEL_NAMES_FIELD = "javascriptChannelNames";
+  private static final String JS_MESSAGE_BATCH_SIZE_FIELD = "javascriptMessageBatchSize";
+  // Accessed on the platform thread only.
+  private static int createdWebViews;
+  private static long webViewCreationNanos;
   private final InputAwareWebView webView;
   private final MethodChannel methodChannel;
+  private final BinaryMessenger messenger;
+  private final String binaryChannelName;
   private final FlutterWebViewClient flutterWebViewClient;
   private final Handler platformThreadHandler;
+  private final MethodCallMetrics methodCallMetrics = new MethodCallMetrics();
+  private final WebViewPool webViewPool;
+  private final WebViewMemoryManager memoryManager;
+  private int memoryState = MEMORY_STATE_ACTIVE;
+  // The state saved when the WebView was hibernated, the navigation state is answered from it while
+  // the WebView shows a blank page.
+  private Bundle hibernatedState;
+  // Set once the page is unloaded to hibernate, the WebView then keeps the blank page until Dart
+  // recreates the platform view to restore the hibernated state in a new WebView.
+  private boolean pageUnloaded;
+  private String hibernatedUrl;
+  private String hibernatedTitle;
+  private boolean hibernatedCanGoBack;
+  private boolean hibernatedCanGoForward;
+  // Whether the app's activity is paused, the WebView is then paused whatever its memory state.
+  private boolean appPaused;
+  // Dart keeps the WebView in the background while it's marked inactive (setActive, hibernate) or
+  // paused (pause, e.g while it's hidden), it's only active once both are cleared.
+  private boolean markedActive = true;
+  private boolean pausedFromDart;
+  // The renderer priority policy set from Dart, restored when the memory state waived it.
+  private int rendererPriority = WebView.RENDERER_PRIORITY_IMPORTANT;
+  private boolean rendererWaivedWhenNotVisible;
+  // Once the renderer process is gone the WebView can't be used, it's only destroyed.
+  private boolean renderProcessGone;
+  private final WebViewStateStore stateStore;
+  // Null unless the WebView's state is saved when it's disposed.
+  private final String restorationId;
+  // Null unless JavaScript channel messages are batched.
+  private final JavaScriptMessageBatcher javaScriptMessageBatcher;
+  private final WebMessageChannels webMessageChannels;
+  // Null unless navigation state events are enabled.
+  private final NavigationStateNotifier navigationStateNotifier;
+  // The names of the JavaScript interfaces added to the WebView, these must be removed before the
+  // WebView can be returned to the pool.
+  private final Set<String> javaScriptChannelNames = new HashSet<>();
+  // The last applied value of each setting, settings equal to it are not applied again.
+  private final Map<String, Object> appliedSettings = new HashMap<>();
+  private WebViewClient appliedWebViewClient;
+  private int settingsUpdates;
+  private int skippedSettingsUpdates;
+  private int skippedSettings;
 
-  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
   @SuppressWarnings("unchecked")
   FlutterWebView(
       final Context context,
       BinaryMessenger messenger,
       int id,
       Map<String, Object> params,
-      View containerView) {
-
-    DisplayListenerProxy displayListenerProxy = new DisplayListenerProxy();
-    DisplayManager displayManager =
-        (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
-    displayListenerProxy.onPreWebViewInitialization(displayManager);
-    webView = new InputAwareWebView(context, containerView);
-    displayListenerProxy.onPostWebViewInitialization(displayManager);
+      View containerView,
+      WebViewPool webViewPool,
+      ResourceCache resourceCache,
+      AssetOrigins assetOrigins,
+      ContentBlocklist contentBlocklist,
+      WebViewMemoryManager memoryManager,
+      WebViewStateStore stateStore) {
+
+    this.webViewPool = webViewPool;
+    this.memoryManager = memoryManager;
+    this.stateStore = stateStore;
+    restorationId = (String) params.get("restorationId");
+    // WebView#restoreState only restores into a WebView without history, a pooled WebView has the
+    // blank page it was released with.
+    Bundle savedState = getSavedState((String) params.get("restoredStateKey"));
+    webView =
+        savedState != null
+            ? createWebView(context, containerView)
+            : webViewPool.acquire(context, containerView);
 
     platformThreadHandler = new Handler(context.getMainLooper());
-    // Allow local storage.
-    webView.getSettings().setDomStorageEnabled(true);
 
-    methodChannel = new MethodChannel(messenger, "plugins.flutter.io/webview_" + id);
+    this.messenger = messenger;
+    methodChannel =
+        new MethodCallMetrics.RecordingMethodChannel(
+            messenger, "plugins.flutter.io/webview_" + id, methodCallMetrics);
     methodChannel.setMethodCallHandler(this);
-
-    flutterWebViewClient = new FlutterWebViewClient(methodChannel);
+    binaryChannelName = "plugins.flutter.io/webview_binary_" + id;
+
+    Integer subframeNavigationRequests = (Integer) params.get("subframeNavigationRequests");
+    Integer pageLoadMetricsMode = (Integer) params.get("pageLoadMetrics");
+    final PageLoadMetrics pageLoadMetrics =
+        pageLoadMetricsMode == null || pageLoadMetricsMode == PageLoadMetrics.MODE_NONE
+            ? null
+            : new PageLoadMetrics(methodChannel, pageLoadMetricsMode);
+    navigationStateNotifier =
+        Boolean.TRUE.equals(params.get("navigationStateEvents"))
+            ? new NavigationStateNotifier(methodChannel, platformThreadHandler, webView)
+            : null;
+    flutterWebViewClient =
+        new FlutterWebViewClient(
+            methodChannel,
+            platformThreadHandler,
+            subframeNavigationRequests == null
+                ? FlutterWebViewClient.SUBFRAME_REQUESTS_EACH
+                : subframeNavigationRequests,
+            resourceCache,
+            assetOrigins,
+            contentBlocklist,
+            pageLoadMetrics,
+            navigationStateNotifier,
+            new FlutterWebViewClient.RenderProcessGoneHandler() {
+              @Override
+              public void onRenderProcessGone(
+                  String url, boolean didCrash, int rendererPriorityAtExit) {
+                FlutterWebView.this.onRenderProcessGone(url, didCrash, rendererPriorityAtExit);
+              }
+            });
+    if (pageLoadMetrics != null || navigationStateNotifier != null) {
+      webView.setWebChromeClient(
+          new WebChromeClient() {
+            @Override
+            public void onProgressChanged(WebView view, int newProgress) {
+              // The blank page loaded while hibernated isn't reported.
+              if (pageUnloaded) {
+                return;
+              }
+              if (pageLoadMetrics != null) {
+                pageLoadMetrics.onProgressChanged(newProgress);
+              }
+              if (navigationStateNotifier != null) {
+                navigationStateNotifier.scheduleUpdate();
+              }
+            }
+
+            @Override
+            public void onReceivedTitle(WebView view, String title) {
+              if (pageUnloaded) {
+                return;
+              }
+              if (navigationStateNotifier != null) {
+                navigationStateNotifier.scheduleUpdate();
+              }
+            }
+          });
+    }
+    webMessageChannels = new WebMessageChannels(methodChannel);
+
+    Integer javaScriptMessageBatchSize = (Integer) params.get(JS_MESSAGE_BATCH_SIZE_FIELD);
+    if (javaScriptMessageBatchSize != null && javaScriptMessageBatchSize > 0) {
+      javaScriptMessageBatcher =
+          new JavaScriptMessageBatcher(
+              methodChannel, platformThreadHandler, javaScriptMessageBatchSize);
+    } else {
+      javaScriptMessageBatcher = null;
+    }
+    flutterWebViewClient.setNavigationRules(
+        NavigationRuleSet.fromList(
+            (List<Map<String, Object>>) params.get("navigationRules"), true));
     applySettings((Map<String, Object>) params.get("settings"));
 
     if (params.containsKey(JS_CHANNEL_NAMES_FIELD)) {
@@ -63,11 +208,52 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
     if (params.containsKey("userAgent")) {
       String userAgent = (String) params.get("userAgent");
       updateUserAgent(userAgent);
+      appliedSettings.put("userAgent", userAgent);
     }
-    if (params.containsKey("initialUrl")) {
+    if ((savedState == null || webView.restoreState(savedState) == null)
+        && params.containsKey("initialUrl")) {
       String url = (String) params.get("initialUrl");
       webView.loadUrl(url);
     }
+    memoryManager.register(this);
+  }
+
+  /**
+   * Constructs a new {@link InputAwareWebView} with the configuration shared by all Flutter
+   * WebViews.
+   *
+   * <p>This works around the WebView display listener bug, see {@link DisplayListenerProxy}.
+   */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+  static InputAwareWebView createWebView(Context context, View containerView) {
+    long start = System.nanoTime();
+    DisplayListenerProxy displayListenerProxy = new DisplayListenerProxy();
+    DisplayManager displayManager =
+        (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
+    displayListenerProxy.onPreWebViewInitialization(displayManager);
+    boolean traced = WebViewTrace.beginSection("InputAwareWebView.<init>");
+    InputAwareWebView webView;
+    try {
+      webView = new InputAwareWebView(context, containerView);
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
+    displayListenerProxy.onPostWebViewInitialization(displayManager);
+
+    // Allow local storage.
+    webView.getSettings().setDomStorageEnabled(true);
+
+    createdWebViews++;
+    webViewCreationNanos += System.nanoTime() - start;
+    return webView;
+  }
+
+  /** Returns how many WebViews were constructed and how long it took on the platform thread. */
+  static Map<String, Object> getCreationMetrics() {
+    Map<String, Object> metrics = new HashMap<>(DisplayListenerProxy.getMetrics());
+    metrics.put("created", createdWebViews);
+    metrics.put("creationMicros", TimeUnit.NANOSECONDS.toMicros(webViewCreationNanos));
+    return metrics;
   }
 
   @Override
@@ -117,6 +303,28 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
 
   @Override
   public void onMethodCall(MethodCall methodCall, Result result) {
+    boolean traced = WebViewTrace.beginSection("FlutterWebView#", methodCall.method);
+    try {
+      if (!MethodCallMetrics.isEnabled()) {
+        dispatchMethodCall(methodCall, result);
+        return;
+      }
+      long startNanos = System.nanoTime();
+      dispatchMethodCall(methodCall, result);
+      methodCallMetrics.recordMethodCall(methodCall.method, System.nanoTime() - startNanos);
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
+  }
+
+  private void dispatchMethodCall(MethodCall methodCall, Result result) {
+    if (renderProcessGone) {
+      result.error(
+          "render_process_gone",
+          "The WebView's renderer process is gone, it must be recreated",
+          null);
+      return;
+    }
     switch (methodCall.method) {
       case "loadUrl":
         loadUrl(methodCall, result);
@@ -145,6 +353,60 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
       case "evaluateJavascript":
         evaluateJavaScript(methodCall, result);
         break;
+      case "setNavigationRules":
+        setNavigationRules(methodCall, result);
+        break;
+      case "getNavigationDecisionCacheStats":
+        result.success(flutterWebViewClient.getNavigationDecisionCache().getStats());
+        break;
+      case "getMethodCallMetrics":
+        result.success(methodCallMetrics.toMap());
+        break;
+      case "resetMethodCallMetrics":
+        methodCallMetrics.reset();
+        result.success(null);
+        break;
+      case "setActive":
+        markedActive = (Boolean) methodCall.arguments;
+        updateActive();
+        result.success(null);
+        break;
+      case "setRendererPriorityPolicy":
+        setRendererPriorityPolicy(methodCall, result);
+        break;
+      case "pause":
+        pausedFromDart = true;
+        memoryManager.pause(this);
+        result.success(null);
+        break;
+      case "resume":
+        pausedFromDart = false;
+        updateActive();
+        result.success(null);
+        break;
+      case "hibernate":
+        markedActive = false;
+        memoryManager.hibernate(this);
+        result.success(null);
+        break;
+      case "restore":
+        markedActive = true;
+        updateActive();
+        result.success(null);
+        break;
+      case "getSettingsUpdateStats":
+        result.success(getSettingsUpdateStats());
+        break;
+      case "getContentBlockingStats":
+        result.success(flutterWebViewClient.getContentBlockingStats());
+        break;
+      case "clearNavigationDecisionCache":
+        flutterWebViewClient.getNavigationDecisionCache().clear();
+        result.success(null);
+        break;
+      case "evaluateJavascriptBatch":
+        evaluateJavaScriptBatch(methodCall, result);
+        break;
       case "addJavascriptChannels":
         addJavaScriptChannels(methodCall, result);
         break;
@@ -154,9 +416,22 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
       case "clearCache":
         clearCache(result);
         break;
+      case "clearData":
+        clearData(methodCall, result);
+        break;
       case "getTitle":
         getTitle(result);
         break;
+      case "createWebMessageChannel":
+        createWebMessageChannel(methodCall, result);
+        break;
+      case "postWebMessageChannelMessage":
+        postWebMessageChannelMessage(methodCall, result);
+        break;
+      case "closeWebMessageChannel":
+        webMessageChannels.close((String) methodCall.arguments);
+        result.success(null);
+        break;
       default:
         result.notImplemented();
     }
@@ -175,10 +450,18 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
   }
 
   private void canGoBack(Result result) {
+    if (pageUnloaded) {
+      result.success(hibernatedCanGoBack);
+      return;
+    }
     result.success(webView.canGoBack());
   }
 
   private void canGoForward(Result result) {
+    if (pageUnloaded) {
+      result.success(hibernatedCanGoForward);
+      return;
+    }
     result.success(webView.canGoForward());
   }
 
@@ -202,7 +485,7 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
   }
 
   private void currentUrl(Result result) {
-    result.success(webView.getUrl());
+    result.success(pageUnloaded ? hibernatedUrl : webView.getUrl());
   }
 
   @SuppressWarnings("unchecked")
@@ -217,16 +500,95 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
     if (jsString == null) {
       throw new UnsupportedOperationException("JavaScript string cannot be null");
     }
+    if (pageUnloaded) {
+      result.error(
+          "evaluateJavascript_hibernated",
+          "The WebView is hibernated, its page is unloaded",
+          null);
+      return;
+    }
+    final int traceCookie = WebViewTrace.beginAsyncSection("evaluateJavascript");
     webView.evaluateJavascript(
         jsString,
         new android.webkit.ValueCallback<String>() {
           @Override
           public void onReceiveValue(String value) {
+            WebViewTrace.endAsyncSection("evaluateJavascript", traceCookie);
             result.success(value);
           }
         });
   }
 
+  @SuppressWarnings("unchecked")
+  private void setNavigationRules(MethodCall methodCall, Result result) {
+    NavigationRuleSet navigationRules;
+    try {
+      navigationRules =
+          NavigationRuleSet.fromList((List<Map<String, Object>>) methodCall.arguments, false);
+    } catch (IllegalArgumentException e) {
+      // Also thrown for invalid patterns, PatternSyntaxException is an IllegalArgumentException.
+      result.error("setNavigationRules_failed", e.getMessage(), null);
+      return;
+    }
+    if (flutterWebViewClient.setNavigationRules(navigationRules)) {
+      setWebViewClient(flutterWebViewClient.getWebViewClient());
+    }
+    result.success(null);
+  }
+
+  @TargetApi(Build.VERSION_CODES.KITKAT)
+  @SuppressWarnings("unchecked")
+  private void evaluateJavaScriptBatch(MethodCall methodCall, final Result result) {
+    Map<String, Object> request = (Map<String, Object>) methodCall.arguments;
+    final List<String> scripts = (List<String>) request.get("scripts");
+    if (scripts == null) {
+      result.error("evaluateJavascriptBatch_failed", "JavaScript scripts cannot be null", null);
+      return;
+    }
+    if (pageUnloaded) {
+      result.error(
+          "evaluateJavascriptBatch_hibernated",
+          "The WebView is hibernated, its page is unloaded",
+          null);
+      return;
+    }
+    if (scripts.isEmpty()) {
+      result.success(Collections.emptyList());
+      return;
+    }
+
+    final int traceCookie = WebViewTrace.beginAsyncSection("evaluateJavascriptBatch");
+    if (Boolean.TRUE.equals(request.get("combine"))) {
+      webView.evaluateJavascript(
+          JavaScriptBatch.combine(scripts),
+          new android.webkit.ValueCallback<String>() {
+            @Override
+            public void onReceiveValue(String value) {
+              WebViewTrace.endAsyncSection("evaluateJavascriptBatch", traceCookie);
+              result.success(JavaScriptBatch.parseCombinedResults(value, scripts.size()));
+            }
+          });
+      return;
+    }
+
+    // The scripts are evaluated in order and their callbacks are invoked in the same order.
+    final List<Map<String, Object>> results = new ArrayList<>(scripts.size());
+    for (String script : scripts) {
+      webView.evaluateJavascript(
+          JavaScriptBatch.wrap(script),
+          new android.webkit.ValueCallback<String>() {
+            @Override
+            public void onReceiveValue(String value) {
+              results.add(JavaScriptBatch.parseWrappedResult(value));
+              if (results.size() == scripts.size()) {
+                WebViewTrace.endAsyncSection("evaluateJavascriptBatch", traceCookie);
+                result.success(results);
+              }
+            }
+          });
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private void addJavaScriptChannels(MethodCall methodCall, Result result) {
     List<String> channelNames = (List<String>) methodCall.arguments;
@@ -239,46 +601,294 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
     List<String> channelNames = (List<String>) methodCall.arguments;
     for (String channelName : channelNames) {
       webView.removeJavascriptInterface(channelName);
+      javaScriptChannelNames.remove(channelName);
     }
     result.success(null);
   }
 
   private void clearCache(Result result) {
-    webView.clearCache(true);
-    WebStorage.getInstance().deleteAllData();
-    result.success(null);
+    WebViewDataRemover.remove(
+        webView,
+        platformThreadHandler,
+        WebViewDataRemover.DATA_HTTP_CACHE
+            | WebViewDataRemover.DATA_DOM_STORAGE
+            | WebViewDataRemover.DATA_INDEXED_DB,
+        null,
+        result);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void clearData(MethodCall methodCall, Result result) {
+    Map<String, Object> arguments = (Map<String, Object>) methodCall.arguments;
+    Integer dataTypes = (Integer) arguments.get("dataTypes");
+    if (dataTypes == null) {
+      result.error("clearData_failed", "The data types to clear cannot be null", null);
+      return;
+    }
+    WebViewDataRemover.remove(
+        webView,
+        platformThreadHandler,
+        dataTypes,
+        (List<String>) arguments.get("origins"),
+        result);
   }
 
   private void getTitle(Result result) {
-    result.success(webView.getTitle());
+    result.success(pageUnloaded ? hibernatedTitle : webView.getTitle());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void createWebMessageChannel(MethodCall methodCall, Result result) {
+    if (!WebMessageChannels.isSupported()) {
+      result.error(
+          "createWebMessageChannel_unsupported",
+          "Web message channels are not supported by this WebView implementation",
+          null);
+      return;
+    }
+    Map<String, Object> request = (Map<String, Object>) methodCall.arguments;
+    webMessageChannels.create(
+        webView, (String) request.get("name"), (String) request.get("targetOrigin"));
+    result.success(null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void postWebMessageChannelMessage(MethodCall methodCall, Result result) {
+    Map<String, Object> request = (Map<String, Object>) methodCall.arguments;
+    String name = (String) request.get("name");
+    if (!webMessageChannels.postMessage(name, (String) request.get("message"))) {
+      result.error(
+          "postWebMessageChannelMessage_failed", "No web message channel named " + name, null);
+      return;
+    }
+    result.success(null);
   }
 
   private void applySettings(Map<String, Object> settings) {
-    for (String key : settings.keySet()) {
-      switch (key) {
-        case "jsMode":
-          updateJsMode((Integer) settings.get(key));
-          break;
-        case "hasNavigationDelegate":
-          final boolean hasNavigationDelegate = (boolean) settings.get(key);
-
-          final WebViewClient webViewClient =
-              flutterWebViewClient.createWebViewClient(hasNavigationDelegate);
-
-          webView.setWebViewClient(webViewClient);
-          break;
-        case "debuggingEnabled":
-          final boolean debuggingEnabled = (boolean) settings.get(key);
-
-          webView.setWebContentsDebuggingEnabled(debuggingEnabled);
-          break;
-        case "userAgent":
-          updateUserAgent((String) settings.get(key));
-          break;
-        default:
-          throw new IllegalArgumentException("Unknown WebView setting: " + key);
+    boolean traced = WebViewTrace.beginSection("FlutterWebView.applySettings");
+    try {
+      settingsUpdates++;
+      int applied = 0;
+      for (String key : settings.keySet()) {
+        Object value = settings.get(key);
+        if (appliedSettings.containsKey(key) && equals(appliedSettings.get(key), value)) {
+          skippedSettings++;
+          continue;
+        }
+        applied++;
+        switch (key) {
+          case "jsMode":
+            updateJsMode((Integer) value);
+            break;
+          case "hasNavigationDelegate":
+            final boolean hasNavigationDelegate = (boolean) value;
+
+            final WebViewClient webViewClient =
+                flutterWebViewClient.getWebViewClient(hasNavigationDelegate);
+
+            setWebViewClient(webViewClient);
+            break;
+          case "debuggingEnabled":
+            final boolean debuggingEnabled = (boolean) value;
+
+            webView.setWebContentsDebuggingEnabled(debuggingEnabled);
+            break;
+          case "userAgent":
+            updateUserAgent((String) value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown WebView setting: " + key);
+        }
+        appliedSettings.put(key, value);
+      }
+      if (applied == 0) {
+        skippedSettingsUpdates++;
       }
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
+  }
+
+  // Replaces the WebView's client unless it is already set, the client is reused across settings
+  // updates so that unchanged modes don't churn the WebView's client.
+  private void setWebViewClient(WebViewClient webViewClient) {
+    if (webViewClient == appliedWebViewClient) {
+      return;
     }
+    appliedWebViewClient = webViewClient;
+    webView.setWebViewClient(webViewClient);
+  }
+
+  /**
+   * Returns how many settings updates were received, how many of them didn't change any setting,
+   * and how many settings were skipped because they were unchanged.
+   */
+  private Map<String, Object> getSettingsUpdateStats() {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("updates", settingsUpdates);
+    stats.put("skippedUpdates", skippedSettingsUpdates);
+    stats.put("skippedSettings", skippedSettings);
+    return stats;
+  }
+
+  private static boolean equals(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private void updateActive() {
+    memoryManager.setActive(this, markedActive && !pausedFromDart);
+  }
+
+  int getMemoryState() {
+    return memoryState;
+  }
+
+  /**
+   * Moves the WebView to a memory state, either to a lower memory use or back to {@link
+   * #MEMORY_STATE_ACTIVE}, and lets Dart know.
+   */
+  void applyMemoryState(int newState) {
+    if (newState == memoryState) {
+      return;
+    }
+    if (newState == MEMORY_STATE_ACTIVE) {
+      restoreMemoryState(false);
+    } else {
+      reduceMemoryState(newState);
+    }
+    memoryState = newState;
+    methodChannel.invokeMethod("onMemoryStateChanged", newState);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void setRendererPriorityPolicy(MethodCall methodCall, Result result) {
+    Map<String, Object> request = (Map<String, Object>) methodCall.arguments;
+    rendererPriority = (Integer) request.get("priority");
+    rendererWaivedWhenNotVisible = (Boolean) request.get("waivedWhenNotVisible");
+    // The policy of a WebView whose renderer priority is waived to reduce its memory use is set
+    // once it's active again.
+    if (memoryState < MEMORY_STATE_RENDERER_WAIVED
+        && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+      setRendererPriorityPolicy(rendererPriority, rendererWaivedWhenNotVisible);
+    }
+    result.success(null);
+  }
+
+  private void onRenderProcessGone(String url, boolean didCrash, int rendererPriorityAtExit) {
+    renderProcessGone = true;
+    memoryManager.onRenderProcessGone(this);
+    // The saved state is older than the page that was lost.
+    if (restorationId != null) {
+      stateStore.remove(restorationId);
+    }
+    Map<String, Object> args = new HashMap<>();
+    args.put("url", pageUnloaded ? hibernatedUrl : url);
+    args.put("didCrash", didCrash);
+    args.put("rendererPriorityAtExit", rendererPriorityAtExit);
+    methodChannel.invokeMethod("onRenderProcessGone", args);
+  }
+
+  /** Pauses or resumes the WebView with the app's activity. */
+  void setAppPaused(boolean paused) {
+    appPaused = paused;
+    // Background WebViews are already paused, and stay paused when the app is resumed.
+    if (memoryState != MEMORY_STATE_ACTIVE) {
+      return;
+    }
+    if (paused) {
+      webView.onPause();
+    } else {
+      webView.onResume();
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private void reduceMemoryState(int newState) {
+    if (memoryState < MEMORY_STATE_PAUSED && !appPaused) {
+      webView.onPause();
+    }
+    if (memoryState < MEMORY_STATE_RENDERER_WAIVED && newState >= MEMORY_STATE_RENDERER_WAIVED) {
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+        setRendererPriorityPolicy(WebView.RENDERER_PRIORITY_WAIVED, true);
+      }
+      webView.freeMemory();
+    }
+    // A WebView that is hibernated again before its platform view is recreated keeps its state.
+    if (newState == MEMORY_STATE_HIBERNATED && !pageUnloaded) {
+      pageUnloaded = true;
+      hibernatedState = new Bundle();
+      if (webView.saveState(hibernatedState) == null) {
+        hibernatedState = null;
+      }
+      hibernatedUrl = webView.getUrl();
+      hibernatedTitle = webView.getTitle();
+      hibernatedCanGoBack = webView.canGoBack();
+      hibernatedCanGoForward = webView.canGoForward();
+      if (restorationId != null && hibernatedState != null) {
+        stateStore.put(restorationId, hibernatedState);
+      }
+      flutterWebViewClient.setHibernated(true);
+      if (navigationStateNotifier != null) {
+        // Drops a pending update, which would read the blank page.
+        navigationStateNotifier.dispose();
+      }
+      webView.stopLoading();
+      webView.loadUrl("about:blank");
+    }
+  }
+
+  // A disposed WebView's hibernated page isn't restored.
+  private void restoreMemoryState(boolean disposing) {
+    if (memoryState == MEMORY_STATE_HIBERNATED && !disposing) {
+      requestRecreation();
+    }
+    if (memoryState >= MEMORY_STATE_RENDERER_WAIVED
+        && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+      setRendererPriorityPolicy(rendererPriority, rendererWaivedWhenNotVisible);
+    }
+    if (!appPaused) {
+      webView.onResume();
+    }
+  }
+
+  // WebView#restoreState only restores into a WebView without history, and this one has the blank
+  // page loaded while hibernated: Dart recreates the platform view, which restores the hibernated
+  // state in a new WebView, or loads the hibernated URL if the state couldn't be saved.
+  private void requestRecreation() {
+    Map<String, Object> args = new HashMap<>();
+    args.put("url", hibernatedUrl);
+    args.put(
+        "stateKey", hibernatedState == null ? null : stateStore.putHibernated(hibernatedState));
+    methodChannel.invokeMethod("onHibernationEnded", args);
+  }
+
+  // Returns the hibernated state handed over to this platform view, or the state saved by a
+  // previous WebView with the same restoration id.
+  private Bundle getSavedState(String restoredStateKey) {
+    if (restoredStateKey != null) {
+      Bundle state = stateStore.takeHibernated(restoredStateKey);
+      if (state != null) {
+        return state;
+      }
+    }
+    return restorationId == null ? null : stateStore.get(restorationId);
+  }
+
+  // Saves the state for the next WebView with the same restoration id. A hibernated WebView's state
+  // was saved when it was hibernated.
+  private void saveState() {
+    if (pageUnloaded) {
+      return;
+    }
+    Bundle state = new Bundle();
+    if (webView.saveState(state) != null) {
+      stateStore.put(restorationId, state);
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.O)
+  private void setRendererPriorityPolicy(int priority, boolean waivedWhenNotVisible) {
+    webView.setRendererPriorityPolicy(priority, waivedWhenNotVisible);
   }
 
   private void updateJsMode(int mode) {
@@ -304,7 +914,16 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
   private void registerJavaScriptChannelNames(List<String> channelNames) {
     for (String channelName : channelNames) {
       webView.addJavascriptInterface(
-          new JavaScriptChannel(methodChannel, channelName, platformThreadHandler), channelName);
+          new JavaScriptChannel(
+              methodChannel,
+              channelName,
+              platformThreadHandler,
+              javaScriptMessageBatcher,
+              messenger,
+              binaryChannelName,
+              methodCallMetrics),
+          channelName);
+      javaScriptChannelNames.add(channelName);
     }
   }
 
@@ -315,7 +934,45 @@ public class FlutterWebView implements PlatformView, MethodCallHandler {
   @Override
   public void dispose() {
     methodChannel.setMethodCallHandler(null);
+    if (!renderProcessGone) {
+      if (restorationId != null) {
+        saveState();
+      }
+      // Pooled WebViews must be released active with the default renderer priority policy, a
+      // hibernated page isn't reloaded.
+      rendererPriority = WebView.RENDERER_PRIORITY_IMPORTANT;
+      rendererWaivedWhenNotVisible = false;
+      if (memoryState != MEMORY_STATE_ACTIVE) {
+        restoreMemoryState(true);
+        memoryState = MEMORY_STATE_ACTIVE;
+      } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+        setRendererPriorityPolicy(rendererPriority, rendererWaivedWhenNotVisible);
+      }
+      // Also resumed if it was paused with the app.
+      if (appPaused) {
+        webView.onResume();
+      }
+      memoryManager.unregister(this);
+    }
+    if (javaScriptMessageBatcher != null) {
+      javaScriptMessageBatcher.dispose();
+    }
+    webMessageChannels.closeAll();
+    flutterWebViewClient.dispose();
+    if (navigationStateNotifier != null) {
+      navigationStateNotifier.dispose();
+    }
     webView.dispose();
-    webView.destroy();
+    if (renderProcessGone) {
+      webView.destroy();
+      return;
+    }
+    for (String channelName : javaScriptChannelNames) {
+      webView.removeJavascriptInterface(channelName);
+    }
+    javaScriptChannelNames.clear();
+    if (!webViewPool.release(webView)) {
+      webView.destroy();
+    }
   }
 }
@@ -5,35 +5,135 @@
 package io.flutter.plugins.webviewflutter;
 
 import android.annotation.TargetApi;
+import android.graphics.Bitmap;
 import android.os.Build;
+import android.os.Handler;
 import android.util.Log;
 import android.view.KeyEvent;
+import android.webkit.RenderProcessGoneDetail;
 import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import androidx.webkit.WebViewClientCompat;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // We need to use WebViewClientCompat to get
 // shouldOverrideUrlLoading(WebView view, WebResourceRequest request)
 // invoked by the webview on older Android devices, without it pages that use iframes will
 // be broken when a navigationDelegate is set on Android version earlier than N.
 class FlutterWebViewClient {
+  /** Every subframe navigation request is sent to Dart on its own. */
+  static final int SUBFRAME_REQUESTS_EACH = 0;
+  /** Subframe navigation requests are not sent to Dart. */
+  static final int SUBFRAME_REQUESTS_NONE = 1;
+  /** The distinct URLs of the subframe navigation requests are sent to Dart periodically. */
+  static final int SUBFRAME_REQUESTS_COALESCED = 2;
+
   private static final String TAG = "FlutterWebViewClient";
+  private static final long SUBFRAME_REQUESTS_FLUSH_DELAY_MILLIS = 500;
+  private static final String NAVIGATION_TRACE_SECTION = "WebView navigation";
+
+  /** Handles the WebView's renderer process being gone, the WebView can't be used anymore. */
+  interface RenderProcessGoneHandler {
+    void onRenderProcessGone(String url, boolean didCrash, int rendererPriorityAtExit);
+  }
+
   private final MethodChannel methodChannel;
+  private final Handler platformThreadHandler;
+  private final int subframeRequestsMode;
+  private final ResourceCache resourceCache;
+  private final AssetOrigins assetOrigins;
+  private final ContentBlocklist contentBlocklist;
+  // Null unless page load metrics are enabled.
+  private final PageLoadMetrics pageLoadMetrics;
+  // Null unless navigation state events are enabled.
+  private final NavigationStateNotifier navigationStateNotifier;
+  private final RenderProcessGoneHandler renderProcessGoneHandler;
+  // Incremented on the WebView's network threads.
+  private final AtomicInteger blockedRequests = new AtomicInteger();
+  // The URLs of the subframe navigation requests that weren't sent yet, in coalesced mode.
+  private final LinkedHashSet<String> pendingSubframeUrls = new LinkedHashSet<>();
+  private int pendingSubframeRequests;
+  // The cookie of the async trace section of the current main frame navigation, 0 if none.
+  private int navigationTraceCookie;
   private boolean hasNavigationDelegate;
+  private NavigationRuleSet navigationRules = NavigationRuleSet.EMPTY;
+  private final NavigationDecisionCache navigationDecisionCache = new NavigationDecisionCache();
+  // While the WebView is hibernated its page events are not sent to Dart.
+  private boolean hibernated;
+  // The URL of the last main frame page started, reloaded when the renderer process is gone.
+  private String url;
+  // Created lazily by getWebViewClient.
+  private WebViewClient webViewClient;
+  private WebViewClientCompat webViewClientCompat;
 
-  FlutterWebViewClient(MethodChannel methodChannel) {
+  private final Runnable flushSubframeRequests =
+      new Runnable() {
+        @Override
+        public void run() {
+          Map<String, Object> args = new HashMap<>();
+          args.put("urls", new ArrayList<>(pendingSubframeUrls));
+          args.put("count", pendingSubframeRequests);
+          pendingSubframeUrls.clear();
+          pendingSubframeRequests = 0;
+          methodChannel.invokeMethod("subframeNavigationRequests", args);
+        }
+      };
+
+  FlutterWebViewClient(
+      MethodChannel methodChannel,
+      Handler platformThreadHandler,
+      int subframeRequestsMode,
+      ResourceCache resourceCache,
+      AssetOrigins assetOrigins,
+      ContentBlocklist contentBlocklist,
+      PageLoadMetrics pageLoadMetrics,
+      NavigationStateNotifier navigationStateNotifier,
+      RenderProcessGoneHandler renderProcessGoneHandler) {
     this.methodChannel = methodChannel;
+    this.platformThreadHandler = platformThreadHandler;
+    this.subframeRequestsMode = subframeRequestsMode;
+    this.resourceCache = resourceCache;
+    this.assetOrigins = assetOrigins;
+    this.contentBlocklist = contentBlocklist;
+    this.pageLoadMetrics = pageLoadMetrics;
+    this.navigationStateNotifier = navigationStateNotifier;
+    this.renderProcessGoneHandler = renderProcessGoneHandler;
+  }
+
+  /** Drops the pending subframe navigation requests and ends the navigation trace section. */
+  void dispose() {
+    platformThreadHandler.removeCallbacks(flushSubframeRequests);
+    pendingSubframeUrls.clear();
+    pendingSubframeRequests = 0;
+    endNavigationTrace();
   }
 
   @TargetApi(Build.VERSION_CODES.LOLLIPOP)
   private boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
+    switch (navigationRules.match(request.getUrl().toString())) {
+      case NavigationRuleSet.ACTION_ALLOW:
+        return false;
+      case NavigationRuleSet.ACTION_DENY:
+        return true;
+      default:
+        break;
+    }
     if (!hasNavigationDelegate) {
       return false;
     }
+    if (request.isForMainFrame()) {
+      Boolean cachedAllow = navigationDecisionCache.get(request.getUrl().toString());
+      if (cachedAllow != null) {
+        return !cachedAllow;
+      }
+    }
     notifyOnNavigationRequest(
         request.getUrl().toString(), request.getRequestHeaders(), view, request.isForMainFrame());
     // We must make a synchronous decision here whether to allow the navigation or not,
@@ -51,9 +151,21 @@ class FlutterWebViewClient {
   }
 
   private boolean shouldOverrideUrlLoading(WebView view, String url) {
+    switch (navigationRules.match(url)) {
+      case NavigationRuleSet.ACTION_ALLOW:
+        return false;
+      case NavigationRuleSet.ACTION_DENY:
+        return true;
+      default:
+        break;
+    }
     if (!hasNavigationDelegate) {
       return false;
     }
+    Boolean cachedAllow = navigationDecisionCache.get(url);
+    if (cachedAllow != null) {
+      return !cachedAllow;
+    }
     // This version of shouldOverrideUrlLoading is only invoked by the webview on devices with
     // webview versions  earlier than 67(it is also invoked when hasNavigationDelegate is false).
     // On these devices we cannot tell whether the navigation is targeted to the main frame or not.
@@ -66,10 +178,116 @@ class FlutterWebViewClient {
     return true;
   }
 
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  private WebResourceResponse shouldInterceptRequest(WebResourceRequest request) {
+    return shouldInterceptRequest(
+        request.getUrl().toString(),
+        request.getMethod(),
+        request.getRequestHeaders(),
+        request.isForMainFrame());
+  }
+
+  // Only invoked by the webview before Lollipop, where all intercepted requests are GET requests.
+  // Whether the request is for the main frame is unknown.
+  private WebResourceResponse shouldInterceptRequest(String url) {
+    return shouldInterceptRequest(url, "GET", null, null);
+  }
+
+  // isForMainFrame is null when it is unknown.
+  private WebResourceResponse shouldInterceptRequest(
+      String url, String method, Map<String, String> headers, Boolean isForMainFrame) {
+    // Pages are never blocked, only the resources they load. Nothing is blocked when the frame is
+    // unknown, a page on a blocked host would be blocked otherwise.
+    if (Boolean.FALSE.equals(isForMainFrame) && contentBlocklist.isBlocked(url)) {
+      blockedRequests.incrementAndGet();
+      return ContentBlocklist.blockedResponse();
+    }
+    WebResourceResponse response = assetOrigins.intercept(url, method, headers);
+    return response != null ? response : resourceCache.intercept(url, method, headers);
+  }
+
+  private void onPageStarted(String url) {
+    if (hibernated) {
+      return;
+    }
+    this.url = url;
+    // A redirect or a new navigation replaces the current one.
+    endNavigationTrace();
+    navigationTraceCookie = WebViewTrace.beginAsyncSection(NAVIGATION_TRACE_SECTION);
+    if (pageLoadMetrics != null) {
+      pageLoadMetrics.onPageStarted(url);
+    }
+    if (navigationStateNotifier != null) {
+      navigationStateNotifier.onPageStarted();
+    }
+  }
+
+  private void onPageCommitVisible() {
+    if (hibernated) {
+      return;
+    }
+    if (pageLoadMetrics != null) {
+      pageLoadMetrics.onPageCommitVisible();
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  private void onReceivedHttpError(WebResourceRequest request, WebResourceResponse response) {
+    if (hibernated) {
+      return;
+    }
+    if (pageLoadMetrics != null && request.isForMainFrame()) {
+      pageLoadMetrics.onMainFrameHttpError(response.getStatusCode());
+    }
+  }
+
+  // Only invoked for the errors of the main frame.
+  private void onReceivedError(int errorCode, String description) {
+    if (hibernated) {
+      return;
+    }
+    if (pageLoadMetrics != null) {
+      pageLoadMetrics.onMainFrameError(errorCode, description);
+    }
+  }
+
   private void onPageFinished(WebView view, String url) {
+    if (hibernated) {
+      return;
+    }
+    endNavigationTrace();
     Map<String, Object> args = new HashMap<>();
     args.put("url", url);
     methodChannel.invokeMethod("onPageFinished", args);
+    if (pageLoadMetrics != null) {
+      pageLoadMetrics.onPageFinished(view);
+    }
+    if (navigationStateNotifier != null) {
+      navigationStateNotifier.onPageFinished();
+    }
+  }
+
+  private void doUpdateVisitedHistory() {
+    if (hibernated) {
+      return;
+    }
+    if (navigationStateNotifier != null) {
+      navigationStateNotifier.scheduleUpdate();
+    }
+  }
+
+  // Returning true keeps the app's process alive, the WebView must then be destroyed.
+  @TargetApi(Build.VERSION_CODES.O)
+  private boolean onRenderProcessGone(RenderProcessGoneDetail detail) {
+    endNavigationTrace();
+    renderProcessGoneHandler.onRenderProcessGone(
+        url, detail.didCrash(), detail.rendererPriorityAtExit());
+    return true;
+  }
+
+  private void endNavigationTrace() {
+    WebViewTrace.endAsyncSection(NAVIGATION_TRACE_SECTION, navigationTraceCookie);
+    navigationTraceCookie = 0;
   }
 
   private void notifyOnNavigationRequest(
@@ -79,23 +297,93 @@ class FlutterWebViewClient {
     args.put("isForMainFrame", isMainFrame);
     if (isMainFrame) {
       methodChannel.invokeMethod(
-          "navigationRequest", args, new OnNavigationRequestResult(url, headers, webview));
-    } else {
-      methodChannel.invokeMethod("navigationRequest", args);
+          "navigationRequest",
+          args,
+          new OnNavigationRequestResult(url, headers, webview, navigationDecisionCache));
+      return;
+    }
+    // The result of subframe navigation requests is ignored, so they don't have to be sent one at
+    // a time.
+    switch (subframeRequestsMode) {
+      case SUBFRAME_REQUESTS_NONE:
+        break;
+      case SUBFRAME_REQUESTS_COALESCED:
+        if (pendingSubframeRequests == 0) {
+          platformThreadHandler.postDelayed(
+              flushSubframeRequests, SUBFRAME_REQUESTS_FLUSH_DELAY_MILLIS);
+        }
+        pendingSubframeUrls.add(url);
+        pendingSubframeRequests++;
+        break;
+      default:
+        methodChannel.invokeMethod("navigationRequest", args);
+        break;
     }
   }
 
   // This method attempts to avoid using WebViewClientCompat due to bug
   // https://bugs.chromium.org/p/chromium/issues/detail?id=925887. Also, see
   // https://github.com/flutter/flutter/issues/29446.
-  WebViewClient createWebViewClient(boolean hasNavigationDelegate) {
+  //
+  // The clients only delegate to this object, so each kind is created once and reused.
+  WebViewClient getWebViewClient(boolean hasNavigationDelegate) {
+    if (this.hasNavigationDelegate != hasNavigationDelegate) {
+      navigationDecisionCache.clear();
+    }
     this.hasNavigationDelegate = hasNavigationDelegate;
+    return getWebViewClient();
+  }
+
+  /** Returns the WebViewClient for the current navigation delegate state and navigation rules. */
+  WebViewClient getWebViewClient() {
+    if (!overridesUrlLoading() || android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+      if (webViewClient == null) {
+        webViewClient = internalCreateWebViewClient();
+      }
+      return webViewClient;
+    }
+
+    if (webViewClientCompat == null) {
+      webViewClientCompat = internalCreateWebViewClientCompat();
+    }
+    return webViewClientCompat;
+  }
+
+  /**
+   * Replaces the navigation rules that are evaluated before asking the Dart navigation delegate.
+   *
+   * <p>Returns true if the WebViewClient may have to be replaced with {@link #getWebViewClient()}
+   * for the new rules to take effect.
+   */
+  boolean setNavigationRules(NavigationRuleSet navigationRules) {
+    boolean overrodeUrlLoading = overridesUrlLoading();
+    this.navigationRules = navigationRules;
+    return overrodeUrlLoading != overridesUrlLoading();
+  }
 
-    if (!hasNavigationDelegate || android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-      return internalCreateWebViewClient();
+  /**
+   * Sets whether the WebView is hibernated, the page events of the blank page it loads while
+   * hibernated are not sent to Dart.
+   */
+  void setHibernated(boolean hibernated) {
+    this.hibernated = hibernated;
+    if (hibernated) {
+      endNavigationTrace();
     }
+  }
+
+  NavigationDecisionCache getNavigationDecisionCache() {
+    return navigationDecisionCache;
+  }
 
-    return internalCreateWebViewClientCompat();
+  Map<String, Object> getContentBlockingStats() {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("blockedRequests", blockedRequests.get());
+    return stats;
+  }
+
+  private boolean overridesUrlLoading() {
+    return hasNavigationDelegate || !navigationRules.isEmpty();
   }
 
   private WebViewClient internalCreateWebViewClient() {
@@ -106,11 +394,58 @@ class FlutterWebViewClient {
         return FlutterWebViewClient.this.shouldOverrideUrlLoading(view, request);
       }
 
+      @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+      @Override
+      public WebResourceResponse shouldInterceptRequest(
+          WebView view, WebResourceRequest request) {
+        return FlutterWebViewClient.this.shouldInterceptRequest(request);
+      }
+
+      @Override
+      public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+        return FlutterWebViewClient.this.shouldInterceptRequest(url);
+      }
+
+      @Override
+      public void onPageStarted(WebView view, String url, Bitmap favicon) {
+        FlutterWebViewClient.this.onPageStarted(url);
+      }
+
+      @TargetApi(Build.VERSION_CODES.M)
+      @Override
+      public void onPageCommitVisible(WebView view, String url) {
+        FlutterWebViewClient.this.onPageCommitVisible();
+      }
+
+      @TargetApi(Build.VERSION_CODES.M)
+      @Override
+      public void onReceivedHttpError(
+          WebView view, WebResourceRequest request, WebResourceResponse errorResponse) {
+        FlutterWebViewClient.this.onReceivedHttpError(request, errorResponse);
+      }
+
+      @Override
+      public void onReceivedError(
+          WebView view, int errorCode, String description, String failingUrl) {
+        FlutterWebViewClient.this.onReceivedError(errorCode, description);
+      }
+
       @Override
       public void onPageFinished(WebView view, String url) {
         FlutterWebViewClient.this.onPageFinished(view, url);
       }
 
+      @Override
+      public void doUpdateVisitedHistory(WebView view, String url, boolean isReload) {
+        FlutterWebViewClient.this.doUpdateVisitedHistory();
+      }
+
+      @TargetApi(Build.VERSION_CODES.O)
+      @Override
+      public boolean onRenderProcessGone(WebView view, RenderProcessGoneDetail detail) {
+        return FlutterWebViewClient.this.onRenderProcessGone(detail);
+      }
+
       @Override
       public void onUnhandledKeyEvent(WebView view, KeyEvent event) {
         // Deliberately empty. Occasionally the webview will mark events as having failed to be
@@ -132,11 +467,57 @@ class FlutterWebViewClient {
         return FlutterWebViewClient.this.shouldOverrideUrlLoading(view, url);
       }
 
+      @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+      @Override
+      public WebResourceResponse shouldInterceptRequest(
+          WebView view, WebResourceRequest request) {
+        return FlutterWebViewClient.this.shouldInterceptRequest(request);
+      }
+
+      @Override
+      public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+        return FlutterWebViewClient.this.shouldInterceptRequest(url);
+      }
+
+      @Override
+      public void onPageStarted(WebView view, String url, Bitmap favicon) {
+        FlutterWebViewClient.this.onPageStarted(url);
+      }
+
+      @Override
+      public void onPageCommitVisible(WebView view, String url) {
+        FlutterWebViewClient.this.onPageCommitVisible();
+      }
+
+      @TargetApi(Build.VERSION_CODES.M)
+      @Override
+      public void onReceivedHttpError(
+          WebView view, WebResourceRequest request, WebResourceResponse errorResponse) {
+        FlutterWebViewClient.this.onReceivedHttpError(request, errorResponse);
+      }
+
+      @Override
+      public void onReceivedError(
+          WebView view, int errorCode, String description, String failingUrl) {
+        FlutterWebViewClient.this.onReceivedError(errorCode, description);
+      }
+
       @Override
       public void onPageFinished(WebView view, String url) {
         FlutterWebViewClient.this.onPageFinished(view, url);
       }
 
+      @Override
+      public void doUpdateVisitedHistory(WebView view, String url, boolean isReload) {
+        FlutterWebViewClient.this.doUpdateVisitedHistory();
+      }
+
+      @TargetApi(Build.VERSION_CODES.O)
+      @Override
+      public boolean onRenderProcessGone(WebView view, RenderProcessGoneDetail detail) {
+        return FlutterWebViewClient.this.onRenderProcessGone(detail);
+      }
+
       @Override
       public void onUnhandledKeyEvent(WebView view, KeyEvent event) {
         // Deliberately empty. Occasionally the webview will mark events as having failed to be
@@ -150,21 +531,60 @@ class FlutterWebViewClient {
     private final String url;
     private final Map<String, String> headers;
     private final WebView webView;
+    private final NavigationDecisionCache navigationDecisionCache;
 
-    private OnNavigationRequestResult(String url, Map<String, String> headers, WebView webView) {
+    private OnNavigationRequestResult(
+        String url,
+        Map<String, String> headers,
+        WebView webView,
+        NavigationDecisionCache navigationDecisionCache) {
       this.url = url;
       this.headers = headers;
       this.webView = webView;
+      this.navigationDecisionCache = navigationDecisionCache;
     }
 
+    // The result is either whether to load the URL, or a map that also holds a directive to cache
+    // the decision.
     @Override
-    public void success(Object shouldLoad) {
-      Boolean typedShouldLoad = (Boolean) shouldLoad;
-      if (typedShouldLoad) {
+    @SuppressWarnings("unchecked")
+    public void success(Object result) {
+      boolean shouldLoad;
+      if (result instanceof Map) {
+        Map<String, Object> response = (Map<String, Object>) result;
+        shouldLoad = Boolean.TRUE.equals(response.get("allow"));
+        cacheDecision(shouldLoad, response);
+      } else {
+        shouldLoad = Boolean.TRUE.equals(result);
+      }
+      if (shouldLoad) {
         loadUrl();
       }
     }
 
+    // An invalid directive is ignored, the decision is still applied.
+    private void cacheDecision(boolean shouldLoad, Map<String, Object> response) {
+      Object scope = response.get("cacheScope");
+      Object pathPrefix = response.get("cachePathPrefix");
+      Object ttlMillis = response.get("cacheTtlMillis");
+      if (!(scope instanceof Integer)
+          || (pathPrefix != null && !(pathPrefix instanceof String))
+          || !(ttlMillis instanceof Number)) {
+        Log.w(TAG, "Ignoring an invalid navigation decision cache directive: " + response);
+        return;
+      }
+      try {
+        navigationDecisionCache.put(
+            url,
+            shouldLoad,
+            (Integer) scope,
+            (String) pathPrefix,
+            ((Number) ttlMillis).longValue());
+      } catch (IllegalArgumentException e) {
+        Log.w(TAG, "Ignoring an invalid navigation decision cache directive", e);
+      }
+    }
+
     @Override
     public void error(String errorCode, String s1, Object o) {
       throw new IllegalStateException("navigationRequest calls must succeed");
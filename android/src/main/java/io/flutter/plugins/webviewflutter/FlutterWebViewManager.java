@@ -0,0 +1,169 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.content.Context;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/** Handles the method calls that configure state shared by all the WebViews of the plugin. */
+class FlutterWebViewManager implements MethodCallHandler {
+  private final MethodChannel methodChannel;
+  private final Context applicationContext;
+  private final WebViewPool webViewPool;
+  private final ResourceCache resourceCache;
+  private final AssetOrigins assetOrigins;
+  private final ContentBlocklist contentBlocklist;
+  private final WebViewMemoryManager memoryManager;
+  private final WebViewStateStore stateStore;
+
+  FlutterWebViewManager(
+      BinaryMessenger messenger,
+      Context applicationContext,
+      WebViewPool webViewPool,
+      ResourceCache resourceCache,
+      AssetOrigins assetOrigins,
+      ContentBlocklist contentBlocklist,
+      WebViewMemoryManager memoryManager,
+      WebViewStateStore stateStore) {
+    this.applicationContext = applicationContext;
+    this.webViewPool = webViewPool;
+    this.resourceCache = resourceCache;
+    this.assetOrigins = assetOrigins;
+    this.contentBlocklist = contentBlocklist;
+    this.memoryManager = memoryManager;
+    this.stateStore = stateStore;
+    methodChannel = new MethodChannel(messenger, "plugins.flutter.io/webview_manager");
+    methodChannel.setMethodCallHandler(this);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void onMethodCall(MethodCall methodCall, Result result) {
+    switch (methodCall.method) {
+      case "configurePool":
+        configurePool(methodCall, result);
+        break;
+      case "getPoolStats":
+        result.success(webViewPool.getStats());
+        break;
+      case "getCreationMetrics":
+        result.success(FlutterWebView.getCreationMetrics());
+        break;
+      case "configureResourceCache":
+        configureResourceCache(methodCall, result);
+        break;
+      case "getResourceCacheStats":
+        result.success(resourceCache.getStats());
+        break;
+      case "clearResourceCache":
+        resourceCache.clear();
+        result.success(null);
+        break;
+      case "registerAssetOrigin":
+        registerAssetOrigin(methodCall, result);
+        break;
+      case "unregisterAssetOrigin":
+        assetOrigins.unregister((String) methodCall.arguments);
+        result.success(null);
+        break;
+      case "setContentBlocklist":
+        result.success(contentBlocklist.set((List<String>) methodCall.arguments));
+        break;
+      case "setMethodCallMetricsEnabled":
+        MethodCallMetrics.setEnabled((Boolean) methodCall.arguments);
+        result.success(null);
+        break;
+      case "setTracingEnabled":
+        WebViewTrace.setEnabled((Boolean) methodCall.arguments);
+        result.success(null);
+        break;
+      case "configureMemoryPolicy":
+        memoryManager.configure((Integer) methodCall.arguments);
+        result.success(null);
+        break;
+      case "getMemoryStats":
+        result.success(memoryManager.getStats());
+        break;
+      case "configureStateStore":
+        configureStateStore(methodCall, result);
+        break;
+      case "getStateStoreStats":
+        result.success(stateStore.getStats());
+        break;
+      case "removeSavedState":
+        stateStore.remove((String) methodCall.arguments);
+        result.success(null);
+        break;
+      case "clearSavedStates":
+        stateStore.clear();
+        result.success(null);
+        break;
+      case "warmUp":
+        result.success(WebViewProviderWarmUp.warmUp(applicationContext));
+        break;
+      default:
+        result.notImplemented();
+    }
+  }
+
+  void dispose() {
+    methodChannel.setMethodCallHandler(null);
+    memoryManager.dispose();
+    webViewPool.clear();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void configurePool(MethodCall methodCall, Result result) {
+    Map<String, Object> arguments = (Map<String, Object>) methodCall.arguments;
+    webViewPool.configure((Integer) arguments.get("maxSize"), (Integer) arguments.get("warmUp"));
+    result.success(null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void configureStateStore(MethodCall methodCall, Result result) {
+    Map<String, Object> arguments = (Map<String, Object>) methodCall.arguments;
+    stateStore.configure(
+        (Integer) arguments.get("maxEntries"), (Integer) arguments.get("maxDiskEntries"));
+    result.success(null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void configureResourceCache(MethodCall methodCall, Result result) {
+    Map<String, Object> arguments = (Map<String, Object>) methodCall.arguments;
+    resourceCache.configure(
+        ((Number) arguments.get("maxBytes")).longValue(),
+        (List<String>) arguments.get("urlPatterns"),
+        (List<String>) arguments.get("revalidateUrlPatterns"),
+        (Integer) arguments.get("maxMemoryBytes"));
+    result.success(null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void registerAssetOrigin(MethodCall methodCall, Result result) {
+    Map<String, Object> arguments = (Map<String, Object>) methodCall.arguments;
+    String origin = (String) arguments.get("origin");
+    String archivePath = (String) arguments.get("archivePath");
+    if (archivePath == null) {
+      assetOrigins.registerAssetDirectory(origin, (String) arguments.get("assetDirectory"));
+      result.success(null);
+      return;
+    }
+    try {
+      assetOrigins.registerArchive(origin, archivePath);
+    } catch (IOException e) {
+      result.error(
+          "registerAssetOrigin_failed", "Failed to open " + archivePath + ": " + e, null);
+      return;
+    }
+    result.success(null);
+  }
+}
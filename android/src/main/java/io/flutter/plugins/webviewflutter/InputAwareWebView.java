@@ -163,26 +163,38 @@ final class InputAwareWebView extends WebView {
       return;
     }
 
-    targetView.requestFocus();
+    boolean traced = WebViewTrace.beginSection("InputAwareWebView.setInputConnectionTarget");
+    try {
+      targetView.requestFocus();
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
     containerView.post(
         new Runnable() {
           @Override
           public void run() {
-            InputMethodManager imm =
-                (InputMethodManager) getContext().getSystemService(INPUT_METHOD_SERVICE);
-            // This is a hack to make InputMethodManager believe that the target view now has focus.
-            // As a result, InputMethodManager will think that targetView is focused, and will call
-            // getHandler() of the view when creating input connection.
-
-            // Step 1: Set targetView as InputMethodManager#mNextServedView. This does not affect
-            // the real window focus.
-            targetView.onWindowFocusChanged(true);
-
-            // Step 2: Have InputMethodManager focus in on targetView. As a result, IMM will call
-            // onCreateInputConnection() on targetView on the same thread as
-            // targetView.getHandler(). It will also call subsequent InputConnection methods on this
-            // thread. This is the IME thread in cases where targetView is our proxyAdapterView.
-            imm.isActive(containerView);
+            boolean traced =
+                WebViewTrace.beginSection("InputAwareWebView.setInputConnectionTarget#focus");
+            try {
+              InputMethodManager imm =
+                  (InputMethodManager) getContext().getSystemService(INPUT_METHOD_SERVICE);
+              // This is a hack to make InputMethodManager believe that the target view now has
+              // focus. As a result, InputMethodManager will think that targetView is focused, and
+              // will call getHandler() of the view when creating input connection.
+
+              // Step 1: Set targetView as InputMethodManager#mNextServedView. This does not affect
+              // the real window focus.
+              targetView.onWindowFocusChanged(true);
+
+              // Step 2: Have InputMethodManager focus in on targetView. As a result, IMM will call
+              // onCreateInputConnection() on targetView on the same thread as
+              // targetView.getHandler(). It will also call subsequent InputConnection methods on
+              // this thread. This is the IME thread in cases where targetView is our
+              // proxyAdapterView.
+              imm.isActive(containerView);
+            } finally {
+              WebViewTrace.endSection(traced);
+            }
           }
         });
   }
@@ -0,0 +1,145 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Builds and parses the single script that evaluates a batch of scripts in one {@code
+ * evaluateJavascript} invocation.
+ *
+ * <p>Each script is evaluated with an indirect eval, so it runs in the global scope like a script
+ * passed to {@code evaluateJavascript} directly. Its completion value is serialized with {@code
+ * JSON.stringify}, and any exception it throws is captured so that it doesn't prevent the rest of
+ * the batch from running.
+ *
+ * <p>Scripts that are not combined are wrapped one by one the same way, except that their
+ * completion value is serialized by the WebView as for a plain {@code evaluateJavascript} call.
+ */
+final class JavaScriptBatch {
+  private static final String COMBINED_SCRIPT_PREFIX =
+      "(function(scripts) {"
+          + "  var results = [];"
+          + "  for (var i = 0; i < scripts.length; i++) {"
+          + "    try {"
+          + "      var json = JSON.stringify((0, eval)(scripts[i]));"
+          + "      results.push([0, json === undefined ? null : json]);"
+          + "    } catch (e) {"
+          + "      results.push([1, String(e)]);"
+          + "    }"
+          + "  }"
+          + "  return results;"
+          + "})([";
+  private static final String COMBINED_SCRIPT_SUFFIX = "])";
+  private static final String WRAPPED_SCRIPT_PREFIX =
+      "(function(script) {"
+          + "  try {"
+          + "    return [0, (0, eval)(script)];"
+          + "  } catch (e) {"
+          + "    return [1, String(e)];"
+          + "  }"
+          + "})(";
+  private static final String WRAPPED_SCRIPT_SUFFIX = ")";
+
+  private JavaScriptBatch() {}
+
+  /** Returns a script evaluating all of {@code scripts} in order. */
+  static String combine(List<String> scripts) {
+    StringBuilder combined = new StringBuilder(COMBINED_SCRIPT_PREFIX);
+    for (int i = 0; i < scripts.size(); i++) {
+      if (i > 0) {
+        combined.append(',');
+      }
+      // JSON strings may contain the line and paragraph separators, which are line terminators in
+      // JavaScript string literals.
+      combined.append(quote(scripts.get(i)));
+    }
+    return combined.append(COMBINED_SCRIPT_SUFFIX).toString();
+  }
+
+  /** Returns a script evaluating {@code script} and capturing the exception it throws. */
+  static String wrap(String script) {
+    return WRAPPED_SCRIPT_PREFIX + quote(script) + WRAPPED_SCRIPT_SUFFIX;
+  }
+
+  /**
+   * Parses the value a script returned by {@link #wrap} evaluated to into a result, see {@link
+   * #parseCombinedResults}.
+   */
+  static Map<String, Object> parseWrappedResult(String value) {
+    JSONArray entry;
+    try {
+      entry = new JSONArray(value);
+    } catch (JSONException e) {
+      return error("The JavaScript script did not evaluate to a result: " + value);
+    }
+    if (entry.optInt(0) != 0) {
+      return error(entry.optString(1));
+    }
+    // The completion value is returned as formatted by the WebView, like the value of a plain
+    // evaluateJavascript call, instead of being formatted again. The status before it is a number.
+    int start = value.indexOf(',');
+    int end = value.lastIndexOf(']');
+    if (entry.length() != 2 || start < 0 || end <= start) {
+      return error("The JavaScript script did not evaluate to a result: " + value);
+    }
+    return result(value.substring(start + 1, end).trim());
+  }
+
+  /**
+   * Parses the value the combined script evaluated to into one result per script.
+   *
+   * <p>A result is a map with either a "result" key holding the JSON formatted completion value of
+   * the script, or an "error" key holding the exception it threw.
+   */
+  static List<Map<String, Object>> parseCombinedResults(String value, int scriptCount) {
+    List<Map<String, Object>> results = new ArrayList<>(scriptCount);
+    JSONArray entries;
+    try {
+      entries = new JSONArray(value);
+    } catch (JSONException e) {
+      // The combined script didn't run, e.g because JavaScript is disabled.
+      for (int i = 0; i < scriptCount; i++) {
+        results.add(error("The JavaScript batch did not evaluate to a list of results: " + value));
+      }
+      return results;
+    }
+    for (int i = 0; i < entries.length(); i++) {
+      JSONArray entry = entries.optJSONArray(i);
+      if (entry == null) {
+        results.add(error("Missing result"));
+      } else if (entry.optInt(0) == 0) {
+        results.add(result(entry.isNull(1) ? "null" : entry.optString(1)));
+      } else {
+        results.add(error(entry.optString(1)));
+      }
+    }
+    return results;
+  }
+
+  // JSON strings may contain the line and paragraph separators, which are line terminators in
+  // JavaScript string literals.
+  private static String quote(String script) {
+    return JSONObject.quote(script).replace("\u2028", "\\u2028").replace("\u2029", "\\u2029");
+  }
+
+  private static Map<String, Object> result(String result) {
+    Map<String, Object> entry = new HashMap<>();
+    entry.put("result", result);
+    return entry;
+  }
+
+  private static Map<String, Object> error(String error) {
+    Map<String, Object> entry = new HashMap<>();
+    entry.put("error", error);
+    return entry;
+  }
+}
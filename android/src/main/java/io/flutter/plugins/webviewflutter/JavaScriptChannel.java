@@ -6,47 +6,90 @@ package io.flutter.plugins.webviewflutter;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
 import android.webkit.JavascriptInterface;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodChannel;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 
 /**
  * Added as a JavaScript interface to the WebView for any JavaScript channel that the Dart code sets
  * up.
  *
- * <p>Exposes a single method named `postMessage` to JavaScript, which sends a message over a method
+ * <p>Exposes a method named `postMessage` to JavaScript, which sends a message over a method
  * channel to the Dart code.
+ *
+ * <p>Also exposes `postBinaryMessage`, which takes a base64 encoded payload, decodes it natively
+ * and sends the bytes over a binary channel to the Dart code. This avoids sending the base64
+ * string through the standard codec and decoding it in Dart.
  */
 class JavaScriptChannel {
+  private static final String TAG = "JavaScriptChannel";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
   private final MethodChannel methodChannel;
   private final String javaScriptChannelName;
   private final Handler platformThreadHandler;
+  private final JavaScriptMessageBatcher messageBatcher;
+  private final BinaryMessenger binaryMessenger;
+  private final String binaryChannelName;
+  private final byte[] encodedJavaScriptChannelName;
+  private final MethodCallMetrics methodCallMetrics;
 
   /**
    * @param methodChannel the Flutter WebView method channel to which JS messages are sent
    * @param javaScriptChannelName the name of the JavaScript channel, this is sent over the method
    *     channel with each message to let the Dart code know which JavaScript channel the message
    *     was sent through
+   * @param messageBatcher when not null messages are queued in this batcher instead of being sent
+   *     one method channel invocation at a time
+   * @param binaryMessenger the messenger binary messages are sent with
+   * @param binaryChannelName the name of the Flutter WebView channel binary messages are sent to
+   * @param methodCallMetrics records the binary messages, which aren't sent over the method
+   *     channel
    */
   JavaScriptChannel(
-      MethodChannel methodChannel, String javaScriptChannelName, Handler platformThreadHandler) {
+      MethodChannel methodChannel,
+      String javaScriptChannelName,
+      Handler platformThreadHandler,
+      JavaScriptMessageBatcher messageBatcher,
+      BinaryMessenger binaryMessenger,
+      String binaryChannelName,
+      MethodCallMetrics methodCallMetrics) {
     this.methodChannel = methodChannel;
     this.javaScriptChannelName = javaScriptChannelName;
     this.platformThreadHandler = platformThreadHandler;
+    this.messageBatcher = messageBatcher;
+    this.binaryMessenger = binaryMessenger;
+    this.binaryChannelName = binaryChannelName;
+    this.encodedJavaScriptChannelName = javaScriptChannelName.getBytes(UTF_8);
+    this.methodCallMetrics = methodCallMetrics;
   }
 
   // Suppressing unused warning as this is invoked from JavaScript.
   @SuppressWarnings("unused")
   @JavascriptInterface
   public void postMessage(final String message) {
+    if (messageBatcher != null) {
+      messageBatcher.add(javaScriptChannelName, message);
+      return;
+    }
     Runnable postMessageRunnable =
         new Runnable() {
           @Override
           public void run() {
-            HashMap<String, String> arguments = new HashMap<>();
-            arguments.put("channel", javaScriptChannelName);
-            arguments.put("message", message);
-            methodChannel.invokeMethod("javascriptChannelMessage", arguments);
+            boolean traced = WebViewTrace.beginSection("JavaScriptChannel.postMessage");
+            try {
+              HashMap<String, String> arguments = new HashMap<>();
+              arguments.put("channel", javaScriptChannelName);
+              arguments.put("message", message);
+              methodChannel.invokeMethod("javascriptChannelMessage", arguments);
+            } finally {
+              WebViewTrace.endSection(traced);
+            }
           }
         };
     if (platformThreadHandler.getLooper() == Looper.myLooper()) {
@@ -55,4 +98,57 @@ class JavaScriptChannel {
       platformThreadHandler.post(postMessageRunnable);
     }
   }
+
+  /**
+   * Sends a binary message to the Dart code.
+   *
+   * <p>The message is sent to the binary channel as the length of the UTF-8 encoded channel name
+   * (2 bytes, big endian), the encoded channel name and the payload. Binary messages are never
+   * batched, so they are not ordered with respect to batched `postMessage` messages.
+   *
+   * <p>A payload that isn't valid base64 is logged and dropped.
+   *
+   * @param base64Message the base64 encoded payload
+   */
+  // Suppressing unused warning as this is invoked from JavaScript.
+  @SuppressWarnings("unused")
+  @JavascriptInterface
+  public void postBinaryMessage(String base64Message) {
+    if (base64Message == null) {
+      Log.w(TAG, "Dropping a null binary message sent to " + javaScriptChannelName);
+      return;
+    }
+    byte[] payload;
+    try {
+      payload = Base64.decode(base64Message, Base64.DEFAULT);
+    } catch (IllegalArgumentException e) {
+      Log.w(TAG, "Dropping an invalid base64 binary message sent to " + javaScriptChannelName, e);
+      return;
+    }
+    // The engine requires direct buffers for platform messages.
+    final ByteBuffer message =
+        ByteBuffer.allocateDirect(2 + encodedJavaScriptChannelName.length + payload.length);
+    message.putShort((short) encodedJavaScriptChannelName.length);
+    message.put(encodedJavaScriptChannelName);
+    message.put(payload);
+    // Like the standard codecs the buffer isn't flipped, the messenger sends up to its position.
+    Runnable postBinaryMessageRunnable =
+        new Runnable() {
+          @Override
+          public void run() {
+            boolean traced = WebViewTrace.beginSection("JavaScriptChannel.postBinaryMessage");
+            try {
+              methodCallMetrics.recordEvent("javascriptChannelBinaryMessage");
+              binaryMessenger.send(binaryChannelName, message);
+            } finally {
+              WebViewTrace.endSection(traced);
+            }
+          }
+        };
+    if (platformThreadHandler.getLooper() == Looper.myLooper()) {
+      postBinaryMessageRunnable.run();
+    } else {
+      platformThreadHandler.post(postBinaryMessageRunnable);
+    }
+  }
 }
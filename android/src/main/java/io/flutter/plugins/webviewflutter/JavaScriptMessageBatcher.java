@@ -0,0 +1,119 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.os.Handler;
+import android.view.Choreographer;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces the messages posted to a WebView's JavaScript channels into a single method channel
+ * invocation per frame.
+ *
+ * <p>Messages are queued on the JavaBridge thread without locking, and flushed on the platform
+ * thread once per vsync, or as soon as {@code maxBatchSize} messages are pending. Each flush is a
+ * single `javascriptChannelMessages` invocation carrying the messages of all channels in the order
+ * they were posted.
+ */
+final class JavaScriptMessageBatcher {
+  private final MethodChannel methodChannel;
+  private final Handler platformThreadHandler;
+  private final int maxBatchSize;
+
+  private final ConcurrentLinkedQueue<Map<String, String>> pendingMessages =
+      new ConcurrentLinkedQueue<>();
+  // ConcurrentLinkedQueue#size is linear, so the pending messages are counted separately.
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicBoolean frameFlushScheduled = new AtomicBoolean();
+  private boolean disposed;
+
+  private final Choreographer.FrameCallback flushOnFrame =
+      new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          frameFlushScheduled.set(false);
+          flush();
+        }
+      };
+
+  private final Runnable scheduleFrameFlush =
+      new Runnable() {
+        @Override
+        public void run() {
+          if (disposed) {
+            return;
+          }
+          Choreographer.getInstance().postFrameCallback(flushOnFrame);
+        }
+      };
+
+  private final Runnable flushNow =
+      new Runnable() {
+        @Override
+        public void run() {
+          flush();
+        }
+      };
+
+  /**
+   * @param methodChannel the Flutter WebView method channel to which JS messages are sent
+   * @param platformThreadHandler a handler of the platform thread, on which messages are flushed
+   * @param maxBatchSize the number of pending messages that triggers a flush before the next frame
+   */
+  JavaScriptMessageBatcher(
+      MethodChannel methodChannel, Handler platformThreadHandler, int maxBatchSize) {
+    this.methodChannel = methodChannel;
+    this.platformThreadHandler = platformThreadHandler;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /** Queues a message, this can be called from any thread. */
+  void add(String javaScriptChannelName, String message) {
+    Map<String, String> entry = new HashMap<>();
+    entry.put("channel", javaScriptChannelName);
+    entry.put("message", message);
+    pendingMessages.offer(entry);
+
+    // Only the message that reaches the threshold schedules an immediate flush, the flush resets
+    // the count.
+    if (pendingCount.incrementAndGet() == maxBatchSize) {
+      platformThreadHandler.post(flushNow);
+    } else if (frameFlushScheduled.compareAndSet(false, true)) {
+      platformThreadHandler.post(scheduleFrameFlush);
+    }
+  }
+
+  /** Drops the pending messages and stops flushing. Must be called on the platform thread. */
+  void dispose() {
+    disposed = true;
+    platformThreadHandler.removeCallbacks(flushNow);
+    platformThreadHandler.removeCallbacks(scheduleFrameFlush);
+    Choreographer.getInstance().removeFrameCallback(flushOnFrame);
+    pendingMessages.clear();
+  }
+
+  private void flush() {
+    if (disposed) {
+      return;
+    }
+    List<Map<String, String>> messages = new ArrayList<>();
+    Map<String, String> message;
+    while ((message = pendingMessages.poll()) != null) {
+      pendingCount.decrementAndGet();
+      messages.add(message);
+    }
+    if (messages.isEmpty()) {
+      return;
+    }
+    methodChannel.invokeMethod("javascriptChannelMessages", messages);
+  }
+}
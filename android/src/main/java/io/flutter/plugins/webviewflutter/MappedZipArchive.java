@@ -0,0 +1,250 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A read-only zip archive that is memory-mapped instead of read into the heap.
+ *
+ * <p>Only the central directory is parsed when the archive is opened. Stored entries are served as
+ * slices of the mapped file, and deflated entries are inflated from the mapped file as they are
+ * read. Zip64 archives are not supported. A truncated or corrupt archive throws an {@link
+ * IOException}.
+ *
+ * <p>This is safe to use from multiple threads once opened.
+ */
+final class MappedZipArchive {
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int MAX_COMMENT_SIZE = 0xffff;
+  private static final int METHOD_STORED = 0;
+  private static final int METHOD_DEFLATED = 8;
+
+  private final ByteBuffer buffer;
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  private MappedZipArchive(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    readCentralDirectory();
+  }
+
+  static MappedZipArchive open(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      ByteBuffer buffer =
+          randomAccessFile
+              .getChannel()
+              .map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return new MappedZipArchive(buffer);
+    } finally {
+      // The mapping stays valid after the file is closed.
+      randomAccessFile.close();
+    }
+  }
+
+  /** Returns the entry named {@code name}, or null if the archive has no such file. */
+  Entry getEntry(String name) {
+    return entries.get(name);
+  }
+
+  /**
+   * Returns the contents of a stored entry without copying them, or null if the entry is
+   * compressed.
+   */
+  ByteBuffer getStoredData(Entry entry) throws IOException {
+    if (entry.method != METHOD_STORED) {
+      return null;
+    }
+    return slice(dataOffset(entry), entry.size, entry);
+  }
+
+  /** Returns a stream of the uncompressed contents of an entry. */
+  InputStream getInputStream(Entry entry) throws IOException {
+    ByteBuffer data = slice(dataOffset(entry), entry.compressedSize, entry);
+    switch (entry.method) {
+      case METHOD_STORED:
+        return new ByteBufferInputStream(data);
+      case METHOD_DEFLATED:
+        return new EntryInflaterInputStream(new ByteBufferInputStream(data));
+      default:
+        throw new IOException("Unsupported compression method " + entry.method + " for " + entry);
+    }
+  }
+
+  private void readCentralDirectory() throws IOException {
+    try {
+      readCentralDirectoryEntries();
+    } catch (IndexOutOfBoundsException | IllegalArgumentException | BufferUnderflowException e) {
+      // An offset or a length points past the end of the archive.
+      throw new IOException("Truncated or corrupt zip archive", e);
+    }
+  }
+
+  private void readCentralDirectoryEntries() throws IOException {
+    int endOfCentralDirectory = -1;
+    int minOffset = Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_SIZE);
+    for (int offset = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        offset >= minOffset;
+        offset--) {
+      if (buffer.getInt(offset) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+        endOfCentralDirectory = offset;
+        break;
+      }
+    }
+    if (endOfCentralDirectory < 0) {
+      throw new IOException("Not a zip archive");
+    }
+    int entryCount = buffer.getShort(endOfCentralDirectory + 10) & 0xffff;
+    int offset = buffer.getInt(endOfCentralDirectory + 16);
+    Charset utf8 = Charset.forName("UTF-8");
+    for (int i = 0; i < entryCount; i++) {
+      if (buffer.getInt(offset) != CENTRAL_DIRECTORY_SIGNATURE) {
+        throw new IOException("Corrupt zip central directory");
+      }
+      int method = buffer.getShort(offset + 10) & 0xffff;
+      int compressedSize = buffer.getInt(offset + 20);
+      int size = buffer.getInt(offset + 24);
+      int nameLength = buffer.getShort(offset + 28) & 0xffff;
+      int extraLength = buffer.getShort(offset + 30) & 0xffff;
+      int commentLength = buffer.getShort(offset + 32) & 0xffff;
+      int localHeaderOffset = buffer.getInt(offset + 42);
+      if (compressedSize < 0 || size < 0 || localHeaderOffset < 0) {
+        throw new IOException("Zip64 archives are not supported");
+      }
+      byte[] name = new byte[nameLength];
+      ByteBuffer nameBuffer = buffer.duplicate();
+      nameBuffer.position(offset + CENTRAL_DIRECTORY_HEADER_SIZE);
+      nameBuffer.get(name);
+      String entryName = new String(name, utf8);
+      if (!entryName.endsWith("/")) {
+        entries.put(
+            entryName, new Entry(entryName, method, compressedSize, size, localHeaderOffset));
+      }
+      offset += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+  }
+
+  // The local header's extra field can differ from the central directory's, so the data offset is
+  // read from the local header.
+  private int dataOffset(Entry entry) throws IOException {
+    if (entry.localHeaderOffset > buffer.limit() - LOCAL_HEADER_SIZE
+        || buffer.getInt(entry.localHeaderOffset) != LOCAL_HEADER_SIGNATURE) {
+      throw new IOException("Corrupt zip local header for " + entry);
+    }
+    int nameLength = buffer.getShort(entry.localHeaderOffset + 26) & 0xffff;
+    int extraLength = buffer.getShort(entry.localHeaderOffset + 28) & 0xffff;
+    return entry.localHeaderOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+  }
+
+  private ByteBuffer slice(int offset, int length, Entry entry) throws IOException {
+    // Compared as longs, the sum of the offset and the length may overflow.
+    if ((long) offset + length > buffer.limit()) {
+      throw new IOException("Truncated zip entry " + entry);
+    }
+    ByteBuffer slice = buffer.duplicate();
+    slice.position(offset);
+    slice.limit(offset + length);
+    return slice.slice();
+  }
+
+  static final class Entry {
+    final String name;
+    final int method;
+    final int compressedSize;
+    // The uncompressed size.
+    final int size;
+    final int localHeaderOffset;
+
+    private Entry(String name, int method, int compressedSize, int size, int localHeaderOffset) {
+      this.name = name;
+      this.method = method;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /** Inflates a deflated entry, and releases the native memory of its inflater once closed. */
+  private static final class EntryInflaterInputStream extends InflaterInputStream {
+    EntryInflaterInputStream(InputStream in) {
+      super(in, new Inflater(true));
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        // The inflater isn't ended by InflaterInputStream when it is passed to the constructor.
+        inf.end();
+      }
+    }
+  }
+
+  /** An {@link InputStream} reading the remaining bytes of a {@link ByteBuffer}. */
+  static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      length = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, length);
+      return length;
+    }
+
+    @Override
+    public long skip(long count) {
+      if (count <= 0) {
+        return 0;
+      }
+      int skipped = (int) Math.min(count, buffer.remaining());
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
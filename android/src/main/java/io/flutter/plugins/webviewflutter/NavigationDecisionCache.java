@@ -0,0 +1,182 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of the decisions the Dart navigation delegate asked to reuse, so that repeat
+ * navigations are decided without a round trip to Dart.
+ *
+ * <p>A decision is cached for the exact URL, for the URL's origin, or for a path prefix of the
+ * URL's origin, and expires after its time to live. When several cached decisions apply to a URL
+ * the most specific one wins: the exact URL, then the longest path prefix, then the origin.
+ *
+ * <p>All methods must be called on the platform thread.
+ */
+final class NavigationDecisionCache {
+  /** The decision applies to the exact URL. */
+  static final int SCOPE_URL = 0;
+  /** The decision applies to all the URLs with the same scheme, host and port. */
+  static final int SCOPE_ORIGIN = 1;
+  /** The decision applies to all the URLs of the origin whose path starts with a prefix. */
+  static final int SCOPE_PATH_PREFIX = 2;
+
+  private static final int MAX_SIZE = 256;
+
+  // Keys are prefixed with the scope so that an URL can't collide with an origin or path prefix.
+  private final LinkedHashMap<String, Entry> entries =
+      new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+          return size() > MAX_SIZE;
+        }
+      };
+
+  private int hits;
+  private int misses;
+
+  /**
+   * Returns the cached decision for {@code url}, or null if the Dart navigation delegate has to be
+   * asked.
+   */
+  Boolean get(String url) {
+    if (entries.isEmpty()) {
+      misses++;
+      return null;
+    }
+    long now = SystemClock.elapsedRealtime();
+    Boolean allow = lookUp("u" + url, now);
+    if (allow == null) {
+      Uri uri = Uri.parse(url);
+      String origin = origin(uri);
+      if (origin != null) {
+        String path = uri.getPath();
+        int slash = path == null ? -1 : path.lastIndexOf('/');
+        while (allow == null && slash >= 0) {
+          allow = lookUp("p" + origin + path.substring(0, slash + 1), now);
+          slash = path.lastIndexOf('/', slash - 1);
+        }
+        if (allow == null) {
+          allow = lookUp("o" + origin, now);
+        }
+      }
+    }
+    if (allow == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return allow;
+  }
+
+  /**
+   * Caches the decision made for {@code url}.
+   *
+   * <p>{@code pathPrefix} is only used with {@link #SCOPE_PATH_PREFIX}, and must be made of whole
+   * segments of the path of {@code url}. A missing leading or trailing slash is added, so that
+   * {@code /docs} applies to {@code /docs/} and its subpaths, but not to {@code /docsearch}.
+   */
+  void put(String url, boolean allow, int scope, String pathPrefix, long ttlMillis) {
+    if (ttlMillis <= 0) {
+      return;
+    }
+    String key;
+    switch (scope) {
+      case SCOPE_URL:
+        key = "u" + url;
+        break;
+      case SCOPE_ORIGIN:
+      case SCOPE_PATH_PREFIX:
+        Uri uri = Uri.parse(url);
+        String origin = origin(uri);
+        if (origin == null) {
+          return;
+        }
+        if (scope == SCOPE_ORIGIN) {
+          key = "o" + origin;
+          break;
+        }
+        key = "p" + origin + normalizePathPrefix(pathPrefix, uri.getPath());
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown navigation decision cache scope: " + scope);
+    }
+    entries.put(key, new Entry(allow, SystemClock.elapsedRealtime() + ttlMillis));
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  Map<String, Object> getStats() {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("hits", hits);
+    stats.put("misses", misses);
+    stats.put("size", entries.size());
+    return stats;
+  }
+
+  // Returns the path prefix with a leading and a trailing slash, the lookups only try the prefixes
+  // that end at a slash of the path.
+  private static String normalizePathPrefix(String pathPrefix, String path) {
+    if (pathPrefix == null) {
+      throw new IllegalArgumentException("A navigation decision path prefix must not be null");
+    }
+    if (!pathPrefix.startsWith("/")) {
+      pathPrefix = "/" + pathPrefix;
+    }
+    if (!pathPrefix.endsWith("/")) {
+      pathPrefix = pathPrefix + "/";
+    }
+    // The path itself is a prefix of its subpaths, e.g /docs/ for /docs.
+    String directory = path == null || path.endsWith("/") ? path : path + "/";
+    if (directory == null || !directory.startsWith(pathPrefix)) {
+      throw new IllegalArgumentException(
+          "The navigation decision path prefix " + pathPrefix + " isn't a prefix of " + path);
+    }
+    return pathPrefix;
+  }
+
+  private Boolean lookUp(String key, long now) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt <= now) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.allow;
+  }
+
+  private static String origin(Uri uri) {
+    String scheme = uri.getScheme();
+    String host = uri.getHost();
+    if (scheme == null || host == null) {
+      return null;
+    }
+    return scheme.toLowerCase(Locale.US)
+        + "://"
+        + host.toLowerCase(Locale.US)
+        + ":"
+        + uri.getPort();
+  }
+
+  private static final class Entry {
+    final boolean allow;
+    final long expiresAt;
+
+    Entry(boolean allow, long expiresAt) {
+      this.allow = allow;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.net.Uri;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An immutable, ordered list of navigation rules that is evaluated synchronously when the WebView
+ * asks whether to override a URL load.
+ *
+ * <p>A rule matches a URL when all of its conditions (scheme, host suffix, path prefix and
+ * pattern) match, and the first matching rule decides the navigation. Rules with a host suffix are
+ * indexed in a trie keyed by the host's labels from the top level domain down, so only the rules
+ * whose suffix matches the URL's host and the rules without a host suffix are checked.
+ */
+final class NavigationRuleSet {
+  private static final String TAG = "NavigationRuleSet";
+
+  /** Returned by {@link #match} when no rule matches the URL. */
+  static final int NO_MATCH = -1;
+  /** The navigation is allowed without asking the Dart navigation delegate. */
+  static final int ACTION_ALLOW = 0;
+  /** The navigation is prevented without asking the Dart navigation delegate. */
+  static final int ACTION_DENY = 1;
+  /** The navigation is decided by the Dart navigation delegate. */
+  static final int ACTION_DELEGATE = 2;
+
+  static final NavigationRuleSet EMPTY = new NavigationRuleSet(new ArrayList<Rule>());
+
+  private final Rule[] rules;
+  private final HostNode hostTrie = new HostNode();
+  // Indexes of the rules that match any host, in ascending order.
+  private final List<Integer> anyHostRules = new ArrayList<>();
+
+  private NavigationRuleSet(List<Rule> rules) {
+    this.rules = rules.toArray(new Rule[rules.size()]);
+    for (int i = 0; i < this.rules.length; i++) {
+      String hostSuffix = this.rules[i].hostSuffix;
+      if (hostSuffix == null) {
+        anyHostRules.add(i);
+        continue;
+      }
+      HostNode node = hostTrie;
+      String[] labels = hostSuffix.split("\\.");
+      for (int label = labels.length - 1; label >= 0; label--) {
+        node = node.getOrCreateChild(labels[label]);
+      }
+      node.rules.add(i);
+    }
+  }
+
+  /**
+   * Builds a rule set from the list of rules sent by the Dart side.
+   *
+   * <p>Each rule is a map with an "action" and optional "scheme", "hostSuffix", "pathPrefix" and
+   * "pattern" entries.
+   *
+   * <p>A rule whose pattern is not a valid regular expression is logged and skipped when {@code
+   * skipInvalidPatterns} is true, otherwise a {@link PatternSyntaxException} is thrown.
+   */
+  static NavigationRuleSet fromList(
+      List<Map<String, Object>> ruleMaps, boolean skipInvalidPatterns) {
+    if (ruleMaps == null || ruleMaps.isEmpty()) {
+      return EMPTY;
+    }
+    List<Rule> rules = new ArrayList<>(ruleMaps.size());
+    for (Map<String, Object> ruleMap : ruleMaps) {
+      int action = (Integer) ruleMap.get("action");
+      if (action < ACTION_ALLOW || action > ACTION_DELEGATE) {
+        throw new IllegalArgumentException("Unknown navigation rule action: " + action);
+      }
+      String scheme = (String) ruleMap.get("scheme");
+      String pattern = (String) ruleMap.get("pattern");
+      Pattern compiledPattern = null;
+      if (pattern != null) {
+        try {
+          compiledPattern = Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+          if (!skipInvalidPatterns) {
+            throw e;
+          }
+          Log.w(TAG, "Skipping the navigation rule with the invalid pattern " + pattern, e);
+          continue;
+        }
+      }
+      rules.add(
+          new Rule(
+              action,
+              scheme == null ? null : scheme.toLowerCase(Locale.US),
+              normalizeHost((String) ruleMap.get("hostSuffix")),
+              (String) ruleMap.get("pathPrefix"),
+              compiledPattern));
+    }
+    return new NavigationRuleSet(rules);
+  }
+
+  boolean isEmpty() {
+    return rules.length == 0;
+  }
+
+  /** Returns the action of the first rule matching {@code url}, or {@link #NO_MATCH}. */
+  int match(String url) {
+    if (rules.length == 0) {
+      return NO_MATCH;
+    }
+    Uri uri = Uri.parse(url);
+    int firstMatch = firstMatch(anyHostRules, uri, url, Integer.MAX_VALUE);
+    String host = normalizeHost(uri.getHost());
+    if (host != null) {
+      HostNode node = hostTrie;
+      int end = host.length();
+      while (end > 0 && node != null) {
+        int start = host.lastIndexOf('.', end - 1) + 1;
+        node = node.children == null ? null : node.children.get(host.substring(start, end));
+        if (node != null) {
+          firstMatch = firstMatch(node.rules, uri, url, firstMatch);
+        }
+        end = start - 1;
+      }
+    }
+    return firstMatch == Integer.MAX_VALUE ? NO_MATCH : rules[firstMatch].action;
+  }
+
+  // Returns the index of the first rule in `candidates` that matches and precedes `bound`, or
+  // `bound` if there is none.
+  private int firstMatch(List<Integer> candidates, Uri uri, String url, int bound) {
+    for (int i = 0; i < candidates.size(); i++) {
+      int index = candidates.get(i);
+      if (index >= bound) {
+        break;
+      }
+      if (rules[index].matches(uri, url)) {
+        return index;
+      }
+    }
+    return bound;
+  }
+
+  private static String normalizeHost(String host) {
+    if (host == null) {
+      return null;
+    }
+    host = host.toLowerCase(Locale.US);
+    int start = host.startsWith(".") ? 1 : 0;
+    int end = host.endsWith(".") ? host.length() - 1 : host.length();
+    return start < end ? host.substring(start, end) : null;
+  }
+
+  private static final class Rule {
+    final int action;
+    final String scheme;
+    final String hostSuffix;
+    final String pathPrefix;
+    final Pattern pattern;
+
+    Rule(int action, String scheme, String hostSuffix, String pathPrefix, Pattern pattern) {
+      this.action = action;
+      this.scheme = scheme;
+      this.hostSuffix = hostSuffix;
+      this.pathPrefix = pathPrefix;
+      this.pattern = pattern;
+    }
+
+    // The host suffix is matched by the trie walk.
+    boolean matches(Uri uri, String url) {
+      if (scheme != null && !scheme.equalsIgnoreCase(uri.getScheme())) {
+        return false;
+      }
+      if (pathPrefix != null) {
+        String path = uri.getPath();
+        if (path == null || !path.startsWith(pathPrefix)) {
+          return false;
+        }
+      }
+      return pattern == null || pattern.matcher(url).find();
+    }
+  }
+
+  private static final class HostNode {
+    // Indexes of the rules whose host suffix ends at this node, in ascending order.
+    final List<Integer> rules = new ArrayList<>();
+    Map<String, HostNode> children;
+
+    HostNode getOrCreateChild(String label) {
+      if (children == null) {
+        children = new HashMap<>();
+      }
+      HostNode child = children.get(label);
+      if (child == null) {
+        child = new HostNode();
+        children.put(label, child);
+      }
+      return child;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.os.Handler;
+import android.webkit.WebView;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends the navigation state of a WebView to Dart when it changes, so that Dart doesn't need to
+ * query the URL, title, history and progress after each page event.
+ *
+ * <p>Every change schedules a single update for the next platform thread message, so the changes
+ * made by consecutive callbacks (e.g a page start and the first progress) are sent as one event.
+ * The update reads the state from the WebView and is only sent if it differs from the last state
+ * sent.
+ *
+ * <p>This is only used on the platform thread.
+ */
+final class NavigationStateNotifier {
+  private final MethodChannel methodChannel;
+  private final Handler platformThreadHandler;
+  private final WebView webView;
+
+  private boolean updateScheduled;
+  private boolean loading;
+
+  // The last state sent to Dart.
+  private String url;
+  private String title;
+  private boolean canGoBack;
+  private boolean canGoForward;
+  private int progress;
+  private boolean isLoading;
+  private boolean sent;
+
+  private final Runnable update =
+      new Runnable() {
+        @Override
+        public void run() {
+          updateScheduled = false;
+          sendIfChanged();
+        }
+      };
+
+  NavigationStateNotifier(
+      MethodChannel methodChannel, Handler platformThreadHandler, WebView webView) {
+    this.methodChannel = methodChannel;
+    this.platformThreadHandler = platformThreadHandler;
+    this.webView = webView;
+  }
+
+  void onPageStarted() {
+    loading = true;
+    scheduleUpdate();
+  }
+
+  void onPageFinished() {
+    loading = false;
+    scheduleUpdate();
+  }
+
+  /** Invoked when the URL, the title, the history or the progress may have changed. */
+  void scheduleUpdate() {
+    if (updateScheduled) {
+      return;
+    }
+    updateScheduled = true;
+    platformThreadHandler.post(update);
+  }
+
+  void dispose() {
+    platformThreadHandler.removeCallbacks(update);
+    updateScheduled = false;
+  }
+
+  private void sendIfChanged() {
+    String newUrl = webView.getUrl();
+    String newTitle = webView.getTitle();
+    boolean newCanGoBack = webView.canGoBack();
+    boolean newCanGoForward = webView.canGoForward();
+    int newProgress = webView.getProgress();
+    if (sent
+        && equals(newUrl, url)
+        && equals(newTitle, title)
+        && newCanGoBack == canGoBack
+        && newCanGoForward == canGoForward
+        && newProgress == progress
+        && loading == isLoading) {
+      return;
+    }
+    sent = true;
+    url = newUrl;
+    title = newTitle;
+    canGoBack = newCanGoBack;
+    canGoForward = newCanGoForward;
+    progress = newProgress;
+    isLoading = loading;
+
+    Map<String, Object> state = new HashMap<>();
+    state.put("url", url);
+    state.put("title", title);
+    state.put("canGoBack", canGoBack);
+    state.put("canGoForward", canGoForward);
+    state.put("progress", progress);
+    state.put("isLoading", isLoading);
+    methodChannel.invokeMethod("navigationStateChanged", state);
+  }
+
+  private static boolean equals(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+}
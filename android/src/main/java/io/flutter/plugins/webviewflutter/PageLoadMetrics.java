@@ -0,0 +1,140 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+import android.webkit.ValueCallback;
+import android.webkit.WebView;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the load of each main frame navigation and sends it to Dart as a single event once the
+ * page finished loading.
+ *
+ * <p>All the times are {@link SystemClock#elapsedRealtime()} milliseconds, which are monotonic. A
+ * navigation starts with {@link #onPageStarted}, a later start (e.g a redirect) replaces it, and
+ * it is reported by the first {@link #onPageFinished}. The page's Navigation Timing and Paint
+ * Timing entries can also be collected, they are then read with JavaScript before the event is
+ * sent.
+ *
+ * <p>This is only used on the platform thread.
+ */
+final class PageLoadMetrics {
+  /** No metrics are recorded. */
+  static final int MODE_NONE = 0;
+  /** The navigation events are recorded. */
+  static final int MODE_EVENTS = 1;
+  /** The navigation events and the page's performance timing entries are recorded. */
+  static final int MODE_EVENTS_AND_WEB_TIMING = 2;
+
+  // Returns the Navigation Timing values relative to the start of the navigation, and the start
+  // times of the Paint Timing entries.
+  private static final String WEB_TIMING_SCRIPT =
+      "(function() {"
+          + "  var result = {navigation: {}, paint: {}};"
+          + "  var entries = performance.getEntriesByType;"
+          + "  var entry = entries && performance.getEntriesByType('navigation')[0];"
+          + "  var timing = entry || performance.timing;"
+          + "  var start = entry ? 0 : timing.navigationStart;"
+          + "  ['redirectStart', 'fetchStart', 'domainLookupStart', 'domainLookupEnd',"
+          + "   'connectStart', 'connectEnd', 'requestStart', 'responseStart', 'responseEnd',"
+          + "   'domInteractive', 'domContentLoadedEventEnd', 'domComplete', 'loadEventStart',"
+          + "   'loadEventEnd'].forEach(function(name) {"
+          + "    if (timing[name] > 0) result.navigation[name] = timing[name] - start;"
+          + "  });"
+          + "  (entries ? performance.getEntriesByType('paint') : []).forEach(function(paint) {"
+          + "    result.paint[paint.name] = paint.startTime;"
+          + "  });"
+          + "  return result;"
+          + "})()";
+
+  private final MethodChannel methodChannel;
+  private final boolean collectWebTiming;
+
+  // The navigation being recorded, null if there is none.
+  private Map<String, Object> navigation;
+  private List<Map<String, Object>> progress;
+  private int lastProgress;
+
+  PageLoadMetrics(MethodChannel methodChannel, int mode) {
+    this.methodChannel = methodChannel;
+    this.collectWebTiming = mode == MODE_EVENTS_AND_WEB_TIMING;
+  }
+
+  void onPageStarted(String url) {
+    navigation = new HashMap<>();
+    navigation.put("url", url);
+    navigation.put("startedMillis", SystemClock.elapsedRealtime());
+    progress = new ArrayList<>();
+    lastProgress = 0;
+  }
+
+  void onPageCommitVisible() {
+    if (navigation != null && !navigation.containsKey("commitVisibleMillis")) {
+      navigation.put("commitVisibleMillis", SystemClock.elapsedRealtime());
+    }
+  }
+
+  void onProgressChanged(int newProgress) {
+    // Only the increases are recorded, the progress restarts when a navigation starts.
+    if (navigation == null || newProgress <= lastProgress) {
+      return;
+    }
+    lastProgress = newProgress;
+    Map<String, Object> sample = new HashMap<>();
+    sample.put("progress", newProgress);
+    sample.put("millis", SystemClock.elapsedRealtime());
+    progress.add(sample);
+  }
+
+  void onMainFrameHttpError(int statusCode) {
+    if (navigation != null) {
+      navigation.put("httpStatusCode", statusCode);
+    }
+  }
+
+  void onMainFrameError(int errorCode, String description) {
+    if (navigation != null) {
+      navigation.put("errorCode", errorCode);
+      navigation.put("errorDescription", description);
+    }
+  }
+
+  void onPageFinished(WebView view) {
+    if (navigation == null) {
+      return;
+    }
+    final Map<String, Object> finished = navigation;
+    finished.put("finishedMillis", SystemClock.elapsedRealtime());
+    finished.put("progress", progress);
+    navigation = null;
+    progress = null;
+    if (!collectWebTiming || Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
+      methodChannel.invokeMethod("onPageLoadMetrics", finished);
+      return;
+    }
+    evaluateWebTiming(
+        view,
+        new ValueCallback<String>() {
+          @Override
+          public void onReceiveValue(String webTiming) {
+            // The JSON encoded result of the script, decoded in Dart.
+            finished.put("webTiming", webTiming);
+            methodChannel.invokeMethod("onPageLoadMetrics", finished);
+          }
+        });
+  }
+
+  @TargetApi(Build.VERSION_CODES.KITKAT)
+  private static void evaluateWebTiming(WebView view, ValueCallback<String> callback) {
+    view.evaluateJavascript(WEB_TIMING_SCRIPT, callback);
+  }
+}
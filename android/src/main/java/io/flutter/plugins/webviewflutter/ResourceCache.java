@@ -0,0 +1,1025 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.os.Process;
+import android.util.Log;
+import android.util.LruCache;
+import android.webkit.CookieManager;
+import android.webkit.WebResourceResponse;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * A size bounded on-disk LRU cache of the resources loaded by the WebViews, shared by all the
+ * WebViews of the plugin.
+ *
+ * <p>The cache is disabled (its max size is 0) until it is configured from Dart. Once enabled, GET
+ * requests whose URL matches one of the configured patterns are intercepted: a cached response is
+ * served from disk, otherwise the resource is fetched with {@link HttpURLConnection} and served
+ * while it is written to disk. Only 200 responses are cached, other responses are served without
+ * being cached, except for redirects, which are left to the WebView so that it loads them itself.
+ *
+ * <p>The cache is shared by all the pages, so requests with credentials (an Authorization or
+ * Cookie header, or cookies for their URL in the {@link CookieManager}) and Range requests are
+ * never intercepted, and responses that set cookies, aren't storable or vary on all request
+ * headers are served without being cached. The cookies set by a fetched response are added to the
+ * {@link CookieManager}. A cached response is only served to requests that have the same values
+ * for the request headers listed in its Vary header, other requests fetch and replace it.
+ *
+ * <p>Resources matching the static patterns are served from the cache as long as they are cached.
+ * Resources matching the revalidated patterns are also served from the cache right away, but are
+ * then revalidated with a conditional request using their ETag and Last-Modified validators, and
+ * updated for the next request if they changed (stale-while-revalidate). Revalidations run one at
+ * a time on a background priority thread, and are dropped when too many are pending, so that they
+ * don't compete with the WebView's own loads. Like all intercepted requests, revalidated requests
+ * never carry credentials, and private responses are not cached.
+ *
+ * <p>Each entry is a file named after the SHA-1 of its URL holding the response's status, headers
+ * and the values of the request headers it varies on, followed by its body. The least recently
+ * used entries are evicted once the files exceed the max size, the files' last modified time
+ * records their last access so that the LRU order survives restarts. Small entries are also kept
+ * in memory, within a separate budget.
+ *
+ * <p>{@link #intercept} is called on the WebView's network threads, the other methods are called
+ * on the platform thread.
+ */
+final class ResourceCache {
+  private static final String TAG = "ResourceCache";
+  private static final String DIRECTORY = "webview_flutter_resources";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  // Starts every cached file, files with another header are discarded.
+  private static final int FILE_HEADER = 0x57465203;
+  private static final int CONNECT_TIMEOUT_MILLIS = 15000;
+  private static final int READ_TIMEOUT_MILLIS = 30000;
+  private static final int MAX_PENDING_REVALIDATIONS = 8;
+  // The largest entry kept in memory is this fraction of the memory budget.
+  private static final int MEMORY_ENTRY_FRACTION = 8;
+
+  private static final int MODE_NONE = 0;
+  private static final int MODE_STATIC = 1;
+  private static final int MODE_REVALIDATE = 2;
+
+  private final File directory;
+  private final Object lock = new Object();
+
+  // The sizes of the cached files by file name, in access order. Guarded by lock.
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // The names of the entries being revalidated. Guarded by lock.
+  private final Set<String> revalidating = new HashSet<>();
+  private List<Pattern> urlPatterns = new ArrayList<>();
+  private List<Pattern> revalidateUrlPatterns = new ArrayList<>();
+  private long maxBytes;
+  private long sizeBytes;
+  // Null when no memory budget is configured.
+  private LruCache<String, CachedResponse> memoryCache;
+  private int maxMemoryEntryBytes;
+  private ThreadPoolExecutor revalidationExecutor;
+  private boolean indexed;
+  private int hits;
+  private int memoryHits;
+  private int misses;
+  private long bytesSaved;
+  private int revalidations;
+  private int revalidationUpdates;
+
+  ResourceCache(Context applicationContext) {
+    directory = new File(applicationContext.getCacheDir(), DIRECTORY);
+  }
+
+  /**
+   * Sets the maximal size of the cached files and the patterns of the URLs to cache.
+   *
+   * <p>A max size of 0 disables the cache without deleting the cached files.
+   *
+   * @param maxBytes the maximal size of the cached files
+   * @param urlPatterns the URLs that are served from the cache until they are evicted
+   * @param revalidateUrlPatterns the URLs that are served from the cache and revalidated
+   * @param maxMemoryBytes the maximal size of the entries also kept in memory
+   */
+  void configure(
+      long maxBytes,
+      List<String> urlPatterns,
+      List<String> revalidateUrlPatterns,
+      int maxMemoryBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException(
+          "The resource cache size must not be negative: " + maxBytes);
+    }
+    List<Pattern> patterns = compile(urlPatterns);
+    List<Pattern> revalidatePatterns = compile(revalidateUrlPatterns);
+    synchronized (lock) {
+      this.maxBytes = maxBytes;
+      this.urlPatterns = patterns;
+      this.revalidateUrlPatterns = revalidatePatterns;
+      if (memoryCache == null || memoryCache.maxSize() != maxMemoryBytes) {
+        if (memoryCache != null) {
+          memoryCache.evictAll();
+        }
+        memoryCache = maxMemoryBytes > 0 ? createMemoryCache(maxMemoryBytes) : null;
+        maxMemoryEntryBytes = maxMemoryBytes / MEMORY_ENTRY_FRACTION;
+      }
+      if (maxBytes > 0) {
+        ensureIndexed();
+        evict();
+      }
+    }
+  }
+
+  /** Deletes all the cached files. */
+  void clear() {
+    synchronized (lock) {
+      File[] files = directory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          file.delete();
+        }
+      }
+      entries.clear();
+      sizeBytes = 0;
+      if (memoryCache != null) {
+        memoryCache.evictAll();
+      }
+    }
+  }
+
+  Map<String, Object> getStats() {
+    Map<String, Object> stats = new HashMap<>();
+    synchronized (lock) {
+      stats.put("hits", hits);
+      stats.put("memoryHits", memoryHits);
+      stats.put("misses", misses);
+      stats.put("bytesSaved", bytesSaved);
+      stats.put("sizeBytes", sizeBytes);
+      stats.put("entries", entries.size());
+      stats.put("maxBytes", maxBytes);
+      stats.put("memorySizeBytes", memoryCache == null ? 0 : memoryCache.size());
+      stats.put("revalidations", revalidations);
+      stats.put("revalidationUpdates", revalidationUpdates);
+    }
+    return stats;
+  }
+
+  /**
+   * Returns the response for a request, or null if the WebView should load it.
+   *
+   * <p>This may block on disk and network I/O, and must not be called on the platform thread.
+   */
+  WebResourceResponse intercept(String url, String method, Map<String, String> headers) {
+    int mode = "GET".equalsIgnoreCase(method) ? cacheMode(url) : MODE_NONE;
+    if (mode == MODE_NONE || !isCacheable(url, headers)) {
+      return null;
+    }
+    String name = fileName(url);
+    LruCache<String, CachedResponse> memoryCache;
+    Long cachedSize;
+    synchronized (lock) {
+      memoryCache = this.memoryCache;
+      cachedSize = entries.get(name);
+    }
+    CachedResponse cachedResponse = memoryCache == null ? null : memoryCache.get(name);
+    if (cachedSize != null
+        && cachedResponse != null
+        && cachedResponse.metadata.matchesVary(headers)) {
+      synchronized (lock) {
+        hits++;
+        memoryHits++;
+        bytesSaved += cachedResponse.body.length;
+      }
+      if (mode == MODE_REVALIDATE) {
+        scheduleRevalidation(url, headers, name, cachedResponse.metadata);
+      }
+      return cachedResponse.toWebResourceResponse();
+    }
+    if (cachedSize != null) {
+      File file = new File(directory, name);
+      DataInputStream in = open(file);
+      if (in != null) {
+        Metadata metadata = Metadata.read(in);
+        if (metadata != null && metadata.matchesVary(headers)) {
+          file.setLastModified(System.currentTimeMillis());
+          long bodyBytes = bodySize(in);
+          synchronized (lock) {
+            hits++;
+            bytesSaved += bodyBytes;
+          }
+          if (mode == MODE_REVALIDATE) {
+            scheduleRevalidation(url, headers, name, metadata);
+          }
+          return metadata.toWebResourceResponse(in);
+        }
+        close(in);
+      }
+      // The file was evicted or removed since the lookup, has an outdated format, or varies on
+      // request headers that are different for this request. It is replaced by the fetch.
+      remove(name);
+    }
+    synchronized (lock) {
+      misses++;
+    }
+    try {
+      return fetch(url, headers, name);
+    } catch (IOException e) {
+      Log.w(TAG, "Failed to cache " + url, e);
+      return null;
+    }
+  }
+
+  private int cacheMode(String url) {
+    synchronized (lock) {
+      if (maxBytes == 0) {
+        return MODE_NONE;
+      }
+      if (matches(revalidateUrlPatterns, url)) {
+        return MODE_REVALIDATE;
+      }
+      return matches(urlPatterns, url) ? MODE_STATIC : MODE_NONE;
+    }
+  }
+
+  // Credentialed responses may be specific to the user, and ranges would be served in full.
+  private static boolean isCacheable(String url, Map<String, String> headers) {
+    return header(headers, "Authorization") == null
+        && header(headers, "Cookie") == null
+        && header(headers, "Range") == null
+        && CookieManager.getInstance().getCookie(url) == null;
+  }
+
+  private WebResourceResponse fetch(String url, Map<String, String> headers, String name)
+      throws IOException {
+    HttpURLConnection connection = connect(url, headers, null);
+    int responseCode = connection.getResponseCode();
+    boolean setsCookies = storeCookies(url, connection);
+    if (responseCode != HttpURLConnection.HTTP_OK) {
+      if (!isServable(responseCode)) {
+        connection.disconnect();
+        return null;
+      }
+      // Served without being cached, so that the WebView doesn't request it again.
+      return Metadata.fromConnection(connection, headers)
+          .toWebResourceResponse(responseBody(connection, responseCode));
+    }
+    Metadata metadata = Metadata.fromConnection(connection, headers);
+    InputStream body = connection.getInputStream();
+    if (setsCookies || !isStorable(connection)) {
+      return metadata.toWebResourceResponse(body);
+    }
+    return metadata.toWebResourceResponse(storing(name, metadata, body));
+  }
+
+  // Redirects can't be served to the WebView, and before Lollipop no status code can be served.
+  private static boolean isServable(int responseCode) {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+        && ((responseCode >= 100 && responseCode < HttpURLConnection.HTTP_MULT_CHOICE)
+            || (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST && responseCode < 600));
+  }
+
+  // The body of an error response is only readable from the error stream.
+  private static InputStream responseBody(HttpURLConnection connection, int responseCode)
+      throws IOException {
+    if (responseCode < HttpURLConnection.HTTP_BAD_REQUEST) {
+      return connection.getInputStream();
+    }
+    InputStream errorStream = connection.getErrorStream();
+    return errorStream != null ? errorStream : new ByteArrayInputStream(new byte[0]);
+  }
+
+  private void scheduleRevalidation(
+      final String url, Map<String, String> headers, final String name, final Metadata metadata) {
+    if (metadata.etag.isEmpty() && metadata.lastModified.isEmpty()) {
+      return;
+    }
+    // The WebView may reuse the map.
+    final Map<String, String> requestHeaders =
+        headers == null ? null : new HashMap<String, String>(headers);
+    ThreadPoolExecutor executor;
+    synchronized (lock) {
+      if (!revalidating.add(name)) {
+        return;
+      }
+      if (revalidationExecutor == null) {
+        revalidationExecutor = createRevalidationExecutor();
+      }
+      executor = revalidationExecutor;
+    }
+    Runnable revalidation =
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              revalidate(url, requestHeaders, name, metadata);
+            } finally {
+              synchronized (lock) {
+                revalidating.remove(name);
+              }
+            }
+          }
+        };
+    try {
+      executor.execute(revalidation);
+    } catch (RejectedExecutionException e) {
+      // Too many revalidations are pending, this one is dropped and the stale entry is kept.
+      synchronized (lock) {
+        revalidating.remove(name);
+      }
+    }
+  }
+
+  private void revalidate(String url, Map<String, String> headers, String name, Metadata metadata) {
+    try {
+      HttpURLConnection connection = connect(url, headers, metadata);
+      int responseCode = connection.getResponseCode();
+      boolean setsCookies = storeCookies(url, connection);
+      synchronized (lock) {
+        revalidations++;
+      }
+      if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+        connection.disconnect();
+        return;
+      }
+      if (responseCode >= HttpURLConnection.HTTP_MULT_CHOICE
+          && responseCode < HttpURLConnection.HTTP_BAD_REQUEST) {
+        // The resource moved, the WebView loads the redirect itself from now on.
+        connection.disconnect();
+        remove(name);
+        return;
+      }
+      if (responseCode != HttpURLConnection.HTTP_OK) {
+        // Keep serving the stale entry, e.g while the server or the network is down.
+        connection.disconnect();
+        return;
+      }
+      synchronized (lock) {
+        revalidationUpdates++;
+      }
+      if (setsCookies || !isStorable(connection)) {
+        connection.disconnect();
+        remove(name);
+        return;
+      }
+      store(name, Metadata.fromConnection(connection, headers), connection.getInputStream());
+    } catch (IOException e) {
+      Log.w(TAG, "Failed to revalidate " + url, e);
+    }
+  }
+
+  private static HttpURLConnection connect(
+      String url, Map<String, String> headers, Metadata validators) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+    connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+    // A redirect target must not be cached under the requested URL.
+    connection.setInstanceFollowRedirects(false);
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        connection.setRequestProperty(header.getKey(), header.getValue());
+      }
+    }
+    if (validators != null) {
+      if (!validators.etag.isEmpty()) {
+        connection.setRequestProperty("If-None-Match", validators.etag);
+      }
+      if (!validators.lastModified.isEmpty()) {
+        connection.setRequestProperty("If-Modified-Since", validators.lastModified);
+      }
+    }
+    return connection;
+  }
+
+  // Private responses, e.g API responses for the signed in user, must not be in a shared cache.
+  private static boolean isStorable(HttpURLConnection connection) {
+    String cacheControl = connection.getHeaderField("Cache-Control");
+    if (cacheControl != null) {
+      cacheControl = cacheControl.toLowerCase(Locale.US);
+      if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+        return false;
+      }
+    }
+    String vary = connection.getHeaderField("Vary");
+    return vary == null || !vary.contains("*");
+  }
+
+  // Adds the cookies set by a response to the WebViews' cookies, returns whether there were any.
+  private static boolean storeCookies(String url, HttpURLConnection connection) {
+    boolean setsCookies = false;
+    for (Map.Entry<String, List<String>> field : connection.getHeaderFields().entrySet()) {
+      if (!"Set-Cookie".equalsIgnoreCase(field.getKey())) {
+        continue;
+      }
+      for (String cookie : field.getValue()) {
+        CookieManager.getInstance().setCookie(url, cookie);
+        setsCookies = true;
+      }
+    }
+    return setsCookies;
+  }
+
+  /** Stores a response and adds its entry. */
+  private void store(String name, Metadata metadata, InputStream in) throws IOException {
+    InputStream storing = storing(name, metadata, in);
+    try {
+      byte[] buffer = new byte[8192];
+      while (storing.read(buffer) != -1) {
+        // The response is written to disk as it is read.
+      }
+    } finally {
+      storing.close();
+    }
+  }
+
+  /**
+   * Returns a stream reading a response that stores it and adds its entry once it is read to the
+   * end, or the response itself if it can't be stored.
+   */
+  private InputStream storing(String name, Metadata metadata, InputStream in) {
+    int maxMemoryEntryBytes;
+    synchronized (lock) {
+      maxMemoryEntryBytes = memoryCache == null ? 0 : this.maxMemoryEntryBytes;
+    }
+    File tempFile = null;
+    DataOutputStream out = null;
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Failed to create " + directory);
+      }
+      tempFile = File.createTempFile(name, TEMP_FILE_SUFFIX, directory);
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+      out.writeInt(FILE_HEADER);
+      metadata.write(out);
+      return new StoringInputStream(in, name, metadata, tempFile, out, maxMemoryEntryBytes);
+    } catch (IOException e) {
+      Log.w(TAG, "Failed to store " + name, e);
+      if (out != null) {
+        closeQuietly(out);
+      }
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+      return in;
+    }
+  }
+
+  // Adds the entry of a stored response, body is null if it isn't kept in memory.
+  private void commit(String name, Metadata metadata, File tempFile, byte[] body)
+      throws IOException {
+    long size = tempFile.length();
+    File file = new File(directory, name);
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("Failed to rename " + tempFile + " to " + file);
+    }
+    synchronized (lock) {
+      Long previousSize = entries.put(name, size);
+      sizeBytes += size - (previousSize == null ? 0 : previousSize);
+      if (memoryCache != null) {
+        if (body != null) {
+          memoryCache.put(name, new CachedResponse(metadata, body));
+        } else {
+          memoryCache.remove(name);
+        }
+      }
+      evict();
+    }
+  }
+
+  // Returns null if the file doesn't exist.
+  private static DataInputStream open(File file) {
+    try {
+      DataInputStream in = new DataInputStream(new FileInputStream(file));
+      if (in.readInt() == FILE_HEADER) {
+        return in;
+      }
+      close(in);
+      return null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  // Returns the size of the body of a cached file whose metadata was read, which is what the rest
+  // of the file holds.
+  private static long bodySize(DataInputStream in) {
+    try {
+      // The exact remaining size for a file.
+      return in.available();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static void close(InputStream in) {
+    if (in == null) {
+      return;
+    }
+    try {
+      in.close();
+    } catch (IOException e) {
+      // Nothing to do, the stream isn't served.
+    }
+  }
+
+  private static void closeQuietly(DataOutputStream out) {
+    try {
+      out.close();
+    } catch (IOException e) {
+      // Nothing to do, the file is deleted.
+    }
+  }
+
+  // Returns the value of a request header, whose name is case insensitive, or null if it is absent.
+  private static String header(Map<String, String> headers, String name) {
+    if (headers == null) {
+      return null;
+    }
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      if (name.equalsIgnoreCase(header.getKey())) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  private void remove(String name) {
+    synchronized (lock) {
+      Long size = entries.remove(name);
+      if (size != null) {
+        sizeBytes -= size;
+        new File(directory, name).delete();
+      }
+      if (memoryCache != null) {
+        memoryCache.remove(name);
+      }
+    }
+  }
+
+  // Must be called with lock held.
+  private void evict() {
+    Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+    while (sizeBytes > maxBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> entry = iterator.next();
+      new File(directory, entry.getKey()).delete();
+      if (memoryCache != null) {
+        memoryCache.remove(entry.getKey());
+      }
+      sizeBytes -= entry.getValue();
+      iterator.remove();
+    }
+  }
+
+  // Must be called with lock held.
+  private void ensureIndexed() {
+    if (indexed) {
+      return;
+    }
+    indexed = true;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(
+        files,
+        new Comparator<File>() {
+          @Override
+          public int compare(File a, File b) {
+            long aLastModified = a.lastModified();
+            long bLastModified = b.lastModified();
+            return aLastModified < bLastModified ? -1 : (aLastModified == bLastModified ? 0 : 1);
+          }
+        });
+    for (File file : files) {
+      if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+        // Left over by a fetch that didn't complete.
+        file.delete();
+        continue;
+      }
+      long size = file.length();
+      entries.put(file.getName(), size);
+      sizeBytes += size;
+    }
+  }
+
+  private static LruCache<String, CachedResponse> createMemoryCache(int maxMemoryBytes) {
+    return new LruCache<String, CachedResponse>(maxMemoryBytes) {
+      @Override
+      protected int sizeOf(String name, CachedResponse response) {
+        return response.body.length;
+      }
+    };
+  }
+
+  // A single background priority thread, so that revalidations don't compete with the WebViews'
+  // loads.
+  private static ThreadPoolExecutor createRevalidationExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            30,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(MAX_PENDING_REVALIDATIONS),
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(final Runnable runnable) {
+                Runnable backgroundRunnable =
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                      }
+                    };
+                Thread thread = new Thread(backgroundRunnable, "WebViewResourceRevalidation");
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static List<Pattern> compile(List<String> patterns) {
+    List<Pattern> compiled = new ArrayList<>();
+    if (patterns != null) {
+      for (String pattern : patterns) {
+        compiled.add(Pattern.compile(pattern));
+      }
+    }
+    return compiled;
+  }
+
+  private static boolean matches(List<Pattern> patterns, String url) {
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(url).find()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String fileName(String url) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-1").digest(url.getBytes(Charset.forName("UTF-8")));
+      StringBuilder name = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        name.append(String.format(Locale.US, "%02x", b));
+      }
+      return name.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+  }
+
+  /**
+   * Reads a fetched response while writing it to a temporary file, which becomes the response's
+   * entry once the response is read to the end.
+   *
+   * <p>The response is still served if writing it fails, and the temporary file is deleted if the
+   * WebView stops reading the response before its end.
+   */
+  private final class StoringInputStream extends FilterInputStream {
+    private final String name;
+    private final Metadata metadata;
+    private final File tempFile;
+    private final int maxMemoryEntryBytes;
+    private final DataOutputStream out;
+    // Whether the entry was added or the temporary file deleted.
+    private boolean done;
+    // Null when the body isn't kept in memory.
+    private ByteArrayOutputStream memoryCopy;
+
+    StoringInputStream(
+        InputStream in,
+        String name,
+        Metadata metadata,
+        File tempFile,
+        DataOutputStream out,
+        int maxMemoryEntryBytes) {
+      super(in);
+      this.name = name;
+      this.metadata = metadata;
+      this.tempFile = tempFile;
+      this.out = out;
+      this.maxMemoryEntryBytes = maxMemoryEntryBytes;
+      memoryCopy = maxMemoryEntryBytes > 0 ? new ByteArrayOutputStream() : null;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read;
+      try {
+        read = super.read(buffer, offset, length);
+      } catch (IOException e) {
+        abort();
+        throw e;
+      }
+      if (read == -1) {
+        finish();
+        return -1;
+      }
+      write(buffer, offset, read);
+      return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+      // The skipped bytes would be missing from the entry.
+      abort();
+      return super.skip(count);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Not read to the end, e.g because the page was closed.
+      abort();
+      super.close();
+    }
+
+    private void write(byte[] buffer, int offset, int length) {
+      if (done) {
+        return;
+      }
+      try {
+        out.write(buffer, offset, length);
+      } catch (IOException e) {
+        Log.w(TAG, "Failed to store " + name, e);
+        abort();
+        return;
+      }
+      if (memoryCopy != null) {
+        memoryCopy.write(buffer, offset, length);
+        if (memoryCopy.size() > maxMemoryEntryBytes) {
+          memoryCopy = null;
+        }
+      }
+    }
+
+    private void finish() {
+      if (done) {
+        return;
+      }
+      done = true;
+      try {
+        out.close();
+        commit(name, metadata, tempFile, memoryCopy == null ? null : memoryCopy.toByteArray());
+      } catch (IOException e) {
+        Log.w(TAG, "Failed to store " + name, e);
+        tempFile.delete();
+      }
+    }
+
+    private void abort() {
+      if (done) {
+        return;
+      }
+      done = true;
+      closeQuietly(out);
+      tempFile.delete();
+    }
+  }
+
+  // The cached status and headers of a response. Absent values are empty strings.
+  private static final class Metadata {
+    final int statusCode;
+    final String reasonPhrase;
+    final String mimeType;
+    final String encoding;
+    final String etag;
+    final String lastModified;
+    // The response headers served with the response.
+    final Map<String, String> headers;
+    // The values of the request headers the response varies on, by lower case name.
+    final Map<String, String> vary;
+
+    Metadata(
+        int statusCode,
+        String reasonPhrase,
+        String mimeType,
+        String encoding,
+        String etag,
+        String lastModified,
+        Map<String, String> headers,
+        Map<String, String> vary) {
+      this.statusCode = statusCode;
+      this.reasonPhrase = reasonPhrase;
+      this.mimeType = mimeType;
+      this.encoding = encoding;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.headers = headers;
+      this.vary = vary;
+    }
+
+    static Metadata fromConnection(HttpURLConnection connection, Map<String, String> requestHeaders)
+        throws IOException {
+      String mimeType = "application/octet-stream";
+      String encoding = "";
+      String contentType = connection.getContentType();
+      if (contentType != null) {
+        String[] parts = contentType.split(";");
+        mimeType = parts[0].trim();
+        for (int i = 1; i < parts.length; i++) {
+          String parameter = parts[i].trim();
+          if (parameter.toLowerCase(Locale.US).startsWith("charset=")) {
+            encoding = parameter.substring("charset=".length()).replace("\"", "");
+          }
+        }
+      }
+      String etag = connection.getHeaderField("ETag");
+      String lastModified = connection.getHeaderField("Last-Modified");
+      String reasonPhrase = connection.getResponseMessage();
+
+      Map<String, String> headers = new HashMap<>();
+      for (Map.Entry<String, List<String>> field : connection.getHeaderFields().entrySet()) {
+        // The status line has a null name.
+        String name = field.getKey();
+        if (name != null && isServedHeader(name.toLowerCase(Locale.US))) {
+          headers.put(name, join(field.getValue()));
+        }
+      }
+      Map<String, String> vary = new HashMap<>();
+      String varyHeader = connection.getHeaderField("Vary");
+      if (varyHeader != null) {
+        for (String name : varyHeader.split(",")) {
+          name = name.trim().toLowerCase(Locale.US);
+          if (!name.isEmpty()) {
+            String value = header(requestHeaders, name);
+            vary.put(name, value == null ? "" : value);
+          }
+        }
+      }
+      return new Metadata(
+          connection.getResponseCode(),
+          reasonPhrase == null || reasonPhrase.isEmpty() ? "OK" : reasonPhrase,
+          mimeType,
+          encoding,
+          etag == null ? "" : etag,
+          lastModified == null ? "" : lastModified,
+          headers,
+          vary);
+    }
+
+    // The body is served decoded and may be streamed, and cookies are never cached.
+    private static boolean isServedHeader(String name) {
+      return !name.equals("content-length")
+          && !name.equals("content-encoding")
+          && !name.equals("transfer-encoding")
+          && !name.equals("connection")
+          && !name.equals("keep-alive")
+          && !name.equals("set-cookie")
+          && !name.equals("set-cookie2")
+          && !name.startsWith("x-android-");
+    }
+
+    private static String join(List<String> values) {
+      StringBuilder joined = new StringBuilder();
+      for (String value : values) {
+        if (joined.length() > 0) {
+          joined.append(", ");
+        }
+        joined.append(value);
+      }
+      return joined.toString();
+    }
+
+    /** Whether the response can be served to a request with {@code requestHeaders}. */
+    boolean matchesVary(Map<String, String> requestHeaders) {
+      for (Map.Entry<String, String> entry : vary.entrySet()) {
+        String value = header(requestHeaders, entry.getKey());
+        if (!entry.getValue().equals(value == null ? "" : value)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // Returns null if the metadata can't be read.
+    static Metadata read(DataInputStream in) {
+      try {
+        int statusCode = in.readInt();
+        String reasonPhrase = in.readUTF();
+        String mimeType = in.readUTF();
+        String encoding = in.readUTF();
+        String etag = in.readUTF();
+        String lastModified = in.readUTF();
+        return new Metadata(
+            statusCode,
+            reasonPhrase,
+            mimeType,
+            encoding,
+            etag,
+            lastModified,
+            readMap(in),
+            readMap(in));
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeInt(statusCode);
+      out.writeUTF(reasonPhrase);
+      out.writeUTF(mimeType);
+      out.writeUTF(encoding);
+      out.writeUTF(etag);
+      out.writeUTF(lastModified);
+      writeMap(out, headers);
+      writeMap(out, vary);
+    }
+
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+      int size = in.readInt();
+      Map<String, String> map = new HashMap<>();
+      for (int i = 0; i < size; i++) {
+        map.put(in.readUTF(), in.readUTF());
+      }
+      return map;
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map)
+        throws IOException {
+      out.writeInt(map.size());
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue());
+      }
+    }
+
+    WebResourceResponse toWebResourceResponse(InputStream body) {
+      String encoding = this.encoding.isEmpty() ? null : this.encoding;
+      if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+        return new WebResourceResponse(mimeType, encoding, body);
+      }
+      return toWebResourceResponseWithHeaders(encoding, body);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private WebResourceResponse toWebResourceResponseWithHeaders(
+        String encoding, InputStream body) {
+      // The WebView may modify the headers.
+      return new WebResourceResponse(
+          mimeType, encoding, statusCode, reasonPhrase, new HashMap<String, String>(headers), body);
+    }
+  }
+
+  private static final class CachedResponse {
+    final Metadata metadata;
+    final byte[] body;
+
+    CachedResponse(Metadata metadata, byte[] body) {
+      this.metadata = metadata;
+      this.body = body;
+    }
+
+    WebResourceResponse toWebResourceResponse() {
+      return metadata.toWebResourceResponse(new ByteArrayInputStream(body));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.net.Uri;
+import android.webkit.WebView;
+import androidx.webkit.WebMessageCompat;
+import androidx.webkit.WebMessagePortCompat;
+import androidx.webkit.WebViewCompat;
+import androidx.webkit.WebViewFeature;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The web message channels of a WebView.
+ *
+ * <p>Each channel is a pair of entangled message ports, one is kept here and the other one is
+ * transferred to the page with a `flutter-web-message-channel:<name>` message posted to its main
+ * frame. The page keeps the port it receives and uses it to exchange messages with Dart:
+ *
+ * <pre>{@code
+ * window.addEventListener('message', function(event) {
+ *   if (event.data === 'flutter-web-message-channel:Foo') {
+ *     var port = event.ports[0];
+ *     port.onmessage = function(e) { console.log(e.data); };
+ *     port.postMessage('hello');
+ *   }
+ * });
+ * }</pre>
+ *
+ * <p>Unlike JavaScript interfaces, ports are asynchronous on both ends and delivering a message to
+ * the page doesn't require evaluating a script. Messages are delivered in order. The ports are
+ * closed when the page navigates away, so channels must be created again for every page.
+ *
+ * <p>All methods must be called on the platform thread.
+ */
+final class WebMessageChannels {
+  private static final String PORT_MESSAGE_PREFIX = "flutter-web-message-channel:";
+
+  private final MethodChannel methodChannel;
+  private final Map<String, WebMessagePortCompat> ports = new HashMap<>();
+
+  WebMessageChannels(MethodChannel methodChannel) {
+    this.methodChannel = methodChannel;
+  }
+
+  /** Whether the WebView implementation supports the web message APIs used by channels. */
+  static boolean isSupported() {
+    return WebViewFeature.isFeatureSupported(WebViewFeature.CREATE_WEB_MESSAGE_CHANNEL)
+        && WebViewFeature.isFeatureSupported(WebViewFeature.POST_WEB_MESSAGE)
+        && WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_POST_MESSAGE)
+        && WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_SET_MESSAGE_CALLBACK)
+        && WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_CLOSE);
+  }
+
+  /**
+   * Creates a channel and transfers its page end to the page currently loaded in {@code webView}.
+   *
+   * <p>An existing channel with the same name is closed first.
+   */
+  void create(WebView webView, final String name, String targetOrigin) {
+    close(name);
+    WebMessagePortCompat[] channel = WebViewCompat.createWebMessageChannel(webView);
+    channel[0].setWebMessageCallback(
+        new WebMessagePortCompat.WebMessageCallbackCompat() {
+          @Override
+          public void onMessage(WebMessagePortCompat port, WebMessageCompat message) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("name", name);
+            args.put("message", message.getData());
+            methodChannel.invokeMethod("webMessageChannelMessage", args);
+          }
+        });
+    WebViewCompat.postWebMessage(
+        webView,
+        new WebMessageCompat(PORT_MESSAGE_PREFIX + name, new WebMessagePortCompat[] {channel[1]}),
+        Uri.parse(targetOrigin));
+    ports.put(name, channel[0]);
+  }
+
+  /** Posts a message to the page. Returns false if there is no channel named {@code name}. */
+  boolean postMessage(String name, String message) {
+    WebMessagePortCompat port = ports.get(name);
+    if (port == null) {
+      return false;
+    }
+    port.postMessage(new WebMessageCompat(message));
+    return true;
+  }
+
+  void close(String name) {
+    WebMessagePortCompat port = ports.remove(name);
+    if (port != null) {
+      port.close();
+    }
+  }
+
+  void closeAll() {
+    for (WebMessagePortCompat port : ports.values()) {
+      port.close();
+    }
+    ports.clear();
+  }
+}
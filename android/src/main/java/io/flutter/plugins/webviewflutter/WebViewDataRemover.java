@@ -0,0 +1,139 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.util.Log;
+import android.webkit.CookieManager;
+import android.webkit.ValueCallback;
+import android.webkit.WebStorage;
+import android.webkit.WebView;
+import io.flutter.plugin.common.MethodChannel.Result;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes the data stored by WebViews, optionally for a list of origins only.
+ *
+ * <p>The removals are asynchronous and the result is completed once they are all done, so the
+ * platform thread never waits for storage, except for the WebView's in memory HTTP cache which is
+ * cleared synchronously. The cookies are removed in order with the operations of {@link
+ * FlutterCookieManager}, a failure to remove them is logged and doesn't fail the result.
+ *
+ * <p>WebView stores the DOM storage and the IndexedDB databases of an origin together, so removing
+ * either removes both. The HTTP cache is shared by all origins and is always cleared as a whole.
+ */
+final class WebViewDataRemover {
+  private static final String TAG = "WebViewDataRemover";
+
+  static final int DATA_HTTP_CACHE = 1;
+  static final int DATA_DOM_STORAGE = 1 << 1;
+  static final int DATA_INDEXED_DB = 1 << 2;
+  static final int DATA_COOKIES = 1 << 3;
+
+  private final Handler platformThreadHandler;
+  private final Result result;
+  // The removals that are not done yet. Only accessed on the platform thread.
+  private int pending;
+
+  private WebViewDataRemover(Handler platformThreadHandler, Result result) {
+    this.platformThreadHandler = platformThreadHandler;
+    this.result = result;
+  }
+
+  /**
+   * Removes the {@code dataTypes} data of {@code origins}, or of all origins if null, and
+   * completes {@code result} once done.
+   *
+   * <p>Must be called on the platform thread.
+   */
+  static void remove(
+      WebView webView,
+      Handler platformThreadHandler,
+      int dataTypes,
+      List<String> origins,
+      Result result) {
+    new WebViewDataRemover(platformThreadHandler, result).start(webView, dataTypes, origins);
+  }
+
+  private void start(WebView webView, int dataTypes, List<String> origins) {
+    // Held until all the removals are started, so that the result isn't completed early.
+    pending = 1;
+    if ((dataTypes & DATA_HTTP_CACHE) != 0) {
+      // Only clears the in memory cache synchronously, the disk cache is cleared asynchronously.
+      webView.clearCache(true);
+    }
+    if ((dataTypes & (DATA_DOM_STORAGE | DATA_INDEXED_DB)) != 0) {
+      removeStorage(origins);
+    }
+    if ((dataTypes & DATA_COOKIES) != 0) {
+      removeCookies(origins);
+    }
+    done();
+  }
+
+  // WebStorage.getOrigins takes a callback of the raw Map type.
+  @SuppressWarnings("rawtypes")
+  private void removeStorage(List<String> origins) {
+    WebStorage webStorage = WebStorage.getInstance();
+    if (origins == null) {
+      webStorage.deleteAllData();
+    } else {
+      for (String origin : origins) {
+        webStorage.deleteOrigin(origin);
+      }
+    }
+    // The storage tasks run in order, so the origins are returned once the deletions are done.
+    pending++;
+    webStorage.getOrigins(
+        new ValueCallback<Map>() {
+          @Override
+          public void onReceiveValue(Map value) {
+            done();
+          }
+        });
+  }
+
+  private void removeCookies(final List<String> origins) {
+    // The instance is created on the platform thread, the WebView provider may not be loaded yet.
+    final CookieManager cookieManager = CookieManager.getInstance();
+    pending++;
+    FlutterCookieManager.executor().execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              if (origins == null) {
+                FlutterCookieManager.removeAllCookies(cookieManager);
+              } else {
+                for (String origin : origins) {
+                  FlutterCookieManager.expireCookies(
+                      cookieManager, origin + "/", Uri.parse(origin).getHost());
+                }
+              }
+            } catch (RuntimeException e) {
+              Log.w(TAG, "Failed to remove cookies", e);
+            } finally {
+              // The result is always completed, the data that could be removed is removed.
+              platformThreadHandler.post(
+                  new Runnable() {
+                    @Override
+                    public void run() {
+                      done();
+                    }
+                  });
+            }
+          }
+        });
+  }
+
+  private void done() {
+    pending--;
+    if (pending == 0) {
+      result.success(null);
+    }
+  }
+}
@@ -15,17 +15,53 @@ import java.util.Map;
 public final class WebViewFactory extends PlatformViewFactory {
   private final BinaryMessenger messenger;
   private final View containerView;
+  private final WebViewPool webViewPool;
+  private final ResourceCache resourceCache;
+  private final AssetOrigins assetOrigins;
+  private final ContentBlocklist contentBlocklist;
+  private final WebViewMemoryManager memoryManager;
+  private final WebViewStateStore stateStore;
 
-  WebViewFactory(BinaryMessenger messenger, View containerView) {
+  WebViewFactory(
+      BinaryMessenger messenger,
+      View containerView,
+      WebViewPool webViewPool,
+      ResourceCache resourceCache,
+      AssetOrigins assetOrigins,
+      ContentBlocklist contentBlocklist,
+      WebViewMemoryManager memoryManager,
+      WebViewStateStore stateStore) {
     super(StandardMessageCodec.INSTANCE);
     this.messenger = messenger;
     this.containerView = containerView;
+    this.webViewPool = webViewPool;
+    this.resourceCache = resourceCache;
+    this.assetOrigins = assetOrigins;
+    this.contentBlocklist = contentBlocklist;
+    this.memoryManager = memoryManager;
+    this.stateStore = stateStore;
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public PlatformView create(Context context, int id, Object args) {
     Map<String, Object> params = (Map<String, Object>) args;
-    return new FlutterWebView(context, messenger, id, params, containerView);
+    boolean traced = WebViewTrace.beginSection("FlutterWebView.<init>");
+    try {
+      return new FlutterWebView(
+          context,
+          messenger,
+          id,
+          params,
+          containerView,
+          webViewPool,
+          resourceCache,
+          assetOrigins,
+          contentBlocklist,
+          memoryManager,
+          stateStore);
+    } finally {
+      WebViewTrace.endSection(traced);
+    }
   }
 }
@@ -5,6 +5,8 @@
 package io.flutter.plugins.webviewflutter;
 
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.embedding.engine.plugins.activity.ActivityAware;
+import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.PluginRegistry.Registrar;
 
@@ -16,9 +18,13 @@ import io.flutter.plugin.common.PluginRegistry.Registrar;
  * <p>Call {@link #registerWith(Registrar)} to use the stable {@code io.flutter.plugin.common}
  * package instead.
  */
-public class WebViewFlutterPlugin implements FlutterPlugin {
+public class WebViewFlutterPlugin implements FlutterPlugin, ActivityAware {
 
   private FlutterCookieManager flutterCookieManager;
+  private FlutterWebViewManager flutterWebViewManager;
+  private WebViewMemoryManager memoryManager;
+  // Null while the plugin isn't attached to an activity.
+  private ActivityLifecycleObserver activityLifecycleObserver;
 
   /**
    * Add an instance of this to {@link io.flutter.embedding.engine.plugins.PluginRegistry} to
@@ -42,24 +48,82 @@ public class WebViewFlutterPlugin implements FlutterPlugin {
    * won't react to changes in activity or context, unlike {@link CameraPlugin}.
    */
   public static void registerWith(Registrar registrar) {
+    WebViewPool webViewPool = new WebViewPool(registrar.context());
+    ResourceCache resourceCache = new ResourceCache(registrar.context());
+    AssetOrigins assetOrigins = new AssetOrigins(registrar.context());
+    ContentBlocklist contentBlocklist = new ContentBlocklist();
+    WebViewMemoryManager memoryManager =
+        new WebViewMemoryManager(registrar.context().getApplicationContext(), webViewPool);
+    WebViewStateStore stateStore = new WebViewStateStore(registrar.context());
     registrar
         .platformViewRegistry()
         .registerViewFactory(
             "plugins.flutter.io/webview",
-            new WebViewFactory(registrar.messenger(), registrar.view()));
+            new WebViewFactory(
+                registrar.messenger(),
+                registrar.view(),
+                webViewPool,
+                resourceCache,
+                assetOrigins,
+                contentBlocklist,
+                memoryManager,
+                stateStore));
+    if (registrar.activity() != null) {
+      new ActivityLifecycleObserver(registrar.activity(), memoryManager);
+    }
     new FlutterCookieManager(registrar.messenger());
+    new FlutterWebViewManager(
+        registrar.messenger(),
+        registrar.context(),
+        webViewPool,
+        resourceCache,
+        assetOrigins,
+        contentBlocklist,
+        memoryManager,
+        stateStore);
+    if (WebViewProviderWarmUp.isWarmUpOnAttachEnabled(registrar.context())) {
+      WebViewProviderWarmUp.scheduleWarmUp(registrar.context());
+    }
   }
 
   @Override
   public void onAttachedToEngine(FlutterPluginBinding binding) {
     BinaryMessenger messenger = binding.getFlutterEngine().getDartExecutor();
+    WebViewPool webViewPool = new WebViewPool(binding.getApplicationContext());
+    ResourceCache resourceCache = new ResourceCache(binding.getApplicationContext());
+    AssetOrigins assetOrigins = new AssetOrigins(binding.getApplicationContext());
+    ContentBlocklist contentBlocklist = new ContentBlocklist();
+    memoryManager = new WebViewMemoryManager(binding.getApplicationContext(), webViewPool);
+    WebViewStateStore stateStore = new WebViewStateStore(binding.getApplicationContext());
     binding
         .getFlutterEngine()
         .getPlatformViewsController()
         .getRegistry()
         .registerViewFactory(
-            "plugins.flutter.io/webview", new WebViewFactory(messenger, /*containerView=*/ null));
+            "plugins.flutter.io/webview",
+            new WebViewFactory(
+                messenger,
+                /*containerView=*/ null,
+                webViewPool,
+                resourceCache,
+                assetOrigins,
+                contentBlocklist,
+                memoryManager,
+                stateStore));
     flutterCookieManager = new FlutterCookieManager(messenger);
+    flutterWebViewManager =
+        new FlutterWebViewManager(
+            messenger,
+            binding.getApplicationContext(),
+            webViewPool,
+            resourceCache,
+            assetOrigins,
+            contentBlocklist,
+            memoryManager,
+            stateStore);
+    if (WebViewProviderWarmUp.isWarmUpOnAttachEnabled(binding.getApplicationContext())) {
+      WebViewProviderWarmUp.scheduleWarmUp(binding.getApplicationContext());
+    }
   }
 
   @Override
@@ -70,5 +134,35 @@ public class WebViewFlutterPlugin implements FlutterPlugin {
 
     flutterCookieManager.dispose();
     flutterCookieManager = null;
+    flutterWebViewManager.dispose();
+    flutterWebViewManager = null;
+    memoryManager = null;
+  }
+
+  @Override
+  public void onAttachedToActivity(ActivityPluginBinding binding) {
+    if (memoryManager != null) {
+      activityLifecycleObserver =
+          new ActivityLifecycleObserver(binding.getActivity(), memoryManager);
+    }
+  }
+
+  @Override
+  public void onDetachedFromActivityForConfigChanges() {
+    onDetachedFromActivity();
+  }
+
+  @Override
+  public void onReattachedToActivityForConfigChanges(ActivityPluginBinding binding) {
+    onAttachedToActivity(binding);
+  }
+
+  @Override
+  public void onDetachedFromActivity() {
+    if (activityLifecycleObserver == null) {
+      return;
+    }
+    activityLifecycleObserver.dispose();
+    activityLifecycleObserver = null;
   }
 }
@@ -0,0 +1,274 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.webkit.WebView;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the live WebViews of the plugin and reduces the memory used by the ones in the
+ * background when the system is low on memory.
+ *
+ * <p>Dart marks each WebView as active or in the background, e.g when its tab is not shown. On
+ * memory pressure the background WebViews are moved progressively through the {@link
+ * FlutterWebView} memory states: paused ({@link WebView#onPause}), renderer priority waived and
+ * finally hibernated, where the WebView's state is saved and its page unloaded until it is active
+ * again, Dart then recreates the platform view to restore the state. The JavaScript timers of all
+ * the WebViews are paused while none of them is active. A budget also limits how many background
+ * WebViews keep their page loaded, the ones that went to the background first are hibernated
+ * first.
+ *
+ * <p>All the WebViews are also paused while the app's activity is paused, see {@link
+ * ActivityLifecycleObserver}.
+ *
+ * <p>The WebView pool's idle WebViews are destroyed once the renderer priorities are waived.
+ *
+ * <p>All methods must be called on the platform thread.
+ */
+final class WebViewMemoryManager implements ComponentCallbacks2 {
+  private final Context applicationContext;
+  private final WebViewPool webViewPool;
+  private final Set<FlutterWebView> liveWebViews = new LinkedHashSet<>();
+  // In the order they went to the background.
+  private final Set<FlutterWebView> backgroundWebViews = new LinkedHashSet<>();
+
+  // The number of background WebViews whose page stays loaded, or -1 for no limit.
+  private int maxLoadedBackgroundWebViews = -1;
+  private boolean timersPaused;
+  private boolean appPaused;
+
+  private int trims;
+  private int lastTrimLevel = -1;
+  private int hibernations;
+
+  WebViewMemoryManager(Context applicationContext, WebViewPool webViewPool) {
+    this.applicationContext = applicationContext;
+    this.webViewPool = webViewPool;
+    applicationContext.registerComponentCallbacks(this);
+  }
+
+  /**
+   * Sets how many background WebViews keep their page loaded, or -1 for no limit.
+   *
+   * <p>Lowering the limit hibernates the background WebViews over it right away.
+   */
+  void configure(int maxLoadedBackgroundWebViews) {
+    if (maxLoadedBackgroundWebViews < -1) {
+      throw new IllegalArgumentException(
+          "The loaded background WebViews limit must be -1 or more: "
+              + maxLoadedBackgroundWebViews);
+    }
+    this.maxLoadedBackgroundWebViews = maxLoadedBackgroundWebViews;
+    enforceBudget();
+  }
+
+  void register(FlutterWebView flutterWebView) {
+    liveWebViews.add(flutterWebView);
+    if (appPaused) {
+      flutterWebView.setAppPaused(true);
+    }
+    updateTimers();
+  }
+
+  /** Forgets a disposed WebView, which must have been restored to the active state. */
+  void unregister(FlutterWebView flutterWebView) {
+    if (timersPaused) {
+      // Resumed with this WebView in case it was the last one, the timers are paused again below
+      // if the remaining WebViews are all in the background.
+      ((WebView) flutterWebView.getView()).resumeTimers();
+      timersPaused = false;
+    }
+    liveWebViews.remove(flutterWebView);
+    backgroundWebViews.remove(flutterWebView);
+    updateTimers();
+  }
+
+  /**
+   * Forgets a WebView whose renderer process is gone. The WebView can't be used anymore, so unlike
+   * {@link #unregister} the timers are left paused until another WebView is active.
+   */
+  void onRenderProcessGone(FlutterWebView flutterWebView) {
+    liveWebViews.remove(flutterWebView);
+    backgroundWebViews.remove(flutterWebView);
+    updateTimers();
+  }
+
+  /** Marks a WebView as shown to the user, or in the background. */
+  void setActive(FlutterWebView flutterWebView, boolean active) {
+    if (active) {
+      backgroundWebViews.remove(flutterWebView);
+      flutterWebView.applyMemoryState(FlutterWebView.MEMORY_STATE_ACTIVE);
+    } else if (backgroundWebViews.add(flutterWebView)) {
+      enforceBudget();
+    }
+    updateTimers();
+  }
+
+  /** Pauses a WebView right away and moves it to the background until it's active again. */
+  void pause(FlutterWebView flutterWebView) {
+    backgroundWebViews.add(flutterWebView);
+    moveTo(flutterWebView, FlutterWebView.MEMORY_STATE_PAUSED);
+    updateTimers();
+  }
+
+  /** Pauses all the WebViews while the app's activity is paused. */
+  void setAppPaused(boolean paused) {
+    if (paused == appPaused) {
+      return;
+    }
+    appPaused = paused;
+    for (FlutterWebView flutterWebView : liveWebViews) {
+      flutterWebView.setAppPaused(paused);
+    }
+    updateTimers();
+  }
+
+  /** Hibernates a WebView right away and moves it to the background until it's active again. */
+  void hibernate(FlutterWebView flutterWebView) {
+    backgroundWebViews.add(flutterWebView);
+    moveTo(flutterWebView, FlutterWebView.MEMORY_STATE_HIBERNATED);
+    updateTimers();
+  }
+
+  Map<String, Object> getStats() {
+    int paused = 0;
+    int waived = 0;
+    int hibernated = 0;
+    for (FlutterWebView flutterWebView : backgroundWebViews) {
+      switch (flutterWebView.getMemoryState()) {
+        case FlutterWebView.MEMORY_STATE_PAUSED:
+          paused++;
+          break;
+        case FlutterWebView.MEMORY_STATE_RENDERER_WAIVED:
+          waived++;
+          break;
+        case FlutterWebView.MEMORY_STATE_HIBERNATED:
+          hibernated++;
+          break;
+        default:
+          break;
+      }
+    }
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("live", liveWebViews.size());
+    stats.put("background", backgroundWebViews.size());
+    stats.put("paused", paused);
+    stats.put("rendererWaived", waived);
+    stats.put("hibernated", hibernated);
+    stats.put("hibernations", hibernations);
+    stats.put("trims", trims);
+    stats.put("lastTrimLevel", lastTrimLevel);
+    stats.put("timersPaused", timersPaused);
+    stats.put("appPaused", appPaused);
+    return stats;
+  }
+
+  void dispose() {
+    applicationContext.unregisterComponentCallbacks(this);
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    trims++;
+    lastTrimLevel = level;
+    int memoryState = memoryStateForTrimLevel(level);
+    if (memoryState == FlutterWebView.MEMORY_STATE_ACTIVE) {
+      return;
+    }
+    for (FlutterWebView flutterWebView : backgroundWebViews) {
+      moveTo(flutterWebView, memoryState);
+    }
+    if (memoryState >= FlutterWebView.MEMORY_STATE_RENDERER_WAIVED) {
+      webViewPool.trim();
+    }
+    updateTimers();
+  }
+
+  @Override
+  public void onLowMemory() {
+    onTrimMemory(TRIM_MEMORY_COMPLETE);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {}
+
+  // Levels below TRIM_MEMORY_UI_HIDDEN are reported while the app is in the foreground, the
+  // higher ones while it is in the background.
+  private static int memoryStateForTrimLevel(int level) {
+    if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+      return FlutterWebView.MEMORY_STATE_HIBERNATED;
+    }
+    if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW) {
+      return FlutterWebView.MEMORY_STATE_RENDERER_WAIVED;
+    }
+    if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+      return FlutterWebView.MEMORY_STATE_PAUSED;
+    }
+    return FlutterWebView.MEMORY_STATE_ACTIVE;
+  }
+
+  // Only ever moves a WebView to a lower memory use.
+  private void moveTo(FlutterWebView flutterWebView, int memoryState) {
+    if (flutterWebView.getMemoryState() >= memoryState) {
+      return;
+    }
+    if (memoryState == FlutterWebView.MEMORY_STATE_HIBERNATED) {
+      hibernations++;
+    }
+    flutterWebView.applyMemoryState(memoryState);
+  }
+
+  private void enforceBudget() {
+    if (maxLoadedBackgroundWebViews < 0) {
+      return;
+    }
+    int loaded = 0;
+    for (FlutterWebView flutterWebView : backgroundWebViews) {
+      if (flutterWebView.getMemoryState() != FlutterWebView.MEMORY_STATE_HIBERNATED) {
+        loaded++;
+      }
+    }
+    for (FlutterWebView flutterWebView : backgroundWebViews) {
+      if (loaded <= maxLoadedBackgroundWebViews) {
+        return;
+      }
+      if (flutterWebView.getMemoryState() != FlutterWebView.MEMORY_STATE_HIBERNATED) {
+        moveTo(flutterWebView, FlutterWebView.MEMORY_STATE_HIBERNATED);
+        loaded--;
+      }
+    }
+  }
+
+  // WebView timers are paused for the whole process, so they are only paused while the app is
+  // paused or all the live WebViews are in the background and paused.
+  private void updateTimers() {
+    boolean pause = !liveWebViews.isEmpty();
+    if (!appPaused) {
+      for (FlutterWebView flutterWebView : liveWebViews) {
+        if (flutterWebView.getMemoryState() == FlutterWebView.MEMORY_STATE_ACTIVE) {
+          pause = false;
+          break;
+        }
+      }
+    }
+    // Without a live WebView the timers are updated when the next one is registered.
+    if (pause == timersPaused || liveWebViews.isEmpty()) {
+      return;
+    }
+    timersPaused = pause;
+    WebView webView = (WebView) liveWebViews.iterator().next().getView();
+    if (pause) {
+      webView.pauseTimers();
+    } else {
+      webView.resumeTimers();
+    }
+  }
+}
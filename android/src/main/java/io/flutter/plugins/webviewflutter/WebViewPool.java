@@ -0,0 +1,267 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+import android.view.ViewGroup;
+import android.webkit.RenderProcessGoneDetail;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a set of pre-constructed {@link InputAwareWebView}s around so that creating a platform view
+ * doesn't have to pay for constructing and configuring a WebView on the platform thread.
+ *
+ * <p>The pool is disabled (its max size is 0) until it is configured from Dart. While disabled
+ * {@link #acquire} always constructs a new WebView and {@link #release} never takes WebViews back.
+ *
+ * <p>Pooled WebViews are constructed with a {@link MutableContextWrapper} so that they can be
+ * handed over to the context of the platform view that checks them out, and released back to the
+ * application context when that platform view is disposed. Note that this means the WebView is
+ * initialized against the application context's display, which matches the density of the virtual
+ * displays Flutter creates for platform views.
+ *
+ * <p>All methods must be called on the platform thread.
+ */
+final class WebViewPool {
+  /** Only WebViews released by disposed platform views are pooled. */
+  static final int WARM_UP_NONE = 0;
+  /** The pool is filled up as soon as it is configured. */
+  static final int WARM_UP_EAGER = 1;
+  /** The pool is filled up one WebView at a time whenever the platform thread is idle. */
+  static final int WARM_UP_IDLE = 2;
+
+  private final Context applicationContext;
+  // WebViews that are reset and ready to be checked out.
+  private final ArrayDeque<InputAwareWebView> idleWebViews = new ArrayDeque<>();
+  // Released WebViews that are still navigating to about:blank.
+  private final Set<InputAwareWebView> resettingWebViews = new HashSet<>();
+
+  private int maxSize;
+  private int warmUpPolicy = WARM_UP_NONE;
+  private boolean idleWarmUpScheduled;
+
+  private int hits;
+  private int misses;
+  private int created;
+  private int returned;
+
+  WebViewPool(Context applicationContext) {
+    this.applicationContext = applicationContext;
+  }
+
+  /**
+   * Sets the maximal number of idle WebViews the pool keeps and how it warms up.
+   *
+   * <p>Shrinking the pool destroys any idle WebViews over the new max size.
+   */
+  void configure(int maxSize, int warmUpPolicy) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("The WebView pool size must not be negative: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.warmUpPolicy = warmUpPolicy;
+    while (idleWebViews.size() > maxSize) {
+      idleWebViews.removeLast().destroy();
+    }
+    switch (warmUpPolicy) {
+      case WARM_UP_NONE:
+        break;
+      case WARM_UP_EAGER:
+        while (needsWarmUp()) {
+          idleWebViews.addLast(createPooledWebView());
+        }
+        break;
+      case WARM_UP_IDLE:
+        scheduleIdleWarmUp();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown WebView pool warm up policy: " + warmUpPolicy);
+    }
+  }
+
+  /**
+   * Checks out a WebView for a new platform view.
+   *
+   * <p>Returns an idle WebView moved over to {@code context} when one is available, otherwise
+   * constructs a new one.
+   */
+  InputAwareWebView acquire(Context context, View containerView) {
+    if (maxSize == 0) {
+      return FlutterWebView.createWebView(context, containerView);
+    }
+
+    InputAwareWebView webView = idleWebViews.pollFirst();
+    if (webView == null) {
+      misses++;
+      created++;
+      webView = FlutterWebView.createWebView(new MutableContextWrapper(context), containerView);
+    } else {
+      hits++;
+      ((MutableContextWrapper) webView.getContext()).setBaseContext(context);
+      detachFromParent(webView);
+      webView.setContainerView(containerView);
+      webView.onResume();
+    }
+    if (warmUpPolicy == WARM_UP_IDLE) {
+      scheduleIdleWarmUp();
+    }
+    return webView;
+  }
+
+  /**
+   * Takes back a WebView from a disposed platform view.
+   *
+   * <p>The caller must have removed all the JavaScript interfaces it added to the WebView.
+   *
+   * <p>Returns false if the pool is full or the WebView wasn't created by the pool, in which case
+   * the caller is responsible for destroying it.
+   */
+  boolean release(InputAwareWebView webView) {
+    if (!(webView.getContext() instanceof MutableContextWrapper)
+        || idleWebViews.size() + resettingWebViews.size() >= maxSize) {
+      return false;
+    }
+    returned++;
+    ((MutableContextWrapper) webView.getContext()).setBaseContext(applicationContext);
+    detachFromParent(webView);
+    reset(webView);
+    return true;
+  }
+
+  /** Destroys all idle WebViews and disables the pool. */
+  void clear() {
+    maxSize = 0;
+    for (InputAwareWebView webView : idleWebViews) {
+      webView.destroy();
+    }
+    idleWebViews.clear();
+    for (InputAwareWebView webView : resettingWebViews) {
+      webView.destroy();
+    }
+    resettingWebViews.clear();
+  }
+
+  /**
+   * Destroys the idle WebViews to free memory, the pool keeps its configuration and is filled up
+   * again as WebViews are released or checked out.
+   */
+  void trim() {
+    for (InputAwareWebView webView : idleWebViews) {
+      webView.destroy();
+    }
+    idleWebViews.clear();
+  }
+
+  Map<String, Object> getStats() {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("hits", hits);
+    stats.put("misses", misses);
+    stats.put("created", created);
+    stats.put("returned", returned);
+    stats.put("idle", idleWebViews.size());
+    stats.put("maxSize", maxSize);
+    return stats;
+  }
+
+  private boolean needsWarmUp() {
+    return idleWebViews.size() + resettingWebViews.size() < maxSize;
+  }
+
+  private InputAwareWebView createPooledWebView() {
+    created++;
+    InputAwareWebView webView =
+        FlutterWebView.createWebView(
+            new MutableContextWrapper(applicationContext), /*containerView=*/ null);
+    webView.setWebViewClient(new IdleWebViewClient(webView));
+    webView.onPause();
+    return webView;
+  }
+
+  private void scheduleIdleWarmUp() {
+    if (idleWarmUpScheduled || !needsWarmUp()) {
+      return;
+    }
+    idleWarmUpScheduled = true;
+    Looper.myQueue()
+        .addIdleHandler(
+            new MessageQueue.IdleHandler() {
+              @Override
+              public boolean queueIdle() {
+                // Create a single WebView per idle callback so we never hold the platform thread
+                // for longer than one WebView construction.
+                if (warmUpPolicy != WARM_UP_IDLE || !needsWarmUp()) {
+                  idleWarmUpScheduled = false;
+                  return false;
+                }
+                idleWebViews.addLast(createPooledWebView());
+                idleWarmUpScheduled = needsWarmUp();
+                return idleWarmUpScheduled;
+              }
+            });
+  }
+
+  private void reset(final InputAwareWebView webView) {
+    resettingWebViews.add(webView);
+    webView.stopLoading();
+    webView.setContainerView(null);
+    webView.setWebChromeClient(null);
+    webView.getSettings().setJavaScriptEnabled(false);
+    webView.getSettings().setUserAgentString(null);
+    webView.getSettings().setMediaPlaybackRequiresUserGesture(true);
+    // The history can only be cleared once about:blank is committed, until then the WebView isn't
+    // handed out again.
+    webView.setWebViewClient(
+        new IdleWebViewClient(webView) {
+          @Override
+          public void onPageFinished(WebView view, String url) {
+            if (!resettingWebViews.remove(webView)) {
+              return;
+            }
+            view.clearHistory();
+            view.onPause();
+            idleWebViews.addLast(webView);
+          }
+        });
+    webView.loadUrl("about:blank");
+  }
+
+  private static void detachFromParent(View view) {
+    ViewGroup parent = (ViewGroup) view.getParent();
+    if (parent != null) {
+      parent.removeView(view);
+    }
+  }
+
+  // Idle WebViews may share the renderer process of the live ones, without this client a renderer
+  // crash would kill the app.
+  private class IdleWebViewClient extends WebViewClient {
+    private final InputAwareWebView webView;
+
+    IdleWebViewClient(InputAwareWebView webView) {
+      this.webView = webView;
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    @Override
+    public boolean onRenderProcessGone(WebView view, RenderProcessGoneDetail detail) {
+      resettingWebViews.remove(webView);
+      idleWebViews.remove(webView);
+      webView.destroy();
+      return true;
+    }
+  }
+}
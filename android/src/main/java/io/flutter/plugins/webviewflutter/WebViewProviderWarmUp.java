@@ -0,0 +1,118 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+import android.view.Choreographer;
+import android.webkit.CookieManager;
+import android.webkit.WebSettings;
+import android.webkit.WebStorage;
+
+/**
+ * Loads the WebView provider ahead of the first WebView construction.
+ *
+ * <p>The first WebView constructed in a process pays for loading the WebView provider and starting
+ * Chromium, which takes hundreds of milliseconds on the platform thread. Warming up moves that cost
+ * to a point where the app is idle rather than the moment a WebView is first shown.
+ *
+ * <p>Apps opt in to warming up when the plugin is attached with a meta-data entry in their
+ * AndroidManifest.xml:
+ *
+ * <pre>{@code
+ * <meta-data
+ *     android:name="io.flutter.plugins.webviewflutter.WarmUpOnAttach"
+ *     android:value="true" />
+ * }</pre>
+ *
+ * <p>All methods must be called on the platform thread.
+ */
+final class WebViewProviderWarmUp {
+  private static final String TAG = "WebViewProviderWarmUp";
+  private static final String WARM_UP_ON_ATTACH_KEY =
+      "io.flutter.plugins.webviewflutter.WarmUpOnAttach";
+
+  private static boolean warmedUp;
+  private static boolean warmUpScheduled;
+
+  private WebViewProviderWarmUp() {}
+
+  /**
+   * Loads the WebView provider and the {@link CookieManager} and {@link WebStorage} singletons.
+   *
+   * <p>Returns false if the provider was already warmed up by an earlier call.
+   */
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+  static boolean warmUp(Context context) {
+    if (warmedUp) {
+      return false;
+    }
+    warmedUp = true;
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+      CookieManager.getInstance();
+      WebStorage.getInstance();
+      return true;
+    }
+    // Starting Chromium may register the WebView's display listener, so this is proxied like a
+    // WebView initialization.
+    DisplayListenerProxy displayListenerProxy = new DisplayListenerProxy();
+    DisplayManager displayManager =
+        (DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE);
+    displayListenerProxy.onPreWebViewInitialization(displayManager);
+    // Fetching the default user agent loads the provider without constructing a WebView.
+    WebSettings.getDefaultUserAgent(context);
+    CookieManager.getInstance();
+    WebStorage.getInstance();
+    displayListenerProxy.onPostWebViewInitialization(displayManager);
+    return true;
+  }
+
+  /** Warms up on the first idle callback of the platform thread after the next frame. */
+  static void scheduleWarmUp(final Context context) {
+    if (warmedUp || warmUpScheduled) {
+      return;
+    }
+    warmUpScheduled = true;
+    Choreographer.getInstance()
+        .postFrameCallback(
+            new Choreographer.FrameCallback() {
+              @Override
+              public void doFrame(long frameTimeNanos) {
+                Looper.myQueue()
+                    .addIdleHandler(
+                        new MessageQueue.IdleHandler() {
+                          @Override
+                          public boolean queueIdle() {
+                            warmUp(context);
+                            return false;
+                          }
+                        });
+              }
+            });
+  }
+
+  /** Whether the app's manifest opts in to warming up when the plugin is attached. */
+  static boolean isWarmUpOnAttachEnabled(Context context) {
+    try {
+      ApplicationInfo applicationInfo =
+          context
+              .getPackageManager()
+              .getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+      Bundle metaData = applicationInfo.metaData;
+      return metaData != null && metaData.getBoolean(WARM_UP_ON_ATTACH_KEY, false);
+    } catch (PackageManager.NameNotFoundException e) {
+      Log.w(TAG, "Could not read the application's meta-data. " + e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,552 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Process;
+import android.util.Log;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the saved state ({@link android.webkit.WebView#saveState}) of the WebViews created with a
+ * restoration id, so that a WebView created later with the same id restores its history and
+ * scroll position instead of loading its initial URL, shared by all the WebViews of the plugin.
+ *
+ * <p>The states are kept in memory, the least recently used ones are evicted once there are more
+ * than the configured max entries. States can also be written to disk so that they outlive the
+ * process, each state is a file named after the SHA-1 of its id holding the id followed by the
+ * state's entries. Only states made of byte arrays, strings and primitives, which is what the
+ * WebView saves, are written. The files' last modified time records their last use, the least
+ * recently used files are deleted once there are more than the configured max disk entries.
+ *
+ * <p>The states on disk are read back in the background when the disk is first configured, and
+ * are then kept in memory along with the states evicted from the max entries, so that restoring a
+ * state never waits for the disk. A state that is restored before the disk is read is a miss.
+ *
+ * <p>The store also hands the state of a hibernated WebView over to the platform view that Dart
+ * creates to restore it, see {@link #putHibernated}.
+ *
+ * <p>Files are read, written and deleted on a background thread. All methods must be called on the
+ * platform thread.
+ */
+final class WebViewStateStore {
+  private static final String TAG = "WebViewStateStore";
+  private static final String DIRECTORY = "webview_flutter_state";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  // Starts every state file, files with another header are discarded.
+  private static final int FILE_HEADER = 0x57465304;
+  private static final int DEFAULT_MAX_ENTRIES = 8;
+  // The hibernated states waiting for their platform view to be recreated.
+  private static final int MAX_HIBERNATED_STATES = 8;
+
+  private static final byte TYPE_BYTE_ARRAY = 0;
+  private static final byte TYPE_STRING = 1;
+  private static final byte TYPE_INT = 2;
+  private static final byte TYPE_LONG = 3;
+  private static final byte TYPE_BOOLEAN = 4;
+
+  private final File directory;
+  private final Handler platformThreadHandler;
+  // The saved states by restoration id, in access order.
+  private final LinkedHashMap<String, Bundle> states = new LinkedHashMap<>(16, 0.75f, true);
+  // The states that are only kept because they are on disk, in access order.
+  private final LinkedHashMap<String, Bundle> diskStates = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<String, Bundle> hibernatedStates = new LinkedHashMap<>();
+  private int maxEntries = DEFAULT_MAX_ENTRIES;
+  // 0 when the states are not written to disk.
+  private int maxDiskEntries;
+  private boolean diskReadStarted;
+  private boolean diskRead;
+  // The ids forgotten while the disk is read, their files may be read before they're deleted.
+  private final Set<String> removedWhileReading = new HashSet<>();
+  private boolean clearedWhileReading;
+  private ThreadPoolExecutor diskExecutor;
+  private int nextHibernatedKey;
+  private int saves;
+  private int restores;
+  private int diskRestores;
+  private int misses;
+
+  WebViewStateStore(Context applicationContext) {
+    directory = new File(applicationContext.getCacheDir(), DIRECTORY);
+    platformThreadHandler = new Handler(applicationContext.getMainLooper());
+  }
+
+  /**
+   * Sets how many states are kept in memory and on disk.
+   *
+   * <p>A max disk entries of 0 stops writing states to disk without deleting the written files.
+   */
+  void configure(int maxEntries, int maxDiskEntries) {
+    if (maxEntries < 0 || maxDiskEntries < 0) {
+      throw new IllegalArgumentException(
+          "The saved state limits must not be negative: " + maxEntries + ", " + maxDiskEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.maxDiskEntries = maxDiskEntries;
+    evict();
+    if (maxDiskEntries > 0) {
+      final int maxFiles = maxDiskEntries;
+      executeOnDisk(
+          new Runnable() {
+            @Override
+            public void run() {
+              evictFiles(maxFiles);
+            }
+          });
+      if (!diskReadStarted) {
+        diskReadStarted = true;
+        readDisk();
+      }
+    }
+  }
+
+  /** Saves the state of the WebView with a restoration id, replacing its previous state. */
+  void put(final String restorationId, Bundle state) {
+    saves++;
+    diskStates.remove(restorationId);
+    states.put(restorationId, state);
+    evict();
+    if (maxDiskEntries > 0) {
+      // Encoded on the platform thread, the WebView may still change the bundle.
+      final String name = fileName(restorationId);
+      final byte[] encoded = encode(state);
+      if (encoded == null) {
+        Log.w(TAG, "The saved state " + name + " can't be written to disk");
+        return;
+      }
+      final int maxFiles = maxDiskEntries;
+      executeOnDisk(
+          new Runnable() {
+            @Override
+            public void run() {
+              try {
+                write(name, restorationId, encoded);
+              } catch (IOException e) {
+                Log.w(TAG, "Failed to write the saved state " + name, e);
+              }
+              evictFiles(maxFiles);
+            }
+          });
+    }
+  }
+
+  /** Returns the saved state of a restoration id, or null if there is none. */
+  Bundle get(final String restorationId) {
+    Bundle state = states.get(restorationId);
+    if (state != null) {
+      restores++;
+      return state;
+    }
+    state = diskStates.remove(restorationId);
+    if (state == null) {
+      misses++;
+      return null;
+    }
+    restores++;
+    diskRestores++;
+    states.put(restorationId, state);
+    evict();
+    // Marks the file as used.
+    final String name = fileName(restorationId);
+    executeOnDisk(
+        new Runnable() {
+          @Override
+          public void run() {
+            new File(directory, name).setLastModified(System.currentTimeMillis());
+          }
+        });
+    return state;
+  }
+
+  /** Forgets the saved state of a restoration id. */
+  void remove(String restorationId) {
+    states.remove(restorationId);
+    diskStates.remove(restorationId);
+    if (diskReadStarted && !diskRead) {
+      removedWhileReading.add(restorationId);
+    }
+    final String name = fileName(restorationId);
+    executeOnDisk(
+        new Runnable() {
+          @Override
+          public void run() {
+            new File(directory, name).delete();
+          }
+        });
+  }
+
+  /** Forgets all the saved states. */
+  void clear() {
+    states.clear();
+    diskStates.clear();
+    if (diskReadStarted && !diskRead) {
+      clearedWhileReading = true;
+    }
+    executeOnDisk(
+        new Runnable() {
+          @Override
+          public void run() {
+            File[] files = directory.listFiles();
+            if (files != null) {
+              for (File file : files) {
+                file.delete();
+              }
+            }
+          }
+        });
+  }
+
+  /**
+   * Keeps the state of a hibernated WebView until the platform view recreated to restore it takes
+   * it, and returns the key it's taken with.
+   *
+   * <p>The hibernated states are never written to disk, the oldest ones are dropped if their
+   * platform views are not recreated.
+   */
+  String putHibernated(Bundle state) {
+    String key = "hibernated-" + nextHibernatedKey++;
+    hibernatedStates.put(key, state);
+    Iterator<String> iterator = hibernatedStates.keySet().iterator();
+    while (hibernatedStates.size() > MAX_HIBERNATED_STATES && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+    return key;
+  }
+
+  /** Returns and forgets the hibernated state kept with {@code key}, or null if there is none. */
+  Bundle takeHibernated(String key) {
+    return hibernatedStates.remove(key);
+  }
+
+  Map<String, Object> getStats() {
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("entries", states.size() + diskStates.size());
+    stats.put("saves", saves);
+    stats.put("restores", restores);
+    stats.put("diskRestores", diskRestores);
+    stats.put("misses", misses);
+    return stats;
+  }
+
+  // The states evicted from memory are kept with the disk states while they are on disk.
+  private void evict() {
+    Iterator<Map.Entry<String, Bundle>> iterator = states.entrySet().iterator();
+    while (states.size() > maxEntries && iterator.hasNext()) {
+      Map.Entry<String, Bundle> entry = iterator.next();
+      iterator.remove();
+      if (maxDiskEntries > 0) {
+        diskStates.put(entry.getKey(), entry.getValue());
+      }
+    }
+    evictDiskStates();
+  }
+
+  private void evictDiskStates() {
+    Iterator<String> iterator = diskStates.keySet().iterator();
+    while (diskStates.size() > Math.max(maxDiskEntries - states.size(), 0)
+        && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  private void readDisk() {
+    executeOnDisk(
+        new Runnable() {
+          @Override
+          public void run() {
+            final List<Map.Entry<String, Bundle>> read = readFiles();
+            platformThreadHandler.post(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    onDiskRead(read);
+                  }
+                });
+          }
+        });
+  }
+
+  // The states read from disk, from the least to the most recently used.
+  private void onDiskRead(List<Map.Entry<String, Bundle>> read) {
+    diskRead = true;
+    if (!clearedWhileReading && maxDiskEntries > 0) {
+      for (Map.Entry<String, Bundle> entry : read) {
+        String restorationId = entry.getKey();
+        if (!states.containsKey(restorationId)
+            && !removedWhileReading.contains(restorationId)) {
+          diskStates.put(restorationId, entry.getValue());
+        }
+      }
+      evictDiskStates();
+    }
+    removedWhileReading.clear();
+    clearedWhileReading = false;
+  }
+
+  // Invalid files are deleted.
+  private List<Map.Entry<String, Bundle>> readFiles() {
+    List<Map.Entry<String, Bundle>> read = new ArrayList<>();
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return read;
+    }
+    sortByLastModified(files);
+    for (File file : files) {
+      if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+        continue;
+      }
+      Map.Entry<String, Bundle> entry = read(file);
+      if (entry == null) {
+        file.delete();
+      } else {
+        read.add(entry);
+      }
+    }
+    return read;
+  }
+
+  // Returns null if the file isn't a valid state file.
+  private static Map.Entry<String, Bundle> read(File file) {
+    try {
+      // Read at once so that the lengths in the file can be checked against what's left of it.
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(readFile(file)));
+      try {
+        if (in.readInt() != FILE_HEADER) {
+          return null;
+        }
+        String restorationId = in.readUTF();
+        if (!file.getName().equals(fileName(restorationId))) {
+          return null;
+        }
+        Bundle state = new Bundle();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          String key = in.readUTF();
+          byte type = in.readByte();
+          switch (type) {
+            case TYPE_BYTE_ARRAY:
+              state.putByteArray(key, readBytes(in));
+              break;
+            case TYPE_STRING:
+              state.putString(key, new String(readBytes(in), Charset.forName("UTF-8")));
+              break;
+            case TYPE_INT:
+              state.putInt(key, in.readInt());
+              break;
+            case TYPE_LONG:
+              state.putLong(key, in.readLong());
+              break;
+            case TYPE_BOOLEAN:
+              state.putBoolean(key, in.readBoolean());
+              break;
+            default:
+              return null;
+          }
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(restorationId, state);
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Failed to read the saved state " + file.getName(), e);
+      return null;
+    }
+  }
+
+  private static byte[] readFile(File file) throws IOException {
+    long length = file.length();
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Invalid file length: " + length);
+    }
+    byte[] contents = new byte[(int) length];
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+    try {
+      in.readFully(contents);
+    } finally {
+      in.close();
+    }
+    return contents;
+  }
+
+  // The stream reads a file's contents, so that its available bytes are what's left of the file.
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      // A corrupt or truncated file.
+      throw new IOException("Invalid length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  // Returns null if the state holds values that aren't written to disk.
+  private static byte[] encode(Bundle state) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(state.size());
+      for (String key : state.keySet()) {
+        Object value = state.get(key);
+        out.writeUTF(key);
+        if (value instanceof byte[]) {
+          out.writeByte(TYPE_BYTE_ARRAY);
+          writeBytes(out, (byte[]) value);
+        } else if (value instanceof String) {
+          out.writeByte(TYPE_STRING);
+          writeBytes(out, ((String) value).getBytes(Charset.forName("UTF-8")));
+        } else if (value instanceof Integer) {
+          out.writeByte(TYPE_INT);
+          out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+          out.writeByte(TYPE_LONG);
+          out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+          out.writeByte(TYPE_BOOLEAN);
+          out.writeBoolean((Boolean) value);
+        } else {
+          return null;
+        }
+      }
+    } catch (IOException e) {
+      // Never thrown by a ByteArrayOutputStream.
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  // The id is written before the state to detect hash collisions.
+  private void write(String name, String restorationId, byte[] encoded) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Failed to create " + directory);
+    }
+    File tempFile = File.createTempFile(name, TEMP_FILE_SUFFIX, directory);
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+    try {
+      out.writeInt(FILE_HEADER);
+      out.writeUTF(restorationId);
+      out.write(encoded);
+    } catch (IOException e) {
+      tempFile.delete();
+      throw e;
+    } finally {
+      out.close();
+    }
+    File file = new File(directory, name);
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("Failed to rename " + tempFile + " to " + file);
+    }
+  }
+
+  private void evictFiles(int maxFiles) {
+    File[] files = directory.listFiles();
+    if (files == null || files.length <= maxFiles) {
+      return;
+    }
+    sortByLastModified(files);
+    for (int i = 0; i < files.length - maxFiles; i++) {
+      files[i].delete();
+    }
+  }
+
+  private static void sortByLastModified(File[] files) {
+    Arrays.sort(
+        files,
+        new Comparator<File>() {
+          @Override
+          public int compare(File a, File b) {
+            return Long.compare(a.lastModified(), b.lastModified());
+          }
+        });
+  }
+
+  private void executeOnDisk(Runnable runnable) {
+    diskExecutor().execute(runnable);
+  }
+
+  private ThreadPoolExecutor diskExecutor() {
+    if (diskExecutor == null) {
+      diskExecutor =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              30,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                  Runnable backgroundRunnable =
+                      new Runnable() {
+                        @Override
+                        public void run() {
+                          Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                          runnable.run();
+                        }
+                      };
+                  Thread thread = new Thread(backgroundRunnable, "WebViewStateStore");
+                  thread.setDaemon(true);
+                  return thread;
+                }
+              });
+      diskExecutor.allowCoreThreadTimeOut(true);
+    }
+    return diskExecutor;
+  }
+
+  private static String fileName(String restorationId) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-1")
+              .digest(restorationId.getBytes(Charset.forName("UTF-8")));
+      StringBuilder name = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        name.append(String.format(Locale.US, "%02x", b));
+      }
+      return name.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+  }
+}
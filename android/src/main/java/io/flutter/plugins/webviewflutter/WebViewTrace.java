@@ -0,0 +1,170 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+import android.util.Log;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emits systrace sections for the plugin's work, so that it shows up in Perfetto and systrace
+ * captures of the app.
+ *
+ * <p>Tracing is disabled by default, and then costs a single volatile read per section. Sections
+ * need Jelly Bean MR2, async sections use the hidden {@code Trace.asyncTraceBegin} before Android
+ * Q, which is resolved with reflection once, and are not emitted if it can't be resolved.
+ *
+ * <p>Sections are used as:
+ *
+ * <pre>
+ * boolean traced = WebViewTrace.beginSection("name");
+ * try {
+ *   ...
+ * } finally {
+ *   WebViewTrace.endSection(traced);
+ * }
+ * </pre>
+ *
+ * so that toggling tracing while a section is open never unbalances the thread's sections.
+ */
+final class WebViewTrace {
+  private static final String TAG = "WebViewTrace";
+  // Trace.TRACE_TAG_APP, the tag of the app's own sections.
+  private static final long TRACE_TAG_APP = 1L << 12;
+  // Longer section names are rejected by Trace.
+  private static final int MAX_SECTION_NAME_LENGTH = 127;
+  // Build.VERSION_CODES.Q, which isn't in the compile SDK yet.
+  private static final int ANDROID_Q = 29;
+
+  private static volatile boolean enabled;
+  // 0 is never used, it marks an async section that wasn't started.
+  private static final AtomicInteger nextCookie = new AtomicInteger();
+
+  private static boolean asyncMethodsResolved;
+  private static Method asyncBeginMethod;
+  private static Method asyncEndMethod;
+
+  private WebViewTrace() {}
+
+  /** Enables or disables tracing for the whole process. */
+  static void setEnabled(boolean enabled) {
+    WebViewTrace.enabled = enabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+  }
+
+  /**
+   * Starts a section on the current thread.
+   *
+   * @return whether the section was started, to be passed to {@link #endSection}
+   */
+  static boolean beginSection(String name) {
+    if (!enabled) {
+      return false;
+    }
+    begin(name);
+    return true;
+  }
+
+  /**
+   * Starts a section named {@code prefix + name}, the name is only built if tracing is enabled.
+   *
+   * @return whether the section was started, to be passed to {@link #endSection}
+   */
+  static boolean beginSection(String prefix, String name) {
+    if (!enabled) {
+      return false;
+    }
+    begin(prefix + name);
+    return true;
+  }
+
+  /** Ends the last section started on the current thread, if {@code traced}. */
+  static void endSection(boolean traced) {
+    if (traced) {
+      end();
+    }
+  }
+
+  /**
+   * Starts a section that may end on another thread or in a later message, e.g once a callback is
+   * invoked.
+   *
+   * @return the cookie of the section, to be passed to {@link #endAsyncSection}, or 0 if it
+   *     wasn't started
+   */
+  static int beginAsyncSection(String name) {
+    if (!enabled || !resolveAsyncMethods()) {
+      return 0;
+    }
+    int cookie = nextCookie.incrementAndGet();
+    if (cookie == 0) {
+      cookie = nextCookie.incrementAndGet();
+    }
+    invokeAsync(asyncBeginMethod, name, cookie);
+    return cookie;
+  }
+
+  /** Ends a section started by {@link #beginAsyncSection} with the same name. */
+  static void endAsyncSection(String name, int cookie) {
+    if (cookie != 0) {
+      invokeAsync(asyncEndMethod, name, cookie);
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static void begin(String name) {
+    Trace.beginSection(truncate(name));
+  }
+
+  @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+  private static void end() {
+    Trace.endSection();
+  }
+
+  private static String truncate(String name) {
+    return name.length() <= MAX_SECTION_NAME_LENGTH
+        ? name
+        : name.substring(0, MAX_SECTION_NAME_LENGTH);
+  }
+
+  @SuppressWarnings("PrivateApi")
+  private static synchronized boolean resolveAsyncMethods() {
+    if (asyncMethodsResolved) {
+      return asyncBeginMethod != null;
+    }
+    asyncMethodsResolved = true;
+    try {
+      if (Build.VERSION.SDK_INT >= ANDROID_Q) {
+        asyncBeginMethod = Trace.class.getMethod("beginAsyncSection", String.class, int.class);
+        asyncEndMethod = Trace.class.getMethod("endAsyncSection", String.class, int.class);
+      } else {
+        asyncBeginMethod =
+            Trace.class.getMethod("asyncTraceBegin", long.class, String.class, int.class);
+        asyncEndMethod =
+            Trace.class.getMethod("asyncTraceEnd", long.class, String.class, int.class);
+      }
+    } catch (NoSuchMethodException e) {
+      Log.w(TAG, "Async trace sections are not available. " + e);
+      asyncBeginMethod = null;
+      asyncEndMethod = null;
+    }
+    return asyncBeginMethod != null;
+  }
+
+  private static void invokeAsync(Method method, String name, int cookie) {
+    try {
+      if (Build.VERSION.SDK_INT >= ANDROID_Q) {
+        method.invoke(null, truncate(name), cookie);
+      } else {
+        method.invoke(null, TRACE_TAG_APP, truncate(name), cookie);
+      }
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      Log.w(TAG, "Could not trace " + name + ". " + e);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+// Copyright 2019 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.webviewflutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class ContentBlocklistTest {
+  @Test
+  public void set_countsDistinctHostsAndIgnoresComments() {
+    ContentBlocklist blocklist = new ContentBlocklist();
+
+    int hosts =
+        blocklist.set(
+            Arrays.asList(
+                "tracker.example",
+                "0.0.0.0 ads.example",
+                "||ads.example^",
+                "*.TRACKER.example",
+                "# comment",
+                "! comment",
+                ""));
+
+    assertEquals(2, hosts);
+  }
+
+  @Test
+  public void isBlocked_blocksHostsAndSubdomains() {
+    ContentBlocklist blocklist = new ContentBlocklist();
+    blocklist.set(Collections.singletonList("ads.example.com"));
+
+    assertTrue(blocklist.isBlocked("https://ads.example.com/ad.js"));
+    assertTrue(blocklist.isBlocked("https://cdn.ads.example.com/ad.png"));
+    assertTrue(blocklist.isBlocked("https://ADS.example.com/ad.js"));
+    assertTrue(blocklist.isBlocked("https://ads.example.com:8080/ad.js"));
+    assertTrue(blocklist.isBlocked("https://user@ads.example.com./ad.js"));
+    assertFalse(blocklist.isBlocked("https://example.com/main.js"));
+    assertFalse(blocklist.isBlocked("https://badads.example.com/main.js"));
+    assertFalse(blocklist.isBlocked("https://flutter.dev/?ref=ads.example.com"));
+    assertFalse(blocklist.isBlocked("about:blank"));
+  }
+
+  @Test
+  public void set_replacesTheBlockedHosts() {
+    ContentBlocklist blocklist = new ContentBlocklist();
+    blocklist.set(Collections.singletonList("ads.example.com"));
+
+    blocklist.set(Collections.<String>emptyList());
+
+    assertFalse(blocklist.isBlocked("https://ads.example.com/ad.js"));
+  }
+}
@@ -4,6 +4,7 @@
 
 import 'dart:async';
 import 'dart:convert';
+import 'dart:io';
 import 'dart:typed_data';
 
 import 'package:flutter/foundation.dart';
@@ -611,6 +612,171 @@ void main() {
       expect(currentUrl, 'https://www.google.com/');
     });
   });
+
+  group('Resource cache', () {
+    final bool isAndroid = defaultTargetPlatform == TargetPlatform.android;
+    final Map<String, int> requests = <String, int>{};
+    HttpServer server;
+
+    setUp(() async {
+      if (!isAndroid) {
+        return;
+      }
+      requests.clear();
+      server = await HttpServer.bind(InternetAddress.loopbackIPv4, 0);
+      server.listen((HttpRequest request) {
+        final String path = request.uri.path;
+        requests[path] = (requests[path] ?? 0) + 1;
+        final HttpResponse response = request.response;
+        switch (path) {
+          case '/page.html':
+            response.headers.contentType = ContentType.html;
+            response.headers.set('Cache-Control', 'no-store');
+            response.write('<!DOCTYPE html><html><head>'
+                '<script src="app.js"></script>'
+                '</head><body></body></html>');
+            break;
+          case '/app.js':
+          case '/session/app.js':
+            if (path == '/session/app.js') {
+              response.cookies.add(Cookie('session', '1')..path = '/session/');
+            }
+            response.headers.contentType =
+                ContentType('application', 'javascript', charset: 'utf-8');
+            response.write('var appLoaded = true;');
+            break;
+          case '/data.json':
+            response.headers.contentType = ContentType.json;
+            response.headers.set('Access-Control-Allow-Origin', '*');
+            response.write('{"cached":true}');
+            break;
+          default:
+            response.statusCode = HttpStatus.notFound;
+        }
+        response.close();
+      });
+      await WebViewManager().clearResourceCache();
+      await WebViewManager().configureResourceCache(
+        maxBytes: 1024 * 1024,
+        urlPatterns: <String>[r'\.js$', r'\.json$'],
+      );
+    });
+
+    tearDown(() async {
+      if (!isAndroid) {
+        return;
+      }
+      await WebViewManager()
+          .configureResourceCache(maxBytes: 0, urlPatterns: <String>[]);
+      await WebViewManager().clearResourceCache();
+      await CookieManager().clearCookies();
+      await server.close(force: true);
+    });
+
+    testWidgets('serves cached responses with their headers',
+        (WidgetTester tester) async {
+      final String origin = 'http://127.0.0.1:${server.port}';
+      // Another origin, so that the fetch needs the CORS headers.
+      final String crossOrigin = 'http://localhost:${server.port}';
+      // The stats are never reset.
+      final ResourceCacheStats initialStats =
+          await WebViewManager().getResourceCacheStats();
+      final Completer<WebViewController> controllerCompleter =
+          Completer<WebViewController>();
+      final StreamController<String> pageLoads =
+          StreamController<String>.broadcast();
+      final StreamController<String> fetches =
+          StreamController<String>.broadcast();
+      await tester.pumpWidget(
+        Directionality(
+          textDirection: TextDirection.ltr,
+          child: WebView(
+            key: GlobalKey(),
+            initialUrl: '$origin/page.html',
+            onWebViewCreated: (WebViewController controller) {
+              controllerCompleter.complete(controller);
+            },
+            javascriptMode: JavascriptMode.unrestricted,
+            javascriptChannels: <JavascriptChannel>[
+              JavascriptChannel(
+                name: 'Fetches',
+                onMessageReceived: (JavascriptMessage message) {
+                  fetches.add(message.message);
+                },
+              ),
+            ].toSet(),
+            onPageFinished: (String url) {
+              pageLoads.add(url);
+            },
+          ),
+        ),
+      );
+      final WebViewController controller = await controllerCompleter.future;
+      await pageLoads.stream.first;
+
+      final String fetchData = 'fetch("$crossOrigin/data.json")'
+          '.then(function(response) { return response.text(); })'
+          '.then(function(text) { Fetches.postMessage(text); },'
+          ' function(error) { Fetches.postMessage("error: " + error); });';
+      for (int i = 0; i < 2; i++) {
+        final Future<String> fetched = fetches.stream.first;
+        await controller.evaluateJavascript(fetchData);
+        expect(await fetched, '{"cached":true}');
+      }
+      expect(requests['/data.json'], 1);
+
+      await controller.reload();
+      await pageLoads.stream.first;
+      expect(await controller.evaluateJavascript('appLoaded'), 'true');
+      expect(requests['/page.html'], 2);
+      expect(requests['/app.js'], 1);
+
+      final ResourceCacheStats stats =
+          await WebViewManager().getResourceCacheStats();
+      expect(stats.hits - initialStats.hits, 2);
+      expect(stats.misses - initialStats.misses, 2);
+      expect(stats.entries, 2);
+    }, skip: !isAndroid);
+
+    testWidgets('does not cache responses setting cookies',
+        (WidgetTester tester) async {
+      final String url = 'http://127.0.0.1:${server.port}/session/app.js';
+      final ResourceCacheStats initialStats =
+          await WebViewManager().getResourceCacheStats();
+      final Completer<WebViewController> controllerCompleter =
+          Completer<WebViewController>();
+      final StreamController<String> pageLoads =
+          StreamController<String>.broadcast();
+      await tester.pumpWidget(
+        Directionality(
+          textDirection: TextDirection.ltr,
+          child: WebView(
+            key: GlobalKey(),
+            initialUrl: url,
+            onWebViewCreated: (WebViewController controller) {
+              controllerCompleter.complete(controller);
+            },
+            onPageFinished: (String url) {
+              pageLoads.add(url);
+            },
+          ),
+        ),
+      );
+      final WebViewController controller = await controllerCompleter.future;
+      await pageLoads.stream.first;
+
+      // The request now has a cookie, and is left to the WebView.
+      await controller.reload();
+      await pageLoads.stream.first;
+      expect(requests['/session/app.js'], 2);
+
+      final ResourceCacheStats stats =
+          await WebViewManager().getResourceCacheStats();
+      expect(stats.hits, initialStats.hits);
+      expect(stats.misses - initialStats.misses, 1);
+      expect(stats.entries, 0);
+    }, skip: !isAndroid);
+  });
 }
 
 // JavaScript booleans evaluate to different string values on Android and iOS.
@@ -43,6 +43,11 @@
                             decisionHandler(WKNavigationActionPolicyAllow);
                             return;
                           }
+                          if ([result isKindOfClass:[NSDictionary class]]) {
+                            // The decision comes with a directive to cache it, which only the
+                            // Android implementation supports.
+                            result = result[@"allow"];
+                          }
                           if (![result isKindOfClass:[NSNumber class]]) {
                             NSLog(@"navigationRequest unexpectedly returned a non boolean value: "
                                   @"%@, allowing navigation.",
@@ -120,6 +120,14 @@
     [self clearCache:result];
   } else if ([[call method] isEqualToString:@"getTitle"]) {
     [self onGetTitle:result];
+  } else if ([[call method] isEqualToString:@"setNavigationRules"]) {
+    // Navigation rules are only evaluated on Android, the navigation delegate decides all the
+    // navigations on iOS.
+    result(nil);
+  } else if ([[call method] isEqualToString:@"pause"] ||
+             [[call method] isEqualToString:@"resume"]) {
+    // Hidden webviews are only paused on Android, `WebView.pauseWhenHidden` is ignored on iOS.
+    result(nil);
   } else {
     result(FlutterMethodNotImplemented);
   }
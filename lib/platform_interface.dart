@@ -3,6 +3,7 @@
 // found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:flutter/foundation.dart';
 import 'package:flutter/gestures.dart';
@@ -14,17 +15,87 @@ import 'webview_flutter.dart';
 ///
 /// The webview plugin implements this class, and passes an instance to the [WebViewPlatformController].
 /// [WebViewPlatformController] is notifying this handler on events that happened on the platform's webview.
+///
+/// Handlers that live in a separate package should extend this class rather than implement it, the
+/// callbacks added after [onJavaScriptChannelMessage], [onNavigationRequest] and [onPageFinished]
+/// have default implementations that ignore the event.
 abstract class WebViewPlatformCallbacksHandler {
   /// Invoked by [WebViewPlatformController] when a JavaScript channel message is received.
   void onJavaScriptChannelMessage(String channel, String message);
 
+  /// Invoked by [WebViewPlatformController] when a JavaScript channel binary message is received.
+  void onJavaScriptChannelBinaryMessage(String channel, Uint8List message) {}
+
+  /// Invoked by [WebViewPlatformController] when the page posts a message to a web message channel.
+  ///
+  /// See also: [WebViewPlatformController.createWebMessageChannel].
+  void onWebMessageChannelMessage(String name, String message) {}
+
   /// Invoked by [WebViewPlatformController] when a navigation request is pending.
   ///
   /// If true is returned the navigation is allowed, otherwise it is blocked.
   FutureOr<bool> onNavigationRequest({String url, bool isForMainFrame});
 
+  /// Invoked by [WebViewPlatformController] when a navigation request is pending and the
+  /// platform's webview can cache the decision.
+  ///
+  /// Like [onNavigationRequest], but the returned [NavigationResponse] can also ask the platform to
+  /// reuse the decision for later navigations.
+  ///
+  /// Defaults to a decision of [onNavigationRequest] that isn't cached.
+  FutureOr<NavigationResponse> onCacheableNavigationRequest(
+      {String url, bool isForMainFrame}) async {
+    return NavigationResponse(
+        allow: await onNavigationRequest(
+            url: url, isForMainFrame: isForMainFrame));
+  }
+
+  /// Invoked by [WebViewPlatformController] with the subframe navigation requests collected
+  /// since the last call, when [CreationParams.subframeNavigationRequests] is
+  /// [SubframeNavigationRequests.coalesced].
+  ///
+  /// `urls` are the distinct requested URLs in request order, and `count` is the number of
+  /// requests including the repeated URLs.
+  ///
+  /// Defaults to calling [onNavigationRequest] for each URL, whose decision is ignored.
+  void onSubframeNavigationRequests(List<String> urls, int count) {
+    for (String url in urls) {
+      onNavigationRequest(url: url, isForMainFrame: false);
+    }
+  }
+
   /// Invoked by [WebViewPlatformController] when a page has finished loading.
   void onPageFinished(String url);
+
+  /// Invoked by [WebViewPlatformController] with the metrics of a main frame navigation, once
+  /// the page has finished loading.
+  ///
+  /// This is only invoked when [CreationParams.pageLoadMetricsMode] isn't
+  /// [PageLoadMetricsMode.none].
+  void onPageLoadMetrics(PageLoadMetrics metrics) {}
+
+  /// Invoked by [WebViewPlatformController] when the navigation state of the webview changed.
+  ///
+  /// This is only invoked when [CreationParams.navigationStateEvents] is true.
+  void onNavigationStateChanged(NavigationState state) {}
+
+  /// Invoked by [WebViewPlatformController] when the platform changed the memory state of the
+  /// webview.
+  void onMemoryStateChanged(WebViewMemoryState state) {}
+
+  /// Invoked by [WebViewPlatformController] when the renderer process of the webview is gone.
+  ///
+  /// The [WebViewPlatformController] can't be used anymore, its webview must be recreated.
+  void onRenderProcessGone(RenderProcessGoneDetails details) {}
+
+  /// Invoked by [WebViewPlatformController] when a hibernated webview is active again.
+  ///
+  /// The page of the webview is still unloaded, its webview must be recreated with `stateKey` as
+  /// [CreationParams.restoredStateKey] and `url` as [CreationParams.initialUrl], which is loaded
+  /// if the state can't be restored.
+  ///
+  /// See also: [WebViewMemoryState.hibernated].
+  void onHibernationEnded(String url, String stateKey) {}
 }
 
 /// Interface for talking to the webview's platform implementation.
@@ -125,6 +196,14 @@ abstract class WebViewPlatformController {
         "WebView clearCache is not implemented on the current platform");
   }
 
+  /// Removes the `dataTypes` stored for the `origins`, or for all origins if `origins` is null.
+  ///
+  /// See also: [WebViewController.clearData].
+  Future<void> clearData(Set<WebViewDataType> dataTypes, List<String> origins) {
+    throw UnimplementedError(
+        "WebView clearData is not implemented on the current platform");
+  }
+
   /// Evaluates a JavaScript expression in the context of the current page.
   ///
   /// The Future completes with an error if a JavaScript error occurred, or if the type of the
@@ -134,6 +213,122 @@ abstract class WebViewPlatformController {
         "WebView evaluateJavascript is not implemented on the current platform");
   }
 
+  /// Evaluates a list of JavaScript expressions in the context of the current page, in order.
+  ///
+  /// The Future completes with one [JavascriptBatchResult] per script once all of them were
+  /// evaluated. When `combine` is true the scripts are evaluated by a single script on the page.
+  ///
+  /// See also: [WebViewController.evaluateJavascriptBatch].
+  Future<List<JavascriptBatchResult>> evaluateJavascriptBatch(
+      List<String> scripts, bool combine) {
+    throw UnimplementedError(
+        "WebView evaluateJavascriptBatch is not implemented on the current platform");
+  }
+
+  /// Replaces the rules deciding navigation actions without calling
+  /// [WebViewPlatformCallbacksHandler.onNavigationRequest].
+  ///
+  /// See also: [CreationParams.navigationRules].
+  Future<void> setNavigationRules(List<NavigationRule> navigationRules) {
+    throw UnimplementedError(
+        "WebView setNavigationRules is not implemented on the current platform");
+  }
+
+  /// Returns the usage statistics of the platform's navigation decision cache.
+  ///
+  /// See also: [NavigationResponse.cacheTtl].
+  Future<NavigationDecisionCacheStats> getNavigationDecisionCacheStats() {
+    throw UnimplementedError(
+        "WebView getNavigationDecisionCacheStats is not implemented on the current platform");
+  }
+
+  /// Discards all the decisions in the platform's navigation decision cache.
+  Future<void> clearNavigationDecisionCache() {
+    throw UnimplementedError(
+        "WebView clearNavigationDecisionCache is not implemented on the current platform");
+  }
+
+  /// Returns the method calls handled by this webview and the events it sent.
+  ///
+  /// See also: [WebViewPlatform.setMethodCallMetricsEnabled].
+  Future<MethodCallMetrics> getMethodCallMetrics() {
+    throw UnimplementedError(
+        "WebView getMethodCallMetrics is not implemented on the current platform");
+  }
+
+  /// Discards the method call metrics recorded for this webview.
+  Future<void> resetMethodCallMetrics() {
+    throw UnimplementedError(
+        "WebView resetMethodCallMetrics is not implemented on the current platform");
+  }
+
+  /// Returns how many settings updates the webview received and skipped because they were
+  /// unchanged.
+  Future<SettingsUpdateStats> getSettingsUpdateStats() {
+    throw UnimplementedError(
+        "WebView getSettingsUpdateStats is not implemented on the current platform");
+  }
+
+  /// Marks the webview as shown to the user, or in the background.
+  ///
+  /// See also: [WebViewController.setActive].
+  Future<void> setActive(bool active) {
+    throw UnimplementedError(
+        "WebView setActive is not implemented on the current platform");
+  }
+
+  /// Sets the priority of the webview's renderer process when the system needs to reclaim memory.
+  ///
+  /// See also: [WebViewController.setRendererPriorityPolicy].
+  Future<void> setRendererPriorityPolicy(
+      RendererPriority priority, bool waivedWhenNotVisible) {
+    throw UnimplementedError(
+        "WebView setRendererPriorityPolicy is not implemented on the current platform");
+  }
+
+  /// Pauses the webview's JavaScript timers, animations and media until [resume] is called.
+  ///
+  /// This is a no-op on the platforms that can't pause a webview, as [WebView.pauseWhenHidden]
+  /// pauses webviews by default.
+  ///
+  /// See also: [WebViewController.pause].
+  Future<void> pause() {
+    return Future<void>.value();
+  }
+
+  /// Resumes the webview paused by [pause].
+  ///
+  /// This is a no-op on the platforms that can't pause a webview.
+  ///
+  /// See also: [WebViewController.resume].
+  Future<void> resume() {
+    return Future<void>.value();
+  }
+
+  /// Saves the webview's state and unloads its page until [restore] is called.
+  ///
+  /// See also: [WebViewController.hibernate].
+  Future<void> hibernate() {
+    throw UnimplementedError(
+        "WebView hibernate is not implemented on the current platform");
+  }
+
+  /// Restores the state saved by [hibernate].
+  ///
+  /// See also: [WebViewController.restore].
+  Future<void> restore() {
+    throw UnimplementedError(
+        "WebView restore is not implemented on the current platform");
+  }
+
+  /// Returns how many requests of this webview were blocked by the content blocklist.
+  ///
+  /// See also: [WebViewPlatform.setContentBlocklist].
+  Future<ContentBlockingStats> getContentBlockingStats() {
+    throw UnimplementedError(
+        "WebView getContentBlockingStats is not implemented on the current platform");
+  }
+
   /// Adds new JavaScript channels to the set of enabled channels.
   ///
   /// For each value in this list the platform's webview should make sure that a corresponding
@@ -144,6 +339,13 @@ abstract class WebViewPlatformController {
   /// Foo.postMessage('hello');
   /// ```
   ///
+  /// Platforms that support binary messages should also set a postBinaryMessage method that takes
+  /// a base64 encoded payload, e.g:
+  ///
+  /// ```javascript
+  /// Foo.postBinaryMessage('aGVsbG8=');
+  /// ```
+  ///
   /// See also: [CreationParams.javascriptChannelNames].
   Future<void> addJavascriptChannels(Set<String> javascriptChannelNames) {
     throw UnimplementedError(
@@ -164,6 +366,65 @@ abstract class WebViewPlatformController {
     throw UnimplementedError(
         "WebView getTitle is not implemented on the current platform");
   }
+
+  /// Creates a web message channel named `name` with the currently loaded page.
+  ///
+  /// The platform's webview should create a pair of entangled message ports and transfer one of
+  /// them to the page's main frame, with a `flutter-web-message-channel:<name>` message whose
+  /// origin must match `targetOrigin` (`*` matches any origin). Messages the page posts to its port
+  /// are delivered to [WebViewPlatformCallbacksHandler.onWebMessageChannelMessage].
+  ///
+  /// An existing channel with the same name is closed.
+  Future<void> createWebMessageChannel(String name, String targetOrigin) {
+    throw UnimplementedError(
+        "WebView createWebMessageChannel is not implemented on the current platform");
+  }
+
+  /// Posts `message` to the page through the web message channel named `name`.
+  Future<void> postWebMessageChannelMessage(String name, String message) {
+    throw UnimplementedError(
+        "WebView postWebMessageChannelMessage is not implemented on the current platform");
+  }
+
+  /// Closes the web message channel named `name`.
+  Future<void> closeWebMessageChannel(String name) {
+    throw UnimplementedError(
+        "WebView closeWebMessageChannel is not implemented on the current platform");
+  }
+}
+
+/// The decision on a navigation request, returned by
+/// [WebViewPlatformCallbacksHandler.onCacheableNavigationRequest].
+class NavigationResponse {
+  /// Constructs a [NavigationResponse].
+  ///
+  /// The `allow` parameter must not be null.
+  const NavigationResponse({
+    @required this.allow,
+    this.cacheTtl,
+    this.cacheScope,
+    this.cachePathPrefix,
+  }) : assert(allow != null);
+
+  /// Whether the navigation is allowed.
+  final bool allow;
+
+  /// How long the platform's webview may reuse this decision, or null if it must not be cached.
+  final Duration cacheTtl;
+
+  /// The navigations this decision can be reused for.
+  ///
+  /// Must not be null when [cacheTtl] is not null.
+  final NavigationDecisionCacheScope cacheScope;
+
+  /// The path prefix this decision can be reused for when [cacheScope] is
+  /// [NavigationDecisionCacheScope.pathPrefix].
+  final String cachePathPrefix;
+
+  @override
+  String toString() {
+    return '$runtimeType(allow: $allow, cacheTtl: $cacheTtl, cacheScope: $cacheScope, cachePathPrefix: $cachePathPrefix)';
+  }
 }
 
 /// A single setting for configuring a WebViewPlatform which may be absent.
@@ -256,7 +517,8 @@ class WebSettings {
 
 /// Configuration to use when creating a new [WebViewPlatformController].
 ///
-/// The `autoMediaPlaybackPolicy` parameter must not be null.
+/// The `autoMediaPlaybackPolicy`, `subframeNavigationRequests`, `pageLoadMetricsMode` and
+/// `navigationStateEvents` parameters must not be null.
 class CreationParams {
   CreationParams({
     this.initialUrl,
@@ -265,7 +527,17 @@ class CreationParams {
     this.userAgent,
     this.autoMediaPlaybackPolicy =
         AutoMediaPlaybackPolicy.require_user_action_for_all_media_types,
-  }) : assert(autoMediaPlaybackPolicy != null);
+    this.javascriptMessageBatchSize,
+    this.navigationRules,
+    this.subframeNavigationRequests = SubframeNavigationRequests.each,
+    this.pageLoadMetricsMode = PageLoadMetricsMode.none,
+    this.navigationStateEvents = false,
+    this.restorationId,
+    this.restoredStateKey,
+  })  : assert(autoMediaPlaybackPolicy != null),
+        assert(subframeNavigationRequests != null),
+        assert(pageLoadMetricsMode != null),
+        assert(navigationStateEvents != null);
 
   /// The initialUrl to load in the webview.
   ///
@@ -298,9 +570,61 @@ class CreationParams {
   /// Which restrictions apply on automatic media playback.
   final AutoMediaPlaybackPolicy autoMediaPlaybackPolicy;
 
+  /// Whether and how JavaScript channel messages are batched.
+  ///
+  /// When null messages are delivered one at a time. Otherwise the platform's webview may deliver
+  /// the messages of all channels together, in the order they were posted, once per frame or as
+  /// soon as this many messages are pending.
+  ///
+  /// See also: [WebView.javascriptMessageBatchSize].
+  final int javascriptMessageBatchSize;
+
+  /// The initial rules deciding navigation actions without calling
+  /// [WebViewPlatformCallbacksHandler.onNavigationRequest].
+  ///
+  /// The platform's webview should evaluate the rules in order when a navigation is initiated and
+  /// apply the action of the first rule matching the navigation's URL. Navigations that no rule
+  /// matches, or whose first matching rule has the [NavigationRuleAction.delegate] action, are
+  /// handled as if there were no rules.
+  ///
+  /// This can later be updated with [WebViewPlatformController.setNavigationRules].
+  ///
+  /// See also: [WebView.navigationRules].
+  final List<NavigationRule> navigationRules;
+
+  /// How the platform's webview reports navigation requests targeted to subframes to
+  /// [WebViewPlatformCallbacksHandler.onNavigationRequest].
+  ///
+  /// See also: [WebView.subframeNavigationRequests].
+  final SubframeNavigationRequests subframeNavigationRequests;
+
+  /// Which metrics of the page loads the platform's webview reports to
+  /// [WebViewPlatformCallbacksHandler.onPageLoadMetrics].
+  ///
+  /// See also: [WebView.onPageLoadMetrics].
+  final PageLoadMetricsMode pageLoadMetricsMode;
+
+  /// Whether the platform's webview pushes its navigation state to
+  /// [WebViewPlatformCallbacksHandler.onNavigationStateChanged].
+  ///
+  /// See also: [WebView.onNavigationStateChanged].
+  final bool navigationStateEvents;
+
+  /// The id under which the platform's webview saves its state when it's disposed, and from which
+  /// it restores the state instead of loading [initialUrl].
+  ///
+  /// See also: [WebView.restorationId].
+  final String restorationId;
+
+  /// The key of the state of a hibernated webview that the platform's webview restores instead of
+  /// loading [initialUrl].
+  ///
+  /// See also: [WebViewPlatformCallbacksHandler.onHibernationEnded].
+  final String restoredStateKey;
+
   @override
   String toString() {
-    return '$runtimeType(initialUrl: $initialUrl, settings: $webSettings, javascriptChannelNames: $javascriptChannelNames, UserAgent: $userAgent)';
+    return '$runtimeType(initialUrl: $initialUrl, settings: $webSettings, javascriptChannelNames: $javascriptChannelNames, UserAgent: $userAgent, javascriptMessageBatchSize: $javascriptMessageBatchSize, navigationRules: $navigationRules, subframeNavigationRequests: $subframeNavigationRequests, pageLoadMetricsMode: $pageLoadMetricsMode, navigationStateEvents: $navigationStateEvents, restorationId: $restorationId, restoredStateKey: $restoredStateKey)';
   }
 }
 
@@ -352,4 +676,169 @@ abstract class WebViewPlatform {
     throw UnimplementedError(
         "WebView clearCookies is not implemented on the current platform");
   }
+
+  /// Sets the cookies of all [WebView] instances in a single call.
+  ///
+  /// See also: [CookieManager.setCookies].
+  Future<void> setCookies(List<WebViewCookie> cookies) {
+    throw UnimplementedError(
+        "WebView setCookies is not implemented on the current platform");
+  }
+
+  /// Returns the names and values of the cookies sent with requests to `url`.
+  Future<List<WebViewCookie>> getCookies(String url) {
+    throw UnimplementedError(
+        "WebView getCookies is not implemented on the current platform");
+  }
+
+  /// Removes the cookies sent with requests to `url`, or to `domain`.
+  ///
+  /// Exactly one of `url` and `domain` is not null. Returns the number of removed cookies.
+  Future<int> removeCookies(String url, String domain) {
+    throw UnimplementedError(
+        "WebView removeCookies is not implemented on the current platform");
+  }
+
+  /// Writes the cookies that are only in memory to persistent storage.
+  Future<void> flushCookies() {
+    throw UnimplementedError(
+        "WebView flushCookies is not implemented on the current platform");
+  }
+
+  /// Configures the pool of platform WebViews that new [WebView]s are created with.
+  ///
+  /// See also: [WebViewManager.configurePool].
+  Future<void> configureWebViewPool(
+      int maxSize, WebViewPoolWarmUpPolicy warmUpPolicy) {
+    throw UnimplementedError(
+        "WebView configureWebViewPool is not implemented on the current platform");
+  }
+
+  /// Loads the platform's WebView implementation ahead of the first [WebView].
+  ///
+  /// Returns false if the implementation was already loaded.
+  ///
+  /// See also: [WebViewManager.warmUp].
+  Future<bool> warmUp() {
+    throw UnimplementedError(
+        "WebView warmUp is not implemented on the current platform");
+  }
+
+  /// Returns the usage statistics of the pool of platform WebViews.
+  Future<WebViewPoolStats> getWebViewPoolStats() {
+    throw UnimplementedError(
+        "WebView getWebViewPoolStats is not implemented on the current platform");
+  }
+
+  /// Returns measurements of the construction of platform WebViews.
+  Future<WebViewCreationMetrics> getWebViewCreationMetrics() {
+    throw UnimplementedError(
+        "WebView getWebViewCreationMetrics is not implemented on the current platform");
+  }
+
+  /// Configures the on-disk cache of the resources loaded by platform WebViews.
+  ///
+  /// See also: [WebViewManager.configureResourceCache].
+  Future<void> configureResourceCache(int maxBytes, List<String> urlPatterns,
+      List<String> revalidateUrlPatterns, int maxMemoryBytes) {
+    throw UnimplementedError(
+        "WebView configureResourceCache is not implemented on the current platform");
+  }
+
+  /// Returns the usage statistics of the resource cache.
+  Future<ResourceCacheStats> getResourceCacheStats() {
+    throw UnimplementedError(
+        "WebView getResourceCacheStats is not implemented on the current platform");
+  }
+
+  /// Deletes all the resources stored by the resource cache.
+  Future<void> clearResourceCache() {
+    throw UnimplementedError(
+        "WebView clearResourceCache is not implemented on the current platform");
+  }
+
+  /// Serves the requests to `origin` from a directory of the Flutter assets or from a zip archive.
+  ///
+  /// See also: [WebViewManager.registerAssetOrigin].
+  Future<void> registerAssetOrigin(
+      String origin, String assetDirectory, String archivePath) {
+    throw UnimplementedError(
+        "WebView registerAssetOrigin is not implemented on the current platform");
+  }
+
+  /// Stops serving the requests to `origin` registered with [registerAssetOrigin].
+  Future<void> unregisterAssetOrigin(String origin) {
+    throw UnimplementedError(
+        "WebView unregisterAssetOrigin is not implemented on the current platform");
+  }
+
+  /// Enables or disables recording the method call metrics of all platform WebViews.
+  ///
+  /// See also: [WebViewManager.setMethodCallMetricsEnabled].
+  Future<void> setMethodCallMetricsEnabled(bool enabled) {
+    throw UnimplementedError(
+        "WebView setMethodCallMetricsEnabled is not implemented on the current platform");
+  }
+
+  /// Enables or disables the platform trace sections of all platform WebViews.
+  ///
+  /// See also: [WebViewManager.setTracingEnabled].
+  Future<void> setTracingEnabled(bool enabled) {
+    throw UnimplementedError(
+        "WebView setTracingEnabled is not implemented on the current platform");
+  }
+
+  /// Limits how many background webviews keep their page loaded, -1 for no limit.
+  ///
+  /// See also: [WebViewManager.configureMemoryPolicy].
+  Future<void> configureMemoryPolicy(int maxLoadedBackgroundWebViews) {
+    throw UnimplementedError(
+        "WebView configureMemoryPolicy is not implemented on the current platform");
+  }
+
+  /// Returns the state of the memory pressure handling of the webviews.
+  ///
+  /// See also: [WebViewManager.getMemoryStats].
+  Future<WebViewMemoryStats> getMemoryStats() {
+    throw UnimplementedError(
+        "WebView getMemoryStats is not implemented on the current platform");
+  }
+
+  /// Sets how many saved webview states are kept in memory and on disk.
+  ///
+  /// See also: [WebViewManager.configureStateStore].
+  Future<void> configureStateStore(int maxEntries, int maxDiskEntries) {
+    throw UnimplementedError(
+        "WebView configureStateStore is not implemented on the current platform");
+  }
+
+  /// Returns the usage statistics of the saved webview states.
+  ///
+  /// See also: [WebViewManager.getStateStoreStats].
+  Future<WebViewStateStoreStats> getStateStoreStats() {
+    throw UnimplementedError(
+        "WebView getStateStoreStats is not implemented on the current platform");
+  }
+
+  /// Forgets the saved state of the webviews created with `restorationId`.
+  Future<void> removeSavedState(String restorationId) {
+    throw UnimplementedError(
+        "WebView removeSavedState is not implemented on the current platform");
+  }
+
+  /// Forgets all the saved webview states.
+  Future<void> clearSavedStates() {
+    throw UnimplementedError(
+        "WebView clearSavedStates is not implemented on the current platform");
+  }
+
+  /// Replaces the hosts whose requests are blocked in all platform WebViews.
+  ///
+  /// Returns the number of distinct blocked hosts.
+  ///
+  /// See also: [WebViewManager.setContentBlocklist].
+  Future<int> setContentBlocklist(List<String> entries) {
+    throw UnimplementedError(
+        "WebView setContentBlocklist is not implemented on the current platform");
+  }
 }
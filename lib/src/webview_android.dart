@@ -10,6 +10,7 @@ import 'package:flutter/services.dart';
 import 'package:flutter/widgets.dart';
 
 import '../platform_interface.dart';
+import '../webview_flutter.dart';
 import 'webview_method_channel.dart';
 
 /// Builds an Android webview.
@@ -17,7 +18,7 @@ import 'webview_method_channel.dart';
 /// This is used as the default implementation for [WebView.platform] on Android. It uses
 /// an [AndroidView] to embed the webview in the widget hierarchy, and uses a method channel to
 /// communicate with the platform code.
-class AndroidWebView implements WebViewPlatform {
+class AndroidWebView extends WebViewPlatform {
   @override
   Widget build({
     BuildContext context,
@@ -60,4 +61,97 @@ class AndroidWebView implements WebViewPlatform {
 
   @override
   Future<bool> clearCookies() => MethodChannelWebViewPlatform.clearCookies();
+
+  @override
+  Future<void> setCookies(List<WebViewCookie> cookies) =>
+      MethodChannelWebViewPlatform.setCookies(cookies);
+
+  @override
+  Future<List<WebViewCookie>> getCookies(String url) =>
+      MethodChannelWebViewPlatform.getCookies(url);
+
+  @override
+  Future<int> removeCookies(String url, String domain) =>
+      MethodChannelWebViewPlatform.removeCookies(url, domain);
+
+  @override
+  Future<void> flushCookies() => MethodChannelWebViewPlatform.flushCookies();
+
+  @override
+  Future<void> configureWebViewPool(
+          int maxSize, WebViewPoolWarmUpPolicy warmUpPolicy) =>
+      MethodChannelWebViewPlatform.configureWebViewPool(maxSize, warmUpPolicy);
+
+  @override
+  Future<bool> warmUp() => MethodChannelWebViewPlatform.warmUp();
+
+  @override
+  Future<WebViewPoolStats> getWebViewPoolStats() =>
+      MethodChannelWebViewPlatform.getWebViewPoolStats();
+
+  @override
+  Future<WebViewCreationMetrics> getWebViewCreationMetrics() =>
+      MethodChannelWebViewPlatform.getWebViewCreationMetrics();
+
+  @override
+  Future<void> configureResourceCache(int maxBytes, List<String> urlPatterns,
+          List<String> revalidateUrlPatterns, int maxMemoryBytes) =>
+      MethodChannelWebViewPlatform.configureResourceCache(
+          maxBytes, urlPatterns, revalidateUrlPatterns, maxMemoryBytes);
+
+  @override
+  Future<ResourceCacheStats> getResourceCacheStats() =>
+      MethodChannelWebViewPlatform.getResourceCacheStats();
+
+  @override
+  Future<void> clearResourceCache() =>
+      MethodChannelWebViewPlatform.clearResourceCache();
+
+  @override
+  Future<void> registerAssetOrigin(
+          String origin, String assetDirectory, String archivePath) =>
+      MethodChannelWebViewPlatform.registerAssetOrigin(
+          origin, assetDirectory, archivePath);
+
+  @override
+  Future<void> unregisterAssetOrigin(String origin) =>
+      MethodChannelWebViewPlatform.unregisterAssetOrigin(origin);
+
+  @override
+  Future<void> setMethodCallMetricsEnabled(bool enabled) =>
+      MethodChannelWebViewPlatform.setMethodCallMetricsEnabled(enabled);
+
+  @override
+  Future<void> setTracingEnabled(bool enabled) =>
+      MethodChannelWebViewPlatform.setTracingEnabled(enabled);
+
+  @override
+  Future<void> configureMemoryPolicy(int maxLoadedBackgroundWebViews) =>
+      MethodChannelWebViewPlatform.configureMemoryPolicy(
+          maxLoadedBackgroundWebViews);
+
+  @override
+  Future<WebViewMemoryStats> getMemoryStats() =>
+      MethodChannelWebViewPlatform.getMemoryStats();
+
+  @override
+  Future<void> configureStateStore(int maxEntries, int maxDiskEntries) =>
+      MethodChannelWebViewPlatform.configureStateStore(
+          maxEntries, maxDiskEntries);
+
+  @override
+  Future<WebViewStateStoreStats> getStateStoreStats() =>
+      MethodChannelWebViewPlatform.getStateStoreStats();
+
+  @override
+  Future<void> removeSavedState(String restorationId) =>
+      MethodChannelWebViewPlatform.removeSavedState(restorationId);
+
+  @override
+  Future<void> clearSavedStates() =>
+      MethodChannelWebViewPlatform.clearSavedStates();
+
+  @override
+  Future<int> setContentBlocklist(List<String> entries) =>
+      MethodChannelWebViewPlatform.setContentBlocklist(entries);
 }
@@ -17,7 +17,7 @@ import 'webview_method_channel.dart';
 /// This is used as the default implementation for [WebView.platform] on iOS. It uses
 /// a [UiKitView] to embed the webview in the widget hierarchy, and uses a method channel to
 /// communicate with the platform code.
-class CupertinoWebView implements WebViewPlatform {
+class CupertinoWebView extends WebViewPlatform {
   @override
   Widget build({
     BuildContext context,
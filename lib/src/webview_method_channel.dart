@@ -3,46 +3,129 @@
 // found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:convert';
+import 'dart:typed_data';
 
 import 'package:flutter/services.dart';
 
 import '../platform_interface.dart';
+import '../webview_flutter.dart';
 
 /// A [WebViewPlatformController] that uses a method channel to control the webview.
 class MethodChannelWebViewPlatform implements WebViewPlatformController {
   MethodChannelWebViewPlatform(int id, this._platformCallbacksHandler)
       : assert(_platformCallbacksHandler != null),
-        _channel = MethodChannel('plugins.flutter.io/webview_$id') {
+        _channel = MethodChannel('plugins.flutter.io/webview_$id'),
+        _binaryChannel = BasicMessageChannel<ByteData>(
+            'plugins.flutter.io/webview_binary_$id', const BinaryCodec()) {
     _channel.setMethodCallHandler(_onMethodCall);
+    _binaryChannel.setMessageHandler(_onBinaryMessage);
   }
 
   final WebViewPlatformCallbacksHandler _platformCallbacksHandler;
 
   final MethodChannel _channel;
 
+  final BasicMessageChannel<ByteData> _binaryChannel;
+
   static const MethodChannel _cookieManagerChannel =
       MethodChannel('plugins.flutter.io/cookie_manager');
 
-  Future<bool> _onMethodCall(MethodCall call) async {
+  static const MethodChannel _webViewManagerChannel =
+      MethodChannel('plugins.flutter.io/webview_manager');
+
+  Future<dynamic> _onMethodCall(MethodCall call) async {
     switch (call.method) {
       case 'javascriptChannelMessage':
         final String channel = call.arguments['channel'];
         final String message = call.arguments['message'];
         _platformCallbacksHandler.onJavaScriptChannelMessage(channel, message);
         return true;
+      case 'javascriptChannelMessages':
+        for (Map<dynamic, dynamic> message in call.arguments) {
+          _platformCallbacksHandler.onJavaScriptChannelMessage(
+              message['channel'], message['message']);
+        }
+        return true;
+      case 'webMessageChannelMessage':
+        _platformCallbacksHandler.onWebMessageChannelMessage(
+            call.arguments['name'], call.arguments['message']);
+        return true;
       case 'navigationRequest':
-        return await _platformCallbacksHandler.onNavigationRequest(
+        final NavigationResponse response =
+            await _platformCallbacksHandler.onCacheableNavigationRequest(
           url: call.arguments['url'],
           isForMainFrame: call.arguments['isForMainFrame'],
         );
+        if (!_isValidCacheDirective(response)) {
+          return response.allow;
+        }
+        return <String, dynamic>{
+          'allow': response.allow,
+          'cacheScope': response.cacheScope.index,
+          'cachePathPrefix': response.cachePathPrefix,
+          'cacheTtlMillis': response.cacheTtl.inMilliseconds,
+        };
+      case 'subframeNavigationRequests':
+        _platformCallbacksHandler.onSubframeNavigationRequests(
+            List<String>.from(call.arguments['urls']),
+            call.arguments['count']);
+        return null;
       case 'onPageFinished':
         _platformCallbacksHandler.onPageFinished(call.arguments['url']);
         return null;
+      case 'onPageLoadMetrics':
+        _platformCallbacksHandler
+            .onPageLoadMetrics(_pageLoadMetricsFromMap(call.arguments));
+        return null;
+      case 'navigationStateChanged':
+        _platformCallbacksHandler.onNavigationStateChanged(NavigationState(
+          url: call.arguments['url'],
+          title: call.arguments['title'],
+          canGoBack: call.arguments['canGoBack'],
+          canGoForward: call.arguments['canGoForward'],
+          progress: call.arguments['progress'],
+          isLoading: call.arguments['isLoading'],
+        ));
+        return null;
+      case 'onRenderProcessGone':
+        _platformCallbacksHandler.onRenderProcessGone(RenderProcessGoneDetails(
+          url: call.arguments['url'],
+          didCrash: call.arguments['didCrash'],
+          rendererPriorityAtExit:
+              RendererPriority.values[call.arguments['rendererPriorityAtExit']],
+        ));
+        return null;
+      case 'onMemoryStateChanged':
+        _platformCallbacksHandler
+            .onMemoryStateChanged(WebViewMemoryState.values[call.arguments]);
+        return null;
+      case 'onHibernationEnded':
+        _platformCallbacksHandler.onHibernationEnded(
+            call.arguments['url'], call.arguments['stateKey']);
+        return null;
     }
     throw MissingPluginException(
         '${call.method} was invoked but has no handler');
   }
 
+  // Binary messages are the length of the UTF-8 encoded channel name (2 bytes,
+  // big endian), the encoded channel name and the payload.
+  Future<ByteData> _onBinaryMessage(ByteData message) async {
+    final int channelNameLength = message.getUint16(0);
+    final String channel = utf8.decode(Uint8List.view(
+        message.buffer, message.offsetInBytes + 2, channelNameLength));
+    final int payloadOffset = 2 + channelNameLength;
+    _platformCallbacksHandler.onJavaScriptChannelBinaryMessage(
+        channel,
+        Uint8List.view(
+          message.buffer,
+          message.offsetInBytes + payloadOffset,
+          message.lengthInBytes - payloadOffset,
+        ));
+    return null;
+  }
+
   @override
   Future<void> loadUrl(
     String url,
@@ -76,6 +159,15 @@ class MethodChannelWebViewPlatform implements WebViewPlatformController {
   @override
   Future<void> clearCache() => _channel.invokeMethod<void>("clearCache");
 
+  @override
+  Future<void> clearData(Set<WebViewDataType> dataTypes, List<String> origins) {
+    return _channel.invokeMethod<void>('clearData', <String, dynamic>{
+      'dataTypes': dataTypes.fold<int>(
+          0, (int mask, WebViewDataType type) => mask | (1 << type.index)),
+      'origins': origins,
+    });
+  }
+
   @override
   Future<void> updateSettings(WebSettings settings) {
     final Map<String, dynamic> updatesMap = _webSettingsToMap(settings);
@@ -91,6 +183,123 @@ class MethodChannelWebViewPlatform implements WebViewPlatformController {
         'evaluateJavascript', javascriptString);
   }
 
+  @override
+  Future<List<JavascriptBatchResult>> evaluateJavascriptBatch(
+      List<String> scripts, bool combine) async {
+    final List<dynamic> results = await _channel.invokeListMethod<dynamic>(
+        'evaluateJavascriptBatch',
+        <String, dynamic>{'scripts': scripts, 'combine': combine});
+    return results.map((dynamic result) {
+      return JavascriptBatchResult(
+        result: result['result'],
+        error: result['error'],
+      );
+    }).toList();
+  }
+
+  @override
+  Future<void> setNavigationRules(List<NavigationRule> navigationRules) {
+    return _channel.invokeMethod<void>(
+        'setNavigationRules', _navigationRulesToList(navigationRules));
+  }
+
+  @override
+  Future<NavigationDecisionCacheStats> getNavigationDecisionCacheStats() async {
+    final Map<dynamic, dynamic> stats = await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('getNavigationDecisionCacheStats');
+    return NavigationDecisionCacheStats(
+      hits: stats['hits'],
+      misses: stats['misses'],
+      size: stats['size'],
+    );
+  }
+
+  @override
+  Future<void> clearNavigationDecisionCache() {
+    return _channel.invokeMethod<void>('clearNavigationDecisionCache');
+  }
+
+  @override
+  Future<MethodCallMetrics> getMethodCallMetrics() async {
+    final Map<dynamic, dynamic> metrics = await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('getMethodCallMetrics');
+    final Map<dynamic, dynamic> methods = metrics['methods'];
+    return MethodCallMetrics(
+      methods: methods.map<String, MethodCallLatency>(
+          (dynamic method, dynamic stats) =>
+              MapEntry<String, MethodCallLatency>(
+                method,
+                MethodCallLatency(
+                  count: stats['count'],
+                  total: Duration(microseconds: stats['totalMicros']),
+                  max: Duration(microseconds: stats['maxMicros']),
+                  p50: Duration(microseconds: stats['p50Micros']),
+                  p90: Duration(microseconds: stats['p90Micros']),
+                  p99: Duration(microseconds: stats['p99Micros']),
+                ),
+              )),
+      events: Map<String, int>.from(metrics['events']),
+    );
+  }
+
+  @override
+  Future<void> resetMethodCallMetrics() {
+    return _channel.invokeMethod<void>('resetMethodCallMetrics');
+  }
+
+  @override
+  Future<SettingsUpdateStats> getSettingsUpdateStats() async {
+    final Map<dynamic, dynamic> stats = await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('getSettingsUpdateStats');
+    return SettingsUpdateStats(
+      updates: stats['updates'],
+      skippedUpdates: stats['skippedUpdates'],
+      skippedSettings: stats['skippedSettings'],
+    );
+  }
+
+  @override
+  Future<void> setActive(bool active) {
+    return _channel.invokeMethod<void>('setActive', active);
+  }
+
+  @override
+  Future<void> setRendererPriorityPolicy(
+      RendererPriority priority, bool waivedWhenNotVisible) {
+    return _channel.invokeMethod<void>(
+        'setRendererPriorityPolicy', <String, dynamic>{
+      'priority': priority.index,
+      'waivedWhenNotVisible': waivedWhenNotVisible,
+    });
+  }
+
+  @override
+  Future<void> pause() {
+    return _channel.invokeMethod<void>('pause');
+  }
+
+  @override
+  Future<void> resume() {
+    return _channel.invokeMethod<void>('resume');
+  }
+
+  @override
+  Future<void> hibernate() {
+    return _channel.invokeMethod<void>('hibernate');
+  }
+
+  @override
+  Future<void> restore() {
+    return _channel.invokeMethod<void>('restore');
+  }
+
+  @override
+  Future<ContentBlockingStats> getContentBlockingStats() async {
+    final Map<dynamic, dynamic> stats = await _channel
+        .invokeMethod<Map<dynamic, dynamic>>('getContentBlockingStats');
+    return ContentBlockingStats(blockedRequests: stats['blockedRequests']);
+  }
+
   @override
   Future<void> addJavascriptChannels(Set<String> javascriptChannelNames) {
     return _channel.invokeMethod<void>(
@@ -106,6 +315,23 @@ class MethodChannelWebViewPlatform implements WebViewPlatformController {
   @override
   Future<String> getTitle() => _channel.invokeMethod<String>("getTitle");
 
+  @override
+  Future<void> createWebMessageChannel(String name, String targetOrigin) {
+    return _channel.invokeMethod<void>('createWebMessageChannel',
+        <String, dynamic>{'name': name, 'targetOrigin': targetOrigin});
+  }
+
+  @override
+  Future<void> postWebMessageChannelMessage(String name, String message) {
+    return _channel.invokeMethod<void>('postWebMessageChannelMessage',
+        <String, dynamic>{'name': name, 'message': message});
+  }
+
+  @override
+  Future<void> closeWebMessageChannel(String name) {
+    return _channel.invokeMethod<void>('closeWebMessageChannel', name);
+  }
+
   /// Method channel implementation for [WebViewPlatform.clearCookies].
   static Future<bool> clearCookies() {
     return _cookieManagerChannel
@@ -113,6 +339,251 @@ class MethodChannelWebViewPlatform implements WebViewPlatformController {
         .then<bool>((dynamic result) => result);
   }
 
+  /// Method channel implementation for [WebViewPlatform.setCookies].
+  static Future<void> setCookies(List<WebViewCookie> cookies) {
+    return _cookieManagerChannel.invokeMethod<void>(
+        'setCookies',
+        cookies
+            .map<Map<String, dynamic>>((WebViewCookie cookie) =>
+                <String, dynamic>{
+                  'url': cookie.url,
+                  'name': cookie.name,
+                  'value': cookie.value,
+                  'domain': cookie.domain,
+                  'path': cookie.path,
+                  'expiresMillis': cookie.expires?.millisecondsSinceEpoch,
+                  'secure': cookie.secure,
+                  'httpOnly': cookie.httpOnly,
+                })
+            .toList());
+  }
+
+  /// Method channel implementation for [WebViewPlatform.getCookies].
+  static Future<List<WebViewCookie>> getCookies(String url) async {
+    final List<dynamic> cookies =
+        await _cookieManagerChannel.invokeMethod<List<dynamic>>(
+            'getCookies', url);
+    return cookies
+        .map<WebViewCookie>((dynamic cookie) => WebViewCookie(
+              url: url,
+              name: cookie['name'],
+              value: cookie['value'],
+            ))
+        .toList();
+  }
+
+  /// Method channel implementation for [WebViewPlatform.removeCookies].
+  static Future<int> removeCookies(String url, String domain) {
+    return _cookieManagerChannel
+        .invokeMethod<int>('removeCookies', <String, dynamic>{
+      'url': url,
+      'domain': domain,
+    });
+  }
+
+  /// Method channel implementation for [WebViewPlatform.flushCookies].
+  static Future<void> flushCookies() {
+    return _cookieManagerChannel.invokeMethod<void>('flush');
+  }
+
+  /// Method channel implementation for [WebViewPlatform.configureWebViewPool].
+  static Future<void> configureWebViewPool(
+      int maxSize, WebViewPoolWarmUpPolicy warmUpPolicy) {
+    return _webViewManagerChannel
+        .invokeMethod<void>('configurePool', <String, dynamic>{
+      'maxSize': maxSize,
+      'warmUp': warmUpPolicy.index,
+    });
+  }
+
+  /// Method channel implementation for [WebViewPlatform.warmUp].
+  static Future<bool> warmUp() {
+    return _webViewManagerChannel
+        .invokeMethod<bool>('warmUp')
+        .then<bool>((dynamic result) => result);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.getWebViewPoolStats].
+  static Future<WebViewPoolStats> getWebViewPoolStats() async {
+    final Map<dynamic, dynamic> stats =
+        await _webViewManagerChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'getPoolStats');
+    return WebViewPoolStats(
+      hits: stats['hits'],
+      misses: stats['misses'],
+      created: stats['created'],
+      returned: stats['returned'],
+      idle: stats['idle'],
+      maxSize: stats['maxSize'],
+    );
+  }
+
+  /// Method channel implementation for [WebViewPlatform.getWebViewCreationMetrics].
+  static Future<WebViewCreationMetrics> getWebViewCreationMetrics() async {
+    final Map<dynamic, dynamic> metrics =
+        await _webViewManagerChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'getCreationMetrics');
+    return WebViewCreationMetrics(
+      created: metrics['created'],
+      creationTime: _durationFromMicros(metrics['creationMicros']),
+      displayListenerProxyCount: metrics['displayListenerProxyCount'],
+      displayListenerProxySkipped: metrics['displayListenerProxySkipped'],
+      displayListenerProxyTime:
+          _durationFromMicros(metrics['displayListenerProxyMicros']),
+      displayListenerProxySavedTime:
+          _durationFromMicros(metrics['displayListenerProxySavedMicros']),
+    );
+  }
+
+  // A missing duration is decoded as null, like the other missing fields.
+  static Duration _durationFromMicros(int micros) {
+    return micros == null ? null : Duration(microseconds: micros);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.configureResourceCache].
+  static Future<void> configureResourceCache(int maxBytes,
+      List<String> urlPatterns, List<String> revalidateUrlPatterns,
+      int maxMemoryBytes) {
+    return _webViewManagerChannel
+        .invokeMethod<void>('configureResourceCache', <String, dynamic>{
+      'maxBytes': maxBytes,
+      'urlPatterns': urlPatterns,
+      'revalidateUrlPatterns': revalidateUrlPatterns,
+      'maxMemoryBytes': maxMemoryBytes,
+    });
+  }
+
+  /// Method channel implementation for [WebViewPlatform.getResourceCacheStats].
+  static Future<ResourceCacheStats> getResourceCacheStats() async {
+    final Map<dynamic, dynamic> stats =
+        await _webViewManagerChannel.invokeMethod<Map<dynamic, dynamic>>(
+            'getResourceCacheStats');
+    return ResourceCacheStats(
+      hits: stats['hits'],
+      misses: stats['misses'],
+      bytesSaved: stats['bytesSaved'],
+      sizeBytes: stats['sizeBytes'],
+      entries: stats['entries'],
+      maxBytes: stats['maxBytes'],
+      memoryHits: stats['memoryHits'],
+      memorySizeBytes: stats['memorySizeBytes'],
+      revalidations: stats['revalidations'],
+      revalidationUpdates: stats['revalidationUpdates'],
+    );
+  }
+
+  /// Method channel implementation for [WebViewPlatform.clearResourceCache].
+  static Future<void> clearResourceCache() {
+    return _webViewManagerChannel.invokeMethod<void>('clearResourceCache');
+  }
+
+  /// Method channel implementation for [WebViewPlatform.registerAssetOrigin].
+  static Future<void> registerAssetOrigin(
+      String origin, String assetDirectory, String archivePath) {
+    return _webViewManagerChannel
+        .invokeMethod<void>('registerAssetOrigin', <String, dynamic>{
+      'origin': origin,
+      'assetDirectory': assetDirectory,
+      'archivePath': archivePath,
+    });
+  }
+
+  /// Method channel implementation for [WebViewPlatform.unregisterAssetOrigin].
+  static Future<void> unregisterAssetOrigin(String origin) {
+    return _webViewManagerChannel.invokeMethod<void>(
+        'unregisterAssetOrigin', origin);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.setMethodCallMetricsEnabled].
+  static Future<void> setMethodCallMetricsEnabled(bool enabled) {
+    return _webViewManagerChannel.invokeMethod<void>(
+        'setMethodCallMetricsEnabled', enabled);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.setTracingEnabled].
+  static Future<void> setTracingEnabled(bool enabled) {
+    return _webViewManagerChannel.invokeMethod<void>(
+        'setTracingEnabled', enabled);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.configureMemoryPolicy].
+  static Future<void> configureMemoryPolicy(int maxLoadedBackgroundWebViews) {
+    return _webViewManagerChannel.invokeMethod<void>(
+        'configureMemoryPolicy', maxLoadedBackgroundWebViews);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.getMemoryStats].
+  static Future<WebViewMemoryStats> getMemoryStats() async {
+    final Map<dynamic, dynamic> stats = await _webViewManagerChannel
+        .invokeMethod<Map<dynamic, dynamic>>('getMemoryStats');
+    return WebViewMemoryStats(
+      live: stats['live'],
+      background: stats['background'],
+      paused: stats['paused'],
+      rendererWaived: stats['rendererWaived'],
+      hibernated: stats['hibernated'],
+      hibernations: stats['hibernations'],
+      trims: stats['trims'],
+      lastTrimLevel: stats['lastTrimLevel'],
+      timersPaused: stats['timersPaused'],
+      appPaused: stats['appPaused'],
+    );
+  }
+
+  /// Method channel implementation for [WebViewPlatform.configureStateStore].
+  static Future<void> configureStateStore(int maxEntries, int maxDiskEntries) {
+    return _webViewManagerChannel
+        .invokeMethod<void>('configureStateStore', <String, dynamic>{
+      'maxEntries': maxEntries,
+      'maxDiskEntries': maxDiskEntries,
+    });
+  }
+
+  /// Method channel implementation for [WebViewPlatform.getStateStoreStats].
+  static Future<WebViewStateStoreStats> getStateStoreStats() async {
+    final Map<dynamic, dynamic> stats = await _webViewManagerChannel
+        .invokeMethod<Map<dynamic, dynamic>>('getStateStoreStats');
+    return WebViewStateStoreStats(
+      entries: stats['entries'],
+      saves: stats['saves'],
+      restores: stats['restores'],
+      diskRestores: stats['diskRestores'],
+      misses: stats['misses'],
+    );
+  }
+
+  /// Method channel implementation for [WebViewPlatform.removeSavedState].
+  static Future<void> removeSavedState(String restorationId) {
+    return _webViewManagerChannel.invokeMethod<void>(
+        'removeSavedState', restorationId);
+  }
+
+  /// Method channel implementation for [WebViewPlatform.clearSavedStates].
+  static Future<void> clearSavedStates() {
+    return _webViewManagerChannel.invokeMethod<void>('clearSavedStates');
+  }
+
+  /// Method channel implementation for [WebViewPlatform.setContentBlocklist].
+  static Future<int> setContentBlocklist(List<String> entries) {
+    return _webViewManagerChannel.invokeMethod<int>(
+        'setContentBlocklist', entries);
+  }
+
+  // Whether the platform can cache the decision of a navigation response, the directive is
+  // dropped otherwise.
+  static bool _isValidCacheDirective(NavigationResponse response) {
+    if (response.cacheTtl == null ||
+        response.cacheTtl <= Duration.zero ||
+        response.cacheScope == null) {
+      return false;
+    }
+    if (response.cacheScope != NavigationDecisionCacheScope.pathPrefix) {
+      return true;
+    }
+    // The platform normalizes the prefix and checks that it's a prefix of the request's path.
+    return response.cachePathPrefix != null;
+  }
+
   static Map<String, dynamic> _webSettingsToMap(WebSettings settings) {
     final Map<String, dynamic> map = <String, dynamic>{};
     void _addIfNonNull(String key, dynamic value) {
@@ -136,6 +607,22 @@ class MethodChannelWebViewPlatform implements WebViewPlatformController {
     return map;
   }
 
+  static List<Map<String, dynamic>> _navigationRulesToList(
+      List<NavigationRule> navigationRules) {
+    if (navigationRules == null) {
+      return null;
+    }
+    return navigationRules.map((NavigationRule rule) {
+      return <String, dynamic>{
+        'action': rule.action.index,
+        'scheme': rule.scheme,
+        'hostSuffix': rule.hostSuffix,
+        'pathPrefix': rule.pathPrefix,
+        'pattern': rule.pattern,
+      };
+    }).toList();
+  }
+
   /// Converts a [CreationParams] object to a map as expected by `platform_views` channel.
   ///
   /// This is used for the `creationParams` argument of the platform views created by
@@ -148,6 +635,50 @@ class MethodChannelWebViewPlatform implements WebViewPlatformController {
       'javascriptChannelNames': creationParams.javascriptChannelNames.toList(),
       'userAgent': creationParams.userAgent,
       'autoMediaPlaybackPolicy': creationParams.autoMediaPlaybackPolicy.index,
+      'javascriptMessageBatchSize': creationParams.javascriptMessageBatchSize,
+      'navigationRules': _navigationRulesToList(creationParams.navigationRules),
+      'subframeNavigationRequests':
+          creationParams.subframeNavigationRequests.index,
+      'pageLoadMetrics': creationParams.pageLoadMetricsMode.index,
+      'navigationStateEvents': creationParams.navigationStateEvents,
+      'restorationId': creationParams.restorationId,
+      'restoredStateKey': creationParams.restoredStateKey,
     };
   }
+
+  // The platform reports elapsed realtime milliseconds, which are converted to durations since
+  // the start of the navigation.
+  static PageLoadMetrics _pageLoadMetricsFromMap(Map<dynamic, dynamic> map) {
+    final int startedMillis = map['startedMillis'];
+    Duration sinceStart(int millis) => millis == null
+        ? null
+        : Duration(milliseconds: millis - startedMillis);
+    Map<String, double> timings(dynamic values) => values == null
+        ? null
+        : (values as Map<dynamic, dynamic>).map<String, double>(
+            (dynamic name, dynamic value) =>
+                MapEntry<String, double>(name, (value as num).toDouble()));
+
+    // The page's timing entries are the JSON encoded result of a script, null if it couldn't run.
+    final dynamic webTiming =
+        map['webTiming'] == null ? null : json.decode(map['webTiming']);
+    return PageLoadMetrics(
+      url: map['url'],
+      startTime: Duration(milliseconds: startedMillis),
+      timeToCommitVisible: sinceStart(map['commitVisibleMillis']),
+      timeToFinish: sinceStart(map['finishedMillis']),
+      progress: (map['progress'] as List<dynamic>)
+          .map<PageLoadProgress>((dynamic sample) => PageLoadProgress(
+                progress: sample['progress'],
+                time: sinceStart(sample['millis']),
+              ))
+          .toList(),
+      httpStatusCode: map['httpStatusCode'],
+      errorCode: map['errorCode'],
+      errorDescription: map['errorDescription'],
+      navigationTiming:
+          webTiming is Map ? timings(webTiming['navigation']) : null,
+      paintTiming: webTiming is Map ? timings(webTiming['paint']) : null,
+    );
+  }
 }
@@ -3,6 +3,7 @@
 // found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:flutter/foundation.dart';
 import 'package:flutter/gestures.dart';
@@ -36,6 +37,9 @@ class JavascriptMessage {
 /// Callback type for handling messages sent from Javascript running in a web view.
 typedef void JavascriptMessageHandler(JavascriptMessage message);
 
+/// Callback type for handling binary messages sent from Javascript running in a web view.
+typedef void JavascriptBinaryMessageHandler(Uint8List message);
+
 /// Information about a navigation action that is about to be executed.
 class NavigationRequest {
   NavigationRequest._({this.url, this.isForMainFrame});
@@ -46,12 +50,189 @@ class NavigationRequest {
   /// Whether the navigation request is to be loaded as the main frame.
   final bool isForMainFrame;
 
+  Duration _cacheTtl;
+  NavigationDecisionCacheScope _cacheScope;
+  String _cachePathPrefix;
+
+  /// Asks the platform to reuse the [NavigationDecision] returned for this request.
+  ///
+  /// For `ttl` after the decision is made the platform's webview applies it to the navigations
+  /// within `scope` without calling the [WebView.navigationDelegate]. When `scope` is
+  /// [NavigationDecisionCacheScope.pathPrefix], `pathPrefix` must be made of whole segments of
+  /// this request's path, e.g `/docs/`. A missing leading or trailing `/` is added, so `/docs`
+  /// applies to `/docs/` and its subpaths but not to `/docsearch`.
+  ///
+  /// This should be called by the [WebView.navigationDelegate] before it returns its decision.
+  /// Only decisions on navigations targeted to the main frame are cached.
+  ///
+  /// A `ttl` that isn't positive, or a `pathPrefix` that isn't valid for `scope`, doesn't cache the
+  /// decision.
+  ///
+  /// This is currently only supported on Android, the decision isn't cached on other platforms.
+  ///
+  /// See also: [WebViewController.clearNavigationDecisionCache].
+  void cacheDecision(
+    Duration ttl, {
+    NavigationDecisionCacheScope scope = NavigationDecisionCacheScope.url,
+    String pathPrefix,
+  }) {
+    assert(ttl != null);
+    assert(scope != null);
+    assert(scope != NavigationDecisionCacheScope.pathPrefix ||
+        pathPrefix != null);
+    _cacheTtl = ttl;
+    _cacheScope = scope;
+    _cachePathPrefix = pathPrefix;
+  }
+
   @override
   String toString() {
     return '$runtimeType(url: $url, isForMainFrame: $isForMainFrame)';
   }
 }
 
+/// The navigations a cached [NavigationDecision] applies to.
+///
+/// See also: [NavigationRequest.cacheDecision].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum NavigationDecisionCacheScope {
+  /// Navigations to the exact same URL.
+  url,
+
+  /// Navigations to URLs with the same scheme, host and port.
+  origin,
+
+  /// Navigations to URLs with the same scheme, host and port whose path starts with a prefix.
+  pathPrefix,
+}
+
+/// Usage statistics of a [WebView]'s navigation decision cache.
+///
+/// See also: [WebViewController.getNavigationDecisionCacheStats].
+class NavigationDecisionCacheStats {
+  /// Constructs a [NavigationDecisionCacheStats].
+  const NavigationDecisionCacheStats({this.hits, this.misses, this.size});
+
+  /// The number of navigations that were decided with a cached decision.
+  final int hits;
+
+  /// The number of navigations the [WebView.navigationDelegate] was called for.
+  final int misses;
+
+  /// The number of decisions currently cached.
+  final int size;
+
+  @override
+  String toString() {
+    return '$runtimeType(hits: $hits, misses: $misses, size: $size)';
+  }
+}
+
+/// The latency distribution of the calls to a platform method.
+///
+/// See also: [MethodCallMetrics].
+class MethodCallLatency {
+  /// Constructs a [MethodCallLatency].
+  const MethodCallLatency({
+    this.count,
+    this.total,
+    this.max,
+    this.p50,
+    this.p90,
+    this.p99,
+  });
+
+  /// The number of calls.
+  final int count;
+
+  /// The time spent in all the calls.
+  final Duration total;
+
+  /// The longest call.
+  final Duration max;
+
+  /// The median latency.
+  ///
+  /// The percentiles are read from a histogram and are within 12.5% of the recorded latencies.
+  final Duration p50;
+
+  /// The 90th percentile latency.
+  final Duration p90;
+
+  /// The 99th percentile latency.
+  final Duration p99;
+
+  @override
+  String toString() {
+    return '$runtimeType(count: $count, total: $total, max: $max, p50: $p50, p90: $p90, p99: $p99)';
+  }
+}
+
+/// The method calls a [WebView] handled on the platform's UI thread and the events it sent back.
+///
+/// See also: [WebViewController.getMethodCallMetrics].
+class MethodCallMetrics {
+  /// Constructs a [MethodCallMetrics].
+  const MethodCallMetrics({this.methods, this.events});
+
+  /// The latencies of the calls by method name, e.g `loadUrl` or `evaluateJavascript`.
+  ///
+  /// Asynchronous methods only account for the time spent until they return on the UI thread.
+  final Map<String, MethodCallLatency> methods;
+
+  /// The number of events sent to Dart by name, e.g `onPageFinished` or
+  /// `javascriptChannelMessage`.
+  final Map<String, int> events;
+
+  @override
+  String toString() {
+    return '$runtimeType(methods: $methods, events: $events)';
+  }
+}
+
+/// Counts of the requests of a [WebView] that were blocked by the content blocklist.
+///
+/// See also: [WebViewController.getContentBlockingStats].
+class ContentBlockingStats {
+  /// Constructs a [ContentBlockingStats].
+  const ContentBlockingStats({this.blockedRequests});
+
+  /// The number of requests that were answered with an empty response instead of being loaded.
+  final int blockedRequests;
+
+  @override
+  String toString() {
+    return '$runtimeType(blockedRequests: $blockedRequests)';
+  }
+}
+
+/// Counts of the settings updates applied by the platform's webview of a [WebView].
+///
+/// See also: [WebViewController.getSettingsUpdateStats].
+class SettingsUpdateStats {
+  /// Constructs a [SettingsUpdateStats].
+  const SettingsUpdateStats({
+    this.updates,
+    this.skippedUpdates,
+    this.skippedSettings,
+  });
+
+  /// The number of settings updates received, including the initial settings.
+  final int updates;
+
+  /// The number of updates that didn't change any setting, and were not applied.
+  final int skippedUpdates;
+
+  /// The number of settings that were not applied because they had the last applied value.
+  final int skippedSettings;
+
+  @override
+  String toString() {
+    return '$runtimeType(updates: $updates, skippedUpdates: $skippedUpdates, skippedSettings: $skippedSettings)';
+  }
+}
+
 /// A decision on how to handle a navigation request.
 enum NavigationDecision {
   /// Prevent the navigation from taking place.
@@ -70,9 +251,443 @@ enum NavigationDecision {
 typedef FutureOr<NavigationDecision> NavigationDelegate(
     NavigationRequest navigation);
 
+/// The action a [NavigationRule] takes for the navigation requests it matches.
+///
+/// See also: [WebView.navigationRules].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum NavigationRuleAction {
+  /// Allow the navigation to take place without calling the [WebView.navigationDelegate].
+  navigate,
+
+  /// Prevent the navigation from taking place without calling the [WebView.navigationDelegate].
+  prevent,
+
+  /// Let the [WebView.navigationDelegate] decide how to handle the navigation.
+  ///
+  /// This can be used to exempt some URLs from a broader rule that follows it.
+  delegate,
+}
+
+/// A rule deciding how to handle the navigation requests whose URL matches it.
+///
+/// A rule matches a URL when all of its non null conditions match. A rule without conditions
+/// matches every URL.
+///
+/// See also: [WebView.navigationRules].
+class NavigationRule {
+  /// Constructs a [NavigationRule].
+  ///
+  /// The `action` parameter must not be null.
+  const NavigationRule({
+    @required this.action,
+    this.scheme,
+    this.hostSuffix,
+    this.pathPrefix,
+    this.pattern,
+  }) : assert(action != null);
+
+  /// How the navigation requests matching this rule are handled.
+  final NavigationRuleAction action;
+
+  /// The scheme of the URL, e.g `https`, compared case insensitively.
+  final String scheme;
+
+  /// The host of the URL or one of its parent domains, compared case insensitively.
+  ///
+  /// For example `flutter.dev` matches the hosts `flutter.dev` and `api.flutter.dev`, but not
+  /// `notflutter.dev`.
+  final String hostSuffix;
+
+  /// A prefix of the URL's path, e.g `/docs/`.
+  final String pathPrefix;
+
+  /// A regular expression that has to match a part of the whole URL.
+  ///
+  /// The expression is compiled by the platform, prefer the other conditions when they are
+  /// sufficient as they are cheaper to evaluate.
+  ///
+  /// A rule whose pattern the platform can't compile is skipped when the [WebView] is created,
+  /// and makes a later update of [WebView.navigationRules] fail, keeping the previous rules.
+  final String pattern;
+
+  @override
+  bool operator ==(dynamic other) {
+    if (other.runtimeType != runtimeType) {
+      return false;
+    }
+    final NavigationRule typedOther = other;
+    return action == typedOther.action &&
+        scheme == typedOther.scheme &&
+        hostSuffix == typedOther.hostSuffix &&
+        pathPrefix == typedOther.pathPrefix &&
+        pattern == typedOther.pattern;
+  }
+
+  @override
+  int get hashCode =>
+      hashValues(action, scheme, hostSuffix, pathPrefix, pattern);
+
+  @override
+  String toString() {
+    return '$runtimeType(action: $action, scheme: $scheme, hostSuffix: $hostSuffix, pathPrefix: $pathPrefix, pattern: $pattern)';
+  }
+}
+
+/// Specifies how the navigation requests targeted to subframes are reported to the
+/// [WebView.navigationDelegate].
+///
+/// This is used by [WebView.subframeNavigationRequests].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum SubframeNavigationRequests {
+  /// The delegate is called for each subframe navigation request.
+  each,
+
+  /// The delegate is never called for subframe navigation requests.
+  none,
+
+  /// The subframe navigation requests are collected and reported periodically.
+  ///
+  /// Each report is passed to [WebView.onSubframeNavigationRequests] when it's not null,
+  /// otherwise the delegate is called once for each distinct URL that was requested since the last
+  /// report.
+  coalesced,
+}
+
+/// A kind of data stored by [WebView]s.
+///
+/// This is used by [WebViewController.clearData].
+// The method channel implementation is marshalling this enum to a bit mask of the values' indexes,
+// so the order is important.
+enum WebViewDataType {
+  /// The HTTP cache, shared by all origins.
+  httpCache,
+
+  /// The `localStorage` and `sessionStorage` of the pages.
+  domStorage,
+
+  /// The IndexedDB databases of the pages.
+  indexedDb,
+
+  /// The cookies.
+  cookies,
+}
+
 /// Signature for when a [WebView] has finished loading a page.
 typedef void PageFinishedCallback(String url);
 
+/// Signature for when the metrics of a page load are available.
+typedef void PageLoadMetricsCallback(PageLoadMetrics metrics);
+
+/// Which metrics of the page loads a [WebView] reports.
+///
+/// This is used by [CreationParams.pageLoadMetricsMode].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum PageLoadMetricsMode {
+  /// No metrics are reported.
+  none,
+
+  /// The platform's load events are reported.
+  events,
+
+  /// The platform's load events and the page's Navigation Timing and Paint Timing entries are
+  /// reported.
+  eventsAndWebTiming,
+}
+
+/// The progress of a page load at a point in time.
+class PageLoadProgress {
+  /// Constructs a [PageLoadProgress].
+  const PageLoadProgress({this.progress, this.time});
+
+  /// The progress of the load, from 0 to 100.
+  final int progress;
+
+  /// When the load reached [progress], since [PageLoadMetrics.startTime].
+  final Duration time;
+
+  @override
+  String toString() {
+    return '$runtimeType(progress: $progress, time: $time)';
+  }
+}
+
+/// The metrics of the load of a page in the main frame of a [WebView].
+///
+/// See also: [WebView.onPageLoadMetrics].
+class PageLoadMetrics {
+  /// Constructs a [PageLoadMetrics].
+  const PageLoadMetrics({
+    this.url,
+    this.startTime,
+    this.timeToCommitVisible,
+    this.timeToFinish,
+    this.progress,
+    this.httpStatusCode,
+    this.errorCode,
+    this.errorDescription,
+    this.navigationTiming,
+    this.paintTiming,
+  });
+
+  /// The URL of the page when it started loading.
+  final String url;
+
+  /// When the page started loading, on a monotonic clock.
+  ///
+  /// On Android this is the time since the device booted.
+  final Duration startTime;
+
+  /// How long after [startTime] the page's content was first visible, or null if unknown.
+  final Duration timeToCommitVisible;
+
+  /// How long after [startTime] the page finished loading.
+  final Duration timeToFinish;
+
+  /// The increases of the load progress reported by the platform.
+  final List<PageLoadProgress> progress;
+
+  /// The HTTP status code of the page's response if it was an error, null otherwise.
+  final int httpStatusCode;
+
+  /// The platform's error code if the page failed to load, null otherwise.
+  final int errorCode;
+
+  /// The description of [errorCode].
+  final String errorDescription;
+
+  /// The page's Navigation Timing values in milliseconds since the start of the navigation, e.g
+  /// `responseStart` or `domContentLoadedEventEnd`.
+  ///
+  /// This is null unless [WebView.collectWebPerformanceTiming] is true and JavaScript is enabled.
+  final Map<String, double> navigationTiming;
+
+  /// The start times of the page's Paint Timing entries in milliseconds, e.g
+  /// `first-contentful-paint`.
+  ///
+  /// This is null unless [WebView.collectWebPerformanceTiming] is true and JavaScript is enabled.
+  final Map<String, double> paintTiming;
+
+  @override
+  String toString() {
+    return '$runtimeType(url: $url, startTime: $startTime, timeToCommitVisible: $timeToCommitVisible, timeToFinish: $timeToFinish, progress: $progress, httpStatusCode: $httpStatusCode, errorCode: $errorCode, errorDescription: $errorDescription, navigationTiming: $navigationTiming, paintTiming: $paintTiming)';
+  }
+}
+
+/// Signature for when the navigation state of a [WebView] changed.
+typedef void NavigationStateCallback(NavigationState state);
+
+/// Signature for the subframe navigation requests of a [WebView] coalesced by the platform.
+///
+/// `urls` are the distinct requested URLs in request order, and `count` is the number of requests
+/// including the repeated URLs.
+///
+/// See also: [WebView.onSubframeNavigationRequests].
+typedef void SubframeNavigationRequestsCallback(List<String> urls, int count);
+
+/// The navigation state of a [WebView], as shown by a browser toolbar.
+///
+/// See also: [WebView.onNavigationStateChanged].
+class NavigationState {
+  /// Constructs a [NavigationState].
+  const NavigationState({
+    this.url,
+    this.title,
+    this.canGoBack,
+    this.canGoForward,
+    this.progress,
+    this.isLoading,
+  });
+
+  /// The URL of the current page, like [WebViewController.currentUrl].
+  final String url;
+
+  /// The title of the current page, like [WebViewController.getTitle].
+  final String title;
+
+  /// Whether there's a back history item, like [WebViewController.canGoBack].
+  final bool canGoBack;
+
+  /// Whether there's a forward history item, like [WebViewController.canGoForward].
+  final bool canGoForward;
+
+  /// The progress of the current page load, from 0 to 100.
+  final int progress;
+
+  /// Whether a page of the main frame is loading.
+  final bool isLoading;
+
+  @override
+  String toString() {
+    return '$runtimeType(url: $url, title: $title, canGoBack: $canGoBack, canGoForward: $canGoForward, progress: $progress, isLoading: $isLoading)';
+  }
+}
+
+/// How much the platform reduced the memory used by a background [WebView].
+///
+/// See also: [WebViewController.setActive].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum WebViewMemoryState {
+  /// The webview runs normally.
+  active,
+
+  /// The webview's page is paused: its animations, media and geolocation are stopped.
+  paused,
+
+  /// The webview is paused and its renderer process may be killed by the system first.
+  rendererWaived,
+
+  /// The webview's page was unloaded, its history and scroll position are restored and its page
+  /// reloaded when the [WebView] is active again. The platform view is then recreated, the
+  /// restored state is never applied to the webview that loaded the blank page.
+  ///
+  /// While hibernated, [WebViewController.currentUrl], [WebViewController.getTitle],
+  /// [WebViewController.canGoBack] and [WebViewController.canGoForward] return the values saved
+  /// when the page was unloaded, no page events are sent, and
+  /// [WebViewController.evaluateJavascript] and [WebViewController.evaluateJavascriptBatch] fail
+  /// with a `PlatformException`.
+  hibernated,
+}
+
+/// The priority of the renderer process of a [WebView], when the system needs to reclaim memory.
+///
+/// See also: [WebViewController.setRendererPriorityPolicy].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum RendererPriority {
+  /// The renderer is killed before the app's process, as if it was a cached background process.
+  waived,
+
+  /// The renderer is killed like a background service.
+  bound,
+
+  /// The renderer is killed with the app's foreground process, the default.
+  important,
+}
+
+/// Signature for when the renderer process of a [WebView] is gone.
+typedef void RenderProcessGoneCallback(RenderProcessGoneDetails details);
+
+/// Describes why the renderer process of a [WebView] is gone.
+///
+/// See also: [WebView.onRenderProcessGone].
+class RenderProcessGoneDetails {
+  /// Constructs a [RenderProcessGoneDetails].
+  const RenderProcessGoneDetails({
+    this.url,
+    this.didCrash,
+    this.rendererPriorityAtExit,
+  });
+
+  /// The URL of the last page of the main frame, or null if no page was loaded.
+  final String url;
+
+  /// Whether the renderer crashed, otherwise the system killed it, e.g to reclaim memory.
+  final bool didCrash;
+
+  /// The renderer priority when the renderer process was gone.
+  final RendererPriority rendererPriorityAtExit;
+
+  @override
+  String toString() {
+    return '$runtimeType(url: $url, didCrash: $didCrash, rendererPriorityAtExit: $rendererPriorityAtExit)';
+  }
+}
+
+/// Signature for when the platform changed the [WebViewMemoryState] of a [WebView].
+typedef void MemoryStateCallback(WebViewMemoryState state);
+
+/// The state of the [WebView]s tracked by the platform's memory pressure handling.
+///
+/// See also: [WebViewManager.getMemoryStats].
+class WebViewMemoryStats {
+  /// Constructs a [WebViewMemoryStats].
+  const WebViewMemoryStats({
+    this.live,
+    this.background,
+    this.paused,
+    this.rendererWaived,
+    this.hibernated,
+    this.hibernations,
+    this.trims,
+    this.lastTrimLevel,
+    this.timersPaused,
+    this.appPaused,
+  });
+
+  /// The number of [WebView]s that are not disposed.
+  final int live;
+
+  /// The number of live [WebView]s that are not active.
+  final int background;
+
+  /// The number of background [WebView]s in the [WebViewMemoryState.paused] state.
+  final int paused;
+
+  /// The number of background [WebView]s in the [WebViewMemoryState.rendererWaived] state.
+  final int rendererWaived;
+
+  /// The number of background [WebView]s in the [WebViewMemoryState.hibernated] state.
+  final int hibernated;
+
+  /// The number of times a [WebView] was hibernated.
+  final int hibernations;
+
+  /// The number of memory trim requests received from the system.
+  final int trims;
+
+  /// The level of the last memory trim request, or -1 if none was received.
+  final int lastTrimLevel;
+
+  /// Whether the JavaScript timers of all the webviews are paused.
+  final bool timersPaused;
+
+  /// Whether all the [WebView]s are paused because the app's activity is paused.
+  final bool appPaused;
+
+  @override
+  String toString() {
+    return '$runtimeType(live: $live, background: $background, paused: $paused, rendererWaived: $rendererWaived, hibernated: $hibernated, hibernations: $hibernations, trims: $trims, lastTrimLevel: $lastTrimLevel, timersPaused: $timersPaused, appPaused: $appPaused)';
+  }
+}
+
+/// Usage statistics of the saved states of the [WebView]s created with a [WebView.restorationId].
+///
+/// See also: [WebViewManager.getStateStoreStats].
+class WebViewStateStoreStats {
+  /// Constructs a [WebViewStateStoreStats].
+  const WebViewStateStoreStats({
+    this.entries,
+    this.saves,
+    this.restores,
+    this.diskRestores,
+    this.misses,
+  });
+
+  /// The number of states kept in memory.
+  final int entries;
+
+  /// The number of states saved.
+  final int saves;
+
+  /// The number of [WebView]s created from a saved state.
+  final int restores;
+
+  /// The number of restores whose state was read back from disk.
+  final int diskRestores;
+
+  /// The number of [WebView]s created with a restoration id that had no saved state.
+  final int misses;
+
+  @override
+  String toString() {
+    return '$runtimeType(entries: $entries, saves: $saves, restores: $restores, diskRestores: $diskRestores, misses: $misses)';
+  }
+}
+
 /// Specifies possible restrictions on automatic media playback.
 ///
 /// This is typically used in [WebView.initialMediaPlaybackPolicy].
@@ -92,6 +707,157 @@ enum AutoMediaPlaybackPolicy {
   always_allow,
 }
 
+/// Specifies when the WebView pool constructs WebViews ahead of time.
+///
+/// This is used by [WebViewManager.configurePool].
+// The method channel implementation is marshalling this enum to the value's index, so the order
+// is important.
+enum WebViewPoolWarmUpPolicy {
+  /// WebViews are never constructed ahead of time.
+  ///
+  /// The pool only keeps the WebViews of disposed [WebView] widgets.
+  none,
+
+  /// The pool is filled up as soon as it is configured.
+  ///
+  /// This constructs all the pooled WebViews at once on the platform thread.
+  eager,
+
+  /// The pool is filled up one WebView at a time whenever the platform thread is idle.
+  idle,
+}
+
+/// Usage statistics of the WebView pool.
+///
+/// See also: [WebViewManager.getPoolStats].
+class WebViewPoolStats {
+  /// Constructs a [WebViewPoolStats].
+  const WebViewPoolStats({
+    this.hits,
+    this.misses,
+    this.created,
+    this.returned,
+    this.idle,
+    this.maxSize,
+  });
+
+  /// The number of [WebView]s that were created with a pooled WebView.
+  final int hits;
+
+  /// The number of [WebView]s that had to construct a new WebView as the pool was empty.
+  final int misses;
+
+  /// The number of WebViews constructed by the pool.
+  final int created;
+
+  /// The number of WebViews that were returned to the pool by disposed [WebView]s.
+  final int returned;
+
+  /// The number of WebViews currently waiting in the pool.
+  final int idle;
+
+  /// The maximal number of WebViews the pool keeps.
+  final int maxSize;
+
+  @override
+  String toString() {
+    return '$runtimeType(hits: $hits, misses: $misses, created: $created, returned: $returned, idle: $idle, maxSize: $maxSize)';
+  }
+}
+
+/// Measurements of the construction of platform WebViews.
+///
+/// See also: [WebViewManager.getCreationMetrics].
+class WebViewCreationMetrics {
+  /// Constructs a [WebViewCreationMetrics].
+  const WebViewCreationMetrics({
+    this.created,
+    this.creationTime,
+    this.displayListenerProxyCount,
+    this.displayListenerProxySkipped,
+    this.displayListenerProxyTime,
+    this.displayListenerProxySavedTime,
+  });
+
+  /// The number of platform WebViews constructed, including pooled WebViews.
+  final int created;
+
+  /// The total time spent constructing platform WebViews on the platform thread.
+  final Duration creationTime;
+
+  /// The number of WebView constructions that went through the Android display listener workaround.
+  final int displayListenerProxyCount;
+
+  /// The number of WebView constructions that skipped the Android display listener workaround as it
+  /// was no longer needed.
+  final int displayListenerProxySkipped;
+
+  /// The total time spent in the Android display listener workaround.
+  final Duration displayListenerProxyTime;
+
+  /// An estimate of the time saved by skipping the Android display listener workaround.
+  final Duration displayListenerProxySavedTime;
+
+  @override
+  String toString() {
+    return '$runtimeType(created: $created, creationTime: $creationTime, displayListenerProxyCount: $displayListenerProxyCount, displayListenerProxySkipped: $displayListenerProxySkipped, displayListenerProxyTime: $displayListenerProxyTime, displayListenerProxySavedTime: $displayListenerProxySavedTime)';
+  }
+}
+
+/// Usage statistics of the resource cache.
+///
+/// See also: [WebViewManager.getResourceCacheStats].
+class ResourceCacheStats {
+  /// Constructs a [ResourceCacheStats].
+  const ResourceCacheStats({
+    this.hits,
+    this.misses,
+    this.bytesSaved,
+    this.sizeBytes,
+    this.entries,
+    this.maxBytes,
+    this.memoryHits,
+    this.memorySizeBytes,
+    this.revalidations,
+    this.revalidationUpdates,
+  });
+
+  /// The number of requests that were served from the cache.
+  final int hits;
+
+  /// The number of requests matching the cached URL patterns that had to be fetched.
+  final int misses;
+
+  /// The number of body bytes that were served from the cache instead of the network.
+  final int bytesSaved;
+
+  /// The number of bytes currently used by the cache on disk.
+  final int sizeBytes;
+
+  /// The number of resources currently cached.
+  final int entries;
+
+  /// The maximal number of bytes the cache uses on disk.
+  final int maxBytes;
+
+  /// The number of [hits] that were served from memory instead of disk.
+  final int memoryHits;
+
+  /// The number of bytes of the resources currently kept in memory.
+  final int memorySizeBytes;
+
+  /// The number of cached resources that were revalidated with the server.
+  final int revalidations;
+
+  /// The number of [revalidations] that found the resource changed.
+  final int revalidationUpdates;
+
+  @override
+  String toString() {
+    return '$runtimeType(hits: $hits, misses: $misses, bytesSaved: $bytesSaved, sizeBytes: $sizeBytes, entries: $entries, maxBytes: $maxBytes, memoryHits: $memoryHits, memorySizeBytes: $memorySizeBytes, revalidations: $revalidations, revalidationUpdates: $revalidationUpdates)';
+  }
+}
+
 final RegExp _validChannelNames = RegExp('^[a-zA-Z_][a-zA-Z0-9_]*\$');
 
 /// A named channel for receiving messaged from JavaScript code running inside a web view.
@@ -102,6 +868,7 @@ class JavascriptChannel {
   JavascriptChannel({
     @required this.name,
     @required this.onMessageReceived,
+    this.onBinaryMessageReceived,
   })  : assert(name != null),
         assert(onMessageReceived != null),
         assert(_validChannelNames.hasMatch(name));
@@ -121,6 +888,92 @@ class JavascriptChannel {
 
   /// A callback that's invoked when a message is received through the channel.
   final JavascriptMessageHandler onMessageReceived;
+
+  /// A callback that's invoked when a binary message is received through the channel.
+  ///
+  /// JavaScript code sends binary messages by passing a base64 encoded payload to the channel's
+  /// `postBinaryMessage` method:
+  ///
+  /// ```javascript
+  /// Print.postBinaryMessage(btoa(binaryString));
+  /// ```
+  ///
+  /// The payload is decoded by the platform and delivered as bytes, without going through a Dart
+  /// string. Binary messages are not batched, see [WebView.javascriptMessageBatchSize]. Payloads
+  /// that aren't valid base64 are dropped.
+  ///
+  /// When null binary messages sent through this channel are ignored.
+  ///
+  /// This is currently only supported on Android.
+  final JavascriptBinaryMessageHandler onBinaryMessageReceived;
+}
+
+/// A persistent, ordered and asynchronous channel for exchanging messages with the page loaded
+/// in a [WebView].
+///
+/// Web message channels are created with [WebViewController.createWebMessageChannel].
+class WebMessageChannel {
+  WebMessageChannel._(this.name, this._webViewPlatformController,
+      this._onMessageReceived, this._channels);
+
+  /// The channel's name.
+  final String name;
+
+  final WebViewPlatformController _webViewPlatformController;
+
+  final JavascriptMessageHandler _onMessageReceived;
+
+  // The open channels of the webview by name, this channel is removed once closed.
+  final Map<String, WebMessageChannel> _channels;
+
+  /// Posts a message to the page.
+  ///
+  /// The message is delivered to the `onmessage` handler of the port the page received for this
+  /// channel. Unlike [WebViewController.evaluateJavascript] this doesn't compile a script per
+  /// message.
+  Future<void> postMessage(String message) {
+    assert(message != null);
+    return _webViewPlatformController.postWebMessageChannelMessage(
+        name, message);
+  }
+
+  /// Closes the channel.
+  ///
+  /// No messages are delivered through the channel once it is closed.
+  ///
+  /// This is a no-op if the channel was replaced by a channel with the same name.
+  Future<void> close() async {
+    if (_channels[name] != this) {
+      return;
+    }
+    _channels.remove(name);
+    return _webViewPlatformController.closeWebMessageChannel(name);
+  }
+}
+
+/// The outcome of evaluating one script of a [WebViewController.evaluateJavascriptBatch] call.
+class JavascriptBatchResult {
+  /// Constructs a [JavascriptBatchResult].
+  ///
+  /// At most one of `result` and `error` should be non null.
+  const JavascriptBatchResult({this.result, this.error});
+
+  /// The result of the script, formatted like the result of
+  /// [WebViewController.evaluateJavascript].
+  ///
+  /// Null when the script threw.
+  final String result;
+
+  /// A description of the exception the script threw, or null if it didn't throw.
+  final String error;
+
+  /// Whether the script threw.
+  bool get hasError => error != null;
+
+  @override
+  String toString() {
+    return '$runtimeType(result: $result, error: $error)';
+  }
 }
 
 /// A web view widget for showing html content.
@@ -130,7 +983,8 @@ class WebView extends StatefulWidget {
   /// The web view can be controlled using a `WebViewController` that is passed to the
   /// `onWebViewCreated` callback once the web view is created.
   ///
-  /// The `javascriptMode` and `autoMediaPlaybackPolicy` parameters must not be null.
+  /// The `javascriptMode`, `subframeNavigationRequests` and `autoMediaPlaybackPolicy` parameters
+  /// must not be null.
   const WebView({
     Key key,
     this.onWebViewCreated,
@@ -138,14 +992,32 @@ class WebView extends StatefulWidget {
     this.javascriptMode = JavascriptMode.disabled,
     this.javascriptChannels,
     this.navigationDelegate,
+    this.navigationRules,
+    this.subframeNavigationRequests = SubframeNavigationRequests.each,
+    this.onSubframeNavigationRequests,
     this.gestureRecognizers,
     this.onPageFinished,
+    this.onPageLoadMetrics,
+    this.collectWebPerformanceTiming = false,
+    this.onNavigationStateChanged,
+    this.onMemoryStateChanged,
     this.debuggingEnabled = false,
     this.userAgent,
+    this.restorationId,
+    this.pauseWhenHidden = true,
+    this.onRenderProcessGone,
+    this.reloadOnRenderProcessGone = true,
     this.initialMediaPlaybackPolicy =
         AutoMediaPlaybackPolicy.require_user_action_for_all_media_types,
+    this.javascriptMessageBatchSize,
   })  : assert(javascriptMode != null),
+        assert(subframeNavigationRequests != null),
+        assert(collectWebPerformanceTiming != null),
+        assert(pauseWhenHidden != null),
+        assert(reloadOnRenderProcessGone != null),
         assert(initialMediaPlaybackPolicy != null),
+        assert(javascriptMessageBatchSize == null ||
+            javascriptMessageBatchSize > 0),
         super(key: key);
 
   static WebViewPlatform _platform;
@@ -254,6 +1126,47 @@ class WebView extends StatefulWidget {
   ///     * When a navigationDelegate is set HTTP requests do not include the HTTP referer header.
   final NavigationDelegate navigationDelegate;
 
+  /// Rules deciding how to handle navigation actions without calling the [navigationDelegate].
+  ///
+  /// The rules are evaluated in order by the platform's webview when a navigation is initiated,
+  /// and the [NavigationRule.action] of the first rule matching the navigation's URL decides the
+  /// navigation. The [navigationDelegate] is only called for navigations that no rule matches, or
+  /// whose first matching rule has the [NavigationRuleAction.delegate] action. When the
+  /// [navigationDelegate] is null these navigations are allowed.
+  ///
+  /// Unlike the [navigationDelegate], rules are evaluated synchronously, so a navigation they
+  /// allow doesn't have to be blocked and restarted after a round trip to Dart.
+  ///
+  /// When null or empty all navigation actions are handled by the [navigationDelegate].
+  ///
+  /// This is currently only supported on Android. The rules are ignored on iOS: the
+  /// [navigationDelegate] is called for all navigation actions, and navigations matching a
+  /// [NavigationRuleAction.prevent] rule are not blocked unless the [navigationDelegate] prevents
+  /// them.
+  final List<NavigationRule> navigationRules;
+
+  /// How navigation requests targeted to subframes are reported to the [navigationDelegate].
+  ///
+  /// The [navigationDelegate]'s decision on subframe navigation requests is ignored on Android, so
+  /// pages with many frames can set this to [SubframeNavigationRequests.none] or
+  /// [SubframeNavigationRequests.coalesced] to avoid a message from the platform per request.
+  ///
+  /// This initial value is applied to the platform's webview upon creation. Any following
+  /// changes to this parameter are ignored (as long as the state of the [WebView] is preserved).
+  ///
+  /// This is currently only supported on Android.
+  ///
+  /// By default every subframe navigation request is reported.
+  final SubframeNavigationRequests subframeNavigationRequests;
+
+  /// Invoked once per report with the subframe navigation requests collected by the platform
+  /// when [subframeNavigationRequests] is [SubframeNavigationRequests.coalesced].
+  ///
+  /// When null the [navigationDelegate] is called for each distinct URL of a report instead.
+  ///
+  /// This is currently only supported on Android.
+  final SubframeNavigationRequestsCallback onSubframeNavigationRequests;
+
   /// Invoked when a page has finished loading.
   ///
   /// This is invoked only for the main frame.
@@ -266,6 +1179,45 @@ class WebView extends StatefulWidget {
   /// [WebViewController.evaluateJavascript] can assume this.
   final PageFinishedCallback onPageFinished;
 
+  /// Invoked with the metrics of each page load of the main frame, once the page finished loading.
+  ///
+  /// Reporting the metrics is enabled when the [WebView] is created with a non null
+  /// `onPageLoadMetrics`, later changes only replace the callback.
+  ///
+  /// This is currently only supported on Android.
+  final PageLoadMetricsCallback onPageLoadMetrics;
+
+  /// Whether [PageLoadMetrics.navigationTiming] and [PageLoadMetrics.paintTiming] are read from
+  /// the page before [onPageLoadMetrics] is invoked.
+  ///
+  /// This evaluates a script in each loaded page, and has no effect when [onPageLoadMetrics] is
+  /// null. This initial value is applied to the platform's webview upon creation, later changes
+  /// are ignored.
+  ///
+  /// By default `collectWebPerformanceTiming` is false.
+  final bool collectWebPerformanceTiming;
+
+  /// Invoked when the URL, title, history, progress or loading state of the [WebView] changed.
+  ///
+  /// This replaces querying [WebViewController.currentUrl], [WebViewController.getTitle],
+  /// [WebViewController.canGoBack] and [WebViewController.canGoForward] after each page event.
+  /// The platform coalesces the changes made together into a single [NavigationState] and never
+  /// reports a state equal to the previous one.
+  ///
+  /// The platform's webview pushes the state when the [WebView] is created with a non null
+  /// `onNavigationStateChanged`, later changes only replace the callback.
+  ///
+  /// This is currently only supported on Android.
+  final NavigationStateCallback onNavigationStateChanged;
+
+  /// Invoked when the platform changed the [WebViewMemoryState] of the [WebView].
+  ///
+  /// Background [WebView]s, see [WebViewController.setActive], are paused and may be hibernated
+  /// when the system is low on memory. The [WebView] is active again once it's marked as active.
+  ///
+  /// This is currently only supported on Android.
+  final MemoryStateCallback onMemoryStateChanged;
+
   /// Controls whether WebView debugging is enabled.
   ///
   /// Setting this to true enables [WebView debugging on Android](https://developers.google.com/web/tools/chrome-devtools/remote-debugging/).
@@ -287,11 +1239,60 @@ class WebView extends StatefulWidget {
   ///
   /// When [WebViewController.goBack] is called after changing `userAgent` the previous `userAgent` value is used until the page is reloaded.
   ///
-  /// This field is ignored on iOS versions prior to 9 as the platform does not support a custom
-  /// user agent.
+  /// This field is ignored on iOS versions prior to 9 as the platform does not support a custom
+  /// user agent.
+  ///
+  /// By default `userAgent` is null.
+  final String userAgent;
+
+  /// The id under which the platform saves the state of the [WebView] when it's disposed.
+  ///
+  /// A [WebView] created later with the same `restorationId`, e.g when switching back to a tab,
+  /// restores the saved history, scroll position and form data instead of loading [initialUrl].
+  /// The page is then loaded from the WebView's HTTP cache where possible.
+  ///
+  /// The states are kept in memory, and optionally on disk so that they outlive the app's process,
+  /// see [WebViewManager.configureStateStore]. Changing `restorationId` after the [WebView] is
+  /// created has no effect.
+  ///
+  /// This is currently only supported on Android.
+  final String restorationId;
+
+  /// Whether the [WebView] is paused while it's hidden.
+  ///
+  /// A [WebView] is hidden when tickers are disabled for its subtree, e.g when it's in an
+  /// [Offstage] widget or in a route covered by an opaque route. Its JavaScript timers,
+  /// animations and media are then stopped with [WebViewController.pause] until it's shown again,
+  /// when it's resumed with [WebViewController.resume]. A [WebView] marked inactive with
+  /// [WebViewController.setActive] stays in the background when it's shown.
+  ///
+  /// All the [WebView]s are also paused while the app's activity is paused, whatever the value
+  /// of `pauseWhenHidden`.
+  ///
+  /// Defaults to true. This is currently only supported on Android.
+  final bool pauseWhenHidden;
+
+  /// Invoked when the renderer process of the [WebView] crashed or was killed by the system.
+  ///
+  /// The platform's webview can't be used once its renderer is gone, so the [WebView] recreates it
+  /// right after this callback. The [WebViewController] stays valid and controls the new webview,
+  /// which gets the renderer priority policy, active state and pause set with the controller. Its
+  /// [WebMessageChannel]s are closed.
+  ///
+  /// See also: [reloadOnRenderProcessGone].
+  ///
+  /// This is currently only supported on Android, from Android 8.0.
+  final RenderProcessGoneCallback onRenderProcessGone;
+
+  /// Whether the webview recreated after its renderer process is gone loads the last page.
+  ///
+  /// When false the recreated webview doesn't load any page, e.g so that the app can show an
+  /// error first and load a page with [WebViewController.loadUrl]. The page isn't reloaded either
+  /// once the renderer process is gone 3 times within a minute, so that a page that crashes its
+  /// renderer doesn't crash it in a loop.
   ///
-  /// By default `userAgent` is null.
-  final String userAgent;
+  /// Defaults to true.
+  final bool reloadOnRenderProcessGone;
 
   /// Which restrictions apply on automatic media playback.
   ///
@@ -301,6 +1302,19 @@ class WebView extends StatefulWidget {
   /// The default policy is [AutoMediaPlaybackPolicy.require_user_action_for_all_media_types].
   final AutoMediaPlaybackPolicy initialMediaPlaybackPolicy;
 
+  /// Enables batching of the messages sent through [javascriptChannels].
+  ///
+  /// When null (the default) each message posted by JavaScript is delivered on its own. Pages that
+  /// post many messages per second can set this to have the messages of all channels delivered
+  /// together once per frame, or as soon as `javascriptMessageBatchSize` messages are pending.
+  /// Messages are always delivered in the order they were posted.
+  ///
+  /// This initial value is applied to the platform's webview upon creation. Any following
+  /// changes to this parameter are ignored (as long as the state of the [WebView] is preserved).
+  ///
+  /// This is currently only supported on Android, other platforms deliver messages one at a time.
+  final int javascriptMessageBatchSize;
+
   @override
   State<StatefulWidget> createState() => _WebViewState();
 }
@@ -311,14 +1325,31 @@ class _WebViewState extends State<WebView> {
 
   _PlatformCallbacksHandler _platformCallbacksHandler;
 
+  bool _tickerModeEnabled = true;
+  bool _pausedWhileHidden = false;
+
+  // Replaced to recreate the platform view once its renderer process is gone, or to restore it
+  // once it's no longer hibernated.
+  Key _platformViewKey = UniqueKey();
+  bool _recreated = false;
+  // The page the recreated platform view loads instead of [WebView.initialUrl].
+  String _recreatedUrl;
+  // The hibernated state the recreated platform view restores instead of loading its URL.
+  String _restoredStateKey;
+
   @override
   Widget build(BuildContext context) {
-    return WebView.platform.build(
-      context: context,
-      onWebViewPlatformCreated: _onWebViewPlatformCreated,
-      webViewPlatformCallbacksHandler: _platformCallbacksHandler,
-      gestureRecognizers: widget.gestureRecognizers,
-      creationParams: _creationParamsfromWidget(widget),
+    return KeyedSubtree(
+      key: _platformViewKey,
+      child: WebView.platform.build(
+        context: context,
+        onWebViewPlatformCreated: _onWebViewPlatformCreated,
+        webViewPlatformCallbacksHandler: _platformCallbacksHandler,
+        gestureRecognizers: widget.gestureRecognizers,
+        creationParams: _creationParamsfromWidget(
+            widget, _recreated ? _recreatedUrl : widget.initialUrl,
+            restoredStateKey: _restoredStateKey),
+      ),
     );
   }
 
@@ -326,7 +1357,15 @@ class _WebViewState extends State<WebView> {
   void initState() {
     super.initState();
     _assertJavascriptChannelNamesAreUnique();
-    _platformCallbacksHandler = _PlatformCallbacksHandler(widget);
+    _platformCallbacksHandler =
+        _PlatformCallbacksHandler(widget, _recreatePlatformView);
+  }
+
+  @override
+  void didChangeDependencies() {
+    super.didChangeDependencies();
+    _tickerModeEnabled = TickerMode.of(context);
+    _updatePausedWhileHidden();
   }
 
   @override
@@ -337,9 +1376,46 @@ class _WebViewState extends State<WebView> {
       _platformCallbacksHandler._widget = widget;
       controller._updateWidget(widget);
     });
+    _updatePausedWhileHidden();
+  }
+
+  void _updatePausedWhileHidden() {
+    final bool pause = widget.pauseWhenHidden && !_tickerModeEnabled;
+    if (pause == _pausedWhileHidden) {
+      return;
+    }
+    _pausedWhileHidden = pause;
+    _controller.future.then((WebViewController controller) {
+      if (pause) {
+        controller.pause();
+      } else {
+        controller.resume();
+      }
+    });
+  }
+
+  void _recreatePlatformView(String url, {String restoredStateKey}) {
+    if (!mounted) {
+      return;
+    }
+    setState(() {
+      _platformViewKey = UniqueKey();
+      _recreated = true;
+      _recreatedUrl = url;
+      _restoredStateKey = restoredStateKey;
+    });
   }
 
   void _onWebViewPlatformCreated(WebViewPlatformController webViewPlatform) {
+    if (_controller.isCompleted) {
+      // The platform view was recreated, the web message channels were closed with the page.
+      _platformCallbacksHandler._webMessageChannels.clear();
+      _controller.future.then((WebViewController controller) {
+        controller._webViewPlatformController = webViewPlatform;
+        controller._applyPlatformState();
+      });
+      return;
+    }
     final WebViewController controller =
         WebViewController._(widget, webViewPlatform, _platformCallbacksHandler);
     _controller.complete(controller);
@@ -358,13 +1434,25 @@ class _WebViewState extends State<WebView> {
   }
 }
 
-CreationParams _creationParamsfromWidget(WebView widget) {
+CreationParams _creationParamsfromWidget(WebView widget, String initialUrl,
+    {String restoredStateKey}) {
   return CreationParams(
-    initialUrl: widget.initialUrl,
+    initialUrl: initialUrl,
     webSettings: _webSettingsFromWidget(widget),
     javascriptChannelNames: _extractChannelNames(widget.javascriptChannels),
     userAgent: widget.userAgent,
     autoMediaPlaybackPolicy: widget.initialMediaPlaybackPolicy,
+    javascriptMessageBatchSize: widget.javascriptMessageBatchSize,
+    navigationRules: widget.navigationRules,
+    subframeNavigationRequests: widget.subframeNavigationRequests,
+    pageLoadMetricsMode: widget.onPageLoadMetrics == null
+        ? PageLoadMetricsMode.none
+        : widget.collectWebPerformanceTiming
+            ? PageLoadMetricsMode.eventsAndWebTiming
+            : PageLoadMetricsMode.events,
+    navigationStateEvents: widget.onNavigationStateChanged != null,
+    restorationId: widget.restorationId,
+    restoredStateKey: restoredStateKey,
   );
 }
 
@@ -423,30 +1511,89 @@ Set<String> _extractChannelNames(Set<JavascriptChannel> channels) {
   return channelNames;
 }
 
-class _PlatformCallbacksHandler implements WebViewPlatformCallbacksHandler {
-  _PlatformCallbacksHandler(this._widget) {
+// Recreates the platform view of a [WebView], which loads `url` unless it restores the hibernated
+// state of `restoredStateKey`.
+typedef void _RecreatePlatformViewCallback(String url,
+    {String restoredStateKey});
+
+// A [WebView] whose renderer process is gone this many times within
+// [_reloadOnRenderProcessGoneWindow] is recreated without reloading its page, so that a page that
+// crashes its renderer doesn't crash it in a loop.
+const int _maxReloadsOnRenderProcessGone = 3;
+const Duration _reloadOnRenderProcessGoneWindow = Duration(minutes: 1);
+
+class _PlatformCallbacksHandler extends WebViewPlatformCallbacksHandler {
+  _PlatformCallbacksHandler(this._widget, this._recreatePlatformView) {
     _updateJavascriptChannelsFromSet(_widget.javascriptChannels);
   }
 
   WebView _widget;
 
+  final _RecreatePlatformViewCallback _recreatePlatformView;
+
+  // When the renderer process was gone within the last [_reloadOnRenderProcessGoneWindow].
+  final List<DateTime> _renderProcessGoneTimes = <DateTime>[];
+
   // Maps a channel name to a channel.
   final Map<String, JavascriptChannel> _javascriptChannels =
       <String, JavascriptChannel>{};
 
+  // Maps a web message channel name to the open channel.
+  final Map<String, WebMessageChannel> _webMessageChannels =
+      <String, WebMessageChannel>{};
+
   @override
   void onJavaScriptChannelMessage(String channel, String message) {
     _javascriptChannels[channel].onMessageReceived(JavascriptMessage(message));
   }
 
+  @override
+  void onJavaScriptChannelBinaryMessage(String channel, Uint8List message) {
+    final JavascriptBinaryMessageHandler handler =
+        _javascriptChannels[channel]?.onBinaryMessageReceived;
+    if (handler != null) {
+      handler(message);
+    }
+  }
+
+  @override
+  void onWebMessageChannelMessage(String name, String message) {
+    final WebMessageChannel channel = _webMessageChannels[name];
+    if (channel != null) {
+      channel._onMessageReceived(JavascriptMessage(message));
+    }
+  }
+
   @override
   FutureOr<bool> onNavigationRequest({String url, bool isForMainFrame}) async {
+    final NavigationResponse response = await onCacheableNavigationRequest(
+        url: url, isForMainFrame: isForMainFrame);
+    return response.allow;
+  }
+
+  @override
+  FutureOr<NavigationResponse> onCacheableNavigationRequest(
+      {String url, bool isForMainFrame}) async {
     final NavigationRequest request =
         NavigationRequest._(url: url, isForMainFrame: isForMainFrame);
     final bool allowNavigation = _widget.navigationDelegate == null ||
         await _widget.navigationDelegate(request) ==
             NavigationDecision.navigate;
-    return allowNavigation;
+    return NavigationResponse(
+      allow: allowNavigation,
+      cacheTtl: request._cacheTtl,
+      cacheScope: request._cacheScope,
+      cachePathPrefix: request._cachePathPrefix,
+    );
+  }
+
+  @override
+  void onSubframeNavigationRequests(List<String> urls, int count) {
+    if (_widget.onSubframeNavigationRequests != null) {
+      _widget.onSubframeNavigationRequests(urls, count);
+      return;
+    }
+    super.onSubframeNavigationRequests(urls, count);
   }
 
   @override
@@ -456,6 +1603,50 @@ class _PlatformCallbacksHandler implements WebViewPlatformCallbacksHandler {
     }
   }
 
+  @override
+  void onPageLoadMetrics(PageLoadMetrics metrics) {
+    if (_widget.onPageLoadMetrics != null) {
+      _widget.onPageLoadMetrics(metrics);
+    }
+  }
+
+  @override
+  void onNavigationStateChanged(NavigationState state) {
+    if (_widget.onNavigationStateChanged != null) {
+      _widget.onNavigationStateChanged(state);
+    }
+  }
+
+  @override
+  void onRenderProcessGone(RenderProcessGoneDetails details) {
+    if (_widget.onRenderProcessGone != null) {
+      _widget.onRenderProcessGone(details);
+    }
+    _recreatePlatformView(
+        _reloadAfterRenderProcessGone() ? details.url : null);
+  }
+
+  bool _reloadAfterRenderProcessGone() {
+    final DateTime now = DateTime.now();
+    _renderProcessGoneTimes.removeWhere((DateTime time) =>
+        now.difference(time) > _reloadOnRenderProcessGoneWindow);
+    _renderProcessGoneTimes.add(now);
+    return _widget.reloadOnRenderProcessGone &&
+        _renderProcessGoneTimes.length <= _maxReloadsOnRenderProcessGone;
+  }
+
+  @override
+  void onMemoryStateChanged(WebViewMemoryState state) {
+    if (_widget.onMemoryStateChanged != null) {
+      _widget.onMemoryStateChanged(state);
+    }
+  }
+
+  @override
+  void onHibernationEnded(String url, String stateKey) {
+    _recreatePlatformView(url, restoredStateKey: stateKey);
+  }
+
   void _updateJavascriptChannelsFromSet(Set<JavascriptChannel> channels) {
     _javascriptChannels.clear();
     if (channels == null) {
@@ -480,7 +1671,14 @@ class WebViewController {
     _settings = _webSettingsFromWidget(_widget);
   }
 
-  final WebViewPlatformController _webViewPlatformController;
+  // Replaced when the platform view is recreated, see [WebView.onRenderProcessGone].
+  WebViewPlatformController _webViewPlatformController;
+
+  // The state set on the platform view, applied again to a recreated one.
+  RendererPriority _rendererPriority;
+  bool _waivedWhenNotVisible = false;
+  bool _active = true;
+  bool _paused = false;
 
   final _PlatformCallbacksHandler _platformCallbacksHandler;
 
@@ -566,10 +1764,62 @@ class WebViewController {
     return reload();
   }
 
+  /// Removes the `dataTypes` stored by all [WebView]s for the `origins`, e.g
+  /// `https://example.com`, or for all origins if `origins` is null.
+  ///
+  /// Unlike [clearCache] the data of other origins is kept, the current page is not reloaded, and
+  /// the removal doesn't block the platform's UI thread, except for clearing the in memory part of
+  /// the [WebViewDataType.httpCache]. The returned future completes once the data is removed.
+  ///
+  /// On Android the [WebViewDataType.domStorage] and [WebViewDataType.indexedDb] of an origin are
+  /// stored together and are always removed together, and the [WebViewDataType.httpCache] can't
+  /// be scoped to origins and is always cleared for all origins, synchronously for its in memory
+  /// part. Cookies of an origin are removed
+  /// as described in [CookieManager.removeCookies].
+  ///
+  /// This is currently only supported on Android.
+  Future<void> clearData(Set<WebViewDataType> dataTypes, {List<String> origins}) {
+    assert(dataTypes != null);
+    assert(origins == null || !origins.contains(null));
+    return _webViewPlatformController.clearData(dataTypes, origins);
+  }
+
+  // A recreated platform view is created with the widget's settings, JavaScript channels and
+  // navigation rules, but not with the state set with this controller.
+  //
+  // Nothing awaits the recreation, so the errors are reported instead of being thrown.
+  Future<void> _applyPlatformState() async {
+    try {
+      if (_rendererPriority != null) {
+        await _webViewPlatformController.setRendererPriorityPolicy(
+            _rendererPriority, _waivedWhenNotVisible);
+      }
+      if (!_active) {
+        await _webViewPlatformController.setActive(false);
+      }
+      if (_paused) {
+        await _webViewPlatformController.pause();
+      }
+    } catch (exception, stack) {
+      FlutterError.reportError(FlutterErrorDetails(
+        exception: exception,
+        stack: stack,
+        library: 'webview_flutter',
+        context: ErrorDescription(
+            'while applying the controller state to a recreated WebView'),
+      ));
+    }
+  }
+
   Future<void> _updateWidget(WebView widget) async {
+    final List<NavigationRule> oldNavigationRules = _widget.navigationRules;
     _widget = widget;
     await _updateSettings(_webSettingsFromWidget(widget));
     await _updateJavascriptChannels(widget.javascriptChannels);
+    if (!listEquals(oldNavigationRules, widget.navigationRules)) {
+      await _webViewPlatformController
+          .setNavigationRules(widget.navigationRules ?? <NavigationRule>[]);
+    }
   }
 
   Future<void> _updateSettings(WebSettings newSettings) {
@@ -628,10 +1878,225 @@ class WebViewController {
     return _webViewPlatformController.evaluateJavascript(javascriptString);
   }
 
+  /// Evaluates a list of JavaScript expressions in the context of the current page, in order.
+  ///
+  /// The whole batch is sent to the platform in a single message and the Future completes once
+  /// with one [JavascriptBatchResult] per script, which is cheaper than calling
+  /// [evaluateJavascript] for each script.
+  ///
+  /// When `combine` is true the scripts are evaluated by a single script on the page. Each
+  /// script's result is then its `JSON.stringify`'d value (`'null'` for `undefined`), and a
+  /// script throwing is reported in its [JavascriptBatchResult.error] without affecting the
+  /// other scripts.
+  ///
+  /// When `combine` is false each script is evaluated on its own and its result is formatted as
+  /// described in [evaluateJavascript]. A script throwing is also reported in its
+  /// [JavascriptBatchResult.error].
+  ///
+  /// This is currently only supported on Android.
+  Future<List<JavascriptBatchResult>> evaluateJavascriptBatch(
+    List<String> scripts, {
+    bool combine = false,
+  }) {
+    if (_settings.javascriptMode == JavascriptMode.disabled) {
+      return Future<List<JavascriptBatchResult>>.error(FlutterError(
+          'JavaScript mode must be enabled/unrestricted when calling evaluateJavascriptBatch.'));
+    }
+    if (scripts == null || scripts.contains(null)) {
+      return Future<List<JavascriptBatchResult>>.error(
+          ArgumentError('The argument scripts must not be or contain null.'));
+    }
+    assert(combine != null);
+    return _webViewPlatformController.evaluateJavascriptBatch(
+        scripts, combine);
+  }
+
   /// Returns the title of the currently loaded page.
   Future<String> getTitle() {
     return _webViewPlatformController.getTitle();
   }
+
+  /// Returns the usage statistics of the navigation decisions cached with
+  /// [NavigationRequest.cacheDecision].
+  ///
+  /// This is currently only supported on Android.
+  Future<NavigationDecisionCacheStats> getNavigationDecisionCacheStats() {
+    return _webViewPlatformController.getNavigationDecisionCacheStats();
+  }
+
+  /// Discards the navigation decisions cached with [NavigationRequest.cacheDecision].
+  ///
+  /// This should be called when the [WebView.navigationDelegate] would make different decisions,
+  /// e.g after the user signed out.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> clearNavigationDecisionCache() {
+    return _webViewPlatformController.clearNavigationDecisionCache();
+  }
+
+  /// Returns the latencies of the method calls this [WebView] handled on the platform's UI thread,
+  /// and the number of events it sent, since it was created or [resetMethodCallMetrics] was
+  /// called.
+  ///
+  /// Nothing is recorded unless [WebViewManager.setMethodCallMetricsEnabled] was called.
+  ///
+  /// This is currently only supported on Android.
+  Future<MethodCallMetrics> getMethodCallMetrics() {
+    return _webViewPlatformController.getMethodCallMetrics();
+  }
+
+  /// Discards the metrics returned by [getMethodCallMetrics].
+  ///
+  /// This is currently only supported on Android.
+  Future<void> resetMethodCallMetrics() {
+    return _webViewPlatformController.resetMethodCallMetrics();
+  }
+
+  /// Returns how many settings updates the platform's webview received and skipped.
+  ///
+  /// The platform's webview keeps the last applied value of each setting and only applies the
+  /// settings whose value changed, reusing its navigation handling client across updates.
+  ///
+  /// This is currently only supported on Android.
+  Future<SettingsUpdateStats> getSettingsUpdateStats() {
+    return _webViewPlatformController.getSettingsUpdateStats();
+  }
+
+  /// Marks the [WebView] as shown to the user, or in the background.
+  ///
+  /// [WebView]s are active when created. Mark a [WebView] that is not visible, e.g in a hidden
+  /// tab, as inactive so that the platform can reduce its memory use when the system is low on
+  /// memory, see [WebViewMemoryState]. Marking it active restores it right away, unless it's
+  /// paused by [pause].
+  ///
+  /// See also: [WebViewManager.configureMemoryPolicy].
+  ///
+  /// This is currently only supported on Android.
+  Future<void> setActive(bool active) {
+    assert(active != null);
+    _active = active;
+    return _webViewPlatformController.setActive(active);
+  }
+
+  /// Sets the priority of the [WebView]'s renderer process when the system needs to reclaim memory.
+  ///
+  /// Give background [WebView]s a [RendererPriority.waived] priority so that their renderer is
+  /// reclaimed before the app's process, the [WebView] is then recreated, see
+  /// [WebView.onRenderProcessGone]. When `waivedWhenNotVisible` is true the priority is also
+  /// waived while the platform's webview isn't visible.
+  ///
+  /// All the [WebView]s sharing a renderer process get the highest priority among them. The
+  /// policy of a [WebView] whose renderer priority was waived by the platform to reduce its memory
+  /// use, see [WebViewMemoryState.rendererWaived], is set once it's active again.
+  ///
+  /// This is currently only supported on Android, from Android 8.0.
+  Future<void> setRendererPriorityPolicy(
+    RendererPriority priority, {
+    bool waivedWhenNotVisible = false,
+  }) {
+    assert(priority != null);
+    assert(waivedWhenNotVisible != null);
+    _rendererPriority = priority;
+    _waivedWhenNotVisible = waivedWhenNotVisible;
+    return _webViewPlatformController.setRendererPriorityPolicy(
+        priority, waivedWhenNotVisible);
+  }
+
+  /// Pauses the [WebView]'s JavaScript timers, animations and media.
+  ///
+  /// The [WebView] is moved to the background in the [WebViewMemoryState.paused] state until
+  /// [resume] is called, marking it active with [setActive] or [restore] doesn't resume it. The
+  /// JavaScript timers are shared by all the [WebView]s, so they are only paused once no [WebView]
+  /// is active.
+  ///
+  /// See also: [WebView.pauseWhenHidden], which pauses the [WebView] while it's hidden.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> pause() {
+    _paused = true;
+    return _webViewPlatformController.pause();
+  }
+
+  /// Resumes the [WebView] paused by [pause].
+  ///
+  /// The [WebView] stays in the background if it's marked inactive by [setActive] or [hibernate].
+  ///
+  /// This is currently only supported on Android.
+  Future<void> resume() {
+    _paused = false;
+    return _webViewPlatformController.resume();
+  }
+
+  /// Saves the state of the [WebView] and unloads its page to free its memory.
+  ///
+  /// The [WebView] is moved to the background in the [WebViewMemoryState.hibernated] state until
+  /// [restore] or [setActive] is called, which restore its history, scroll position and form
+  /// data. When the [WebView] has a [WebView.restorationId] its state is also saved in the state
+  /// store.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> hibernate() {
+    _active = false;
+    return _webViewPlatformController.hibernate();
+  }
+
+  /// Restores the state saved by [hibernate], and marks the [WebView] active.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> restore() {
+    _active = true;
+    return _webViewPlatformController.restore();
+  }
+
+  /// Returns how many requests of this [WebView] were blocked by the content blocklist.
+  ///
+  /// See also: [WebViewManager.setContentBlocklist].
+  ///
+  /// This is currently only supported on Android.
+  Future<ContentBlockingStats> getContentBlockingStats() {
+    return _webViewPlatformController.getContentBlockingStats();
+  }
+
+  /// Creates a [WebMessageChannel] with the currently loaded page.
+  ///
+  /// One end of the channel is transferred to the page's main frame with a
+  /// `flutter-web-message-channel:<name>` message event, provided the page's origin matches
+  /// `targetOrigin` (`*` matches any origin). The page keeps the port it receives to exchange
+  /// messages with Dart:
+  ///
+  /// ```javascript
+  /// window.addEventListener('message', function(event) {
+  ///   if (event.data === 'flutter-web-message-channel:Updates') {
+  ///     var port = event.ports[0];
+  ///     port.onmessage = function(e) { render(e.data); };
+  ///     port.postMessage('ready');
+  ///   }
+  /// });
+  /// ```
+  ///
+  /// Messages posted by the page to its port are passed to `onMessageReceived`, in order.
+  ///
+  /// The channel is closed when the page navigates away, so channels should be created once the
+  /// page has loaded (e.g in [WebView.onPageFinished]). Creating a channel with the name of an
+  /// existing channel closes the existing channel.
+  ///
+  /// This is currently only supported on Android, with WebView implementations that support web
+  /// message ports.
+  Future<WebMessageChannel> createWebMessageChannel(
+    String name, {
+    @required JavascriptMessageHandler onMessageReceived,
+    String targetOrigin = '*',
+  }) async {
+    assert(name != null);
+    assert(onMessageReceived != null);
+    assert(targetOrigin != null);
+    await _webViewPlatformController.createWebMessageChannel(
+        name, targetOrigin);
+    final Map<String, WebMessageChannel> channels =
+        _platformCallbacksHandler._webMessageChannels;
+    return channels[name] = WebMessageChannel._(
+        name, _webViewPlatformController, onMessageReceived, channels);
+  }
 }
 
 /// Manages cookies pertaining to all [WebView]s.
@@ -651,6 +2116,357 @@ class CookieManager {
   ///
   /// Returns true if cookies were present before clearing, else false.
   Future<bool> clearCookies() => WebView.platform.clearCookies();
+
+  /// Sets many cookies, for any number of URLs, in a single platform call.
+  ///
+  /// This is much faster than setting each cookie with `document.cookie` in the page, e.g to hand
+  /// the session cookies of a Dart HTTP client over to the [WebView]s before a load. The cookies
+  /// are set off the platform's UI thread, and are visible to the requests started after the
+  /// returned future completes.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> setCookies(List<WebViewCookie> cookies) {
+    assert(cookies != null && !cookies.contains(null));
+    return WebView.platform.setCookies(cookies);
+  }
+
+  /// Returns the cookies sent with requests to `url`.
+  ///
+  /// Only the [WebViewCookie.name] and [WebViewCookie.value] of the returned cookies are known.
+  ///
+  /// This is currently only supported on Android.
+  Future<List<WebViewCookie>> getCookies(String url) {
+    assert(url != null);
+    return WebView.platform.getCookies(url);
+  }
+
+  /// Removes the cookies sent with requests to `url`, or to `domain`.
+  ///
+  /// Exactly one of `url` and `domain` must not be null. The cookies are removed as host only
+  /// cookies with the path `/` and as cookies of the host's domain, cookies set with another path
+  /// or for a parent domain are kept.
+  ///
+  /// Returns the number of cookies that were sent to the URL or domain.
+  ///
+  /// This is currently only supported on Android.
+  Future<int> removeCookies({String url, String domain}) {
+    assert((url == null) != (domain == null));
+    return WebView.platform.removeCookies(url, domain);
+  }
+
+  /// Writes the cookies that are only kept in memory to persistent storage.
+  ///
+  /// Cookies are persisted periodically, this makes sure cookies that were just set survive the
+  /// app being killed.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> flush() => WebView.platform.flushCookies();
+}
+
+/// A cookie set or read with [CookieManager].
+class WebViewCookie {
+  /// Constructs a [WebViewCookie].
+  ///
+  /// `url`, `name` and `value` must not be null.
+  const WebViewCookie({
+    @required this.url,
+    @required this.name,
+    @required this.value,
+    this.domain,
+    this.path,
+    this.expires,
+    this.secure = false,
+    this.httpOnly = false,
+  })  : assert(url != null),
+        assert(name != null),
+        assert(value != null),
+        assert(secure != null),
+        assert(httpOnly != null);
+
+  /// The URL the cookie is set for, or was read for.
+  final String url;
+
+  /// The cookie's name.
+  final String name;
+
+  /// The cookie's value.
+  final String value;
+
+  /// The domain the cookie is sent to, or null for a host only cookie.
+  final String domain;
+
+  /// The path the cookie is sent to, or null for the default path of the [url].
+  final String path;
+
+  /// When the cookie expires, or null for a session cookie.
+  final DateTime expires;
+
+  /// Whether the cookie is only sent over secure connections.
+  final bool secure;
+
+  /// Whether the cookie is hidden from JavaScript.
+  final bool httpOnly;
+
+  @override
+  String toString() {
+    return '$runtimeType(url: $url, name: $name, value: $value, domain: $domain, path: $path, expires: $expires, secure: $secure, httpOnly: $httpOnly)';
+  }
+}
+
+/// Manages the platform resources shared by all [WebView]s.
+///
+/// This is currently only supported on Android.
+class WebViewManager {
+  /// Creates a [WebViewManager] -- returns the instance if it's already been called.
+  factory WebViewManager() {
+    return _instance ??= WebViewManager._();
+  }
+
+  WebViewManager._();
+
+  static WebViewManager _instance;
+
+  /// Configures the pool of WebViews that new [WebView]s are created with.
+  ///
+  /// Constructing a platform WebView is expensive, when the pool is enabled the WebViews of
+  /// disposed [WebView]s are reset and kept around to be reused, and depending on `warmUpPolicy`
+  /// WebViews are constructed ahead of time.
+  ///
+  /// The pool keeps up to `maxSize` WebViews, a `maxSize` of 0 disables the pool.
+  ///
+  /// `maxSize` and `warmUpPolicy` must not be null.
+  Future<void> configurePool({
+    @required int maxSize,
+    WebViewPoolWarmUpPolicy warmUpPolicy = WebViewPoolWarmUpPolicy.none,
+  }) {
+    assert(maxSize != null && maxSize >= 0);
+    assert(warmUpPolicy != null);
+    return WebView.platform.configureWebViewPool(maxSize, warmUpPolicy);
+  }
+
+  /// Loads the platform's WebView implementation ahead of the first [WebView].
+  ///
+  /// The first [WebView] created in a process pays for loading the platform's WebView
+  /// implementation, calling this when the app is idle (e.g after its first screen is shown) moves
+  /// that cost out of the first [WebView]'s creation.
+  ///
+  /// On Android apps can also warm up when the plugin is attached by adding a
+  /// `io.flutter.plugins.webviewflutter.WarmUpOnAttach` meta-data entry set to true to their
+  /// AndroidManifest.xml.
+  ///
+  /// Returns false if the WebView implementation was already loaded.
+  Future<bool> warmUp() => WebView.platform.warmUp();
+
+  /// Returns the usage statistics of the WebView pool.
+  ///
+  /// This can be used to tune the `maxSize` passed to [configurePool].
+  Future<WebViewPoolStats> getPoolStats() =>
+      WebView.platform.getWebViewPoolStats();
+
+  /// Returns how many platform WebViews were constructed and how long it took.
+  Future<WebViewCreationMetrics> getCreationMetrics() =>
+      WebView.platform.getWebViewCreationMetrics();
+
+  /// Configures the on-disk cache of the resources loaded by all [WebView]s.
+  ///
+  /// When the cache is enabled the GET requests whose URL matches one of the `urlPatterns` regular
+  /// expressions are served from the cache, instead of the WebView's own HTTP cache. Resources
+  /// that are not cached yet are fetched by the platform and served while they are stored, unless
+  /// their response forbids it or sets cookies. Once the cache exceeds `maxBytes` the least
+  /// recently used resources are evicted. Cached resources don't expire, so this should only be
+  /// used for static resources, e.g versioned scripts, stylesheets and images.
+  ///
+  /// The cache is shared by all the pages, so requests with credentials (cookies for their URL or
+  /// an `Authorization` header) and range requests are left to the WebView, as are redirects.
+  /// Other responses than 200 are served without being cached. Cached responses keep their status
+  /// and headers, and are only served to requests with the same values for the request headers
+  /// they `Vary` on.
+  ///
+  /// The GET requests whose URL matches one of the `revalidateUrlPatterns` regular expressions,
+  /// e.g the page's API calls, are cached too and served from the cache right away. Each time such
+  /// a resource is served it is then revalidated in the background with its `ETag` and
+  /// `Last-Modified` validators, and updated for the next request if it changed
+  /// (stale-while-revalidate). Revalidations run one at a time at a low priority, and are skipped
+  /// when too many are pending, so they don't slow down the pages' own loads. Resources without
+  /// validators are not revalidated. API calls with credentials, i.e with cookies or an
+  /// `Authorization` header, are never cached, and neither are `Cache-Control: private`
+  /// responses.
+  ///
+  /// Cached resources smaller than an eighth of `maxMemoryBytes` are also kept in memory, until
+  /// the resources kept in memory exceed `maxMemoryBytes`. A `maxMemoryBytes` of 0 serves all the
+  /// resources from disk.
+  ///
+  /// A `maxBytes` of 0 disables the cache, cached resources are kept until [clearResourceCache] is
+  /// called.
+  ///
+  /// None of the parameters may be null.
+  Future<void> configureResourceCache({
+    @required int maxBytes,
+    @required List<String> urlPatterns,
+    List<String> revalidateUrlPatterns = const <String>[],
+    int maxMemoryBytes = 0,
+  }) {
+    assert(maxBytes != null && maxBytes >= 0);
+    assert(urlPatterns != null && !urlPatterns.contains(null));
+    assert(revalidateUrlPatterns != null &&
+        !revalidateUrlPatterns.contains(null));
+    assert(maxMemoryBytes != null && maxMemoryBytes >= 0);
+    return WebView.platform.configureResourceCache(
+        maxBytes, urlPatterns, revalidateUrlPatterns, maxMemoryBytes);
+  }
+
+  /// Returns the usage statistics of the resource cache.
+  ///
+  /// See also: [configureResourceCache].
+  Future<ResourceCacheStats> getResourceCacheStats() =>
+      WebView.platform.getResourceCacheStats();
+
+  /// Deletes all the resources stored by the resource cache.
+  Future<void> clearResourceCache() => WebView.platform.clearResourceCache();
+
+  /// Serves the requests to the virtual `origin` from local files, without a server.
+  ///
+  /// Requests to `origin`, e.g `https://appassets.local`, are served from the Flutter assets under
+  /// `assetDirectory`, or from the entries of the zip archive at `archivePath`, exactly one of
+  /// which must be non null. For example with an `assetDirectory` of `assets/web`, the URL
+  /// `https://appassets.local/app/index.js` is served from the `assets/web/app/index.js` asset.
+  /// Paths ending with a `/` are served their `index.html`, and paths that don't match a file are
+  /// answered with a 404 response.
+  ///
+  /// Files are served without being copied into memory when possible, and with the MIME type of
+  /// their extension. Requests for a range of an uncompressed file are supported, so media can be
+  /// seeked. Prefer storing media uncompressed in the APK or archive for this reason.
+  ///
+  /// Registering an origin again replaces its files. `origin` should use a host the app doesn't
+  /// otherwise load, requests to it never reach the network.
+  ///
+  /// This is currently only supported on Android.
+  Future<void> registerAssetOrigin(
+    String origin, {
+    String assetDirectory,
+    String archivePath,
+  }) {
+    assert(origin != null);
+    assert((assetDirectory == null) != (archivePath == null));
+    return WebView.platform
+        .registerAssetOrigin(origin, assetDirectory, archivePath);
+  }
+
+  /// Stops serving the requests to `origin` registered with [registerAssetOrigin].
+  Future<void> unregisterAssetOrigin(String origin) {
+    assert(origin != null);
+    return WebView.platform.unregisterAssetOrigin(origin);
+  }
+
+  /// Enables or disables recording the method call metrics of all [WebView]s.
+  ///
+  /// Recording is disabled by default. When enabled the platform records the latency of each
+  /// method call in a fixed size histogram per method and per [WebView], and counts the events
+  /// sent to Dart. Disabling recording keeps the recorded metrics.
+  ///
+  /// See also: [WebViewController.getMethodCallMetrics].
+  ///
+  /// This is currently only supported on Android.
+  Future<void> setMethodCallMetricsEnabled(bool enabled) {
+    assert(enabled != null);
+    return WebView.platform.setMethodCallMetricsEnabled(enabled);
+  }
+
+  /// Enables or disables the platform trace sections of all [WebView]s.
+  ///
+  /// Tracing is disabled by default. When enabled the plugin's work on the platform threads shows
+  /// up in systrace and Perfetto captures of the app: the creation of each [WebView], its method
+  /// calls, settings updates, JavaScript channel messages and input connection changes are traced
+  /// as sections, and main frame navigations and `evaluateJavascript` calls as async sections
+  /// lasting until the page finished loading or the result is available.
+  ///
+  /// Sections are only recorded while a trace capture including the app is running, so this is
+  /// meant to be enabled in profile builds.
+  ///
+  /// This is currently only supported on Android, from Android 4.3.
+  Future<void> setTracingEnabled(bool enabled) {
+    assert(enabled != null);
+    return WebView.platform.setTracingEnabled(enabled);
+  }
+
+  /// Configures the memory pressure handling of the background [WebView]s.
+  ///
+  /// At most `maxLoadedBackgroundWebViews` background [WebView]s keep their page loaded, the ones
+  /// that went to the background first are hibernated first. A null value doesn't limit them,
+  /// background [WebView]s are then only hibernated when the system is low on memory.
+  ///
+  /// See also: [WebViewController.setActive].
+  ///
+  /// This is currently only supported on Android.
+  Future<void> configureMemoryPolicy({int maxLoadedBackgroundWebViews}) {
+    assert(maxLoadedBackgroundWebViews == null ||
+        maxLoadedBackgroundWebViews >= 0);
+    return WebView.platform
+        .configureMemoryPolicy(maxLoadedBackgroundWebViews ?? -1);
+  }
+
+  /// Returns the state of the memory pressure handling of the [WebView]s.
+  ///
+  /// See also: [configureMemoryPolicy].
+  Future<WebViewMemoryStats> getMemoryStats() =>
+      WebView.platform.getMemoryStats();
+
+  /// Sets how many saved [WebView] states are kept, see [WebView.restorationId].
+  ///
+  /// The `maxEntries` most recently used states are kept in memory, 8 by default. When
+  /// `maxDiskEntries` is more than 0 the states are also written to the app's cache directory, so
+  /// that they outlive the memory limit and the app's process, and the `maxDiskEntries` most
+  /// recently used ones are kept. The states on disk are read back in the background by the first
+  /// call with a `maxDiskEntries` of more than 0, and kept in memory from then on, so restoring a
+  /// state never waits for the disk. A [WebView] created before they are read back loads its
+  /// initial URL.
+  Future<void> configureStateStore({
+    int maxEntries = 8,
+    int maxDiskEntries = 0,
+  }) {
+    assert(maxEntries != null && maxEntries >= 0);
+    assert(maxDiskEntries != null && maxDiskEntries >= 0);
+    return WebView.platform.configureStateStore(maxEntries, maxDiskEntries);
+  }
+
+  /// Returns the usage statistics of the saved [WebView] states.
+  ///
+  /// See also: [configureStateStore].
+  Future<WebViewStateStoreStats> getStateStoreStats() =>
+      WebView.platform.getStateStoreStats();
+
+  /// Forgets the saved state of the [WebView]s created with `restorationId`, e.g when its tab is
+  /// closed.
+  Future<void> removeSavedState(String restorationId) {
+    assert(restorationId != null);
+    return WebView.platform.removeSavedState(restorationId);
+  }
+
+  /// Forgets all the saved [WebView] states, in memory and on disk.
+  Future<void> clearSavedStates() => WebView.platform.clearSavedStates();
+
+  /// Blocks the requests to the hosts in `entries`, and to their subdomains, in all [WebView]s.
+  ///
+  /// Each entry is a host name, e.g `tracker.example`. Hosts file lines
+  /// (`0.0.0.0 tracker.example`), ad block host rules (`||tracker.example^`) and wildcards
+  /// (`*.tracker.example`) are accepted too, so that existing lists can be loaded as they are.
+  /// Empty entries and comments starting with `#` or `!` are ignored.
+  ///
+  /// The hosts are compiled by the platform into a compact hashed set that is checked for every
+  /// resource a page loads, blocked resources get an empty response without reaching the network.
+  /// Pages themselves are not blocked, only the resources they load. The list replaces the
+  /// previous one, an empty list stops blocking.
+  ///
+  /// Returns the number of distinct blocked hosts.
+  ///
+  /// See also: [WebViewController.getContentBlockingStats].
+  ///
+  /// This is currently only supported on Android 5.0 (API level 21) and later. Earlier versions
+  /// don't tell pages from the resources they load, so nothing is blocked there.
+  Future<int> setContentBlocklist(List<String> entries) {
+    assert(entries != null);
+    return WebView.platform.setContentBlocklist(entries);
+  }
 }
 
 // Throws an ArgumentError if `url` is not a valid URL string.
@@ -2,6 +2,7 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:convert';
 import 'dart:math';
 import 'dart:typed_data';
 
@@ -23,6 +24,9 @@ void main() {
 
   final _FakeCookieManager _fakeCookieManager = _FakeCookieManager();
 
+  final _FakeWebViewManager _fakeWebViewManager =
+      _FakeWebViewManager(fakePlatformViewsController);
+
   setUpAll(() {
     SystemChannels.platform_views.setMockMethodCallHandler(
         fakePlatformViewsController.fakePlatformViewsMethodHandler);
@@ -33,6 +37,7 @@ void main() {
   setUp(() {
     fakePlatformViewsController.reset();
     _fakeCookieManager.reset();
+    _fakeWebViewManager.reset();
   });
 
   testWidgets('Create WebView', (WidgetTester tester) async {
@@ -166,6 +171,352 @@ void main() {
     expect(fakePlatformViewsController.lastCreatedView.hasCache, false);
   });
 
+  testWidgets('Content blocking stats', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    platformWebView.blockedRequests = 2;
+
+    final ContentBlockingStats stats =
+        await controller.getContentBlockingStats();
+
+    expect(stats.blockedRequests, 2);
+  });
+
+  testWidgets('Only changed settings are updated', (WidgetTester tester) async {
+    WebViewController controller;
+    Widget buildWebView({JavascriptMode javascriptMode, String userAgent}) {
+      return WebView(
+        initialUrl: 'https://flutter.io',
+        javascriptMode: javascriptMode ?? JavascriptMode.disabled,
+        userAgent: userAgent,
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      );
+    }
+
+    await tester.pumpWidget(buildWebView());
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    // Rebuilding with the same settings doesn't update them.
+    await tester.pumpWidget(buildWebView());
+
+    expect(platformWebView.settingsUpdates, isEmpty);
+
+    await tester.pumpWidget(
+        buildWebView(javascriptMode: JavascriptMode.unrestricted));
+    await tester.pumpWidget(buildWebView(
+        javascriptMode: JavascriptMode.unrestricted, userAgent: 'UA'));
+
+    expect(
+        platformWebView.settingsUpdates
+            .map((Map<dynamic, dynamic> update) => update.keys.toList()),
+        <List<String>>[
+          <String>['jsMode'],
+          <String>['userAgent'],
+        ]);
+    expect(platformWebView.settingsUpdates[0]['jsMode'],
+        JavascriptMode.unrestricted.index);
+    expect(platformWebView.settingsUpdates[1]['userAgent'], 'UA');
+
+    final SettingsUpdateStats stats = await controller.getSettingsUpdateStats();
+
+    // The creation settings and the 2 updates.
+    expect(stats.updates, 3);
+  });
+
+  testWidgets('Settings update stats', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    platformWebView.skippedSettingsUpdates = 1;
+    platformWebView.skippedSettings = 2;
+
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        javascriptMode: JavascriptMode.unrestricted,
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final SettingsUpdateStats stats = await controller.getSettingsUpdateStats();
+
+    // The creation settings count as an update.
+    expect(stats.updates, 2);
+    expect(stats.skippedUpdates, 1);
+    expect(stats.skippedSettings, 2);
+  });
+
+  testWidgets('Memory state', (WidgetTester tester) async {
+    WebViewController controller;
+    final List<WebViewMemoryState> states = <WebViewMemoryState>[];
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+        onMemoryStateChanged: states.add,
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformWebView.active, true);
+
+    await controller.setActive(false);
+    expect(platformWebView.active, false);
+
+    platformWebView.fakeMemoryStateChanged(WebViewMemoryState.hibernated);
+    platformWebView.fakeMemoryStateChanged(WebViewMemoryState.active);
+
+    expect(states, <WebViewMemoryState>[
+      WebViewMemoryState.hibernated,
+      WebViewMemoryState.active,
+    ]);
+  });
+
+  testWidgets('Memory stats', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    WebViewMemoryStats stats = await WebViewManager().getMemoryStats();
+    expect(stats.live, 1);
+    expect(stats.background, 0);
+
+    await controller.setActive(false);
+
+    stats = await WebViewManager().getMemoryStats();
+    expect(stats.live, 1);
+    expect(stats.background, 1);
+
+    await controller.setActive(true);
+
+    stats = await WebViewManager().getMemoryStats();
+    expect(stats.background, 0);
+
+    await tester.pumpWidget(Container());
+
+    stats = await WebViewManager().getMemoryStats();
+    expect(stats.live, 0);
+  });
+
+  testWidgets('Renderer priority policy', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    await controller.setRendererPriorityPolicy(RendererPriority.waived,
+        waivedWhenNotVisible: true);
+
+    expect(platformWebView.rendererPriority, RendererPriority.waived);
+    expect(platformWebView.rendererWaivedWhenNotVisible, true);
+  });
+
+  testWidgets('Pause and resume', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    await controller.pause();
+    expect(platformWebView.paused, true);
+
+    await controller.resume();
+    expect(platformWebView.paused, false);
+  });
+
+  testWidgets('Paused while hidden', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const TickerMode(
+        enabled: true,
+        child: WebView(initialUrl: 'https://flutter.io'),
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformWebView.paused, false);
+
+    await tester.pumpWidget(
+      const TickerMode(
+        enabled: false,
+        child: WebView(initialUrl: 'https://flutter.io'),
+      ),
+    );
+    expect(platformWebView.paused, true);
+
+    await tester.pumpWidget(
+      const TickerMode(
+        enabled: true,
+        child: WebView(initialUrl: 'https://flutter.io'),
+      ),
+    );
+    expect(platformWebView.paused, false);
+  });
+
+  testWidgets('Not paused while hidden', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const TickerMode(
+        enabled: false,
+        child: WebView(
+          initialUrl: 'https://flutter.io',
+          pauseWhenHidden: false,
+        ),
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformWebView.paused, false);
+  });
+
+  testWidgets('Hibernate and restore', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        restorationId: 'tab-1',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformWebView.restorationId, 'tab-1');
+
+    await controller.hibernate();
+    expect(platformWebView.hibernated, true);
+
+    await controller.restore();
+    expect(platformWebView.hibernated, false);
+  });
+
+  testWidgets('Method call metrics', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    // Nothing is recorded until the metrics are enabled.
+    await controller.loadUrl('https://www.google.com');
+    platformWebView.fakeOnPageFinishedCallback();
+    MethodCallMetrics metrics = await controller.getMethodCallMetrics();
+
+    expect(metrics.methods, isEmpty);
+    expect(metrics.events, isEmpty);
+
+    await WebViewManager().setMethodCallMetricsEnabled(true);
+    await controller.loadUrl('https://www.google.com');
+    await controller.loadUrl('https://flutter.dev');
+    await controller.reload();
+    platformWebView.fakeOnPageFinishedCallback();
+
+    expect(platformWebView.methodCalls,
+        <String, int>{'loadUrl': 2, 'reload': 1});
+
+    metrics = await controller.getMethodCallMetrics();
+
+    expect(metrics.methods.keys, <String>['loadUrl', 'reload']);
+    final MethodCallLatency loadUrl = metrics.methods['loadUrl'];
+    expect(loadUrl.count, 2);
+    expect(loadUrl.total, const Duration(milliseconds: 5));
+    expect(loadUrl.max, const Duration(milliseconds: 4));
+    expect(loadUrl.p50, const Duration(milliseconds: 1));
+    expect(loadUrl.p90, const Duration(milliseconds: 2));
+    expect(loadUrl.p99, const Duration(milliseconds: 3));
+    expect(metrics.methods['reload'].count, 1);
+    expect(metrics.events, <String, int>{'onPageFinished': 1});
+
+    await controller.resetMethodCallMetrics();
+    metrics = await controller.getMethodCallMetrics();
+
+    // Only the reset itself was recorded since.
+    expect(metrics.methods.keys, <String>['resetMethodCallMetrics']);
+    expect(metrics.events, isEmpty);
+  });
+
+  testWidgets('Clear data', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    await controller.clearData(
+      <WebViewDataType>{WebViewDataType.domStorage, WebViewDataType.cookies},
+      origins: <String>['https://flutter.dev'],
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformWebView.clearDataArguments, <String, dynamic>{
+      'dataTypes': 10,
+      'origins': <String>['https://flutter.dev'],
+    });
+    expect(platformWebView.hasCache, true);
+  });
+
   testWidgets("Can't go back with no history", (WidgetTester tester) async {
     WebViewController controller;
     await tester.pumpWidget(
@@ -381,6 +732,46 @@ void main() {
     );
   });
 
+  testWidgets('evaluate Javascript batch', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://flutter.io',
+        javascriptMode: JavascriptMode.unrestricted,
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    List<JavascriptBatchResult> results = await controller
+        .evaluateJavascriptBatch(<String>['first', 'throw', 'last']);
+
+    expect(platformWebView.evaluateJavascriptBatchCalls, 1);
+    expect(results.map((JavascriptBatchResult r) => r.result),
+        <String>['first', null, 'last']);
+    expect(results.map((JavascriptBatchResult r) => r.hasError),
+        <bool>[false, true, false]);
+    expect(results[1].error, 'Error: fake');
+
+    results = await controller
+        .evaluateJavascriptBatch(<String>['first'], combine: true);
+
+    expect(platformWebView.evaluateJavascriptBatchCalls, 2);
+    expect(results.single.result, '"first"');
+
+    expect(
+      () => controller.evaluateJavascriptBatch(null),
+      throwsA(anything),
+    );
+    expect(
+      () => controller.evaluateJavascriptBatch(<String>[null]),
+      throwsA(anything),
+    );
+  });
+
   testWidgets('evaluate Javascript with JavascriptMode disabled',
       (WidgetTester tester) async {
     WebViewController controller;
@@ -401,6 +792,10 @@ void main() {
       () => controller.evaluateJavascript(null),
       throwsA(anything),
     );
+    expect(
+      () => controller.evaluateJavascriptBatch(<String>['fake js string']),
+      throwsA(anything),
+    );
   });
 
   testWidgets('Cookies can be cleared once', (WidgetTester tester) async {
@@ -428,6 +823,51 @@ void main() {
     expect(hasCookiesSecond, false);
   });
 
+  test('Bulk cookies', () async {
+    final CookieManager cookieManager = CookieManager();
+    await cookieManager.setCookies(<WebViewCookie>[
+      WebViewCookie(url: 'https://flutter.dev', name: 'session', value: '1'),
+      WebViewCookie(
+        url: 'https://flutter.dev',
+        name: 'theme',
+        value: 'dark',
+        path: '/',
+        expires: DateTime.fromMillisecondsSinceEpoch(1000),
+        secure: true,
+      ),
+      WebViewCookie(
+        url: 'https://pub.dev',
+        name: 'session',
+        value: '2',
+        domain: 'pub.dev',
+      ),
+    ]);
+
+    expect(_fakeCookieManager.cookies[1], <String, dynamic>{
+      'url': 'https://flutter.dev',
+      'name': 'theme',
+      'value': 'dark',
+      'domain': null,
+      'path': '/',
+      'expiresMillis': 1000,
+      'secure': true,
+      'httpOnly': false,
+    });
+
+    final List<WebViewCookie> cookies =
+        await cookieManager.getCookies('https://flutter.dev');
+    expect(cookies.map((WebViewCookie cookie) => cookie.name),
+        <String>['session', 'theme']);
+    expect(cookies.first.url, 'https://flutter.dev');
+    expect(cookies.first.value, '1');
+
+    expect(await cookieManager.removeCookies(domain: 'pub.dev'), 1);
+    expect(await cookieManager.getCookies('https://pub.dev'), isEmpty);
+
+    await cookieManager.flush();
+    expect(_fakeCookieManager.flushes, 1);
+  });
+
   testWidgets('Initial JavaScript channels', (WidgetTester tester) async {
     await tester.pumpWidget(
       WebView(
@@ -601,18 +1041,444 @@ void main() {
     expect(ttsMessagesReceived, <String>['Hello', 'World']);
   });
 
-  group('$PageFinishedCallback', () {
-    testWidgets('onPageFinished is not null', (WidgetTester tester) async {
-      String returnedUrl;
+  testWidgets('JavaScript channel message batch size',
+      (WidgetTester tester) async {
+    await tester.pumpWidget(const WebView(
+      javascriptMessageBatchSize: 50,
+    ));
 
-      await tester.pumpWidget(WebView(
-        initialUrl: 'https://youtube.com',
-        onPageFinished: (String url) {
-          returnedUrl = url;
-        },
-      ));
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
 
-      final FakePlatformWebView platformWebView =
+    expect(platformWebView.javascriptMessageBatchSize, 50);
+  });
+
+  testWidgets('Batched JavaScript channel messages',
+      (WidgetTester tester) async {
+    final List<String> ttsMessagesReceived = <String>[];
+    final List<String> alarmMessagesReceived = <String>[];
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://youtube.com',
+        javascriptMessageBatchSize: 10,
+        // TODO(iskakaushik): Remove this when collection literals makes it to stable.
+        // ignore: prefer_collection_literals
+        javascriptChannels: <JavascriptChannel>[
+          JavascriptChannel(
+              name: 'Tts',
+              onMessageReceived: (JavascriptMessage msg) {
+                ttsMessagesReceived.add(msg.message);
+              }),
+          JavascriptChannel(
+              name: 'Alarm',
+              onMessageReceived: (JavascriptMessage msg) {
+                alarmMessagesReceived.add(msg.message);
+              }),
+        ].toSet(),
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    platformWebView.fakeJavascriptPostMessages(<List<String>>[
+      <String>['Tts', 'Hello'],
+      <String>['Alarm', 'Wake up'],
+      <String>['Tts', 'World'],
+    ]);
+
+    expect(ttsMessagesReceived, <String>['Hello', 'World']);
+    expect(alarmMessagesReceived, <String>['Wake up']);
+  });
+
+  testWidgets('JavaScript channel binary messages',
+      (WidgetTester tester) async {
+    final List<Uint8List> binaryMessagesReceived = <Uint8List>[];
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://youtube.com',
+        // TODO(iskakaushik): Remove this when collection literals makes it to stable.
+        // ignore: prefer_collection_literals
+        javascriptChannels: <JavascriptChannel>[
+          JavascriptChannel(
+              name: 'Blob',
+              onMessageReceived: (JavascriptMessage msg) {},
+              onBinaryMessageReceived: (Uint8List msg) {
+                binaryMessagesReceived.add(msg);
+              }),
+        ].toSet(),
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    platformWebView.fakeJavascriptPostBinaryMessage(
+        'Blob', Uint8List.fromList(<int>[1, 2, 3]));
+
+    expect(binaryMessagesReceived.length, 1);
+    expect(binaryMessagesReceived[0], <int>[1, 2, 3]);
+  });
+
+  testWidgets('Web message channels', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    final List<String> messagesReceived = <String>[];
+    final WebMessageChannel channel = await controller.createWebMessageChannel(
+      'Updates',
+      onMessageReceived: (JavascriptMessage msg) {
+        messagesReceived.add(msg.message);
+      },
+    );
+
+    expect(platformWebView.webMessageChannels, <String, List<String>>{
+      'Updates': <String>[],
+    });
+
+    await channel.postMessage('ping');
+    expect(platformWebView.webMessageChannels['Updates'], <String>['ping']);
+
+    platformWebView.fakeWebMessageChannelMessage('Updates', 'pong');
+    expect(messagesReceived, <String>['pong']);
+
+    await channel.close();
+    expect(platformWebView.webMessageChannels, isEmpty);
+
+    platformWebView.fakeWebMessageChannelMessage('Updates', 'late');
+    expect(messagesReceived, <String>['pong']);
+  });
+
+  testWidgets('Replaced web message channel', (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(
+      WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ),
+    );
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+
+    final List<String> oldMessages = <String>[];
+    final WebMessageChannel oldChannel =
+        await controller.createWebMessageChannel(
+      'Updates',
+      onMessageReceived: (JavascriptMessage msg) {
+        oldMessages.add(msg.message);
+      },
+    );
+    final List<String> newMessages = <String>[];
+    await controller.createWebMessageChannel(
+      'Updates',
+      onMessageReceived: (JavascriptMessage msg) {
+        newMessages.add(msg.message);
+      },
+    );
+
+    // Closing the replaced channel doesn't close the new one.
+    await oldChannel.close();
+    expect(platformWebView.webMessageChannels, <String, List<String>>{
+      'Updates': <String>[],
+    });
+
+    platformWebView.fakeWebMessageChannelMessage('Updates', 'pong');
+    expect(oldMessages, isEmpty);
+    expect(newMessages, <String>['pong']);
+  });
+
+  group('$PageLoadMetricsCallback', () {
+    testWidgets('disabled without a callback', (WidgetTester tester) async {
+      await tester.pumpWidget(const WebView(
+        initialUrl: 'https://youtube.com',
+        collectWebPerformanceTiming: true,
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      expect(platformWebView.pageLoadMetrics, PageLoadMetricsMode.none.index);
+    });
+
+    testWidgets('onPageLoadMetrics', (WidgetTester tester) async {
+      final List<PageLoadMetrics> reported = <PageLoadMetrics>[];
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onPageLoadMetrics: reported.add,
+        collectWebPerformanceTiming: true,
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+      expect(platformWebView.pageLoadMetrics,
+          PageLoadMetricsMode.eventsAndWebTiming.index);
+
+      platformWebView.fakePageLoadMetrics(<String, dynamic>{
+        'url': 'https://youtube.com',
+        'startedMillis': 10000,
+        'commitVisibleMillis': 10300,
+        'finishedMillis': 10900,
+        'progress': <Map<String, int>>[
+          <String, int>{'progress': 10, 'millis': 10100},
+          <String, int>{'progress': 100, 'millis': 10850},
+        ],
+        'httpStatusCode': 404,
+        'webTiming':
+            '{"navigation":{"responseStart":120.5},"paint":{"first-contentful-paint":280}}',
+      });
+
+      expect(reported, hasLength(1));
+      final PageLoadMetrics metrics = reported.single;
+      expect(metrics.url, 'https://youtube.com');
+      expect(metrics.startTime, const Duration(seconds: 10));
+      expect(metrics.timeToCommitVisible, const Duration(milliseconds: 300));
+      expect(metrics.timeToFinish, const Duration(milliseconds: 900));
+      expect(metrics.progress.map((PageLoadProgress sample) => sample.time),
+          <Duration>[
+            const Duration(milliseconds: 100),
+            const Duration(milliseconds: 850),
+          ]);
+      expect(metrics.progress.last.progress, 100);
+      expect(metrics.httpStatusCode, 404);
+      expect(metrics.errorCode, isNull);
+      expect(metrics.navigationTiming, <String, double>{'responseStart': 120.5});
+      expect(metrics.paintTiming,
+          <String, double>{'first-contentful-paint': 280.0});
+    });
+  });
+
+  group('$NavigationStateCallback', () {
+    testWidgets('disabled without a callback', (WidgetTester tester) async {
+      await tester.pumpWidget(const WebView(
+        initialUrl: 'https://youtube.com',
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      expect(platformWebView.navigationStateEvents, false);
+    });
+
+    testWidgets('onNavigationStateChanged', (WidgetTester tester) async {
+      final List<NavigationState> states = <NavigationState>[];
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onNavigationStateChanged: states.add,
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+      expect(platformWebView.navigationStateEvents, true);
+
+      platformWebView.fakeNavigationStateChanged(<String, dynamic>{
+        'url': 'https://youtube.com',
+        'title': 'YouTube',
+        'canGoBack': true,
+        'canGoForward': false,
+        'progress': 40,
+        'isLoading': true,
+      });
+
+      expect(states, hasLength(1));
+      final NavigationState state = states.single;
+      expect(state.url, 'https://youtube.com');
+      expect(state.title, 'YouTube');
+      expect(state.canGoBack, true);
+      expect(state.canGoForward, false);
+      expect(state.progress, 40);
+      expect(state.isLoading, true);
+    });
+  });
+
+  group('$RenderProcessGoneCallback', () {
+    testWidgets('recreates the webview with the last page',
+        (WidgetTester tester) async {
+      WebViewController controller;
+      final List<RenderProcessGoneDetails> details =
+          <RenderProcessGoneDetails>[];
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+        onRenderProcessGone: details.add,
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+      platformWebView.fakeRenderProcessGone(
+          'https://flutter.dev', RendererPriority.waived);
+      await tester.pump();
+      await tester.pump();
+
+      expect(details, hasLength(1));
+      expect(details.single.url, 'https://flutter.dev');
+      expect(details.single.didCrash, false);
+      expect(details.single.rendererPriorityAtExit, RendererPriority.waived);
+
+      final FakePlatformWebView recreatedWebView =
+          fakePlatformViewsController.lastCreatedView;
+      expect(recreatedWebView, isNot(same(platformWebView)));
+      expect(await controller.currentUrl(), 'https://flutter.dev');
+    });
+
+    testWidgets('recreates the webview without a page',
+        (WidgetTester tester) async {
+      WebViewController controller;
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+        reloadOnRenderProcessGone: false,
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+      platformWebView.fakeRenderProcessGone(
+          'https://flutter.dev', RendererPriority.important);
+      await tester.pump();
+      await tester.pump();
+
+      expect(fakePlatformViewsController.lastCreatedView,
+          isNot(same(platformWebView)));
+      expect(await controller.currentUrl(), isNull);
+    });
+
+    testWidgets('stops reloading a page that keeps crashing',
+        (WidgetTester tester) async {
+      WebViewController controller;
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ));
+
+      for (int i = 0; i < 3; i++) {
+        fakePlatformViewsController.lastCreatedView.fakeRenderProcessGone(
+            'https://flutter.dev', RendererPriority.important);
+        await tester.pump();
+        await tester.pump();
+        expect(await controller.currentUrl(), 'https://flutter.dev');
+      }
+
+      fakePlatformViewsController.lastCreatedView.fakeRenderProcessGone(
+          'https://flutter.dev', RendererPriority.important);
+      await tester.pump();
+      await tester.pump();
+
+      expect(await controller.currentUrl(), isNull);
+    });
+
+    testWidgets('applies the controller state to the recreated webview',
+        (WidgetTester tester) async {
+      WebViewController controller;
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ));
+
+      await controller.setRendererPriorityPolicy(RendererPriority.waived,
+          waivedWhenNotVisible: true);
+      await controller.setActive(false);
+      await controller.pause();
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+      platformWebView.fakeRenderProcessGone(
+          'https://flutter.dev', RendererPriority.waived);
+      await tester.pump();
+      await tester.pump();
+
+      final FakePlatformWebView recreatedWebView =
+          fakePlatformViewsController.lastCreatedView;
+      expect(recreatedWebView, isNot(same(platformWebView)));
+      expect(recreatedWebView.rendererPriority, RendererPriority.waived);
+      expect(recreatedWebView.rendererWaivedWhenNotVisible, true);
+      expect(recreatedWebView.active, false);
+      expect(recreatedWebView.paused, true);
+    });
+
+    testWidgets('closes the web message channels',
+        (WidgetTester tester) async {
+      WebViewController controller;
+      final List<JavascriptMessage> messages = <JavascriptMessage>[];
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onWebViewCreated: (WebViewController webViewController) {
+          controller = webViewController;
+        },
+      ));
+
+      await controller.createWebMessageChannel('Updates',
+          onMessageReceived: messages.add);
+
+      fakePlatformViewsController.lastCreatedView.fakeRenderProcessGone(
+          'https://flutter.dev', RendererPriority.important);
+      await tester.pump();
+      await tester.pump();
+
+      fakePlatformViewsController.lastCreatedView
+          .fakeWebMessageChannelMessage('Updates', 'late');
+      expect(messages, isEmpty);
+    });
+  });
+
+  testWidgets('Hibernation end recreates the webview',
+      (WidgetTester tester) async {
+    WebViewController controller;
+    await tester.pumpWidget(WebView(
+      initialUrl: 'https://youtube.com',
+      restorationId: 'tab-1',
+      onWebViewCreated: (WebViewController webViewController) {
+        controller = webViewController;
+      },
+    ));
+
+    final FakePlatformWebView platformWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformWebView.restoredStateKey, isNull);
+
+    platformWebView.fakeHibernationEnded('https://flutter.dev', 'hibernated-0');
+    await tester.pump();
+    await tester.pump();
+
+    final FakePlatformWebView recreatedWebView =
+        fakePlatformViewsController.lastCreatedView;
+    expect(recreatedWebView, isNot(same(platformWebView)));
+    expect(recreatedWebView.restoredStateKey, 'hibernated-0');
+    expect(recreatedWebView.restorationId, 'tab-1');
+    expect(await controller.currentUrl(), 'https://flutter.dev');
+  });
+
+  group('$PageFinishedCallback', () {
+    testWidgets('onPageFinished is not null', (WidgetTester tester) async {
+      String returnedUrl;
+
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        onPageFinished: (String url) {
+          returnedUrl = url;
+        },
+      ));
+
+      final FakePlatformWebView platformWebView =
           fakePlatformViewsController.lastCreatedView;
 
       platformWebView.fakeOnPageFinishedCallback();
@@ -652,60 +1518,252 @@ void main() {
       final FakePlatformWebView platformWebView =
           fakePlatformViewsController.lastCreatedView;
 
-      platformWebView.fakeOnPageFinishedCallback();
+      platformWebView.fakeOnPageFinishedCallback();
+
+      expect(platformWebView.currentUrl, returnedUrl);
+    });
+  });
+
+  group('navigationDelegate', () {
+    testWidgets('hasNavigationDelegate', (WidgetTester tester) async {
+      await tester.pumpWidget(const WebView(
+        initialUrl: 'https://youtube.com',
+      ));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      expect(platformWebView.hasNavigationDelegate, false);
+
+      await tester.pumpWidget(WebView(
+        initialUrl: 'https://youtube.com',
+        navigationDelegate: (NavigationRequest r) => null,
+      ));
+
+      expect(platformWebView.hasNavigationDelegate, true);
+    });
+
+    testWidgets('Block navigation', (WidgetTester tester) async {
+      final List<NavigationRequest> navigationRequests = <NavigationRequest>[];
+
+      await tester.pumpWidget(WebView(
+          initialUrl: 'https://youtube.com',
+          navigationDelegate: (NavigationRequest request) {
+            navigationRequests.add(request);
+            // Only allow navigating to https://flutter.dev
+            return request.url == 'https://flutter.dev'
+                ? NavigationDecision.navigate
+                : NavigationDecision.prevent;
+          }));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      expect(platformWebView.hasNavigationDelegate, true);
+
+      platformWebView.fakeNavigate('https://www.google.com');
+      // The navigation delegate only allows navigation to https://flutter.dev
+      // so we should still be in https://youtube.com.
+      expect(platformWebView.currentUrl, 'https://youtube.com');
+      expect(navigationRequests.length, 1);
+      expect(navigationRequests[0].url, 'https://www.google.com');
+      expect(navigationRequests[0].isForMainFrame, true);
+
+      platformWebView.fakeNavigate('https://flutter.dev');
+      await tester.pump();
+      expect(platformWebView.currentUrl, 'https://flutter.dev');
+    });
+
+    testWidgets('Cache navigation decisions', (WidgetTester tester) async {
+      WebViewController controller;
+      await tester.pumpWidget(WebView(
+          initialUrl: 'https://youtube.com',
+          onWebViewCreated: (WebViewController webViewController) {
+            controller = webViewController;
+          },
+          navigationDelegate: (NavigationRequest request) {
+            if (request.url.startsWith('https://flutter.dev/docs/')) {
+              request.cacheDecision(const Duration(minutes: 1),
+                  scope: NavigationDecisionCacheScope.pathPrefix,
+                  pathPrefix: '/docs/');
+              return NavigationDecision.navigate;
+            }
+            return NavigationDecision.prevent;
+          }));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      platformWebView.fakeNavigate('https://www.google.com');
+      await tester.pump();
+      expect(platformWebView.currentUrl, 'https://youtube.com');
+      expect(platformWebView.navigationCacheDirective, isNull);
+
+      platformWebView.fakeNavigate('https://flutter.dev/docs/get-started');
+      await tester.pump();
+      expect(
+          platformWebView.currentUrl, 'https://flutter.dev/docs/get-started');
+      expect(platformWebView.navigationCacheDirective, <String, dynamic>{
+        'allow': true,
+        'cacheScope': NavigationDecisionCacheScope.pathPrefix.index,
+        'cachePathPrefix': '/docs/',
+        'cacheTtlMillis': 60000,
+      });
+
+      final NavigationDecisionCacheStats stats =
+          await controller.getNavigationDecisionCacheStats();
+      expect(stats.hits, 3);
+      expect(stats.misses, 1);
+      expect(stats.size, 1);
+
+      await controller.clearNavigationDecisionCache();
+      expect(platformWebView.clearNavigationDecisionCacheCalls, 1);
+    });
+
+    testWidgets('Invalid navigation decision cache directive',
+        (WidgetTester tester) async {
+      await tester.pumpWidget(WebView(
+          initialUrl: 'https://youtube.com',
+          navigationDelegate: (NavigationRequest request) {
+            request.cacheDecision(Duration.zero);
+            return NavigationDecision.navigate;
+          }));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      platformWebView.fakeNavigate('https://flutter.dev');
+      await tester.pump();
+      expect(platformWebView.currentUrl, 'https://flutter.dev');
+      expect(platformWebView.navigationCacheDirective, isNull);
+    });
+
+    testWidgets('Coalesced subframe navigation requests',
+        (WidgetTester tester) async {
+      final List<NavigationRequest> navigationRequests = <NavigationRequest>[];
+
+      await tester.pumpWidget(WebView(
+          initialUrl: 'https://youtube.com',
+          subframeNavigationRequests: SubframeNavigationRequests.coalesced,
+          navigationDelegate: (NavigationRequest request) {
+            navigationRequests.add(request);
+            return NavigationDecision.navigate;
+          }));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      expect(platformWebView.subframeNavigationRequests,
+          SubframeNavigationRequests.coalesced.index);
+
+      platformWebView.fakeSubframeNavigationRequests(
+          <String>['https://ads.example/1', 'https://ads.example/2'], 3);
+      await tester.pump();
+
+      // The delegate is called for each distinct URL.
+      expect(navigationRequests.map((NavigationRequest r) => r.url),
+          <String>['https://ads.example/1', 'https://ads.example/2']);
+      expect(
+          navigationRequests.every((NavigationRequest r) => !r.isForMainFrame),
+          true);
+      expect(platformWebView.currentUrl, 'https://youtube.com');
+    });
+
+    testWidgets('onSubframeNavigationRequests', (WidgetTester tester) async {
+      final List<NavigationRequest> navigationRequests = <NavigationRequest>[];
+      final List<List<String>> reportedUrls = <List<String>>[];
+      final List<int> reportedCounts = <int>[];
+
+      await tester.pumpWidget(WebView(
+          initialUrl: 'https://youtube.com',
+          subframeNavigationRequests: SubframeNavigationRequests.coalesced,
+          onSubframeNavigationRequests: (List<String> urls, int count) {
+            reportedUrls.add(urls);
+            reportedCounts.add(count);
+          },
+          navigationDelegate: (NavigationRequest request) {
+            navigationRequests.add(request);
+            return NavigationDecision.navigate;
+          }));
+
+      final FakePlatformWebView platformWebView =
+          fakePlatformViewsController.lastCreatedView;
+
+      platformWebView.fakeSubframeNavigationRequests(
+          <String>['https://ads.example/1', 'https://ads.example/2'], 3);
+      await tester.pump();
 
-      expect(platformWebView.currentUrl, returnedUrl);
+      expect(reportedUrls, <List<String>>[
+        <String>['https://ads.example/1', 'https://ads.example/2'],
+      ]);
+      expect(reportedCounts, <int>[3]);
+      expect(navigationRequests, isEmpty);
     });
-  });
 
-  group('navigationDelegate', () {
-    testWidgets('hasNavigationDelegate', (WidgetTester tester) async {
+    testWidgets('navigationRules', (WidgetTester tester) async {
+      const List<NavigationRule> rules = <NavigationRule>[
+        NavigationRule(
+          action: NavigationRuleAction.navigate,
+          scheme: 'https',
+          hostSuffix: 'flutter.dev',
+        ),
+        NavigationRule(
+          action: NavigationRuleAction.prevent,
+          pattern: r'\.pdf$',
+        ),
+      ];
       await tester.pumpWidget(const WebView(
         initialUrl: 'https://youtube.com',
+        navigationRules: rules,
       ));
 
       final FakePlatformWebView platformWebView =
           fakePlatformViewsController.lastCreatedView;
 
-      expect(platformWebView.hasNavigationDelegate, false);
+      expect(platformWebView.navigationRules, <Map<String, dynamic>>[
+        <String, dynamic>{
+          'action': 0,
+          'scheme': 'https',
+          'hostSuffix': 'flutter.dev',
+          'pathPrefix': null,
+          'pattern': null,
+        },
+        <String, dynamic>{
+          'action': 1,
+          'scheme': null,
+          'hostSuffix': null,
+          'pathPrefix': null,
+          'pattern': r'\.pdf$',
+        },
+      ]);
 
       await tester.pumpWidget(WebView(
         initialUrl: 'https://youtube.com',
-        navigationDelegate: (NavigationRequest r) => null,
+        navigationRules: List<NavigationRule>.from(rules),
       ));
 
-      expect(platformWebView.hasNavigationDelegate, true);
-    });
-
-    testWidgets('Block navigation', (WidgetTester tester) async {
-      final List<NavigationRequest> navigationRequests = <NavigationRequest>[];
-
-      await tester.pumpWidget(WebView(
-          initialUrl: 'https://youtube.com',
-          navigationDelegate: (NavigationRequest request) {
-            navigationRequests.add(request);
-            // Only allow navigating to https://flutter.dev
-            return request.url == 'https://flutter.dev'
-                ? NavigationDecision.navigate
-                : NavigationDecision.prevent;
-          }));
+      expect(platformWebView.setNavigationRulesCalls, 0);
 
-      final FakePlatformWebView platformWebView =
-          fakePlatformViewsController.lastCreatedView;
+      await tester.pumpWidget(const WebView(
+        initialUrl: 'https://youtube.com',
+        navigationRules: <NavigationRule>[
+          NavigationRule(
+            action: NavigationRuleAction.delegate,
+            pathPrefix: '/docs/',
+          ),
+        ],
+      ));
 
-      expect(platformWebView.hasNavigationDelegate, true);
+      expect(platformWebView.setNavigationRulesCalls, 1);
+      expect(platformWebView.navigationRules.single['action'], 2);
+      expect(platformWebView.navigationRules.single['pathPrefix'], '/docs/');
 
-      platformWebView.fakeNavigate('https://www.google.com');
-      // The navigation delegate only allows navigation to https://flutter.dev
-      // so we should still be in https://youtube.com.
-      expect(platformWebView.currentUrl, 'https://youtube.com');
-      expect(navigationRequests.length, 1);
-      expect(navigationRequests[0].url, 'https://www.google.com');
-      expect(navigationRequests[0].isForMainFrame, true);
+      await tester.pumpWidget(const WebView(
+        initialUrl: 'https://youtube.com',
+      ));
 
-      platformWebView.fakeNavigate('https://flutter.dev');
-      await tester.pump();
-      expect(platformWebView.currentUrl, 'https://flutter.dev');
+      expect(platformWebView.setNavigationRulesCalls, 2);
+      expect(platformWebView.navigationRules, isEmpty);
     });
   });
 
@@ -753,6 +1811,248 @@ void main() {
     });
   });
 
+  group('$WebViewManager', () {
+    test('configurePool', () async {
+      await WebViewManager().configurePool(
+        maxSize: 3,
+        warmUpPolicy: WebViewPoolWarmUpPolicy.idle,
+      );
+
+      expect(_fakeWebViewManager.poolMaxSize, 3);
+      expect(
+          _fakeWebViewManager.poolWarmUpPolicy, WebViewPoolWarmUpPolicy.idle);
+    });
+
+    test('configurePool defaults to no warm up', () async {
+      await WebViewManager().configurePool(maxSize: 2);
+
+      expect(_fakeWebViewManager.poolMaxSize, 2);
+      expect(
+          _fakeWebViewManager.poolWarmUpPolicy, WebViewPoolWarmUpPolicy.none);
+    });
+
+    test('warmUp', () async {
+      expect(await WebViewManager().warmUp(), true);
+      expect(await WebViewManager().warmUp(), false);
+    });
+
+    test('getPoolStats', () async {
+      _fakeWebViewManager.poolStats = <String, dynamic>{
+        'hits': 1,
+        'misses': 2,
+        'created': 3,
+        'returned': 4,
+        'idle': 5,
+        'maxSize': 6,
+      };
+
+      final WebViewPoolStats stats = await WebViewManager().getPoolStats();
+
+      expect(_fakeWebViewManager.lastMethodCall.method, 'getPoolStats');
+      expect(_fakeWebViewManager.lastMethodCall.arguments, isNull);
+      expect(stats.hits, 1);
+      expect(stats.misses, 2);
+      expect(stats.created, 3);
+      expect(stats.returned, 4);
+      expect(stats.idle, 5);
+      expect(stats.maxSize, 6);
+    });
+
+    test('getPoolStats with missing fields', () async {
+      _fakeWebViewManager.poolStats = <String, dynamic>{
+        'hits': 1,
+        'idle': null,
+      };
+
+      final WebViewPoolStats stats = await WebViewManager().getPoolStats();
+
+      expect(stats.hits, 1);
+      expect(stats.misses, isNull);
+      expect(stats.idle, isNull);
+      expect(stats.maxSize, isNull);
+    });
+
+    test('getCreationMetrics', () async {
+      _fakeWebViewManager.creationMetrics = <String, dynamic>{
+        'created': 3,
+        'creationMicros': 450000,
+        'displayListenerProxyCount': 1,
+        'displayListenerProxySkipped': 2,
+        'displayListenerProxyMicros': 3000,
+        'displayListenerProxySavedMicros': 6000,
+      };
+
+      final WebViewCreationMetrics metrics =
+          await WebViewManager().getCreationMetrics();
+
+      expect(_fakeWebViewManager.lastMethodCall.method, 'getCreationMetrics');
+      expect(_fakeWebViewManager.lastMethodCall.arguments, isNull);
+      expect(metrics.created, 3);
+      expect(metrics.creationTime, const Duration(milliseconds: 450));
+      expect(metrics.displayListenerProxyCount, 1);
+      expect(metrics.displayListenerProxySkipped, 2);
+      expect(
+          metrics.displayListenerProxyTime, const Duration(milliseconds: 3));
+      expect(metrics.displayListenerProxySavedTime,
+          const Duration(milliseconds: 6));
+    });
+
+    test('getCreationMetrics with missing fields', () async {
+      _fakeWebViewManager.creationMetrics = <String, dynamic>{
+        'created': 0,
+        'creationMicros': null,
+      };
+
+      final WebViewCreationMetrics metrics =
+          await WebViewManager().getCreationMetrics();
+
+      expect(metrics.created, 0);
+      expect(metrics.creationTime, isNull);
+      expect(metrics.displayListenerProxyCount, isNull);
+      expect(metrics.displayListenerProxyTime, isNull);
+      expect(metrics.displayListenerProxySavedTime, isNull);
+    });
+
+    test('configureResourceCache', () async {
+      await WebViewManager().configureResourceCache(
+        maxBytes: 1024,
+        urlPatterns: <String>[r'\.js$', r'^https://cdn\.example/'],
+      );
+
+      expect(_fakeWebViewManager.resourceCacheMaxBytes, 1024);
+      expect(_fakeWebViewManager.resourceCacheUrlPatterns,
+          <String>[r'\.js$', r'^https://cdn\.example/']);
+      expect(_fakeWebViewManager.resourceCacheRevalidateUrlPatterns,
+          isEmpty);
+      expect(_fakeWebViewManager.resourceCacheMaxMemoryBytes, 0);
+    });
+
+    test('configureResourceCache with revalidated URLs', () async {
+      await WebViewManager().configureResourceCache(
+        maxBytes: 4096,
+        urlPatterns: <String>[],
+        revalidateUrlPatterns: <String>[r'^https://api\.example/'],
+        maxMemoryBytes: 512,
+      );
+
+      expect(_fakeWebViewManager.resourceCacheRevalidateUrlPatterns,
+          <String>[r'^https://api\.example/']);
+      expect(_fakeWebViewManager.resourceCacheMaxMemoryBytes, 512);
+    });
+
+    test('getResourceCacheStats', () async {
+      await WebViewManager()
+          .configureResourceCache(maxBytes: 2048, urlPatterns: <String>[]);
+      final ResourceCacheStats stats =
+          await WebViewManager().getResourceCacheStats();
+
+      expect(stats.hits, 4);
+      expect(stats.misses, 1);
+      expect(stats.bytesSaved, 400);
+      expect(stats.sizeBytes, 100);
+      expect(stats.entries, 1);
+      expect(stats.maxBytes, 2048);
+      expect(stats.memoryHits, 3);
+      expect(stats.memorySizeBytes, 50);
+      expect(stats.revalidations, 2);
+      expect(stats.revalidationUpdates, 1);
+    });
+
+    test('clearResourceCache', () async {
+      await WebViewManager().clearResourceCache();
+
+      expect(_fakeWebViewManager.resourceCacheClears, 1);
+    });
+
+    test('registerAssetOrigin', () async {
+      await WebViewManager().registerAssetOrigin('https://appassets.local',
+          assetDirectory: 'assets/web');
+      await WebViewManager().registerAssetOrigin('https://bundle.local',
+          archivePath: '/data/bundle.zip');
+
+      expect(_fakeWebViewManager.assetOrigins, <String, Map<dynamic, dynamic>>{
+        'https://appassets.local': <String, dynamic>{
+          'origin': 'https://appassets.local',
+          'assetDirectory': 'assets/web',
+          'archivePath': null,
+        },
+        'https://bundle.local': <String, dynamic>{
+          'origin': 'https://bundle.local',
+          'assetDirectory': null,
+          'archivePath': '/data/bundle.zip',
+        },
+      });
+
+      await WebViewManager().unregisterAssetOrigin('https://bundle.local');
+
+      expect(_fakeWebViewManager.assetOrigins.keys,
+          <String>['https://appassets.local']);
+    });
+
+    test('setMethodCallMetricsEnabled', () async {
+      await WebViewManager().setMethodCallMetricsEnabled(true);
+
+      expect(_fakeWebViewManager.methodCallMetricsEnabled, true);
+    });
+
+    test('setTracingEnabled', () async {
+      await WebViewManager().setTracingEnabled(true);
+
+      expect(_fakeWebViewManager.tracingEnabled, true);
+    });
+
+    test('configureMemoryPolicy', () async {
+      await WebViewManager()
+          .configureMemoryPolicy(maxLoadedBackgroundWebViews: 1);
+      expect(_fakeWebViewManager.maxLoadedBackgroundWebViews, 1);
+
+      await WebViewManager().configureMemoryPolicy();
+      expect(_fakeWebViewManager.maxLoadedBackgroundWebViews, -1);
+    });
+
+    test('configureStateStore', () async {
+      await WebViewManager().configureStateStore(maxDiskEntries: 20);
+
+      expect(_fakeWebViewManager.stateStoreMaxEntries, 8);
+      expect(_fakeWebViewManager.stateStoreMaxDiskEntries, 20);
+    });
+
+    test('getStateStoreStats', () async {
+      final WebViewStateStoreStats stats =
+          await WebViewManager().getStateStoreStats();
+
+      expect(stats.entries, 2);
+      expect(stats.saves, 5);
+      expect(stats.restores, 3);
+      expect(stats.diskRestores, 1);
+      expect(stats.misses, 1);
+    });
+
+    test('removeSavedState and clearSavedStates', () async {
+      await WebViewManager().removeSavedState('tab-1');
+      await WebViewManager().clearSavedStates();
+
+      expect(_fakeWebViewManager.removedSavedStates, <String>['tab-1']);
+      expect(_fakeWebViewManager.savedStatesClears, 1);
+    });
+
+    test('setContentBlocklist', () async {
+      _fakeWebViewManager.contentBlocklistHosts = 2;
+      final int hosts = await WebViewManager().setContentBlocklist(<String>[
+        'tracker.example',
+        '0.0.0.0 ads.example',
+        '# comment',
+      ]);
+
+      expect(hosts, 2);
+      expect(_fakeWebViewManager.contentBlocklist, <String>[
+        'tracker.example',
+        '0.0.0.0 ads.example',
+        '# comment',
+      ]);
+    });
+  });
+
   group('Custom platform implementation', () {
     setUpAll(() {
       WebView.platform = MyWebViewPlatform();
@@ -810,6 +2110,30 @@ void main() {
       expect(platform.lastUrlLoaded, 'https://google.com');
       expect(platform.lastRequestHeaders, headers);
     });
+
+    testWidgets('hiding a webview that cannot be paused',
+        (WidgetTester tester) async {
+      await tester.pumpWidget(
+        const TickerMode(
+          enabled: true,
+          child: WebView(initialUrl: 'https://youtube.com'),
+        ),
+      );
+      await tester.pumpWidget(
+        const TickerMode(
+          enabled: false,
+          child: WebView(initialUrl: 'https://youtube.com'),
+        ),
+      );
+      await tester.pumpWidget(
+        const TickerMode(
+          enabled: true,
+          child: WebView(initialUrl: 'https://youtube.com'),
+        ),
+      );
+
+      expect(tester.takeException(), isNull);
+    });
   });
   testWidgets('Set UserAgent', (WidgetTester tester) async {
     await tester.pumpWidget(const WebView(
@@ -845,38 +2169,91 @@ class FakePlatformWebView {
       javascriptChannelNames =
           List<String>.from(params['javascriptChannelNames']);
     }
+    javascriptMessageBatchSize = params['javascriptMessageBatchSize'];
+    subframeNavigationRequests = params['subframeNavigationRequests'];
+    pageLoadMetrics = params['pageLoadMetrics'];
+    navigationStateEvents = params['navigationStateEvents'];
+    restorationId = params['restorationId'];
+    restoredStateKey = params['restoredStateKey'];
+    if (params['navigationRules'] != null) {
+      navigationRules =
+          List<Map<dynamic, dynamic>>.from(params['navigationRules']);
+    }
     javascriptMode = JavascriptMode.values[params['settings']['jsMode']];
     hasNavigationDelegate =
         params['settings']['hasNavigationDelegate'] ?? false;
     debuggingEnabled = params['settings']['debuggingEnabled'];
     userAgent = params['settings']['userAgent'];
+    binaryChannelName = 'plugins.flutter.io/webview_binary_$id';
     channel = MethodChannel(
         'plugins.flutter.io/webview_$id', const StandardMethodCodec());
     channel.setMockMethodCallHandler(onMethodCall);
   }
 
   MethodChannel channel;
+  String binaryChannelName;
 
   List<String> history = <String>[];
   int currentPosition = -1;
   int amountOfReloadsOnCurrentUrl = 0;
+  int evaluateJavascriptBatchCalls = 0;
+  int setNavigationRulesCalls = 0;
+  int clearNavigationDecisionCacheCalls = 0;
+  Map<dynamic, dynamic> clearDataArguments;
+  // Recorded while methodCallMetricsEnabled, like on the platform.
+  static bool methodCallMetricsEnabled = false;
+  Map<String, int> methodCalls = <String, int>{};
+  // Reported as is by getContentBlockingStats.
+  int blockedRequests = 0;
+  Map<String, int> events = <String, int>{};
+  Map<dynamic, dynamic> navigationCacheDirective;
   bool hasCache = true;
+  // The arguments of the updateSettings calls.
+  List<Map<dynamic, dynamic>> settingsUpdates = <Map<dynamic, dynamic>>[];
+  // Reported as is by getSettingsUpdateStats.
+  int skippedSettingsUpdates = 0;
+  int skippedSettings = 0;
 
   String get currentUrl => history.isEmpty ? null : history[currentPosition];
   JavascriptMode javascriptMode;
   List<String> javascriptChannelNames;
+  int javascriptMessageBatchSize;
+  List<Map<dynamic, dynamic>> navigationRules;
+  int subframeNavigationRequests;
+  int pageLoadMetrics;
+  bool navigationStateEvents;
+  bool active = true;
+  String restorationId;
+  String restoredStateKey;
+  bool hibernated = false;
+  bool paused = false;
+  RendererPriority rendererPriority;
+  bool rendererWaivedWhenNotVisible;
+  // Maps a web message channel name to the messages posted to it.
+  Map<String, List<String>> webMessageChannels = <String, List<String>>{};
 
   bool hasNavigationDelegate;
   bool debuggingEnabled;
   String userAgent;
 
+  // Records the calls after handling them, like the platform does.
   Future<dynamic> onMethodCall(MethodCall call) {
+    final Future<dynamic> result = _handleMethodCall(call);
+    if (methodCallMetricsEnabled) {
+      methodCalls.update(call.method, (int count) => count + 1,
+          ifAbsent: () => 1);
+    }
+    return result;
+  }
+
+  Future<dynamic> _handleMethodCall(MethodCall call) {
     switch (call.method) {
       case 'loadUrl':
         final Map<dynamic, dynamic> request = call.arguments;
         _loadUrl(request['url']);
         return Future<void>.sync(() {});
       case 'updateSettings':
+        settingsUpdates.add(Map<dynamic, dynamic>.from(call.arguments));
         if (call.arguments['jsMode'] != null) {
           javascriptMode = JavascriptMode.values[call.arguments['jsMode']];
         }
@@ -911,6 +2288,26 @@ class FakePlatformWebView {
       case 'evaluateJavascript':
         return Future<dynamic>.value(call.arguments);
         break;
+      case 'evaluateJavascriptBatch':
+        evaluateJavascriptBatchCalls++;
+        final bool combine = call.arguments['combine'];
+        return Future<List<dynamic>>.value(call.arguments['scripts']
+            .map((dynamic script) => script == 'throw'
+                ? <String, String>{'error': 'Error: fake'}
+                : <String, String>{
+                    'result': combine ? '"$script"' : script,
+                  })
+            .toList());
+      case 'setNavigationRules':
+        setNavigationRulesCalls++;
+        navigationRules = List<Map<dynamic, dynamic>>.from(call.arguments);
+        return Future<void>.sync(() {});
+      case 'getNavigationDecisionCacheStats':
+        return Future<Map<String, int>>.value(
+            <String, int>{'hits': 3, 'misses': 1, 'size': 1});
+      case 'clearNavigationDecisionCache':
+        clearNavigationDecisionCacheCalls++;
+        return Future<void>.sync(() {});
       case 'addJavascriptChannels':
         final List<String> channelNames = List<String>.from(call.arguments);
         javascriptChannelNames.addAll(channelNames);
@@ -923,6 +2320,68 @@ class FakePlatformWebView {
       case 'clearCache':
         hasCache = false;
         return Future<void>.sync(() {});
+      case 'getMethodCallMetrics':
+        // Canned latencies, distinct so that the decoded fields can be told apart.
+        final Map<String, dynamic> methods = methodCalls.map(
+            (String method, int count) => MapEntry<String, dynamic>(
+                method, <String, int>{
+                  'count': count,
+                  'totalMicros': 5000,
+                  'maxMicros': 4000,
+                  'p50Micros': 1000,
+                  'p90Micros': 2000,
+                  'p99Micros': 3000,
+                }));
+        return Future<Map<String, dynamic>>.value(<String, dynamic>{
+          'methods': methods,
+          'events': Map<String, int>.from(events),
+        });
+      case 'resetMethodCallMetrics':
+        methodCalls.clear();
+        events.clear();
+        return Future<void>.sync(() {});
+      case 'clearData':
+        clearDataArguments = call.arguments;
+        return Future<void>.sync(() {});
+      case 'setActive':
+        active = call.arguments;
+        return Future<void>.sync(() {});
+      case 'setRendererPriorityPolicy':
+        rendererPriority = RendererPriority.values[call.arguments['priority']];
+        rendererWaivedWhenNotVisible = call.arguments['waivedWhenNotVisible'];
+        return Future<void>.sync(() {});
+      case 'pause':
+        paused = true;
+        return Future<void>.sync(() {});
+      case 'resume':
+        paused = false;
+        return Future<void>.sync(() {});
+      case 'hibernate':
+        hibernated = true;
+        return Future<void>.sync(() {});
+      case 'restore':
+        hibernated = false;
+        return Future<void>.sync(() {});
+      case 'getSettingsUpdateStats':
+        return Future<Map<String, int>>.value(<String, int>{
+          // The creation settings are the first update.
+          'updates': settingsUpdates.length + 1,
+          'skippedUpdates': skippedSettingsUpdates,
+          'skippedSettings': skippedSettings,
+        });
+      case 'getContentBlockingStats':
+        return Future<Map<String, int>>.value(
+            <String, int>{'blockedRequests': blockedRequests});
+      case 'createWebMessageChannel':
+        webMessageChannels[call.arguments['name']] = <String>[];
+        return Future<void>.sync(() {});
+      case 'postWebMessageChannelMessage':
+        webMessageChannels[call.arguments['name']]
+            .add(call.arguments['message']);
+        return Future<void>.sync(() {});
+      case 'closeWebMessageChannel':
+        webMessageChannels.remove(call.arguments);
+        return Future<void>.sync(() {});
     }
     return Future<void>.sync(() {});
   }
@@ -942,6 +2401,50 @@ class FakePlatformWebView {
         channel.name, data, (ByteData data) {});
   }
 
+  void fakeJavascriptPostMessages(List<List<String>> channelMessages) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final List<Map<String, dynamic>> arguments = channelMessages
+        .map((List<String> channelMessage) => <String, dynamic>{
+              'channel': channelMessage[0],
+              'message': channelMessage[1],
+            })
+        .toList();
+    final ByteData data = codec
+        .encodeMethodCall(MethodCall('javascriptChannelMessages', arguments));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(
+        channel.name, data, (ByteData data) {});
+  }
+
+  void fakeJavascriptPostBinaryMessage(String jsChannel, Uint8List message) {
+    final List<int> encodedChannel = utf8.encode(jsChannel);
+    final ByteData data = ByteData(2 + encodedChannel.length + message.length);
+    data.setUint16(0, encodedChannel.length);
+    final Uint8List bytes = data.buffer.asUint8List();
+    bytes.setAll(2, encodedChannel);
+    bytes.setAll(2 + encodedChannel.length, message);
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(
+        binaryChannelName, data, (ByteData data) {});
+  }
+
+  void fakeWebMessageChannelMessage(String name, String message) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data = codec.encodeMethodCall(MethodCall(
+      'webMessageChannelMessage',
+      <String, dynamic>{'name': name, 'message': message},
+    ));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(
+        channel.name, data, (ByteData data) {});
+  }
+
   // Fakes a main frame navigation that was initiated by the webview, e.g when
   // the user clicks a link in the currently loaded page.
   void fakeNavigate(String url) {
@@ -961,14 +2464,93 @@ class FakePlatformWebView {
     // https://github.com/flutter/flutter/issues/33446
     // ignore: deprecated_member_use
     BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {
-      final bool allow = codec.decodeEnvelope(data);
+      final dynamic response = codec.decodeEnvelope(data);
+      bool allow = response;
+      if (response is Map) {
+        allow = response['allow'];
+        navigationCacheDirective = response;
+      }
       if (allow) {
         _loadUrl(url);
       }
     });
   }
 
+  void fakeSubframeNavigationRequests(List<String> urls, int count) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data = codec.encodeMethodCall(MethodCall(
+      'subframeNavigationRequests',
+      <dynamic, dynamic>{'urls': urls, 'count': count},
+    ));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {});
+  }
+
+  void fakePageLoadMetrics(Map<String, dynamic> metrics) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data =
+        codec.encodeMethodCall(MethodCall('onPageLoadMetrics', metrics));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {});
+  }
+
+  void fakeNavigationStateChanged(Map<String, dynamic> state) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data =
+        codec.encodeMethodCall(MethodCall('navigationStateChanged', state));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {});
+  }
+
+  void fakeRenderProcessGone(String url, RendererPriority priorityAtExit) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data = codec.encodeMethodCall(MethodCall(
+      'onRenderProcessGone',
+      <String, dynamic>{
+        'url': url,
+        'didCrash': false,
+        'rendererPriorityAtExit': priorityAtExit.index,
+      },
+    ));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {});
+  }
+
+  void fakeHibernationEnded(String url, String stateKey) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data = codec.encodeMethodCall(MethodCall(
+      'onHibernationEnded',
+      <String, dynamic>{'url': url, 'stateKey': stateKey},
+    ));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {});
+  }
+
+  void fakeMemoryStateChanged(WebViewMemoryState state) {
+    final StandardMethodCodec codec = const StandardMethodCodec();
+    final ByteData data = codec
+        .encodeMethodCall(MethodCall('onMemoryStateChanged', state.index));
+    // TODO(hterkelsen): Remove this when defaultBinaryMessages is in stable.
+    // https://github.com/flutter/flutter/issues/33446
+    // ignore: deprecated_member_use
+    BinaryMessages.handlePlatformMessage(channel.name, data, (ByteData data) {});
+  }
+
   void fakeOnPageFinishedCallback() {
+    if (methodCallMetricsEnabled) {
+      events.update('onPageFinished', (int count) => count + 1,
+          ifAbsent: () => 1);
+    }
     final StandardMethodCodec codec = const StandardMethodCodec();
 
     final ByteData data = codec.encodeMethodCall(MethodCall(
@@ -996,6 +2578,8 @@ class FakePlatformWebView {
 
 class _FakePlatformViewsController {
   FakePlatformWebView lastCreatedView;
+  // The views that are not disposed, by id.
+  Map<int, FakePlatformWebView> views = <int, FakePlatformWebView>{};
 
   Future<dynamic> fakePlatformViewsMethodHandler(MethodCall call) {
     switch (call.method) {
@@ -1006,7 +2590,13 @@ class _FakePlatformViewsController {
           args['id'],
           params,
         );
+        views[args['id']] = lastCreatedView;
         return Future<int>.sync(() => 1);
+      case 'dispose':
+        final dynamic id =
+            call.arguments is Map ? call.arguments['id'] : call.arguments;
+        views.remove(id);
+        return Future<void>.sync(() {});
       default:
         return Future<void>.sync(() {});
     }
@@ -1014,6 +2604,7 @@ class _FakePlatformViewsController {
 
   void reset() {
     lastCreatedView = null;
+    views.clear();
   }
 }
 
@@ -1036,8 +2627,10 @@ class _FakeCookieManager {
   }
 
   bool hasCookies = true;
+  List<Map<dynamic, dynamic>> cookies = <Map<dynamic, dynamic>>[];
+  int flushes = 0;
 
-  Future<bool> onMethodCall(MethodCall call) {
+  Future<dynamic> onMethodCall(MethodCall call) {
     switch (call.method) {
       case 'clearCookies':
         bool hadCookies = false;
@@ -1049,16 +2642,201 @@ class _FakeCookieManager {
           return hadCookies;
         });
         break;
+      case 'setCookies':
+        cookies.addAll(List<Map<dynamic, dynamic>>.from(call.arguments));
+        return Future<void>.sync(() {});
+      case 'getCookies':
+        return Future<List<Map<String, String>>>.sync(() => cookies
+            .where((Map<dynamic, dynamic> cookie) =>
+                cookie['url'] == call.arguments)
+            .map((Map<dynamic, dynamic> cookie) => <String, String>{
+                  'name': cookie['name'],
+                  'value': cookie['value'],
+                })
+            .toList());
+      case 'removeCookies':
+        final int count = cookies.length;
+        cookies.removeWhere((Map<dynamic, dynamic> cookie) =>
+            cookie['url'] == call.arguments['url'] ||
+            cookie['domain'] == call.arguments['domain']);
+        return Future<int>.sync(() => count - cookies.length);
+      case 'flush':
+        flushes++;
+        return Future<void>.sync(() {});
     }
     return Future<bool>.sync(() => null);
   }
 
   void reset() {
     hasCookies = true;
+    cookies.clear();
+    flushes = 0;
+  }
+}
+
+class _FakeWebViewManager {
+  _FakeWebViewManager(this.platformViewsController) {
+    final MethodChannel channel = const MethodChannel(
+      'plugins.flutter.io/webview_manager',
+      StandardMethodCodec(),
+    );
+    channel.setMockMethodCallHandler(onMethodCall);
+  }
+
+  final _FakePlatformViewsController platformViewsController;
+  MethodCall lastMethodCall;
+  // Returned as is by getPoolStats and getCreationMetrics.
+  Map<String, dynamic> poolStats;
+  Map<String, dynamic> creationMetrics;
+  int poolMaxSize;
+  WebViewPoolWarmUpPolicy poolWarmUpPolicy;
+  bool warmedUp = false;
+  int resourceCacheMaxBytes;
+  List<String> resourceCacheUrlPatterns;
+  List<String> resourceCacheRevalidateUrlPatterns;
+  int resourceCacheMaxMemoryBytes;
+  int resourceCacheClears = 0;
+  List<String> contentBlocklist;
+  // Returned as is by setContentBlocklist.
+  int contentBlocklistHosts = 0;
+  // Process wide like on the platform.
+  bool get methodCallMetricsEnabled =>
+      FakePlatformWebView.methodCallMetricsEnabled;
+  set methodCallMetricsEnabled(bool enabled) =>
+      FakePlatformWebView.methodCallMetricsEnabled = enabled;
+  bool tracingEnabled = false;
+  int maxLoadedBackgroundWebViews;
+  int stateStoreMaxEntries;
+  int stateStoreMaxDiskEntries;
+  List<String> removedSavedStates = <String>[];
+  int savedStatesClears = 0;
+  Map<String, Map<dynamic, dynamic>> assetOrigins =
+      <String, Map<dynamic, dynamic>>{};
+
+  Future<dynamic> onMethodCall(MethodCall call) {
+    lastMethodCall = call;
+    switch (call.method) {
+      case 'configurePool':
+        poolMaxSize = call.arguments['maxSize'];
+        poolWarmUpPolicy =
+            WebViewPoolWarmUpPolicy.values[call.arguments['warmUp']];
+        return Future<void>.sync(() {});
+      case 'getCreationMetrics':
+        return Future<Map<String, dynamic>>.sync(() => creationMetrics);
+      case 'configureResourceCache':
+        resourceCacheMaxBytes = call.arguments['maxBytes'];
+        resourceCacheUrlPatterns =
+            List<String>.from(call.arguments['urlPatterns']);
+        resourceCacheRevalidateUrlPatterns =
+            List<String>.from(call.arguments['revalidateUrlPatterns']);
+        resourceCacheMaxMemoryBytes = call.arguments['maxMemoryBytes'];
+        return Future<void>.sync(() {});
+      case 'getResourceCacheStats':
+        return Future<Map<String, dynamic>>.sync(() => <String, dynamic>{
+              'hits': 4,
+              'misses': 1,
+              'bytesSaved': 400,
+              'sizeBytes': 100,
+              'entries': 1,
+              'maxBytes': resourceCacheMaxBytes,
+              'memoryHits': 3,
+              'memorySizeBytes': 50,
+              'revalidations': 2,
+              'revalidationUpdates': 1,
+            });
+      case 'clearResourceCache':
+        resourceCacheClears++;
+        return Future<void>.sync(() {});
+      case 'registerAssetOrigin':
+        assetOrigins[call.arguments['origin']] = call.arguments;
+        return Future<void>.sync(() {});
+      case 'unregisterAssetOrigin':
+        assetOrigins.remove(call.arguments);
+        return Future<void>.sync(() {});
+      case 'setMethodCallMetricsEnabled':
+        methodCallMetricsEnabled = call.arguments;
+        return Future<void>.sync(() {});
+      case 'setTracingEnabled':
+        tracingEnabled = call.arguments;
+        return Future<void>.sync(() {});
+      case 'configureMemoryPolicy':
+        maxLoadedBackgroundWebViews = call.arguments;
+        return Future<void>.sync(() {});
+      case 'configureStateStore':
+        stateStoreMaxEntries = call.arguments['maxEntries'];
+        stateStoreMaxDiskEntries = call.arguments['maxDiskEntries'];
+        return Future<void>.sync(() {});
+      case 'getStateStoreStats':
+        return Future<Map<String, dynamic>>.sync(() => <String, dynamic>{
+              'entries': 2,
+              'saves': 5,
+              'restores': 3,
+              'diskRestores': 1,
+              'misses': 1,
+            });
+      case 'removeSavedState':
+        removedSavedStates.add(call.arguments);
+        return Future<void>.sync(() {});
+      case 'clearSavedStates':
+        savedStatesClears++;
+        return Future<void>.sync(() {});
+      case 'getMemoryStats':
+        final Iterable<FakePlatformWebView> views =
+            platformViewsController.views.values;
+        final Iterable<FakePlatformWebView> backgroundViews =
+            views.where((FakePlatformWebView view) => !view.active);
+        return Future<Map<String, dynamic>>.value(<String, dynamic>{
+          'live': views.length,
+          'background': backgroundViews.length,
+          // The fake doesn't apply a memory policy to the background views.
+          'paused': 0,
+          'rendererWaived': 0,
+          'hibernated': 0,
+          'hibernations': 0,
+          'trims': 0,
+          'lastTrimLevel': 0,
+          'timersPaused': false,
+          'appPaused': false,
+        });
+      case 'setContentBlocklist':
+        contentBlocklist = List<String>.from(call.arguments);
+        return Future<int>.sync(() => contentBlocklistHosts);
+      case 'warmUp':
+        final bool didWarmUp = !warmedUp;
+        warmedUp = true;
+        return Future<bool>.sync(() => didWarmUp);
+      case 'getPoolStats':
+        return Future<Map<String, dynamic>>.sync(() => poolStats);
+    }
+    return Future<void>.sync(() {});
+  }
+
+  void reset() {
+    lastMethodCall = null;
+    poolStats = null;
+    creationMetrics = null;
+    poolMaxSize = null;
+    poolWarmUpPolicy = null;
+    warmedUp = false;
+    resourceCacheMaxBytes = null;
+    resourceCacheUrlPatterns = null;
+    resourceCacheRevalidateUrlPatterns = null;
+    resourceCacheMaxMemoryBytes = null;
+    resourceCacheClears = 0;
+    assetOrigins.clear();
+    contentBlocklist = null;
+    contentBlocklistHosts = 0;
+    methodCallMetricsEnabled = false;
+    tracingEnabled = false;
+    maxLoadedBackgroundWebViews = null;
+    stateStoreMaxEntries = null;
+    stateStoreMaxDiskEntries = null;
+    removedSavedStates.clear();
+    savedStatesClears = 0;
   }
 }
 
-class MyWebViewPlatform implements WebViewPlatform {
+class MyWebViewPlatform extends WebViewPlatform {
   MyWebViewPlatformController lastPlatformBuilt;
 
   @override